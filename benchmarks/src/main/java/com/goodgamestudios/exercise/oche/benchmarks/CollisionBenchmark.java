@@ -0,0 +1,53 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full collision pass. The pass removes collided entities, so entities are restored before every invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark {
+
+    @Param({"61", "250", "1000"})
+    public int entityCount;
+
+    private Game game;
+    private EntityLogicMediator mediator;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        this.game = Game.createHeadless();
+        this.game.initGame();
+        this.mediator = this.game.getEntityMediator();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreEntities() {
+        this.mediator.restoreEntities(this.game, EntityFixture.create(this.game, this.entityCount), 1);
+    }
+
+    @Benchmark
+    public void calculateCollisionsAndRemoveCollidedEntities() {
+        this.mediator.calculateCollisionsAndRemoveCollidedEntities();
+    }
+}
@@ -0,0 +1,74 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.ecs.CollisionSystem;
+import com.goodgamestudios.exercise.oche.ecs.MovementSystem;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Movement and collision systems of entity-component-system core over the same entity sets
+ * as EntityLogicBenchmark and CollisionBenchmark use, so both cores could be compared.
+ * Parallel threshold 0 runs systems in common fork/join pool, max int runs them serially.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EcsBenchmark {
+
+    @Param({"61", "250", "1000", "4000"})
+    public int entityCount;
+
+    @Param({"2147483647", "0"})
+    public int parallelThreshold;
+
+    private World world;
+    private MovementSystem movementSystem;
+    private CollisionSystem collisionSystem;
+    private CollisionSystem.DamageListener listener;
+
+    @Setup(Level.Trial)
+    public void createWorld() {
+        this.world = new World();
+        this.movementSystem = new MovementSystem(ForkJoinPool.commonPool(), this.parallelThreshold);
+        this.collisionSystem = new CollisionSystem(ForkJoinPool.commonPool(), this.parallelThreshold);
+        this.listener = new CollisionSystem.DamageListener() {
+            @Override
+            public void entityDamaged(World world, int index, boolean lethal) {
+            }
+        };
+    }
+
+    @Setup(Level.Invocation)
+    public void fillWorld() {
+        EntityFixture.fill(this.world, this.entityCount);
+    }
+
+    @Benchmark
+    public boolean move() {
+        // zero delta keeps entities in place, so every invocation does the same work
+        return this.movementSystem.update(this.world, 0);
+    }
+
+    @Benchmark
+    public void collide() {
+        this.collisionSystem.update(this.world, this.listener);
+        this.world.flush();
+    }
+}
@@ -0,0 +1,57 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Narrow phase collision test of one shot against every entity of the set
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EntityBenchmark {
+
+    @Param({"61", "250", "1000"})
+    public int entityCount;
+
+    private Entity[] entities;
+    private Entity probe;
+
+    @Setup(Level.Trial)
+    public void createEntities() {
+        Game game = Game.createHeadless();
+        List<Entity> list = EntityFixture.create(game, this.entityCount);
+        this.entities = list.toArray(new Entity[list.size()]);
+        this.probe = new ShotEntity(game, 300, 120);
+    }
+
+    @Benchmark
+    public int collidesWith() {
+        int hits = 0;
+        for (Entity entity : this.entities) {
+            if (this.probe.collidesWith(entity)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,82 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.Archetypes;
+import com.goodgamestudios.exercise.oche.ecs.Components;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds reproducible entity sets of given size for benchmarks.
+ * Roughly 80% of entities are aliens in formation rows, the rest are player and alien shots
+ * spread over the screen, plus the player ship.
+ */
+public final class EntityFixture {
+    private static final long SEED = 42;
+    private static final int SCREEN_WIDTH = 760;
+    //aliens are kept above the ship, otherwise ship collision clears the whole game
+    private static final int FORMATION_HEIGHT = 400;
+    private static final int ALIENS_PER_ROW = 12;
+    private static final int ALIEN_COL_DISTANCE = 50;
+    private static final int ALIEN_ROW_DISTANCE = 30;
+    private static final double ALIEN_SHARE = 0.8;
+
+    private EntityFixture() {
+    }
+
+    /**
+     * @param game        Game entities belong to
+     * @param entityCount Number of entities including the ship
+     * @return new entity list, the ship is the first one
+     */
+    public static List<Entity> create(Game game, int entityCount) {
+        Random random = new Random(SEED);
+        List<Entity> entities = new ArrayList<Entity>(entityCount);
+        entities.add(new ShipEntity(game, 370, 550));
+
+        int alienCount = (int) ((entityCount - 1) * ALIEN_SHARE);
+        for (int i = 0; i < alienCount; i++) {
+            int x = 100 + (i % ALIENS_PER_ROW) * ALIEN_COL_DISTANCE;
+            int y = 50 + ((i / ALIENS_PER_ROW) * ALIEN_ROW_DISTANCE) % FORMATION_HEIGHT;
+            entities.add(new AlienEntity(game, x, y));
+        }
+        for (int i = entities.size(); i < entityCount; i++) {
+            int x = random.nextInt(SCREEN_WIDTH);
+            int y = random.nextInt(FORMATION_HEIGHT);
+            entities.add(i % 2 == 0 ? new ShotEntity(game, x, y) : new AlienShotEntity(game, x, y));
+        }
+        return entities;
+    }
+
+    /**
+     * The same entity set as create() but as component data of entity-component-system core
+     *
+     * @param world       World to fill, it is cleared first
+     * @param entityCount Number of entities including the ship
+     */
+    public static void fill(World world, int entityCount) {
+        Random random = new Random(SEED);
+        world.clear();
+        Archetypes.createShip(world, 370, 550);
+
+        int alienCount = (int) ((entityCount - 1) * ALIEN_SHARE);
+        for (int i = 0; i < alienCount; i++) {
+            int x = 100 + (i % ALIENS_PER_ROW) * ALIEN_COL_DISTANCE;
+            int y = 50 + ((i / ALIENS_PER_ROW) * ALIEN_ROW_DISTANCE) % FORMATION_HEIGHT;
+            Archetypes.createAlien(world, x, y);
+        }
+        for (int i = world.size(); i < entityCount; i++) {
+            int x = random.nextInt(SCREEN_WIDTH);
+            int y = random.nextInt(FORMATION_HEIGHT);
+            Archetypes.createShot(world, i % 2 == 0 ? Components.KIND_SHOT : Components.KIND_ALIEN_SHOT, x, y);
+        }
+    }
+}
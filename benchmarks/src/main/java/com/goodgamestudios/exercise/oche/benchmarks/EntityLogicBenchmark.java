@@ -0,0 +1,82 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick work of EntityLogicMediator which does not remove entities.
+ * Entities are restored before every iteration, so alien speedup and fired shots do not pile up across iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EntityLogicBenchmark {
+    //Period alien fire runs at in the game loop
+    private static final long ALIEN_FIRE_DELTA = 50;
+
+    @Param({"61", "250", "1000"})
+    public int entityCount;
+
+    private Game game;
+    private EntityLogicMediator mediator;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        this.game = Game.createHeadless();
+        this.game.initGame();
+        this.mediator = this.game.getEntityMediator();
+    }
+
+    @Setup(Level.Iteration)
+    public void restoreEntities() {
+        this.mediator.restoreEntities(this.game, EntityFixture.create(this.game, this.entityCount), 1);
+    }
+
+    /**
+     * Zero delta keeps entities in place (no shot leaves the screen), so only traversal and dispatch are measured
+     */
+    @Benchmark
+    public void moveAllEntities() {
+        this.mediator.moveAllEntities(0);
+    }
+
+    @Benchmark
+    public void processAlienShot() {
+        this.mediator.processAlienShot(ALIEN_FIRE_DELTA);
+    }
+
+    /**
+     * Every call kills an alien and speeds up the rest, so entities are restored before each one
+     * and the alien count never runs out
+     */
+    @Benchmark
+    public void notifyAlienKilled(KilledAlienState state) {
+        this.mediator.notifyAlienKilled();
+    }
+
+    @State(Scope.Thread)
+    public static class KilledAlienState {
+
+        @Setup(Level.Invocation)
+        public void restoreEntities(EntityLogicBenchmark benchmark) {
+            benchmark.restoreEntities();
+        }
+    }
+}
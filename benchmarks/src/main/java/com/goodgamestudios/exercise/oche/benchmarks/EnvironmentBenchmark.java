@@ -0,0 +1,57 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.env.BatchEnvironment;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Environment steps per second of batch environment, every operation is one step of one environment
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EnvironmentBenchmark {
+    private static final int BATCH_SIZE = 64;
+    private static final int ACTION_SET_COUNT = 256;
+
+    private BatchEnvironment batch;
+    private int[][] actionSets;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void createBatch() {
+        this.batch = new BatchEnvironment(BATCH_SIZE, 42);
+        this.batch.reset();
+        Random random = new Random(7);
+        this.actionSets = new int[ACTION_SET_COUNT][BATCH_SIZE];
+        for (int[] actions : this.actionSets) {
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = random.nextInt(KeyInputLogicMediator.CONTROL_PAUSE);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public float[] step() {
+        this.batch.step(this.actionSets[this.step++ & (ACTION_SET_COUNT - 1)]);
+        return this.batch.getObservations();
+    }
+}
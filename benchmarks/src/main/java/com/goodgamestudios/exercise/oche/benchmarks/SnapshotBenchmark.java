@@ -0,0 +1,158 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotDecoder;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delta snapshot encoding and decoding of recorded game states, every operation is one tick.
+ * Setup prints entities and bytes per tick, encode time per entity is the operation time divided by
+ * the average entity count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SnapshotBenchmark {
+    private static final long TICK_DELTA = 10;
+    private static final int FRAME_COUNT = 4096;
+    //Full snapshot format: header and int id, byte kind, short x, short y per entity
+    private static final int FULL_HEADER_SIZE = 8;
+    private static final int FULL_ENTITY_SIZE = 9;
+
+    //Recorded states, entities of frame f are frameStart[f] .. frameStart[f + 1] - 1
+    private int[] frameStart;
+    private int[] scores;
+    private int[] lifeCounts;
+    private int[] ids;
+    private byte[] kinds;
+    private int[] xs;
+    private int[] ys;
+
+    private SnapshotEncoder encoder;
+    private ByteBuffer encodeBuffer;
+    private int encodeFrame;
+
+    //Encoded stream of all frames, the first one is a keyframe
+    private ByteBuffer stream;
+    private SnapshotDecoder decoder;
+    private int decodeFrame;
+
+    @Setup(Level.Trial)
+    public void recordGame() {
+        Game game = Game.createSession(new Random(42));
+        game.initGame();
+        KeyInputLogicMediator controls = game.getKeyInputLogicMediator();
+        controls.restart();
+        World world = ((EcsLogicMediator) game.getEntityLogic()).getWorld();
+        Random random = new Random(7);
+
+        this.frameStart = new int[FRAME_COUNT + 1];
+        this.scores = new int[FRAME_COUNT];
+        this.lifeCounts = new int[FRAME_COUNT];
+        int capacity = 1024;
+        this.ids = new int[capacity];
+        this.kinds = new byte[capacity];
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        int count = 0;
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            if (controls.isWaitingForKeyPress()) {
+                controls.restart();
+            } else {
+                controls.setControls(KeyInputLogicMediator.CONTROL_FIRE
+                        | (random.nextBoolean() ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT));
+            }
+            game.tick(TICK_DELTA);
+            this.scores[frame] = game.getStateLogicMediator().getScore();
+            this.lifeCounts[frame] = game.getEntityLogic().getPlayerLifeCount();
+            for (int i = 0; i < world.size(); i++) {
+                if (count == capacity) {
+                    capacity *= 2;
+                    this.ids = Arrays.copyOf(this.ids, capacity);
+                    this.kinds = Arrays.copyOf(this.kinds, capacity);
+                    this.xs = Arrays.copyOf(this.xs, capacity);
+                    this.ys = Arrays.copyOf(this.ys, capacity);
+                }
+                this.ids[count] = world.idAt(i);
+                this.kinds[count] = world.getKind(i);
+                this.xs[count] = (int) world.getX(i);
+                this.ys[count] = (int) world.getY(i);
+                count++;
+            }
+            this.frameStart[frame + 1] = count;
+        }
+
+        this.encoder = new SnapshotEncoder();
+        this.encodeBuffer = ByteBuffer.allocate(64 * 1024);
+        this.stream = ByteBuffer.allocate(FRAME_COUNT * 1024);
+        SnapshotEncoder streamEncoder = new SnapshotEncoder();
+        long keyframeBytes = 0;
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            int bytes = encode(streamEncoder, frame, this.stream);
+            if (frame == 0) {
+                keyframeBytes = bytes;
+            }
+        }
+        this.stream.flip();
+        this.decoder = new SnapshotDecoder();
+
+        double entitiesPerTick = count / (double) FRAME_COUNT;
+        double deltaBytesPerTick = (this.stream.limit() - keyframeBytes) / (double) (FRAME_COUNT - 1);
+        System.out.println(String.format(Locale.ROOT,
+                "%nentities/tick: %.1f delta bytes/tick: %.1f full bytes/tick: %.1f keyframe bytes: %d",
+                entitiesPerTick, deltaBytesPerTick, FULL_HEADER_SIZE + entitiesPerTick * FULL_ENTITY_SIZE,
+                keyframeBytes));
+    }
+
+    @Benchmark
+    public int encode() {
+        if (this.encodeFrame == FRAME_COUNT) {
+            this.encodeFrame = 0;
+            this.encoder.reset();
+        }
+        this.encodeBuffer.clear();
+        return encode(this.encoder, this.encodeFrame++, this.encodeBuffer);
+    }
+
+    @Benchmark
+    public int decode() {
+        if (this.decodeFrame == FRAME_COUNT) {
+            this.decodeFrame = 0;
+            this.stream.rewind();
+        }
+        this.decodeFrame++;
+        this.decoder.decode(this.stream);
+        return this.decoder.getEntityCount();
+    }
+
+    private int encode(SnapshotEncoder encoder, int frame, ByteBuffer buffer) {
+        encoder.begin(frame, this.scores[frame], this.lifeCounts[frame], 0);
+        for (int k = this.frameStart[frame]; k < this.frameStart[frame + 1]; k++) {
+            encoder.addEntity(this.ids[k], this.kinds[k], this.xs[k], this.ys[k]);
+        }
+        return encoder.finish(buffer);
+    }
+}
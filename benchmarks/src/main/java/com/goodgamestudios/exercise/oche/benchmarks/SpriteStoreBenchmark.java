@@ -0,0 +1,54 @@
+package com.goodgamestudios.exercise.oche.benchmarks;
+
+import com.goodgamestudios.exercise.oche.sprites.Sprite;
+import com.goodgamestudios.exercise.oche.sprites.SpriteStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached sprite lookups, one lookup per entity as it happens when entities are created
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SpriteStoreBenchmark {
+    private static final String[] REFS = {
+            "sprites/ship.gif", "sprites/alien.gif", "sprites/shot.gif", "sprites/alien_shot.gif"};
+
+    @Param({"61", "250", "1000"})
+    public int entityCount;
+
+    private SpriteStore store;
+
+    @Setup(Level.Trial)
+    public void warmCache() {
+        this.store = SpriteStore.get();
+        for (String ref : REFS) {
+            this.store.getSprite(ref);
+        }
+    }
+
+    @Benchmark
+    public void getSprite(Blackhole blackhole) {
+        for (int i = 0; i < this.entityCount; i++) {
+            Sprite sprite = this.store.getSprite(REFS[i % REFS.length]);
+            blackhole.consume(sprite);
+        }
+    }
+}
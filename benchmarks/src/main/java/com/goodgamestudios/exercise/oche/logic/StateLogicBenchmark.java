@@ -0,0 +1,73 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import com.goodgamestudios.exercise.oche.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Highscore table work of StateLogicMediator. Lives in the logic package to reach package-private parser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StateLogicBenchmark {
+
+    @Param({"61", "250", "1000"})
+    public int entityCount;
+
+    private StateLogicMediator stateMediator;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void createGame() throws IOException {
+        // attempts made by the benchmark must not get into the highscores of the real game
+        File dataDirectory = Files.createTempDirectory("air-defender-bench").toFile();
+        System.setProperty(StateLogicMediator.DATA_DIRECTORY_PROPERTY, dataDirectory.getPath());
+        Game game = Game.createHeadless();
+        game.initGame();
+        this.stateMediator = StateLogicMediator.getInstance();
+        this.lines = new String[this.entityCount];
+        for (int i = 0; i < this.entityCount; i++) {
+            this.lines[i] = i + ";" + (i % 6) + ";" + (1444400000000L + i * 1000L);
+        }
+    }
+
+    /**
+     * makeNewAttempt is a thin wrapper which builds the attempt for mergeGameAttemptsToGetTopTen,
+     * the score is varied so the attempt competes for the top ten
+     */
+    @Benchmark
+    public void mergeGameAttemptsToGetTopTen() {
+        this.stateMediator.setScore(this.stateMediator.getScore() + 1);
+        this.stateMediator.makeNewAttempt();
+    }
+
+    /**
+     * Parse one highscore line per entity
+     */
+    @Benchmark
+    public void valueOfCSVLikeString(Blackhole blackhole) {
+        for (String line : this.lines) {
+            blackhole.consume(this.stateMediator.valueOfCSVLikeString(line));
+        }
+    }
+}
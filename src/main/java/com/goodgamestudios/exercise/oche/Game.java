@@ -1,15 +1,33 @@
 package com.goodgamestudios.exercise.oche;
 
-import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.clip.ClipRecorder;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.EntityLogic;
 import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.GameEvent;
+import com.goodgamestudios.exercise.oche.logic.GameEventQueue;
 import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.SaveGameLogicMediator;
 import com.goodgamestudios.exercise.oche.logic.StateLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.TickScheduler;
+import com.goodgamestudios.exercise.oche.logic.TickSystem;
+import com.goodgamestudios.exercise.oche.metrics.EntityMetrics;
+import com.goodgamestudios.exercise.oche.metrics.FramePhase;
+import com.goodgamestudios.exercise.oche.metrics.FrameProfiler;
+import com.goodgamestudios.exercise.oche.metrics.MetricsHttpServer;
+import com.goodgamestudios.exercise.oche.metrics.QualityGovernor;
+import com.goodgamestudios.exercise.oche.metrics.QualityLevel;
+import com.goodgamestudios.exercise.oche.metrics.TickEvent;
+import com.goodgamestudios.exercise.oche.particles.ParticleSystem;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,13 +45,22 @@ import java.util.logging.Logger;
 public class Game extends Canvas {
     private static final Logger LOGGER = Logger.getLogger(Game.class.getName());
 
+    //System property which switches the game to entity-component-system core
+    public static final String ECS_CORE_PROPERTY = "airdefender.ecs";
+
     private static final String THREAD_KAPUT = "Unexpected thread error {}";
+    private static final String METRICS_KAPUT = "Metrics endpoint could not be started {}";
+    //Never committed, tells whether a recording has tick events enabled
+    private static final TickEvent TICK_PROBE = new TickEvent();
 
-    private static final int GAME_X_RESOLUTION = 800;
-    private static final int GAME_Y_RESOLUTION = 600;
+    public static final int GAME_X_RESOLUTION = 800;
+    public static final int GAME_Y_RESOLUTION = 600;
     private static final int GAME_BUFFER_STRATEGY = 2;
 
     private static final String PRESS_ANY_KEY_MSG = "Press any key";
+    private static final String DEATH_MSG = "Oh no! They got you, try again?";
+    private static final String WIN_MSG = "Well done! You Win!";
+    private static final String PAUSE_MSG = "Paused";
     private static final int PRINT_SCREEN_WIDTH = 800;
     private static final int PRINT_SCREEN_HEIGHT_MSG = 250;
     private static final int PRINT_SCREEN_HEIGHT_ANY_KEY_MSG = 300;
@@ -41,29 +68,213 @@ public class Game extends Canvas {
     private static final int PRINT_HUD_X = 10;
     private static final int PRINT_HUD_Y = 20;
     private static final int SLEEP_PERIOD = 10;
+    private static final long AUTOSAVE_PERIOD = 3000;
+    private static final String CLIPS_DIRECTORY = "clips";
+    private static final String CLIP_DEATH = "death";
+    private static final String CLIP_WIN = "win";
+    private static final String CLIP_MANUAL = "manual";
+    private static final int BOSS_KILL_SCORE = 20;
+    //Rates of systems in runs per second of game time, headless game moves and collides every tick
+    private static final double SIMULATION_RATE = 120;
+    private static final double ALIEN_FIRE_RATE = 20;
+    //Work one loop could take, so the loop still makes 60 fps with the sleep after it
+    private static final long TICK_BUDGET_NANOS = 6000000L;
+    //Budgets of systems
+    private static final long ALIEN_FIRE_BUDGET_NANOS = 200000L;
+    private static final long MOVE_BUDGET_NANOS = 1000000L;
+    private static final long COLLISION_BUDGET_NANOS = 2000000L;
+    private static final long LOGIC_BUDGET_NANOS = 500000L;
+    private static final long INPUT_BUDGET_NANOS = 200000L;
+    private static final long EVENTS_BUDGET_NANOS = 1000000L;
+    private static final long AUTOSAVE_BUDGET_NANOS = 5000000L;
+    //Time one frame of 60 fps takes, the sleep of the loop included
+    private static final long FRAME_BUDGET_NANOS = 1000000000L / 60;
+    //Time left for the work of one frame, quality is degraded when the work takes longer
+    private static final long FRAME_WORK_BUDGET_NANOS = FRAME_BUDGET_NANOS - SLEEP_PERIOD * 1000000L;
+    //Alien shots per alien fire run when game sheds load
+    private static final int SHED_ALIEN_FIRE_CAP = 1;
 
     //The strategy that allows us to use accelerate page flipping
     private BufferStrategy strategy;
     //True if the game is currently "running", i.e. the game loop is looping
-    private boolean gameRunning = true;
-    //All Entity related logic
+    private volatile boolean gameRunning = true;
+    //All Entity related logic of classic entity core
     private EntityLogicMediator entityMediator;
+    //Entity logic the game runs on, classic entity core or entity-component-system core
+    private EntityLogic entityLogic;
     //All Key Input based related logic
     private KeyInputLogicMediator keyInputLogicMediator;
     //All State related logic
     private StateLogicMediator stateLogicMediator;
+    //Save and resume of in-progress game
+    private SaveGameLogicMediator saveGameLogicMediator;
+    //Per-phase timings of the game loop
+    private FrameProfiler frameProfiler;
+    //Runs systems of the game loop, each at its own rate
+    private final TickScheduler scheduler;
+    //Id of formation logic system, it runs when requested by entities
+    private int logicSystem;
+    //Game events raised during simulation phases, handled together after them
+    private GameEventQueue eventQueue;
+    //Explosion and hit effects, only windowed game has them as nobody sees particles of headless one
+    private ParticleSystem particleSystem;
+    //Instant replay of the last seconds, only windowed game with data directory has it
+    private ClipRecorder clipRecorder;
+    //True if the player asked to save the instant replay, set by key listener thread
+    private volatile boolean clipRequested;
+    //Prometheus endpoint, started only if its port is set by system property
+    private MetricsHttpServer metricsServer;
+    //Sheds load under frame time pressure, only windowed game has it
+    private QualityGovernor qualityGovernor;
+    //False when particles are dropped to shed load
+    private boolean effectsEnabled = true;
+    //Game time passed since the last drawn frame
+    private long undrawnTime;
+    //True if the previous loop was drawn, used to draw every other frame
+    private boolean lastLoopDrawn;
 
 
     //The message to display which waiting for a key press
     private String message;
-
-    //True if game logic needs to be applied this loop, normally as a result of a game event
-    private boolean logicRequiredThisLoop;
+    //HUD line drawn every frame, rebuilt only when score or life count changes
+    private String hudText;
+    //Score the HUD line was built for
+    private int hudScore = -1;
+    //Life count the HUD line was built for
+    private int hudLifeCount = -1;
+
+    //Game time in milliseconds, advanced by the time passed every loop. Entities use it instead of
+    //the wall clock, so headless games could be played faster than real time
+    private long gameTime;
+
+    //False for headless game which has no window and is driven without rendering (benchmarks, tests, bots)
+    private final boolean windowed;
+    //Source of chances of session game, null for games sharing mediators
+    private final Random sessionRandom;
 
     /**
      * Construct our game and set it running.
      */
     public Game() {
+        this(true, KeyInputLogicMediator.getInstance(), null);
+    }
+
+    private Game(boolean windowed, KeyInputLogicMediator keyInputLogicMediator, Random sessionRandom) {
+        this.windowed = windowed;
+        this.sessionRandom = sessionRandom;
+        this.keyInputLogicMediator = keyInputLogicMediator;
+        this.message = "";
+        this.eventQueue = new GameEventQueue();
+        this.scheduler = new TickScheduler(TICK_BUDGET_NANOS);
+        addSystems();
+        if (windowed) {
+            createWindow();
+        }
+    }
+
+    /**
+     * Create game without window, it could not run game loop but its logic could be driven directly
+     *
+     * @return new headless game, initGame() should be called before use
+     */
+    public static Game createHeadless() {
+        return new Game(false, KeyInputLogicMediator.getInstance(), null);
+    }
+
+    /**
+     * Create headless game which shares no state with other games, so many sessions could be played at once,
+     * each by its own thread. Session runs on entity-component-system core, has own controls and score,
+     * its attempts are kept in memory and it is never saved
+     *
+     * @param random source of alien fire chances, seeded random makes session reproducible
+     * @return new session game, initGame() should be called before use
+     */
+    public static Game createSession(Random random) {
+        return new Game(false, KeyInputLogicMediator.createForSession(), random);
+    }
+
+    /**
+     * Register game loop systems in the order they run. Alien fire is polled at lower rate than movement,
+     * firing intervals of aliens are longer than its period and their chances to fire are scaled by its delta. Formation logic runs on demand of entities,
+     * autosave of windowed game runs at idle
+     */
+    private void addSystems() {
+        double simulationRate = this.windowed ? SIMULATION_RATE : TickScheduler.EVERY_TICK;
+        this.scheduler.addSystem("alien_fire", ALIEN_FIRE_RATE, 0, ALIEN_FIRE_BUDGET_NANOS, FramePhase.ALIEN_SHOT,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        if (!keyInputLogicMediator.isWaitingForKeyPress()) {
+                            entityLogic.processAlienShot(delta);
+                        }
+                    }
+                });
+        this.scheduler.addSystem("move", simulationRate, 0, MOVE_BUDGET_NANOS, FramePhase.MOVE,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        if (!keyInputLogicMediator.isWaitingForKeyPress()) {
+                            entityLogic.moveAllEntities(delta);
+                        }
+                    }
+                });
+        this.scheduler.addSystem("collision", simulationRate, 0, COLLISION_BUDGET_NANOS, FramePhase.COLLISION,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        int entityCount = entityLogic.getEntityCount();
+                        entityLogic.calculateCollisionsAndRemoveCollidedEntities();
+                        if (frameProfiler != null) {
+                            frameProfiler.recordTick(entityCount,
+                                    entityLogic.getCollisionPairsTested(), entityLogic.getCollisionHits());
+                        }
+                    }
+                });
+        this.logicSystem = this.scheduler.addOnDemandSystem("logic", LOGIC_BUDGET_NANOS, FramePhase.LOGIC,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        entityLogic.doLogic();
+                    }
+                });
+        this.scheduler.addSystem("input", TickScheduler.EVERY_TICK, 0, INPUT_BUDGET_NANOS, FramePhase.INPUT,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        processInput();
+                    }
+                });
+        this.scheduler.addSystem("events", TickScheduler.EVERY_TICK, 0, EVENTS_BUDGET_NANOS, FramePhase.EVENTS,
+                new TickSystem() {
+                    @Override
+                    public void update(long delta) {
+                        processEvents();
+                        if (clipRequested) {
+                            clipRequested = false;
+                            saveClip(CLIP_MANUAL);
+                        }
+                    }
+                });
+        if (this.windowed) {
+            // periodically save the game, so it could be resumed even after crash,
+            // attempts appended since the last run are forced to disk too
+            this.scheduler.addIdleSystem("autosave", AUTOSAVE_PERIOD, AUTOSAVE_BUDGET_NANOS, FramePhase.AUTOSAVE,
+                    new TickSystem() {
+                        @Override
+                        public void update(long delta) {
+                            if (!keyInputLogicMediator.isWaitingForKeyPress() && isSaveSupported()) {
+                                saveGameLogicMediator.save();
+                            }
+                            stateLogicMediator.flushAttemptLog();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Create window with accelerated canvas the game is drawn on
+     */
+    private void createWindow() {
         // create a frame to contain our game
         JFrame container = new JFrame("Air Defender");
 
@@ -86,17 +297,16 @@ public class Game extends Canvas {
         container.setVisible(true);
 
         // add a listener to respond to the user closing the window. If they
-        // do we'd like to exit the game
+        // do we'd like to stop the game loop, it saves the game and exits
         container.addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent e) {
-                System.exit(0);
+                stop();
             }
         });
 
         // add a key input system (defined below) to our canvas
         // so we can respond to key pressed
-        this.keyInputLogicMediator = KeyInputLogicMediator.getInstance();
-        addKeyListener(KeyInputLogicMediator.getInstance());
+        addKeyListener(this.keyInputLogicMediator);
 
         // request the focus so key events come to us
         requestFocus();
@@ -105,8 +315,6 @@ public class Game extends Canvas {
         // to manage our accelerated graphics
         createBufferStrategy(GAME_BUFFER_STRATEGY);
         strategy = getBufferStrategy();
-        this.message = "";
-        this.logicRequiredThisLoop = false;
     }
 
     /**
@@ -114,10 +322,99 @@ public class Game extends Canvas {
      * to see at startup
      */
     public void initGame() {
+        if (this.sessionRandom != null) {
+            initSession();
+            return;
+        }
         this.entityMediator = EntityLogicMediator.getInstance();
-        this.entityMediator.initEntities(this);
+        if (Boolean.getBoolean(ECS_CORE_PROPERTY)) {
+            this.entityLogic = new EcsLogicMediator();
+        } else {
+            this.entityLogic = this.entityMediator;
+        }
+        this.entityLogic.initEntities(this);
         this.keyInputLogicMediator.init(this);
         this.stateLogicMediator = StateLogicMediator.getInstance();
+        this.saveGameLogicMediator = SaveGameLogicMediator.getInstance();
+        this.saveGameLogicMediator.init(this, this.stateLogicMediator.getDataDirectory());
+        this.frameProfiler = FrameProfiler.getInstance();
+        this.frameProfiler.register();
+        this.scheduler.setProfiler(this.frameProfiler);
+        this.scheduler.register();
+        if (this.windowed) {
+            this.qualityGovernor = new QualityGovernor(FRAME_WORK_BUDGET_NANOS);
+            this.qualityGovernor.register();
+        }
+        startMetricsServer();
+        if (this.windowed) {
+            this.particleSystem = new ParticleSystem();
+            File dataDirectory = this.stateLogicMediator.getDataDirectory();
+            if (dataDirectory != null) {
+                this.clipRecorder = new ClipRecorder(new File(dataDirectory, CLIPS_DIRECTORY),
+                        GAME_X_RESOLUTION, GAME_Y_RESOLUTION);
+            }
+        }
+
+        // if previous game was interrupted, continue it from the pause
+        if (this.windowed && isSaveSupported()
+                && this.saveGameLogicMediator.hasSavedGame() && !this.saveGameLogicMediator.load()) {
+            this.saveGameLogicMediator.delete();
+        }
+        processEvents();
+    }
+
+    /**
+     * Initialise session game, only per-game mediators are used
+     */
+    private void initSession() {
+        this.entityLogic = new EcsLogicMediator(this.sessionRandom);
+        this.entityLogic.initEntities(this);
+        this.keyInputLogicMediator.init(this);
+        this.stateLogicMediator = StateLogicMediator.createForSession();
+    }
+
+    /**
+     * Request the game loop to finish, game is saved when loop is over
+     */
+    public void stop() {
+        this.gameRunning = false;
+    }
+
+    /**
+     * Save the game if it is still in progress, otherwise there is nothing to resume
+     */
+    public void saveOrDiscardGame() {
+        if (!isSaveSupported()) {
+            return;
+        }
+        if (isGameInProgress()) {
+            this.saveGameLogicMediator.save();
+        } else {
+            this.saveGameLogicMediator.delete();
+        }
+    }
+
+    /**
+     * Game is over so there is nothing to resume, headless games never touch the player's saved game
+     */
+    private void discardSavedGame() {
+        if (this.windowed && isSaveSupported()) {
+            this.saveGameLogicMediator.delete();
+        }
+    }
+
+    /**
+     * @return true if the game runs on classic entity core, only its entities are saved
+     */
+    private boolean isSaveSupported() {
+        return this.entityLogic == this.entityMediator;
+    }
+
+    /**
+     * @return true if game is played or paused, false if game is over or not started yet
+     */
+    private boolean isGameInProgress() {
+        return !this.keyInputLogicMediator.isWaitingForKeyPress() || this.keyInputLogicMediator.isPausePressed();
     }
 
     /**
@@ -126,43 +423,131 @@ public class Game extends Canvas {
      * game event)
      */
     public void updateLogic() {
-        logicRequiredThisLoop = true;
+        this.scheduler.request(this.logicSystem);
     }
 
     /**
-     * Notification that the player has died.
+     * Notification that the player has died, handled when simulation phases are over
      */
     public void notifyDeath() {
-        this.stateLogicMediator.makeNewAttempt();
-        message = "Oh no! They got you, try again?";
-        this.keyInputLogicMediator.setWaitingForKeyPress(true);
+        this.eventQueue.post(GameEvent.PLAYER_DIED);
     }
 
     /**
      * Notification that the player has won since all the aliens
-     * are dead.
+     * are dead, handled when simulation phases are over
      */
     public void notifyWin() {
-        this.stateLogicMediator.makeNewAttempt();
-        message = "Well done! You Win!";
-        this.keyInputLogicMediator.setWaitingForKeyPress(true);
+        this.eventQueue.post(GameEvent.WIN);
     }
 
     /**
-     * Notification that game is paused
+     * Notification that game is paused, handled when simulation phases are over
      */
     public void notifyPause() {
-        message = "Paused";
-        this.keyInputLogicMediator.setWaitingForKeyPress(true);
+        this.eventQueue.post(GameEvent.PAUSE);
     }
 
     /**
-     * Notification that an alien has been killed
+     * Notification that an alien has been killed, handled when simulation phases are over
      */
     public void notifyAlienKilled() {
-        // reduce the alient count, if there are none left, the player has won!
-        this.stateLogicMediator.incrementScore();
-        this.entityMediator.notifyAlienKilled();
+        this.eventQueue.post(GameEvent.ALIEN_KILLED);
+    }
+
+    /**
+     * Notification that the boss has been killed, handled when simulation phases are over
+     */
+    public void notifyBossKilled() {
+        this.eventQueue.post(GameEvent.BOSS_KILLED);
+    }
+
+    /**
+     * Notification that the player ship has been hit, handled when simulation phases are over
+     */
+    public void notifyPlayerHit() {
+        this.eventQueue.post(GameEvent.PLAYER_HIT);
+    }
+
+    /**
+     * Show explosion starting at the point, ignored by headless game
+     */
+    public void spawnExplosion(double x, double y) {
+        if (this.particleSystem != null && this.effectsEnabled) {
+            this.particleSystem.spawnExplosion(x, y);
+        }
+    }
+
+    /**
+     * Show sparks of a hit at the point, ignored by headless game
+     */
+    public void spawnHit(double x, double y) {
+        if (this.particleSystem != null && this.effectsEnabled) {
+            this.particleSystem.spawnHit(x, y);
+        }
+    }
+
+    /**
+     * Ask to save the instant replay, it is saved by the game loop
+     */
+    public void requestClip() {
+        this.clipRequested = true;
+    }
+
+    /**
+     * Hand the instant replay to its encoder, ignored by game without recorder
+     */
+    private void saveClip(String reason) {
+        if (this.clipRecorder != null) {
+            this.clipRecorder.save(reason);
+        }
+    }
+
+    /**
+     * Handle all game events of this tick in one batch. Kills and hits go first as they could
+     * lead to win or death, game over makes pause meaningless.
+     */
+    private void processEvents() {
+        if (this.eventQueue.isEmpty()) {
+            return;
+        }
+        for (int i = this.eventQueue.take(GameEvent.ALIEN_KILLED); i > 0; i--) {
+            // reduce the alient count, if there are none left, the player has won!
+            this.stateLogicMediator.incrementScore();
+            this.entityLogic.notifyAlienKilled();
+        }
+        for (int i = this.eventQueue.take(GameEvent.BOSS_KILLED); i > 0; i--) {
+            this.stateLogicMediator.addScore(BOSS_KILL_SCORE);
+        }
+        for (int i = this.eventQueue.take(GameEvent.PLAYER_HIT); i > 0; i--) {
+            this.entityLogic.notifyPlayerHit();
+        }
+
+        if (this.eventQueue.contains(GameEvent.PLAYER_DIED)) {
+            this.entityLogic.clearAllGameEntities();
+            finishAttempt(DEATH_MSG);
+            saveClip(CLIP_DEATH);
+        } else if (this.eventQueue.contains(GameEvent.WIN)) {
+            finishAttempt(WIN_MSG);
+            saveClip(CLIP_WIN);
+        } else if (this.eventQueue.contains(GameEvent.PAUSE)) {
+            message = PAUSE_MSG;
+            this.keyInputLogicMediator.setWaitingForKeyPress(true);
+        }
+        this.eventQueue.clear();
+    }
+
+    /**
+     * Game is over, save the attempt and wait for the player to start new game
+     *
+     * @param message message to show
+     */
+    private void finishAttempt(String message) {
+        this.stateLogicMediator.makeNewAttempt(this.entityLogic.getPlayerLifeCount());
+        discardSavedGame();
+        this.message = message;
+        this.keyInputLogicMediator.setPausePressed(false);
+        this.keyInputLogicMediator.setWaitingForKeyPress(true);
     }
 
     /**
@@ -170,11 +555,13 @@ public class Game extends Canvas {
      * play as is responsible for the following activities:
      * <p/>
      * - Working out the speed of the game loop to update moves
-     * - Moving the game entities
+     * - Running game systems, each at its own rate: alien fire, moving the game entities,
+     * collisions, formation logic, checking input, handling game events raised by entities
      * - Drawing the screen contents (entities, text)
-     * - Updating game events
-     * - Checking Input
+     * - Autosave of in-progress game when the loop has time to spare
      * <p/>
+     * Every phase of the loop is timed by frame profiler and reported as flight recorder event.
+     * Quality governor watches work time of frames and sheds load when it is over the budget.
      */
     public void gameLoop() {
         long lastLoopTime = System.currentTimeMillis();
@@ -186,73 +573,28 @@ public class Game extends Canvas {
             // move this loop
             long delta = System.currentTimeMillis() - lastLoopTime;
             lastLoopTime = System.currentTimeMillis();
-
-            // Get hold of a graphics context for the accelerated
-            // surface and blank it out
-            Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
-            g.setColor(Color.black);
-            g.fillRect(0, 0, GAME_X_RESOLUTION, GAME_Y_RESOLUTION);
-
-
-            // cycle round asking each entity to move itself
-            if (!this.keyInputLogicMediator.isWaitingForKeyPress()) {
-                this.entityMediator.processAlienShot();
-                this.entityMediator.moveAllEntities(delta);
+            this.gameTime += delta;
+            // event is created only if a recording wants it, so the tick does not allocate
+            TickEvent tickEvent = null;
+            if (TICK_PROBE.isEnabled()) {
+                tickEvent = new TickEvent();
+                tickEvent.begin();
             }
+            long frameStart = this.frameProfiler.beginFrame();
 
-            // cycle round drawing all the entities we have in the game
-            this.entityMediator.drawAllEntities(g);
-            //check collisions
-            this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
-
-            // if a game event has indicated that game logic should
-            // be resolved, cycle round every entity requesting that
-            // their personal logic should be considered.
-            if (logicRequiredThisLoop) {
-                this.entityMediator.doLogic();
-                logicRequiredThisLoop = false;
-            }
+            // run systems which are due, they record their phases themselves
+            this.scheduler.runTick(delta);
 
-            //HUD score logic
-            g.setColor(Color.white);
-            g.drawString(String.valueOf(
-                    "Score: " +
-                            this.stateLogicMediator.getScore() +
-                            " Life left: " +
-                            this.entityMediator.getShip().lifeLeft()), PRINT_HUD_X, PRINT_HUD_Y);
-
-            // if we're waiting for an "any key" press then draw the
-            // current message
-            if (this.keyInputLogicMediator.isWaitingForKeyPress()) {
-                g.setColor(Color.white);
-                g.drawString(message,
-                            (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth(message)) / PRINT_WIDTH_CORRECTIVE,
-                            PRINT_SCREEN_HEIGHT_MSG);
-                g.drawString(PRESS_ANY_KEY_MSG,
-                            (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth(PRESS_ANY_KEY_MSG)) / PRINT_WIDTH_CORRECTIVE,
-                            PRINT_SCREEN_HEIGHT_ANY_KEY_MSG);
-                this.stateLogicMediator.printAllAttempts(g);
+            // simulation runs every loop, but frames could be skipped to shed load
+            this.undrawnTime += delta;
+            if (shouldDraw()) {
+                draw(this.undrawnTime);
+                this.undrawnTime = 0;
             }
 
-            // finally, we've completed drawing so clear up the graphics
-            // and flip the buffer over
-            g.dispose();
-            strategy.show();
-
-            // resolve the movement of the ship. First assume the ship
-            // isn't moving. If either cursor key is pressed then
-            // update the movement appropraitely
-            ShipEntity ship = this.entityMediator.getShip();
-            ship.processKeyBasedMovement();
-
-            // if we're pressing fire, attempt to fire
-            if (this.keyInputLogicMediator.isFirePressed()) {
-                ship.tryToFire();
-            }
-            //if pause was pressed, make pause
-            if (this.keyInputLogicMediator.isPausePressed()) {
-                this.entityMediator.makePause();
-            }
+            // idle systems use the time left in this loop
+            this.scheduler.runIdle();
+            long phaseStart = System.nanoTime();
 
             // finally pause for a bit. Note: this should run us at about
             // 100 fps but on windows this might vary each loop due to
@@ -262,13 +604,199 @@ public class Game extends Canvas {
             } catch (Exception e) {
                 LOGGER.log(Level.SEVERE, THREAD_KAPUT, e.getMessage());
             }
+            this.frameProfiler.record(FramePhase.SLEEP, phaseStart);
+            this.frameProfiler.recordFrame(frameStart);
+            // the sleep is fixed, so only the work of the frame tells the governor about load
+            if (this.qualityGovernor.recordFrame(phaseStart - frameStart)) {
+                applyQuality(this.qualityGovernor.getQualityLevel());
+            }
+            if (tickEvent != null && tickEvent.shouldCommit()) {
+                tickEvent.fill(this.frameProfiler);
+                tickEvent.commit();
+            }
+        }
+        if (this.clipRecorder != null) {
+            this.clipRecorder.close();
+        }
+        if (this.metricsServer != null) {
+            this.metricsServer.stop();
+        }
+    }
+
+    /**
+     * Start Prometheus endpoint on loopback if the port is set, game goes on without it if port is busy
+     */
+    private void startMetricsServer() {
+        Integer port = Integer.getInteger(MetricsHttpServer.PORT_PROPERTY);
+        if (port == null || this.metricsServer != null) {
+            return;
+        }
+        MetricsHttpServer server = new MetricsHttpServer(port, this.frameProfiler, EntityMetrics.getInstance(),
+                this.stateLogicMediator.getHighScoreWriteHistogram());
+        server.setQualityGovernor(this.qualityGovernor);
+        try {
+            server.start();
+            this.metricsServer = server;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, METRICS_KAPUT, e.getMessage());
         }
     }
 
+    /**
+     * @return true if this loop should be drawn, every other loop is drawn when render rate is halved
+     */
+    private boolean shouldDraw() {
+        this.lastLoopDrawn = !this.lastLoopDrawn
+                || !this.qualityGovernor.getQualityLevel().isAtLeast(QualityLevel.HALF_RENDER_RATE);
+        return this.lastLoopDrawn;
+    }
+
+    /**
+     * Draw the screen contents: entities, particles, HUD and the message the game waits with
+     *
+     * @param delta Game time passed since the last drawn frame
+     */
+    private void draw(long delta) {
+        long phaseStart = System.nanoTime();
+
+        // Get hold of a graphics context for the accelerated
+        // surface and blank it out
+        Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+        g.setColor(Color.black);
+        g.fillRect(0, 0, GAME_X_RESOLUTION, GAME_Y_RESOLUTION);
+        phaseStart = this.frameProfiler.record(FramePhase.CLEAR, phaseStart);
+
+        // cycle round drawing all the entities we have in the game, particles are drawn over them
+        // and keep fading after game is over, only pause stops them
+        this.entityLogic.drawAllEntities(g);
+        if (this.effectsEnabled) {
+            if (!this.keyInputLogicMediator.isPausePressed()) {
+                this.particleSystem.update(delta);
+            }
+            this.particleSystem.draw(g);
+        }
+        captureClipFrame();
+        phaseStart = this.frameProfiler.record(FramePhase.DRAW, phaseStart);
+
+        //HUD score logic
+        g.setColor(Color.white);
+        g.drawString(getHudText(), PRINT_HUD_X, PRINT_HUD_Y);
+
+        // if we're waiting for an "any key" press then draw the
+        // current message
+        if (this.keyInputLogicMediator.isWaitingForKeyPress()) {
+            g.setColor(Color.white);
+            g.drawString(message,
+                        (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth(message)) / PRINT_WIDTH_CORRECTIVE,
+                        PRINT_SCREEN_HEIGHT_MSG);
+            g.drawString(PRESS_ANY_KEY_MSG,
+                        (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth(PRESS_ANY_KEY_MSG)) / PRINT_WIDTH_CORRECTIVE,
+                        PRINT_SCREEN_HEIGHT_ANY_KEY_MSG);
+            if (!this.qualityGovernor.getQualityLevel().isAtLeast(QualityLevel.NO_TOP_TEN)) {
+                this.stateLogicMediator.printAllAttempts(g);
+            }
+        }
+        phaseStart = this.frameProfiler.record(FramePhase.HUD, phaseStart);
+
+        // finally, we've completed drawing so clear up the graphics
+        // and flip the buffer over
+        g.dispose();
+        strategy.show();
+        this.frameProfiler.record(FramePhase.SHOW, phaseStart);
+    }
+
+    /**
+     * Apply quality level chosen by the governor, cuts of higher levels are kept by lower ones
+     */
+    private void applyQuality(QualityLevel level) {
+        boolean effects = !level.isAtLeast(QualityLevel.NO_EFFECTS);
+        if (!effects && this.effectsEnabled) {
+            this.particleSystem.clear();
+        }
+        this.effectsEnabled = effects;
+        this.entityLogic.setAlienFireCap(level.isAtLeast(QualityLevel.CAPPED_ALIEN_FIRE)
+                ? SHED_ALIEN_FIRE_CAP : EntityLogic.NO_ALIEN_FIRE_CAP);
+    }
+
+    /**
+     * Draw the scene once more into the instant replay frame, the back buffer of the strategy could not be read.
+     * Recorder decides if this frame is captured
+     */
+    private void captureClipFrame() {
+        if (this.clipRecorder == null) {
+            return;
+        }
+        Graphics2D clip = this.clipRecorder.beginCapture(this.gameTime);
+        if (clip != null) {
+            this.entityLogic.drawAllEntities(clip);
+            this.particleSystem.draw(clip);
+            this.clipRecorder.endCapture();
+        }
+    }
+
+    /**
+     * Advance the game by one step without drawing anything, the same systems as in the game loop
+     * are run in the same order. Used to drive headless games.
+     *
+     * @param delta The amount of time that has passed in milliseconds
+     */
+    public void tick(long delta) {
+        this.gameTime += delta;
+        this.scheduler.runTick(delta);
+    }
+
+    /**
+     * Apply pressed controls to the ship, pause is processed after it
+     */
+    private void processInput() {
+        this.entityLogic.processInput(this.keyInputLogicMediator);
+        //if pause was pressed, make pause
+        if (this.keyInputLogicMediator.isPausePressed()) {
+            this.entityLogic.makePause();
+        }
+    }
+
+    /**
+     * @return HUD line with current score and life count, the string is created only when they change
+     */
+    private String getHudText() {
+        int score = this.stateLogicMediator.getScore();
+        int lifeCount = this.entityLogic.getPlayerLifeCount();
+        if (score != this.hudScore || lifeCount != this.hudLifeCount) {
+            this.hudScore = score;
+            this.hudLifeCount = lifeCount;
+            this.hudText = "Score: " + score + " Life left: " + lifeCount;
+        }
+        return this.hudText;
+    }
+
+    /**
+     * @return Game time in milliseconds
+     */
+    public long getGameTime() {
+        return this.gameTime;
+    }
+
+    public TickScheduler getScheduler() {
+        return this.scheduler;
+    }
+
     public EntityLogicMediator getEntityMediator() {
         return this.entityMediator;
     }
 
+    public EntityLogic getEntityLogic() {
+        return this.entityLogic;
+    }
+
+    public KeyInputLogicMediator getKeyInputLogicMediator() {
+        return this.keyInputLogicMediator;
+    }
+
+    public StateLogicMediator getStateLogicMediator() {
+        return this.stateLogicMediator;
+    }
+
     /**
      * The entry point into the game. We'll simply create an
      * instance of class which will start the display and game
@@ -283,5 +811,7 @@ public class Game extends Canvas {
         // return until the game has finished running. Hence we are
         // using the actual main thread to run the game.
         g.gameLoop();
+        g.saveOrDiscardGame();
+        System.exit(0);
     }
 }
@@ -0,0 +1,144 @@
+package com.goodgamestudios.exercise.oche.bot;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+
+import java.util.List;
+
+/**
+ * Scripted player, it uses the same controls as keyboard player does.
+ * Bot keeps the fire pressed, steps aside from alien shots falling on the ship, otherwise
+ * moves under the nearest alien. From time to time game is paused and resumed,
+ * when game is over new one is started.
+ */
+public class BotPlayer {
+    private static final long PAUSE_PERIOD_TICKS = 3000;
+    private static final int PAUSE_LENGTH_TICKS = 50;
+    private static final int DODGE_HEIGHT = 120;
+    private static final int DODGE_WIDTH = 40;
+    private static final int AIM_TOLERANCE = 5;
+    private static final int SHOT_X_CORRECTIVE = 10;
+    private static final int LEFT_BOUNDARY = 10;
+    private static final int RIGHT_BOUNDARY = 750;
+
+    //Current game bot plays
+    private Game game;
+    //Controls bot is playing with
+    private KeyInputLogicMediator keyInputLogicMediator;
+    //Number of ticks bot has acted on
+    private long tickCount;
+    //Number of ticks game is paused for
+    private int pausedTicks;
+    //Number of games started by bot
+    private int gamesStarted;
+    //Number of games played to the end
+    private int gamesFinished;
+    //Number of pauses made
+    private int pauseCount;
+
+    public BotPlayer(Game game) {
+        if (game == null) {
+            throw new IllegalStateException("Could not be initialised with null game");
+        }
+        this.game = game;
+        this.keyInputLogicMediator = KeyInputLogicMediator.getInstance();
+    }
+
+    /**
+     * Decide which controls are pressed for the next tick, should be called before every tick
+     */
+    public void act() {
+        this.tickCount++;
+        if (this.keyInputLogicMediator.isWaitingForKeyPress()) {
+            if (this.keyInputLogicMediator.isPausePressed()) {
+                if (++this.pausedTicks >= PAUSE_LENGTH_TICKS) {
+                    this.pausedTicks = 0;
+                    this.keyInputLogicMediator.resume();
+                }
+            } else {
+                if (this.gamesStarted > 0) {
+                    this.gamesFinished++;
+                }
+                this.gamesStarted++;
+                this.keyInputLogicMediator.restart();
+            }
+            return;
+        }
+
+        if (this.tickCount % PAUSE_PERIOD_TICKS == 0) {
+            this.pauseCount++;
+            this.keyInputLogicMediator.setControls(KeyInputLogicMediator.CONTROL_PAUSE);
+            return;
+        }
+        this.keyInputLogicMediator.setControls(chooseMovement() | KeyInputLogicMediator.CONTROL_FIRE);
+    }
+
+    public int getGamesStarted() {
+        return gamesStarted;
+    }
+
+    public int getGamesFinished() {
+        return gamesFinished;
+    }
+
+    public int getPauseCount() {
+        return pauseCount;
+    }
+
+    /**
+     * @return movement control to press, 0 to stay
+     */
+    private int chooseMovement() {
+        ShipEntity ship = this.game.getEntityMediator().getShip();
+        List<Entity> entities = this.game.getEntityMediator().getAllEntities();
+        int shipX = ship.getX();
+        int shipY = ship.getY();
+
+        int nearestAlienX = -1;
+        int nearestAlienDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity instanceof AlienShotEntity) {
+                int shotX = entity.getX();
+                int shotY = entity.getY();
+                if (shotY < shipY && shipY - shotY < DODGE_HEIGHT && Math.abs(shotX - shipX) < DODGE_WIDTH) {
+                    return dodge(shipX, shotX);
+                }
+            } else if (entity instanceof AlienEntity) {
+                int distance = Math.abs(entity.getX() - shipX);
+                if (distance < nearestAlienDistance) {
+                    nearestAlienDistance = distance;
+                    nearestAlienX = entity.getX();
+                }
+            }
+        }
+
+        if (nearestAlienX < 0) {
+            return 0;
+        }
+        int aim = nearestAlienX - (shipX + SHOT_X_CORRECTIVE);
+        if (aim > AIM_TOLERANCE) {
+            return KeyInputLogicMediator.CONTROL_RIGHT;
+        } else if (aim < -AIM_TOLERANCE) {
+            return KeyInputLogicMediator.CONTROL_LEFT;
+        }
+        return 0;
+    }
+
+    /**
+     * Step away from the shot, unless the ship is already at the edge of the screen
+     */
+    private static int dodge(int shipX, int shotX) {
+        boolean moveLeft = shotX >= shipX;
+        if (moveLeft && shipX <= LEFT_BOUNDARY) {
+            moveLeft = false;
+        } else if (!moveLeft && shipX >= RIGHT_BOUNDARY) {
+            moveLeft = true;
+        }
+        return moveLeft ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT;
+    }
+}
@@ -0,0 +1,208 @@
+package com.goodgamestudios.exercise.oche.bot;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.StateLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Long-running soak test: bot plays headless games back-to-back as fast as possible.
+ * Every frame is a game tick plus drawing of all entities to off-screen image.
+ * Periodically and at the end it reports frame time percentiles, GC count and pause time,
+ * heap growth (measured after full GC) and attempt log writes, so leaks and slowdowns which
+ * appear only after long uptime are visible.
+ * <p/>
+ * Usage: SoakRunner [games] [minutes], runs until either limit is reached.
+ * Attempts are written to temporary data directory unless airdefender.data.dir is set.
+ */
+public class SoakRunner {
+    private static final long TICK_DELTA = 10;
+    private static final int REPORT_PERIOD_GAMES = 100;
+    private static final int DEFAULT_GAME_LIMIT = 10000;
+    private static final long DEFAULT_MINUTES = 60;
+    private static final long MILLIS_IN_MINUTE = 60 * 1000;
+    private static final double NANOS_IN_MICRO = 1000.0;
+
+    /**
+     * Soak run results
+     */
+    public static class Report {
+        private int gamesPlayed;
+        private long ticks;
+        private long elapsedMillis;
+        private LatencyHistogram frameHistogram;
+        private long gcCount;
+        private long gcMillis;
+        private long heapGrowthBytes;
+        private long highScoreWrites;
+        private long highScoreWriteMaxNanos;
+        private long storedAttempts;
+
+        public int getGamesPlayed() {
+            return gamesPlayed;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public LatencyHistogram getFrameHistogram() {
+            return frameHistogram;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        public long getHeapGrowthBytes() {
+            return heapGrowthBytes;
+        }
+
+        public long getHighScoreWrites() {
+            return highScoreWrites;
+        }
+
+        public long getStoredAttempts() {
+            return storedAttempts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "games: %d ticks: %d elapsed: %d s ticks/s: %.0f%n"
+                            + "frame us p50: %.1f p99: %.1f p99.9: %.1f max: %.1f%n"
+                            + "gc count: %d gc time: %d ms heap growth: %d Kb%n"
+                            + "highscore writes: %d max: %.1f us stored attempts: %d",
+                    gamesPlayed, ticks, elapsedMillis / 1000, ticks * 1000.0 / Math.max(elapsedMillis, 1),
+                    frameHistogram.getValueAtQuantile(0.5) / NANOS_IN_MICRO,
+                    frameHistogram.getValueAtQuantile(0.99) / NANOS_IN_MICRO,
+                    frameHistogram.getValueAtQuantile(0.999) / NANOS_IN_MICRO,
+                    frameHistogram.getMax() / NANOS_IN_MICRO,
+                    gcCount, gcMillis, heapGrowthBytes / 1024,
+                    highScoreWrites, highScoreWriteMaxNanos / NANOS_IN_MICRO, storedAttempts);
+        }
+    }
+
+    //Number of games to play
+    private final int gameLimit;
+    //How long to play
+    private final long durationMillis;
+    //Where periodic reports are printed, null for no reports
+    private final PrintStream out;
+
+    public SoakRunner(int gameLimit, long durationMillis, PrintStream out) {
+        this.gameLimit = gameLimit;
+        this.durationMillis = durationMillis;
+        this.out = out;
+    }
+
+    /**
+     * Play games until game or time limit is reached
+     *
+     * @return results of the run
+     */
+    public Report run() {
+        Game game = Game.createHeadless();
+        game.initGame();
+        BotPlayer bot = new BotPlayer(game);
+        StateLogicMediator stateLogicMediator = StateLogicMediator.getInstance();
+        BufferedImage frame = new BufferedImage(Game.GAME_X_RESOLUTION, Game.GAME_Y_RESOLUTION, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+
+        Report report = new Report();
+        report.frameHistogram = new LatencyHistogram();
+        long writesBefore = stateLogicMediator.getHighScoreWriteHistogram().getCount();
+        long gcCountBefore = getGcCount();
+        long gcMillisBefore = getGcMillis();
+        long heapBefore = getHeapAfterGc();
+        long start = System.currentTimeMillis();
+        long deadline = start + this.durationMillis;
+        int lastReportGames = 0;
+
+        while (bot.getGamesFinished() < this.gameLimit && System.currentTimeMillis() < deadline) {
+            bot.act();
+            long frameStart = System.nanoTime();
+            game.tick(TICK_DELTA);
+            g.setColor(Color.black);
+            g.fillRect(0, 0, Game.GAME_X_RESOLUTION, Game.GAME_Y_RESOLUTION);
+            game.getEntityMediator().drawAllEntities(g);
+            report.frameHistogram.record(System.nanoTime() - frameStart);
+            report.ticks++;
+
+            if (this.out != null && bot.getGamesFinished() - lastReportGames >= REPORT_PERIOD_GAMES) {
+                lastReportGames = bot.getGamesFinished();
+                fill(report, bot, stateLogicMediator, start, writesBefore, gcCountBefore, gcMillisBefore, heapBefore);
+                this.out.println(report);
+            }
+        }
+        g.dispose();
+        fill(report, bot, stateLogicMediator, start, writesBefore, gcCountBefore, gcMillisBefore, heapBefore);
+        return report;
+    }
+
+    private static void fill(Report report, BotPlayer bot, StateLogicMediator stateLogicMediator, long start,
+                             long writesBefore, long gcCountBefore, long gcMillisBefore, long heapBefore) {
+        report.gamesPlayed = bot.getGamesFinished();
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        report.gcCount = getGcCount() - gcCountBefore;
+        report.gcMillis = getGcMillis() - gcMillisBefore;
+        report.heapGrowthBytes = getHeapAfterGc() - heapBefore;
+        LatencyHistogram writes = stateLogicMediator.getHighScoreWriteHistogram();
+        report.highScoreWrites = writes.getCount() - writesBefore;
+        report.highScoreWriteMaxNanos = writes.getMax();
+        report.storedAttempts = stateLogicMediator.getStoredAttemptCount();
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    private static long getHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String args[]) throws IOException {
+        int gameLimit = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAME_LIMIT;
+        long minutes = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MINUTES;
+        // do not mix bot attempts with player's highscores
+        if (System.getProperty(StateLogicMediator.DATA_DIRECTORY_PROPERTY) == null) {
+            File dataDirectory = Files.createTempDirectory("air-defender-soak").toFile();
+            System.setProperty(StateLogicMediator.DATA_DIRECTORY_PROPERTY, dataDirectory.getPath());
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Report report = new SoakRunner(gameLimit, minutes * MILLIS_IN_MINUTE, System.out).run();
+        System.out.println("Soak run finished");
+        System.out.println(report);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,268 @@
+package com.goodgamestudios.exercise.oche.clip;
+
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Instant replay: keeps the last seconds of the game as downscaled frames and writes them as PNG sequence on demand.
+ * Frames live in a preallocated ring of images with ready scaled graphics, the game draws the scene into
+ * the current one after drawing its frame, so capture never allocates.
+ * There are two rings: saving hands the recorded ring to the encoder thread and continues with the spare one,
+ * so the game thread neither copies frames nor waits for the disk. Save requested while the encoder still
+ * writes the previous clip is dropped.
+ * Capture has a time budget per frame, when it is exceeded captures are spaced out until they are cheap again.
+ */
+public class ClipRecorder {
+    private static final Logger LOGGER = Logger.getLogger(ClipRecorder.class.getName());
+    private static final String CLIP_KAPUT = "Clip could not be written {}";
+    private static final String ENCODER_KAPUT = "Clip encoder was interrupted {}";
+
+    public static final long DEFAULT_CLIP_MILLIS = 5000;
+    public static final long DEFAULT_CAPTURE_PERIOD = 50;
+    public static final int DEFAULT_SCALE_DIVISOR = 4;
+    //Time one capture could take on the game thread
+    public static final long CAPTURE_BUDGET_NANOS = 1000000;
+    //Capture period grows up to this factor of the base one while captures are over budget
+    private static final int MAX_PERIOD_FACTOR = 8;
+    private static final long ENCODER_SHUTDOWN_SECONDS = 10;
+    private static final String FRAME_FORMAT = "png";
+
+    /**
+     * Ring of captured frames
+     */
+    private static class Clip {
+        private final BufferedImage[] frames;
+        private final Graphics2D[] graphics;
+        //Slot of the next capture
+        private int next;
+        //Number of captured frames, up to ring length
+        private int count;
+
+        Clip(int length, int width, int height, int scaleDivisor) {
+            this.frames = new BufferedImage[length];
+            this.graphics = new Graphics2D[length];
+            for (int i = 0; i < length; i++) {
+                this.frames[i] = new BufferedImage(width / scaleDivisor, height / scaleDivisor,
+                        BufferedImage.TYPE_INT_RGB);
+                this.graphics[i] = this.frames[i].createGraphics();
+                this.graphics[i].scale(1.0 / scaleDivisor, 1.0 / scaleDivisor);
+            }
+        }
+
+        BufferedImage frame(int k) {
+            int length = this.frames.length;
+            return this.frames[(this.next - this.count + k + length) % length];
+        }
+    }
+
+    //Directory clips are written to, every clip gets own subdirectory
+    private final File directory;
+    private final int width;
+    private final int height;
+    private final long basePeriod;
+    private final ExecutorService encoder;
+
+    //Ring frames are captured into
+    private Clip active;
+    //Ring waiting for the next save, null while the encoder writes it
+    private volatile Clip spare;
+
+    private long captureStart;
+    private long nextCaptureTime;
+    private long capturePeriod;
+    //Duration of captures in nanoseconds
+    private final LatencyHistogram captureHistogram;
+    private volatile long clipsWritten;
+    private volatile long savesDropped;
+
+    /**
+     * Recorder of the last 5 seconds at 20 frames per second, quarter of the size
+     *
+     * @param directory directory clips are written to
+     * @param width     width of the game frame
+     * @param height    height of the game frame
+     */
+    public ClipRecorder(File directory, int width, int height) {
+        this(directory, width, height, DEFAULT_CLIP_MILLIS, DEFAULT_CAPTURE_PERIOD, DEFAULT_SCALE_DIVISOR);
+    }
+
+    /**
+     * @param directory     directory clips are written to
+     * @param width         width of the game frame
+     * @param height        height of the game frame
+     * @param clipMillis    length of clip in game time
+     * @param capturePeriod game time between captures in milliseconds
+     * @param scaleDivisor  frames are this times smaller than the game frame
+     */
+    public ClipRecorder(File directory, int width, int height, long clipMillis, long capturePeriod, int scaleDivisor) {
+        if (directory == null) {
+            throw new IllegalStateException("Could not be initialised without directory");
+        }
+        this.directory = directory;
+        this.width = width;
+        this.height = height;
+        this.basePeriod = capturePeriod;
+        this.capturePeriod = capturePeriod;
+        int length = (int) Math.max(clipMillis / capturePeriod, 1);
+        this.active = new Clip(length, width, height, scaleDivisor);
+        this.spare = new Clip(length, width, height, scaleDivisor);
+        this.captureHistogram = new LatencyHistogram();
+        this.encoder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "clip-encoder");
+                thread.setDaemon(true);
+                // encoding should not take the CPU from the game loop
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start capture of the frame, the scene should be drawn into returned graphics and endCapture() called
+     *
+     * @param gameTime game time of the frame
+     * @return scaled graphics of the next ring frame, null if this frame is not captured
+     */
+    public Graphics2D beginCapture(long gameTime) {
+        if (gameTime < this.nextCaptureTime) {
+            return null;
+        }
+        this.captureStart = System.nanoTime();
+        this.nextCaptureTime = gameTime + this.capturePeriod;
+        Graphics2D graphics = this.active.graphics[this.active.next];
+        graphics.setColor(Color.black);
+        graphics.fillRect(0, 0, this.width, this.height);
+        return graphics;
+    }
+
+    /**
+     * Finish capture started by beginCapture()
+     */
+    public void endCapture() {
+        Clip clip = this.active;
+        clip.next = (clip.next + 1) % clip.frames.length;
+        if (clip.count < clip.frames.length) {
+            clip.count++;
+        }
+        long duration = System.nanoTime() - this.captureStart;
+        this.captureHistogram.record(duration);
+        if (duration > CAPTURE_BUDGET_NANOS) {
+            this.capturePeriod = Math.min(this.capturePeriod * 2, this.basePeriod * MAX_PERIOD_FACTOR);
+        } else if (duration < CAPTURE_BUDGET_NANOS / 2 && this.capturePeriod > this.basePeriod) {
+            this.capturePeriod = Math.max(this.capturePeriod / 2, this.basePeriod);
+        }
+    }
+
+    /**
+     * Hand the recorded frames to the encoder thread, recording continues into the spare ring
+     *
+     * @param reason short name of the occasion, e.g. "death", becomes part of the clip directory name
+     * @return false if there is nothing recorded or the previous clip is still being written
+     */
+    public boolean save(final String reason) {
+        final Clip clip = this.active;
+        Clip next = this.spare;
+        if (clip.count == 0 || next == null) {
+            this.savesDropped++;
+            return false;
+        }
+        this.spare = null;
+        next.next = 0;
+        next.count = 0;
+        this.active = next;
+        final long savedAt = System.currentTimeMillis();
+        this.encoder.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(clip, reason, savedAt);
+                } finally {
+                    spare = clip;
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Stop the encoder, clip being written is finished first
+     */
+    public void close() {
+        this.encoder.shutdown();
+        try {
+            this.encoder.awaitTermination(ENCODER_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.SEVERE, ENCODER_KAPUT, e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true if the encoder is not writing a clip now
+     */
+    public boolean isIdle() {
+        return this.spare != null;
+    }
+
+    public long getClipsWritten() {
+        return clipsWritten;
+    }
+
+    public long getSavesDropped() {
+        return savesDropped;
+    }
+
+    /**
+     * @return Duration of captures on the game thread in nanoseconds
+     */
+    public LatencyHistogram getCaptureHistogram() {
+        return captureHistogram;
+    }
+
+    /**
+     * @return current game time between captures, larger than the base one while captures are over budget
+     */
+    public long getCapturePeriod() {
+        return capturePeriod;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write frames of the clip in chronological order, runs on the encoder thread
+     */
+    private void write(Clip clip, String reason, long savedAt) {
+        String name = "clip-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(savedAt)) + "-" + reason;
+        File clipDirectory = new File(this.directory, name);
+        if (!clipDirectory.mkdirs()) {
+            LOGGER.log(Level.SEVERE, CLIP_KAPUT, clipDirectory.getAbsolutePath());
+            return;
+        }
+        try {
+            for (int k = 0; k < clip.count; k++) {
+                ImageIO.write(clip.frame(k), FRAME_FORMAT,
+                        new File(clipDirectory, String.format("frame-%03d.%s", k, FRAME_FORMAT)));
+            }
+            this.clipsWritten++;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CLIP_KAPUT, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import com.goodgamestudios.exercise.oche.logic.Viewport;
+import com.goodgamestudios.exercise.oche.sprites.Sprite;
+import com.goodgamestudios.exercise.oche.sprites.SpriteStore;
+
+/**
+ * Ship, aliens and shots described as sets of components.
+ * Values are the same as for the entity classes of the classic core.
+ */
+public final class Archetypes {
+    private static final String SHIP_SPRITE_PATH = "sprites/ship.gif";
+    private static final String ALIEN_SPRITE_PATH = "sprites/alien.gif";
+    private static final String SHOT_SPRITE_PATH = "sprites/shot.gif";
+    private static final String ALIEN_SHOT_SPRITE_PATH = "sprites/alien_shot.gif";
+
+    public static final double SHIP_MOVE_SPEED = 300;
+    public static final int SHIP_LIFE_COUNT = 5;
+    private static final long SHIP_FIRING_INTERVAL = 500;
+    private static final int SHIP_LEFT_BOUNDARY = 10;
+    private static final int SHIP_RIGHT_BOUNDARY = 750;
+    private static final int SHIP_UP_BOUNDARY = 10;
+    private static final int SHIP_BOTTOM_BOUNDARY = 550;
+    private static final int SHIP_SHOT_X_CORRECTIVE = 10;
+    private static final int SHIP_SHOT_Y_CORRECTIVE = -30;
+
+    public static final double ALIEN_MOVE_SPEED = 75;
+    private static final double ALIEN_SHOT_PROBABILITY = 0.001;
+    private static final long ALIEN_FIRING_INTERVAL = 100;
+    private static final int ALIEN_LEFT_BOUNDARY = 10;
+    private static final int ALIEN_RIGHT_BOUNDARY = 750;
+    //player dies when formation goes lower
+    private static final int ALIEN_BOTTOM_BOUNDARY = 570;
+    private static final int ALIEN_SHOT_X_CORRECTIVE = -10;
+    private static final int ALIEN_SHOT_Y_CORRECTIVE = 30;
+    //ship and shots are killed by any hit of alien
+    private static final int ALIEN_CONTACT_DAMAGE = Integer.MAX_VALUE / 2;
+
+    private static final double SHOT_MOVE_SPEED = -300;
+    private static final double ALIEN_SHOT_MOVE_SPEED = 300;
+    private static final int SHOT_DAMAGE = 1;
+
+    private Archetypes() {
+    }
+
+    /**
+     * Create the player ship
+     *
+     * @return dense index of the entity
+     */
+    public static int createShip(World world, int x, int y) {
+        int i = world.create(Components.POSITION | Components.VELOCITY | Components.SPRITE | Components.COLLIDER
+                | Components.WEAPON | Components.HEALTH | Components.FACTION | Components.BOUNDS, Components.KIND_SHIP);
+        setPosition(world, i, x, y);
+        setSpriteAndCollider(world, i, SHIP_SPRITE_PATH, false, 0);
+        setWeapon(world, i, SHIP_FIRING_INTERVAL, 1, Components.KIND_SHOT, SHIP_SHOT_X_CORRECTIVE, SHIP_SHOT_Y_CORRECTIVE);
+        world.health[i] = SHIP_LIFE_COUNT;
+        world.faction[i] = Components.FACTION_PLAYER;
+        setBounds(world, i, Components.BOUNDS_STOP,
+                SHIP_LEFT_BOUNDARY, SHIP_RIGHT_BOUNDARY, SHIP_UP_BOUNDARY, SHIP_BOTTOM_BOUNDARY);
+        return i;
+    }
+
+    /**
+     * Create alien of the formation, it fires by chance and is killed by one shot
+     *
+     * @return dense index of the entity
+     */
+    public static int createAlien(World world, int x, int y) {
+        int i = world.create(Components.POSITION | Components.VELOCITY | Components.SPRITE | Components.COLLIDER
+                | Components.WEAPON | Components.HEALTH | Components.FACTION | Components.BOUNDS, Components.KIND_ALIEN);
+        setPosition(world, i, x, y);
+        world.dx[i] = -ALIEN_MOVE_SPEED;
+        setSpriteAndCollider(world, i, ALIEN_SPRITE_PATH, false, ALIEN_CONTACT_DAMAGE);
+        setWeapon(world, i, ALIEN_FIRING_INTERVAL, ALIEN_SHOT_PROBABILITY, Components.KIND_ALIEN_SHOT,
+                ALIEN_SHOT_X_CORRECTIVE, ALIEN_SHOT_Y_CORRECTIVE);
+        // weapon of alien is always ready, chance decides when it fires
+        world.trigger[i] = true;
+        world.faction[i] = Components.FACTION_ALIEN;
+        setBounds(world, i, Components.BOUNDS_TURN,
+                ALIEN_LEFT_BOUNDARY, ALIEN_RIGHT_BOUNDARY, Double.NEGATIVE_INFINITY, ALIEN_BOTTOM_BOUNDARY);
+        return i;
+    }
+
+    /**
+     * Create shot of the given kind
+     *
+     * @param kind Components.KIND_SHOT or Components.KIND_ALIEN_SHOT
+     * @return dense index of the entity
+     */
+    public static int createShot(World world, byte kind, int x, int y) {
+        int i = world.create(Components.POSITION | Components.VELOCITY | Components.SPRITE | Components.COLLIDER
+                | Components.FACTION | Components.BOUNDS, kind);
+        setPosition(world, i, x, y);
+        if (kind == Components.KIND_SHOT) {
+            world.dy[i] = SHOT_MOVE_SPEED;
+            setSpriteAndCollider(world, i, SHOT_SPRITE_PATH, true, SHOT_DAMAGE);
+            world.faction[i] = Components.FACTION_PLAYER;
+        } else {
+            world.dy[i] = ALIEN_SHOT_MOVE_SPEED;
+            setSpriteAndCollider(world, i, ALIEN_SHOT_SPRITE_PATH, true, SHOT_DAMAGE);
+            world.faction[i] = Components.FACTION_ALIEN;
+        }
+        // shots which missed everything are destroyed when they get farther off the screen than the margin
+        setBounds(world, i, Components.BOUNDS_DESPAWN,
+                -Viewport.DESPAWN_MARGIN - world.width[i], Viewport.WIDTH + Viewport.DESPAWN_MARGIN,
+                -Viewport.DESPAWN_MARGIN - world.height[i], Viewport.HEIGHT + Viewport.DESPAWN_MARGIN);
+        return i;
+    }
+
+    private static void setPosition(World world, int i, int x, int y) {
+        world.x[i] = x;
+        world.y[i] = y;
+    }
+
+    private static void setSpriteAndCollider(World world, int i, String spritePath, boolean projectile, int damage) {
+        Sprite sprite = SpriteStore.get().getSprite(spritePath);
+        world.sprite[i] = sprite;
+        world.width[i] = sprite.getWidth();
+        world.height[i] = sprite.getHeight();
+        world.projectile[i] = projectile;
+        world.contactDamage[i] = damage;
+    }
+
+    private static void setWeapon(World world, int i, long interval, double chance, byte shotKind,
+                                  int offsetX, int offsetY) {
+        world.fireInterval[i] = interval;
+        world.fireChance[i] = chance;
+        world.shotKind[i] = shotKind;
+        world.shotOffsetX[i] = offsetX;
+        world.shotOffsetY[i] = offsetY;
+    }
+
+    private static void setBounds(World world, int i, byte policy, double minX, double maxX, double minY, double maxY) {
+        world.boundsPolicy[i] = policy;
+        world.minX[i] = minX;
+        world.maxX[i] = maxX;
+        world.minY[i] = minY;
+        world.maxY[i] = maxY;
+    }
+}
@@ -0,0 +1,315 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds overlapping colliders of different factions and applies contact damage to each other.
+ * Projectiles never hit projectiles and are destroyed by the first hit. Entity with health
+ * survives damage while its health does not go below zero.
+ * <p/>
+ * Pass has two stages. Broadphase puts colliders into cells of uniform grid and checks pairs sharing a cell,
+ * overlapping pair is recorded only by the cell holding the corner of the overlap, so every hit is found once.
+ * Cells only read component data, when the world is large enough they are checked in fork/join tasks,
+ * each cell records hits into its own buffer. Then hits are sorted by (i, j) and applied serially,
+ * so results are the same as of the serial pass and of checking all pairs in index order.
+ */
+public class CollisionSystem {
+    private static final int REQUIRED = Components.POSITION | Components.COLLIDER | Components.FACTION;
+    private static final int CELL_SIZE = 64;
+    //Grid covers the screen, colliders outside of it are put into the edge cells
+    private static final int GRID_COLUMNS = 13;
+    private static final int GRID_ROWS = 10;
+    private static final int CELL_COUNT = GRID_COLUMNS * GRID_ROWS;
+    private static final int CELLS_PER_TASK = 4;
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int INITIAL_HIT_CAPACITY = 8;
+    private static final int INDEX_BITS = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Receives results of damage, called during collision pass
+     */
+    public interface DamageListener {
+        /**
+         * @param world  world entity lives in
+         * @param index  dense index of damaged entity
+         * @param lethal true if entity is destroyed by the damage
+         */
+        void entityDamaged(World world, int index, boolean lethal);
+    }
+
+    //Pool to check cells in, null if collision pass is always serial
+    private final ForkJoinPool pool;
+    //Entity count from which cells are checked in parallel
+    private final int parallelThreshold;
+
+    //Entries of cell c are cellEntities[cellStart[c]] .. cellEntities[cellStart[c + 1] - 1]
+    private final int[] cellStart;
+    //Next free entry of every cell while grid is filled
+    private final int[] cellCursor;
+    //Dense indices of colliders per cell, ascending within a cell
+    private int[] cellEntities;
+    //Overlapping pairs found in every cell, packed as (i << 32 | j), each cell is checked by single thread.
+    //Buffer is created by the first hit in the cell, most cells never have any
+    private final long[][] cellHits;
+    private final int[] cellHitCounts;
+    private final long[] cellPairsTested;
+    //Hits of all cells merged for serial apply
+    private long[] mergedHits;
+
+    //Number of collider pairs checked by the last pass
+    private long pairsTested;
+    //Number of overlapping pairs found by the last pass
+    private long hits;
+
+    public CollisionSystem() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param pool              pool to check cells in, null for serial pass
+     * @param parallelThreshold entity count from which cells are checked in parallel
+     */
+    public CollisionSystem(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.cellStart = new int[CELL_COUNT + 1];
+        this.cellCursor = new int[CELL_COUNT];
+        this.cellEntities = new int[INITIAL_CAPACITY];
+        this.cellHits = new long[CELL_COUNT][];
+        this.cellHitCounts = new int[CELL_COUNT];
+        this.cellPairsTested = new long[CELL_COUNT];
+        this.mergedHits = new long[INITIAL_HIT_CAPACITY];
+    }
+
+    /**
+     * Check all colliders with each other, destroyed entities stay in the world until flush
+     *
+     * @param world    world to update
+     * @param listener listener of damage results
+     */
+    public void update(World world, DamageListener listener) {
+        fillGrid(world);
+        if (this.pool == null || world.size() < this.parallelThreshold) {
+            checkCells(world, 0, CELL_COUNT);
+        } else {
+            this.pool.invoke(new CellTask(world, 0, CELL_COUNT));
+        }
+        applyHits(world, listener);
+    }
+
+    public long getPairsTested() {
+        return pairsTested;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * The same test as Rectangle.intersects of sprite boxes
+     */
+    static boolean overlaps(World world, int i, int j) {
+        int x1 = (int) world.x[i];
+        int y1 = (int) world.y[i];
+        int x2 = (int) world.x[j];
+        int y2 = (int) world.y[j];
+        return x1 < x2 + world.width[j] && x2 < x1 + world.width[i]
+                && y1 < y2 + world.height[j] && y2 < y1 + world.height[i];
+    }
+
+    /**
+     * Apply contact damage of both entities to each other
+     */
+    static void applyHit(World world, int i, int j, DamageListener listener) {
+        int damageToI = world.contactDamage[j];
+        int damageToJ = world.contactDamage[i];
+        damage(world, i, damageToI, listener);
+        damage(world, j, damageToJ, listener);
+        if (world.projectile[i]) {
+            world.destroy(i);
+        }
+        if (world.projectile[j]) {
+            world.destroy(j);
+        }
+    }
+
+    private static void damage(World world, int index, int damage, DamageListener listener) {
+        if (damage == 0 || (world.mask[index] & Components.HEALTH) == 0 || world.isDestroyed(index)) {
+            return;
+        }
+        int health = world.health[index] - damage;
+        if (health < 0) {
+            world.destroy(index);
+            listener.entityDamaged(world, index, true);
+        } else {
+            world.health[index] = health;
+            listener.entityDamaged(world, index, false);
+        }
+    }
+
+    private static boolean isActive(World world, int index) {
+        int mask = world.mask[index];
+        return (mask & REQUIRED) == REQUIRED && (mask & Components.DESTROYED) == 0;
+    }
+
+    private static int column(int x) {
+        return Math.min(Math.max(x / CELL_SIZE, 0), GRID_COLUMNS - 1);
+    }
+
+    private static int row(int y) {
+        return Math.min(Math.max(y / CELL_SIZE, 0), GRID_ROWS - 1);
+    }
+
+    /**
+     * Put every active collider into all cells its box covers, counting sort keeps index order in cells
+     */
+    private void fillGrid(World world) {
+        int size = world.size();
+        Arrays.fill(this.cellStart, 0);
+        for (int i = 0; i < size; i++) {
+            if (!isActive(world, i)) {
+                continue;
+            }
+            int x = (int) world.x[i];
+            int y = (int) world.y[i];
+            int lastColumn = column(x + Math.max(world.width[i], 1) - 1);
+            int lastRow = row(y + Math.max(world.height[i], 1) - 1);
+            for (int r = row(y); r <= lastRow; r++) {
+                for (int c = column(x); c <= lastColumn; c++) {
+                    this.cellStart[r * GRID_COLUMNS + c + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            this.cellStart[cell + 1] += this.cellStart[cell];
+            this.cellCursor[cell] = this.cellStart[cell];
+        }
+        if (this.cellEntities.length < this.cellStart[CELL_COUNT]) {
+            this.cellEntities = new int[Math.max(this.cellStart[CELL_COUNT], this.cellEntities.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            if (!isActive(world, i)) {
+                continue;
+            }
+            int x = (int) world.x[i];
+            int y = (int) world.y[i];
+            int lastColumn = column(x + Math.max(world.width[i], 1) - 1);
+            int lastRow = row(y + Math.max(world.height[i], 1) - 1);
+            for (int r = row(y); r <= lastRow; r++) {
+                for (int c = column(x); c <= lastColumn; c++) {
+                    this.cellEntities[this.cellCursor[r * GRID_COLUMNS + c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Find overlapping pairs of the cell range, only reads the world, so ranges could be checked concurrently
+     */
+    private void checkCells(World world, int fromCell, int toCell) {
+        for (int cell = fromCell; cell < toCell; cell++) {
+            long tested = 0;
+            int hitCount = 0;
+            long[] buffer = this.cellHits[cell];
+            int end = this.cellStart[cell + 1];
+            for (int a = this.cellStart[cell]; a < end; a++) {
+                int i = this.cellEntities[a];
+                for (int b = a + 1; b < end; b++) {
+                    int j = this.cellEntities[b];
+                    if (world.faction[i] == world.faction[j] || (world.projectile[i] && world.projectile[j])) {
+                        continue;
+                    }
+                    tested++;
+                    if (!overlaps(world, i, j) || !isOwnerCell(world, i, j, cell)) {
+                        continue;
+                    }
+                    if (buffer == null) {
+                        buffer = new long[INITIAL_HIT_CAPACITY];
+                        this.cellHits[cell] = buffer;
+                    } else if (hitCount == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, hitCount * 2);
+                        this.cellHits[cell] = buffer;
+                    }
+                    buffer[hitCount++] = ((long) i << INDEX_BITS) | j;
+                }
+            }
+            this.cellHitCounts[cell] = hitCount;
+            this.cellPairsTested[cell] = tested;
+        }
+    }
+
+    /**
+     * Overlap of two boxes starts at the larger of their left and top edges, that point lies in both boxes,
+     * so the cell holding it is shared by both and checks the pair
+     */
+    private static boolean isOwnerCell(World world, int i, int j, int cell) {
+        int x = Math.max((int) world.x[i], (int) world.x[j]);
+        int y = Math.max((int) world.y[i], (int) world.y[j]);
+        return row(y) * GRID_COLUMNS + column(x) == cell;
+    }
+
+    /**
+     * Apply hits of all cells in (i, j) order, pairs with entity destroyed by earlier hit are skipped
+     */
+    private void applyHits(World world, DamageListener listener) {
+        this.pairsTested = 0;
+        this.hits = 0;
+        int count = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            this.pairsTested += this.cellPairsTested[cell];
+            int cellCount = this.cellHitCounts[cell];
+            if (cellCount == 0) {
+                continue;
+            }
+            if (count + cellCount > this.mergedHits.length) {
+                this.mergedHits = Arrays.copyOf(this.mergedHits, Math.max(count + cellCount, this.mergedHits.length * 2));
+            }
+            System.arraycopy(this.cellHits[cell], 0, this.mergedHits, count, cellCount);
+            count += cellCount;
+        }
+        Arrays.sort(this.mergedHits, 0, count);
+        for (int k = 0; k < count; k++) {
+            int i = (int) (this.mergedHits[k] >>> INDEX_BITS);
+            int j = (int) (this.mergedHits[k] & INDEX_MASK);
+            if (world.isDestroyed(i) || world.isDestroyed(j)) {
+                continue;
+            }
+            this.hits++;
+            applyHit(world, i, j, listener);
+        }
+    }
+
+    /**
+     * Splits the cell range in halves until it is not larger than CELLS_PER_TASK
+     */
+    private class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final World world;
+        private final int fromCell;
+        private final int toCell;
+
+        CellTask(World world, int fromCell, int toCell) {
+            this.world = world;
+            this.fromCell = fromCell;
+            this.toCell = toCell;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.toCell - this.fromCell <= CELLS_PER_TASK) {
+                checkCells(this.world, this.fromCell, this.toCell);
+                return;
+            }
+            int middle = (this.fromCell + this.toCell) >>> 1;
+            invokeAll(new CellTask(this.world, this.fromCell, middle), new CellTask(this.world, middle, this.toCell));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+/**
+ * Component bits and component values of the entity-component-system core.
+ * Entity mask tells which components the entity has, systems only look at entities with
+ * all components they need.
+ */
+public final class Components {
+    //Location in pixels
+    public static final int POSITION = 1;
+    //Speed in pixels per second
+    public static final int VELOCITY = 1 << 1;
+    //Image to draw
+    public static final int SPRITE = 1 << 2;
+    //Box which takes part in collisions
+    public static final int COLLIDER = 1 << 3;
+    //Ability to fire shots
+    public static final int WEAPON = 1 << 4;
+    //Damage entity could take
+    public static final int HEALTH = 1 << 5;
+    //Side entity fights for, entities of the same side never collide
+    public static final int FACTION = 1 << 6;
+    //What happens when entity reaches the edge of its area
+    public static final int BOUNDS = 1 << 7;
+
+    //Entity is destroyed and is removed at the end of the phase
+    static final int DESTROYED = 1 << 30;
+
+    public static final byte FACTION_PLAYER = 0;
+    public static final byte FACTION_ALIEN = 1;
+
+    //Entity does not move further out of its area
+    public static final byte BOUNDS_STOP = 0;
+    //Entity requests formation turn when reaches side of its area
+    public static final byte BOUNDS_TURN = 1;
+    //Entity is destroyed when leaves its area
+    public static final byte BOUNDS_DESPAWN = 2;
+
+    public static final byte KIND_SHIP = 0;
+    public static final byte KIND_ALIEN = 1;
+    public static final byte KIND_SHOT = 2;
+    public static final byte KIND_ALIEN_SHOT = 3;
+
+    private Components() {
+    }
+}
@@ -0,0 +1,252 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.EntityLogic;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "Mediator" for entity logic of entity-component-system core.
+ * Ship, aliens and shots are plain component data in the world, the game rules are made by systems.
+ * Damage results are turned into the same game events classic core raises.
+ * When entity count reaches parallel threshold movement and collision checks run in common fork/join pool,
+ * the threshold is set by airdefender.parallel.threshold property.
+ */
+public class EcsLogicMediator implements EntityLogic, CollisionSystem.DamageListener {
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "airdefender.parallel.threshold";
+    //Regular game has less than hundred entities, it is always ticked serially
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+    private static final double MOVEMENT_SPEEDUP_COEFFICIENT = 1.02;
+    private static final int SHIP_START_X_POSITION = 370;
+    private static final int SHIP_START_Y_POSITION = 550;
+    private static final int ALIEN_ROW_COUNT = 5;
+    private static final int ALIENS_PER_ROW_COUNT = 12;
+    private static final int ALIEN_COL_CORRECTIVE = 50;
+    private static final int ALIEN_ROW_CORRECTIVE = 30;
+    private static final int ALIEN_ROW_DISTANCE = 50;
+    private static final int ALIEN_COL_DISTANCE = 100;
+    //Regular game has about hundred entities, world grows if there are more
+    private static final int WORLD_CAPACITY = 128;
+
+    //Current game entities exist in
+    private Game game;
+    //Component data of all entities
+    private World world;
+    private MovementSystem movementSystem;
+    private FiringSystem firingSystem;
+    private CollisionSystem collisionSystem;
+    private RenderSystem renderSystem;
+    //Id of the player ship
+    private int shipId;
+    //Number of aliens alive
+    private int alienCount;
+    //Life count of the ship, kept when the ship is destroyed
+    private int playerLifeCount;
+
+    public EcsLogicMediator() {
+        this(new Random());
+    }
+
+    /**
+     * @param random source of alien fire chances, seeded random makes game reproducible
+     */
+    public EcsLogicMediator(Random random) {
+        this(random, Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD));
+    }
+
+    /**
+     * @param random            source of alien fire chances, seeded random makes game reproducible
+     * @param parallelThreshold entity count from which movement and collision checks are parallel
+     */
+    public EcsLogicMediator(Random random, int parallelThreshold) {
+        this.world = new World(WORLD_CAPACITY);
+        this.movementSystem = new MovementSystem(ForkJoinPool.commonPool(), parallelThreshold);
+        this.firingSystem = new FiringSystem(random);
+        this.collisionSystem = new CollisionSystem(ForkJoinPool.commonPool(), parallelThreshold);
+        this.renderSystem = new RenderSystem();
+        this.shipId = World.NO_ENTITY;
+    }
+
+    @Override
+    public void initEntities(Game game) {
+        if (game == null) {
+            throw new IllegalStateException("Could not be initialised with null game");
+        }
+        this.game = game;
+        this.world.clear();
+        int ship = Archetypes.createShip(this.world, SHIP_START_X_POSITION, SHIP_START_Y_POSITION);
+        this.shipId = this.world.idAt(ship);
+        this.playerLifeCount = this.world.getHealth(ship);
+
+        // create a block of aliens (5 rows, by 12 aliens, spaced evenly)
+        this.alienCount = 0;
+        for (int row = 0; row < ALIEN_ROW_COUNT; row++) {
+            for (int col = 0; col < ALIENS_PER_ROW_COUNT; col++) {
+                Archetypes.createAlien(this.world,
+                        ALIEN_COL_DISTANCE + (col * ALIEN_COL_CORRECTIVE),
+                        ALIEN_ROW_DISTANCE + row * ALIEN_ROW_CORRECTIVE);
+                this.alienCount++;
+            }
+        }
+    }
+
+    @Override
+    public void clearAllGameEntities() {
+        this.world.clear();
+        this.shipId = World.NO_ENTITY;
+    }
+
+    /**
+     * Fire alien weapons which are ready, the ship fires on input
+     */
+    @Override
+    public void processAlienShot(long delta) {
+        this.firingSystem.update(this.world, this.game.getGameTime(), delta);
+    }
+
+    @Override
+    public void setAlienFireCap(int cap) {
+        this.firingSystem.setAlienShotCap(cap);
+    }
+
+    @Override
+    public void moveAllEntities(long delta) {
+        if (this.movementSystem.update(this.world, delta)) {
+            this.game.updateLogic();
+        }
+    }
+
+    @Override
+    public void drawAllEntities(Graphics2D window) {
+        this.renderSystem.update(this.world, window);
+    }
+
+    @Override
+    public void calculateCollisionsAndRemoveCollidedEntities() {
+        this.collisionSystem.update(this.world, this);
+        this.world.flush();
+    }
+
+    @Override
+    public void doLogic() {
+        if (this.movementSystem.turnFormation(this.world)) {
+            this.game.notifyDeath();
+        }
+    }
+
+    @Override
+    public void processInput(KeyInputLogicMediator keyInputLogicMediator) {
+        int ship = this.world.indexOf(this.shipId);
+        if (ship == World.NO_ENTITY) {
+            return;
+        }
+        double dx = 0;
+        double dy = 0;
+        if (keyInputLogicMediator.isMoveLeft()) {
+            dx = -Archetypes.SHIP_MOVE_SPEED;
+        } else if (keyInputLogicMediator.isMoveRight()) {
+            dx = Archetypes.SHIP_MOVE_SPEED;
+        } else if (keyInputLogicMediator.isMoveUp()) {
+            dy = -Archetypes.SHIP_MOVE_SPEED;
+        } else if (keyInputLogicMediator.isMoveDown()) {
+            dy = Archetypes.SHIP_MOVE_SPEED;
+        }
+        this.world.setMovement(ship, dx, dy);
+        this.world.setTrigger(ship, keyInputLogicMediator.isFirePressed());
+        // the ship fires every tick like in classic core, not at the rate of alien fire
+        if (keyInputLogicMediator.isFirePressed()) {
+            this.firingSystem.fire(this.world, ship, this.game.getGameTime());
+        }
+    }
+
+    /**
+     * Systems do not run while game waits for a key, so only the game is notified
+     */
+    @Override
+    public void makePause() {
+        this.game.notifyPause();
+    }
+
+    @Override
+    public void releasePause() {
+    }
+
+    @Override
+    public void notifyAlienKilled() {
+        // reduce the alient count, if there are none left, the player has won!
+        this.alienCount--;
+        if (this.alienCount == 0) {
+            this.game.notifyWin();
+        }
+
+        // speed up all the existing aliens by 2%
+        for (int i = 0; i < this.world.size(); i++) {
+            if (this.world.getKind(i) == Components.KIND_ALIEN) {
+                this.world.dx[i] *= MOVEMENT_SPEEDUP_COEFFICIENT;
+            }
+        }
+    }
+
+    /**
+     * Damage is already applied to the ship health by collision system
+     */
+    @Override
+    public void notifyPlayerHit() {
+    }
+
+    @Override
+    public void entityDamaged(World world, int index, boolean lethal) {
+        byte kind = world.getKind(index);
+        double centerX = world.x[index] + world.width[index] / 2.0;
+        double centerY = world.y[index] + world.height[index] / 2.0;
+        if (kind == Components.KIND_SHIP) {
+            if (lethal) {
+                this.playerLifeCount = 0;
+                this.game.notifyDeath();
+                this.game.spawnExplosion(centerX, centerY);
+            } else {
+                this.playerLifeCount = world.getHealth(index);
+                this.game.notifyPlayerHit();
+                this.game.spawnHit(centerX, centerY);
+            }
+        } else if (kind == Components.KIND_ALIEN && lethal) {
+            this.game.notifyAlienKilled();
+            this.game.spawnExplosion(centerX, centerY);
+        }
+    }
+
+    @Override
+    public int getEntityCount() {
+        return this.world.size();
+    }
+
+    @Override
+    public int getPlayerLifeCount() {
+        return this.playerLifeCount;
+    }
+
+    @Override
+    public long getCollisionPairsTested() {
+        return this.collisionSystem.getPairsTested();
+    }
+
+    @Override
+    public long getCollisionHits() {
+        return this.collisionSystem.getHits();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * @return dense index of the ship or World.NO_ENTITY if ship is destroyed
+     */
+    public int getShipIndex() {
+        return this.world.indexOf(this.shipId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import java.util.Random;
+
+/**
+ * Fires shots of entities with weapon which trigger is pulled.
+ * Alien weapons fire by chance, the chance is given per CHANCE_PERIOD of game time and is scaled by the time
+ * passed since the last update, so aliens fire as often whatever the rate of updates. No weapon fires faster
+ * than its interval. The ship fires on input, not by updates.
+ * When alien shots are capped, the next update starts after the last alien which fired, so every alien gets its turn.
+ */
+public class FiringSystem {
+    private static final int REQUIRED = Components.POSITION | Components.WEAPON;
+    //Game time weapon chances are given for
+    private static final double CHANCE_PERIOD = 10;
+
+    //Source of chances to fire
+    private final Random random;
+    //Max number of alien shots fired by one update
+    private int alienShotCap;
+    //Entity index weapons are asked from, moves on when the cap is reached so every alien gets its turn
+    private int start;
+
+    public FiringSystem(Random random) {
+        this.random = random;
+        this.alienShotCap = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Fire alien weapons which are ready, new shots are added to the end of the world
+     *
+     * @param world    world to update
+     * @param gameTime current game time in milliseconds
+     * @param delta    game time passed since the last update in milliseconds
+     */
+    public void update(World world, long gameTime, long delta) {
+        // shots created by this pass are not asked to fire
+        int count = world.size();
+        if (this.start >= count) {
+            this.start = 0;
+        }
+        // all aliens share the same chance, so it is scaled once per update
+        double lastChance = -1;
+        double scaledChance = 0;
+        int alienShots = 0;
+        for (int k = 0; k < count && alienShots < this.alienShotCap; k++) {
+            int i = (this.start + k) % count;
+            int mask = world.mask[i];
+            if ((mask & REQUIRED) != REQUIRED || (mask & Components.DESTROYED) != 0 || !world.trigger[i]
+                    || world.shotKind[i] != Components.KIND_ALIEN_SHOT) {
+                continue;
+            }
+            double chance = world.fireChance[i];
+            if (chance < 1) {
+                if (chance != lastChance) {
+                    lastChance = chance;
+                    scaledChance = 1 - Math.pow(1 - chance, delta / CHANCE_PERIOD);
+                }
+                if (this.random.nextDouble() > scaledChance) {
+                    continue;
+                }
+            }
+            if (fire(world, i, gameTime)) {
+                alienShots++;
+                if (alienShots == this.alienShotCap) {
+                    this.start = i + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fire weapon of the entity if its interval is passed, the new shot is added to the end of the world
+     *
+     * @param world    world the entity is in
+     * @param index    index of the entity with weapon
+     * @param gameTime current game time in milliseconds
+     * @return true if the shot was fired
+     */
+    public boolean fire(World world, int index, long gameTime) {
+        if (gameTime - world.lastFire[index] < world.fireInterval[index]) {
+            return false;
+        }
+        world.lastFire[index] = gameTime;
+        // component arrays could be reallocated by create, so they are read again after it
+        Archetypes.createShot(world, world.shotKind[index],
+                (int) world.x[index] + world.shotOffsetX[index], (int) world.y[index] + world.shotOffsetY[index]);
+        return true;
+    }
+
+    /**
+     * @param alienShotCap Max number of alien shots fired by one update, the ship is not limited
+     */
+    public void setAlienShotCap(int alienShotCap) {
+        this.alienShotCap = alienShotCap;
+    }
+}
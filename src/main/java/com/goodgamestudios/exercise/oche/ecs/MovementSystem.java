@@ -0,0 +1,175 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Moves every entity with position and velocity and applies its bounds policy.
+ * Entities with turn policy do not turn by themselves, they report that the formation should turn.
+ * Every entity is moved independently of others, so when the world is large enough the index range is
+ * split into fork/join chunks, which gives the same result as the serial pass.
+ */
+public class MovementSystem {
+    private static final int REQUIRED = Components.POSITION | Components.VELOCITY;
+    private static final double MILLISECONDS_CORRECTIVE = 1000;
+    private static final double TURN_STEP = 10;
+    private static final int MIN_CHUNK_SIZE = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    //Pool to move chunks in, null if movement is always serial
+    private final ForkJoinPool pool;
+    //Entity count from which movement is split into parallel chunks
+    private final int parallelThreshold;
+    //Set by any chunk which finds the formation at the side
+    private volatile boolean turnRequired;
+
+    public MovementSystem() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param pool              pool to move chunks in, null for serial movement
+     * @param parallelThreshold entity count from which movement is parallel
+     */
+    public MovementSystem(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Move all entities
+     *
+     * @param world world to update
+     * @param delta The amount of time that has passed in milliseconds
+     * @return true if formation has reached the side and should turn
+     */
+    public boolean update(World world, long delta) {
+        int size = world.size();
+        if (this.pool == null || size < this.parallelThreshold) {
+            return update(world, delta, 0, size);
+        }
+        this.turnRequired = false;
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (this.pool.getParallelism() * CHUNKS_PER_THREAD));
+        world.addDestroyedCount(this.pool.invoke(new MoveTask(world, delta, 0, size, chunkSize)));
+        return this.turnRequired;
+    }
+
+    /**
+     * Move entities of the index range on the calling thread
+     *
+     * @param world world to update
+     * @param delta The amount of time that has passed in milliseconds
+     * @param from  first dense index, inclusive
+     * @param to    last dense index, exclusive
+     * @return true if formation has reached the side and should turn
+     */
+    public boolean update(World world, long delta, int from, int to) {
+        this.turnRequired = false;
+        world.addDestroyedCount(moveRange(world, delta, from, to));
+        return this.turnRequired;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Move entities of the range, ranges could be moved concurrently
+     *
+     * @return number of entities which left their area and were marked destroyed
+     */
+    private int moveRange(World world, long delta, int from, int to) {
+        int despawned = 0;
+        for (int i = from; i < to; i++) {
+            int mask = world.mask[i];
+            if ((mask & REQUIRED) != REQUIRED || (mask & Components.DESTROYED) != 0) {
+                continue;
+            }
+            double x = world.x[i];
+            double y = world.y[i];
+            double dx = world.dx[i];
+            double dy = world.dy[i];
+            byte policy = (mask & Components.BOUNDS) != 0 ? world.boundsPolicy[i] : -1;
+
+            if (policy == Components.BOUNDS_STOP) {
+                // if we're moving out of the area, don't move
+                if ((dx < 0 && x < world.minX[i]) || (dx > 0 && x > world.maxX[i])
+                        || (dy < 0 && y < world.minY[i]) || (dy > 0 && y > world.maxY[i])) {
+                    continue;
+                }
+            } else if (policy == Components.BOUNDS_TURN) {
+                if ((dx < 0 && x < world.minX[i]) || (dx > 0 && x > world.maxX[i])) {
+                    this.turnRequired = true;
+                }
+            }
+
+            x += (delta * dx) / MILLISECONDS_CORRECTIVE;
+            y += (delta * dy) / MILLISECONDS_CORRECTIVE;
+            world.x[i] = x;
+            world.y[i] = y;
+
+            if (policy == Components.BOUNDS_DESPAWN
+                    && (x < world.minX[i] || x > world.maxX[i] || y < world.minY[i] || y > world.maxY[i])) {
+                world.markDestroyed(i);
+                despawned++;
+            }
+        }
+        return despawned;
+    }
+
+    /**
+     * Swap over horizontal movement of the formation and move it down the screen a bit
+     *
+     * @param world world to update
+     * @return true if formation has reached the bottom of its area
+     */
+    public boolean turnFormation(World world) {
+        boolean bottomReached = false;
+        for (int i = 0; i < world.size(); i++) {
+            int mask = world.mask[i];
+            if ((mask & (REQUIRED | Components.BOUNDS)) != (REQUIRED | Components.BOUNDS)
+                    || (mask & Components.DESTROYED) != 0 || world.boundsPolicy[i] != Components.BOUNDS_TURN) {
+                continue;
+            }
+            world.dx[i] = -world.dx[i];
+            world.y[i] += TURN_STEP;
+            if (world.y[i] > world.maxY[i]) {
+                bottomReached = true;
+            }
+        }
+        return bottomReached;
+    }
+
+    /**
+     * Splits the index range in halves until it is not larger than chunk size
+     */
+    private class MoveTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final World world;
+        private final long delta;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        MoveTask(World world, long delta, int from, int to, int chunkSize) {
+            this.world = world;
+            this.delta = delta;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                return moveRange(this.world, this.delta, this.from, this.to);
+            }
+            int middle = (this.from + this.to) >>> 1;
+            MoveTask left = new MoveTask(this.world, this.delta, this.from, middle, this.chunkSize);
+            left.fork();
+            int despawned = new MoveTask(this.world, this.delta, middle, this.to, this.chunkSize).compute();
+            return despawned + left.join();
+        }
+    }
+}
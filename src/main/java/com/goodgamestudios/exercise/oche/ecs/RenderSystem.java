@@ -0,0 +1,28 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import com.goodgamestudios.exercise.oche.logic.Viewport;
+
+import java.awt.*;
+
+/**
+ * Draws sprite of every entity with position and sprite, entities off the screen are skipped
+ */
+public class RenderSystem {
+    private static final int REQUIRED = Components.POSITION | Components.SPRITE;
+
+    /**
+     * @param world world to draw
+     * @param g     The graphics context on which to draw
+     */
+    public void update(World world, Graphics2D g) {
+        for (int i = 0; i < world.size(); i++) {
+            int mask = world.mask[i];
+            if ((mask & REQUIRED) != REQUIRED || (mask & Components.DESTROYED) != 0
+                    || !Viewport.isVisible(world.x[i], world.y[i], world.sprite[i].getWidth(),
+                    world.sprite[i].getHeight())) {
+                continue;
+            }
+            world.sprite[i].draw(g, (int) world.x[i], (int) world.y[i]);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.goodgamestudios.exercise.oche.ecs;
+
+import com.goodgamestudios.exercise.oche.sprites.Sprite;
+
+import java.util.Arrays;
+
+/**
+ * Dense component storage of the entity-component-system core.
+ * Every component is a set of primitive arrays indexed by dense entity index, so live entities
+ * always occupy indices from 0 to size() - 1 and systems are linear scans over packed data.
+ * Destroyed entities are only marked, they are swap-removed by flush(), so indices are stable within a phase.
+ * Entity id is stable for the whole entity life, ids of removed entities are reused.
+ */
+public class World {
+    public static final int NO_ENTITY = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    //Number of live entities
+    private int size;
+    //Number of entities marked as destroyed
+    private int destroyedCount;
+    //Entity id per dense index
+    private int[] ids;
+    //Dense index per entity id, NO_ENTITY for free ids
+    private int[] indices;
+    //Ids which could be reused
+    private int[] freeIds;
+    private int freeIdCount;
+    //Next never used id
+    private int nextId;
+
+    //Component mask per entity
+    int[] mask;
+    //Entity kind, archetype the entity was created from
+    byte[] kind;
+    //Position
+    double[] x;
+    double[] y;
+    //Velocity
+    double[] dx;
+    double[] dy;
+    //Sprite
+    Sprite[] sprite;
+    //Collider
+    int[] width;
+    int[] height;
+    boolean[] projectile;
+    int[] contactDamage;
+    //Weapon
+    long[] fireInterval;
+    long[] lastFire;
+    double[] fireChance;
+    boolean[] trigger;
+    byte[] shotKind;
+    int[] shotOffsetX;
+    int[] shotOffsetY;
+    //Health
+    int[] health;
+    //Faction
+    byte[] faction;
+    //Bounds
+    byte[] boundsPolicy;
+    double[] minX;
+    double[] maxX;
+    double[] minY;
+    double[] maxY;
+
+    public World() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity number of entities world holds before it grows
+     */
+    public World(int initialCapacity) {
+        this.ids = new int[initialCapacity];
+        this.indices = new int[initialCapacity];
+        this.freeIds = new int[initialCapacity];
+        Arrays.fill(this.indices, NO_ENTITY);
+        allocateComponents(initialCapacity);
+    }
+
+    /**
+     * Create entity with given components, component values are zero
+     *
+     * @param components mask of Components bits
+     * @param entityKind one of Components.KIND_* values
+     * @return dense index of the new entity, valid until next flush()
+     */
+    public int create(int components, byte entityKind) {
+        if (this.size == this.mask.length) {
+            grow();
+        }
+        int id = this.freeIdCount > 0 ? this.freeIds[--this.freeIdCount] : this.nextId++;
+        if (id >= this.indices.length) {
+            int oldLength = this.indices.length;
+            this.indices = Arrays.copyOf(this.indices, oldLength * 2);
+            Arrays.fill(this.indices, oldLength, this.indices.length, NO_ENTITY);
+        }
+        int index = this.size++;
+        this.ids[index] = id;
+        this.indices[id] = index;
+        clearComponents(index);
+        this.mask[index] = components;
+        this.kind[index] = entityKind;
+        return index;
+    }
+
+    /**
+     * Mark entity as destroyed, it is skipped by systems and removed by flush(). Repeated calls are ignored
+     *
+     * @param index dense index of entity
+     */
+    public void destroy(int index) {
+        if ((this.mask[index] & Components.DESTROYED) == 0) {
+            this.mask[index] |= Components.DESTROYED;
+            this.destroyedCount++;
+        }
+    }
+
+    /**
+     * Mark entity as destroyed without counting it, for systems which update disjoint index ranges
+     * from several threads. Caller should pass the number of marked entities to addDestroyedCount()
+     *
+     * @param index dense index of entity which is not destroyed yet
+     */
+    void markDestroyed(int index) {
+        this.mask[index] |= Components.DESTROYED;
+    }
+
+    void addDestroyedCount(int count) {
+        this.destroyedCount += count;
+    }
+
+    public boolean isDestroyed(int index) {
+        return (this.mask[index] & Components.DESTROYED) != 0;
+    }
+
+    /**
+     * Remove destroyed entities, the last entity is moved into every gap
+     */
+    public void flush() {
+        if (this.destroyedCount == 0) {
+            return;
+        }
+        // going from the end, every entity after current index is alive
+        for (int index = this.size - 1; index >= 0 && this.destroyedCount > 0; index--) {
+            if ((this.mask[index] & Components.DESTROYED) != 0) {
+                removeAt(index);
+                this.destroyedCount--;
+            }
+        }
+        this.destroyedCount = 0;
+    }
+
+    /**
+     * Remove all entities
+     */
+    public void clear() {
+        Arrays.fill(this.indices, NO_ENTITY);
+        this.size = 0;
+        this.destroyedCount = 0;
+        this.freeIdCount = 0;
+        this.nextId = 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return id of the entity at dense index
+     */
+    public int idAt(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * @return dense index of the entity with id or NO_ENTITY if there is no such entity
+     */
+    public int indexOf(int id) {
+        return id >= 0 && id < this.indices.length ? this.indices[id] : NO_ENTITY;
+    }
+
+    public boolean has(int index, int components) {
+        return (this.mask[index] & components) == components;
+    }
+
+    public byte getKind(int index) {
+        return this.kind[index];
+    }
+
+    public double getX(int index) {
+        return this.x[index];
+    }
+
+    public double getY(int index) {
+        return this.y[index];
+    }
+
+    public double getHorizontalMovement(int index) {
+        return this.dx[index];
+    }
+
+    public double getVerticalMovement(int index) {
+        return this.dy[index];
+    }
+
+    public int getHealth(int index) {
+        return this.health[index];
+    }
+
+    public byte getFaction(int index) {
+        return this.faction[index];
+    }
+
+    public void setLocation(int index, double x, double y) {
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+
+    public void setMovement(int index, double dx, double dy) {
+        this.dx[index] = dx;
+        this.dy[index] = dy;
+    }
+
+    public void setTrigger(int index, boolean trigger) {
+        this.trigger[index] = trigger;
+    }
+
+    private void removeAt(int index) {
+        int last = this.size - 1;
+        int id = this.ids[index];
+        this.indices[id] = NO_ENTITY;
+        this.freeIds[this.freeIdCount++] = id;
+        if (index != last) {
+            copy(last, index);
+            this.indices[this.ids[index]] = index;
+        }
+        this.sprite[last] = null;
+        this.size--;
+    }
+
+    private void copy(int from, int to) {
+        this.ids[to] = this.ids[from];
+        this.mask[to] = this.mask[from];
+        this.kind[to] = this.kind[from];
+        this.x[to] = this.x[from];
+        this.y[to] = this.y[from];
+        this.dx[to] = this.dx[from];
+        this.dy[to] = this.dy[from];
+        this.sprite[to] = this.sprite[from];
+        this.width[to] = this.width[from];
+        this.height[to] = this.height[from];
+        this.projectile[to] = this.projectile[from];
+        this.contactDamage[to] = this.contactDamage[from];
+        this.fireInterval[to] = this.fireInterval[from];
+        this.lastFire[to] = this.lastFire[from];
+        this.fireChance[to] = this.fireChance[from];
+        this.trigger[to] = this.trigger[from];
+        this.shotKind[to] = this.shotKind[from];
+        this.shotOffsetX[to] = this.shotOffsetX[from];
+        this.shotOffsetY[to] = this.shotOffsetY[from];
+        this.health[to] = this.health[from];
+        this.faction[to] = this.faction[from];
+        this.boundsPolicy[to] = this.boundsPolicy[from];
+        this.minX[to] = this.minX[from];
+        this.maxX[to] = this.maxX[from];
+        this.minY[to] = this.minY[from];
+        this.maxY[to] = this.maxY[from];
+    }
+
+    private void clearComponents(int index) {
+        this.x[index] = 0;
+        this.y[index] = 0;
+        this.dx[index] = 0;
+        this.dy[index] = 0;
+        this.sprite[index] = null;
+        this.width[index] = 0;
+        this.height[index] = 0;
+        this.projectile[index] = false;
+        this.contactDamage[index] = 0;
+        this.fireInterval[index] = 0;
+        this.lastFire[index] = 0;
+        this.fireChance[index] = 0;
+        this.trigger[index] = false;
+        this.shotKind[index] = 0;
+        this.shotOffsetX[index] = 0;
+        this.shotOffsetY[index] = 0;
+        this.health[index] = 0;
+        this.faction[index] = 0;
+        this.boundsPolicy[index] = 0;
+        this.minX[index] = 0;
+        this.maxX[index] = 0;
+        this.minY[index] = 0;
+        this.maxY[index] = 0;
+    }
+
+    private void grow() {
+        int capacity = this.mask.length * 2;
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.freeIds = Arrays.copyOf(this.freeIds, capacity);
+        this.mask = Arrays.copyOf(this.mask, capacity);
+        this.kind = Arrays.copyOf(this.kind, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.dx = Arrays.copyOf(this.dx, capacity);
+        this.dy = Arrays.copyOf(this.dy, capacity);
+        this.sprite = Arrays.copyOf(this.sprite, capacity);
+        this.width = Arrays.copyOf(this.width, capacity);
+        this.height = Arrays.copyOf(this.height, capacity);
+        this.projectile = Arrays.copyOf(this.projectile, capacity);
+        this.contactDamage = Arrays.copyOf(this.contactDamage, capacity);
+        this.fireInterval = Arrays.copyOf(this.fireInterval, capacity);
+        this.lastFire = Arrays.copyOf(this.lastFire, capacity);
+        this.fireChance = Arrays.copyOf(this.fireChance, capacity);
+        this.trigger = Arrays.copyOf(this.trigger, capacity);
+        this.shotKind = Arrays.copyOf(this.shotKind, capacity);
+        this.shotOffsetX = Arrays.copyOf(this.shotOffsetX, capacity);
+        this.shotOffsetY = Arrays.copyOf(this.shotOffsetY, capacity);
+        this.health = Arrays.copyOf(this.health, capacity);
+        this.faction = Arrays.copyOf(this.faction, capacity);
+        this.boundsPolicy = Arrays.copyOf(this.boundsPolicy, capacity);
+        this.minX = Arrays.copyOf(this.minX, capacity);
+        this.maxX = Arrays.copyOf(this.maxX, capacity);
+        this.minY = Arrays.copyOf(this.minY, capacity);
+        this.maxY = Arrays.copyOf(this.maxY, capacity);
+    }
+
+    private void allocateComponents(int capacity) {
+        this.mask = new int[capacity];
+        this.kind = new byte[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.dx = new double[capacity];
+        this.dy = new double[capacity];
+        this.sprite = new Sprite[capacity];
+        this.width = new int[capacity];
+        this.height = new int[capacity];
+        this.projectile = new boolean[capacity];
+        this.contactDamage = new int[capacity];
+        this.fireInterval = new long[capacity];
+        this.lastFire = new long[capacity];
+        this.fireChance = new double[capacity];
+        this.trigger = new boolean[capacity];
+        this.shotKind = new byte[capacity];
+        this.shotOffsetX = new int[capacity];
+        this.shotOffsetY = new int[capacity];
+        this.health = new int[capacity];
+        this.faction = new byte[capacity];
+        this.boundsPolicy = new byte[capacity];
+        this.minX = new double[capacity];
+        this.maxX = new double[capacity];
+        this.minY = new double[capacity];
+        this.maxY = new double[capacity];
+    }
+}
@@ -8,7 +8,9 @@ import com.goodgamestudios.exercise.oche.Game;
 public class AlienEntity extends Entity {
     private static String SPRITE_PATH = "sprites/alien.gif";
 
+    //Chance to fire per SHOT_CHANCE_PERIOD of game time
     private static final double SHOT_PROBABILITY = 0.001;
+    private static final double SHOT_CHANCE_PERIOD = 10;
     private static final double MOVE_SPEED = 75;
     private static final long FIRING_INTERVAL = 100;
     private static final int RIGHT_BOUNDARY = 750;
@@ -75,24 +77,35 @@ public class AlienEntity extends Entity {
         }
     }
 
+    /**
+     * Chance of an alien to fire when it is asked after the given time, so aliens fire as often
+     * whatever the rate they are asked at
+     *
+     * @param delta The time that has elapsed since aliens were asked last time
+     */
+    public static double getShotChance(long delta) {
+        return 1 - Math.pow(1 - SHOT_PROBABILITY, delta / SHOT_CHANCE_PERIOD);
+    }
+
     /**
      * Tries to make a shot
+     * @param shotChance chance to fire, see getShotChance(long)
      * @return AlienShotEntity in the case of successful shot, null in other case
      */
-    public AlienShotEntity tryToFireAndReturnShot() {
+    public AlienShotEntity tryToFireAndReturnShot(double shotChance) {
         double chance = Math.random();
-        if(chance > SHOT_PROBABILITY) {
+        if(chance > shotChance) {
             return null;
         }
         // check that we have waiting long enough to fire
-        if (System.currentTimeMillis() - lastFire < FIRING_INTERVAL) {
+        if (this.game.getGameTime() - lastFire < FIRING_INTERVAL) {
             return null;
         }
 
         // if we waited long enough, create the shot entity, and record the time.
-        lastFire = System.currentTimeMillis();
-        return new AlienShotEntity(
-                this.game, this.getX() - SHOT_X_CORRECTIVE, this.getY() + SHOT_Y_CORRECTIVE);
+        lastFire = this.game.getGameTime();
+        return this.game.getEntityMediator().obtainAlienShot(
+                this.getX() - SHOT_X_CORRECTIVE, this.getY() + SHOT_Y_CORRECTIVE);
     }
 
     /**
@@ -10,8 +10,6 @@ public class AlienShotEntity extends Entity {
     private static String SPRITE_PATH = "sprites/alien_shot.gif";
 
     private static final double MOVE_SPEED = 300;
-    private static final int BULLET_BOUNDARY = 700;
-    private static final int LIFE_BOUNDARY = 0;
 
     //Current game entity exists in
     private Game game;
@@ -34,18 +32,23 @@ public class AlienShotEntity extends Entity {
     }
 
     /**
-     * Request that this shot moved based on time elapsed
+     * Reuse this shot from the pool
      *
-     * @param delta The time that has elapsed since last move
+     * @param x The new x location of the shot
+     * @param y The new y location of the shot
      */
-    public void move(long delta) {
-        // proceed with normal move
-        super.move(delta);
+    public void reset(int x, int y) {
+        respawn(x, y);
+        dy = MOVE_SPEED;
+        this.used = false;
+    }
 
-        // if we shot off the screen, remove
-        if (y > BULLET_BOUNDARY) {
-            EntityLogicMediator.getInstance().disposeEntity(this);
-        }
+    /**
+     * Shot which missed everything leaves the screen and is disposed there
+     */
+    @Override
+    public boolean isDespawnedOffScreen() {
+        return true;
     }
 
     /**
@@ -55,9 +58,9 @@ public class AlienShotEntity extends Entity {
      * @parma other The other entity with which we've collided
      */
     public void collidedWith(Entity other) {
-        // prevents double kills, if we've already hit something,
-        // don't collide
-        if (used) {
+        // prevents double kills, if we've already hit something
+        // or a bunker stopped us earlier in the tick, don't collide
+        if (used || isDisposed()) {
             return;
         }
 
@@ -66,16 +69,12 @@ public class AlienShotEntity extends Entity {
             return;
         }
 
-        // if we've hit a ship, check if we have enough life attempts, otherwise kill it with fire!
+        // if we've hit a ship, it will lose a life or die when the tick is over
         if (other instanceof ShipEntity) {
             // remove the affected entities
-            EntityLogicMediator entityLogicMediator = EntityLogicMediator.getInstance();
-            entityLogicMediator.disposeEntity(this);
-            if(entityLogicMediator.getShip().lifeLeft() > LIFE_BOUNDARY){
-                entityLogicMediator.getShip().decreaseLifeCount();
-            } else {
-                game.notifyDeath();
-            }
+            EntityLogicMediator.getInstance().disposeEntity(this);
+            game.notifyPlayerHit();
+            game.spawnHit(getCenterX(), getCenterY());
 
             used = true;
         }
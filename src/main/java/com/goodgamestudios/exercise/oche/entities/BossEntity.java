@@ -0,0 +1,341 @@
+package com.goodgamestudios.exercise.oche.entities;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.sprites.Sprite;
+import com.goodgamestudios.exercise.oche.sprites.SpriteStore;
+
+import java.awt.*;
+
+/**
+ * Large alien made of parts: armored core and four turrets which fire alien shots.
+ * Every part is destroyed separately, core could be damaged only when all turrets are gone,
+ * killing the core kills the boss.
+ * Collisions go through a bounding volume hierarchy: bounds of all alive parts first, then bounds
+ * of every part and finally pixel masks of the part and the other entity. Most entities are far away,
+ * so the boss usually costs one bounds test like any plain entity.
+ */
+public class BossEntity extends Entity {
+    private static final String CORE_SPRITE_PATH = "sprites/boss_core.gif";
+    private static final String TURRET_SPRITE_PATH = "sprites/boss_turret.gif";
+
+    public static final int PART_CORE = 0;
+    public static final int PART_COUNT = 5;
+    //Part locations relative to the boss location, core first, then side and bottom turrets
+    private static final int[] PART_X = {28, 0, 112, 38, 74};
+    private static final int[] PART_Y = {0, 14, 14, 34, 34};
+    private static final int CORE_HEALTH = 12;
+    private static final int TURRET_HEALTH = 3;
+
+    private static final double MOVE_SPEED = 100;
+    private static final int LEFT_BOUNDARY = 10;
+    private static final int RIGHT_BOUNDARY = 654;
+    private static final long FIRING_INTERVAL = 700;
+    private static final int SHOT_X_CORRECTIVE = 6;
+    private static final int SHOT_Y_CORRECTIVE = 14;
+    private static final int NO_PART = -1;
+
+    //Current game entity exists in
+    private Game game;
+    //Sprites of parts
+    private final Sprite[] partSprites;
+    //Hits every part could still take, destroyed part has 0
+    private final int[] health;
+    //Number of turrets left
+    private int turretCount;
+    //Bounds of alive parts relative to the boss location, the root of bounding volume hierarchy
+    private int boundsLeft;
+    private int boundsTop;
+    private int boundsRight;
+    private int boundsBottom;
+    //Part found by the last collision test, it is hit when collision is reported
+    private int hitPart;
+    //Time of the last shot
+    private long lastFire;
+    //Turret which fires next
+    private int nextTurret;
+
+    /**
+     * Create a new boss
+     *
+     * @param game The game in which this entity is being created
+     * @param x    The initial x location of the boss
+     * @param y    The initial y location of the boss
+     */
+    public BossEntity(Game game, int x, int y) {
+        super(CORE_SPRITE_PATH, x, y);
+
+        this.game = game;
+        this.partSprites = new Sprite[PART_COUNT];
+        this.health = new int[PART_COUNT];
+        Sprite turretSprite = SpriteStore.get().getSprite(TURRET_SPRITE_PATH);
+        for (int part = 0; part < PART_COUNT; part++) {
+            this.partSprites[part] = part == PART_CORE ? this.sprite : turretSprite;
+        }
+        reset(x, y);
+    }
+
+    /**
+     * Bring the boss back with all parts intact, so the boss created in advance could join the game
+     * without allocations
+     *
+     * @param x The new x location of the boss
+     * @param y The new y location of the boss
+     */
+    public void reset(int x, int y) {
+        respawn(x, y);
+        for (int part = 0; part < PART_COUNT; part++) {
+            this.health[part] = getMaxPartHealth(part);
+        }
+        this.turretCount = PART_COUNT - 1;
+        this.hitPart = NO_PART;
+        this.lastFire = 0;
+        this.nextTurret = 1;
+        dx = MOVE_SPEED;
+        updateBounds();
+    }
+
+    /**
+     * Fly from side to side above the aliens
+     *
+     * @param delta The time that has elapsed since last move
+     */
+    public void move(long delta) {
+        super.move(delta);
+        if (dx < 0 && x < LEFT_BOUNDARY) {
+            dx = MOVE_SPEED;
+        } else if (dx > 0 && x > RIGHT_BOUNDARY) {
+            dx = -MOVE_SPEED;
+        }
+    }
+
+    @Override
+    public boolean isCompound() {
+        return true;
+    }
+
+    /**
+     * Only alive parts are drawn, so their bounds are tested
+     */
+    @Override
+    public boolean isWithin(int left, int top, int right, int bottom) {
+        return this.x + this.boundsLeft < right && this.x + this.boundsRight > left
+                && this.y + this.boundsTop < bottom && this.y + this.boundsBottom > top;
+    }
+
+    /**
+     * Walk bounding volume hierarchy: bounds of the whole boss, bounds of parts, pixel masks.
+     * If the boss or the other entity is fast, the bounds are swept first and the parts are tested at points
+     * of the rest of the path, no farther apart than half of the other entity, so masks could not be skipped.
+     */
+    @Override
+    public double timeOfImpact(Entity other) {
+        this.hitPart = NO_PART;
+        if (!isFast() && !other.isFast()) {
+            return hitsAt(other, END_OF_TICK) ? END_OF_TICK : NO_IMPACT;
+        }
+        double enter = sweep(this.getXAt(0) + this.boundsLeft, this.getYAt(0) + this.boundsTop,
+                getX() + this.boundsLeft, getY() + this.boundsTop,
+                this.boundsRight - this.boundsLeft, this.boundsBottom - this.boundsTop,
+                other.getXAt(0), other.getYAt(0), other.getX(), other.getY(),
+                other.sprite.getWidth(), other.sprite.getHeight());
+        if (enter == NO_IMPACT || other.isCompound()) {
+            return enter;
+        }
+        double moveX = Math.abs((other.getX() - other.getXAt(0)) - (getX() - getXAt(0)));
+        double moveY = Math.abs((other.getY() - other.getYAt(0)) - (getY() - getYAt(0)));
+        int steps = (int) Math.ceil((END_OF_TICK - enter) * Math.max(moveX * 2 / other.sprite.getWidth(),
+                moveY * 2 / other.sprite.getHeight()));
+        for (int step = 0; step <= steps; step++) {
+            double time = steps == 0 ? END_OF_TICK : enter + (END_OF_TICK - enter) * step / steps;
+            if (hitsAt(other, time)) {
+                return time;
+            }
+        }
+        return NO_IMPACT;
+    }
+
+    /**
+     * Test bounds and parts at locations both entities had at the time of the tick, turrets are tested
+     * before the core as they cover it
+     */
+    private boolean hitsAt(Entity other, double time) {
+        int otherX = other.getXAt(time);
+        int otherY = other.getYAt(time);
+        int otherRight = otherX + other.sprite.getWidth();
+        int otherBottom = otherY + other.sprite.getHeight();
+        int left = getXAt(time);
+        int top = getYAt(time);
+        if (!overlaps(left + this.boundsLeft, top + this.boundsTop, left + this.boundsRight, top + this.boundsBottom,
+                otherX, otherY, otherRight, otherBottom)) {
+            return false;
+        }
+        if (other.isCompound()) {
+            // parts of two compound entities are not matched against each other
+            return true;
+        }
+        for (int part = PART_COUNT - 1; part >= 0; part--) {
+            if (this.health[part] <= 0) {
+                continue;
+            }
+            Sprite partSprite = this.partSprites[part];
+            int partX = left + PART_X[part];
+            int partY = top + PART_Y[part];
+            if (overlaps(partX, partY, partX + partSprite.getWidth(), partY + partSprite.getHeight(),
+                    otherX, otherY, otherRight, otherBottom)
+                    && partSprite.getMask().intersects(other.sprite.getMask(), otherX - partX, otherY - partY)) {
+                this.hitPart = part;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Player shot damages the part it hit, core is armored while turrets are left
+     *
+     * @param other The other entity
+     */
+    public void collidedWith(Entity other) {
+        int part = this.hitPart;
+        this.hitPart = NO_PART;
+        // shot could already be used by another hit of this tick
+        if (!(other instanceof ShotEntity) || other.isDisposed() || part == NO_PART) {
+            return;
+        }
+        this.game.getEntityMediator().disposeEntity(other);
+        if (part == PART_CORE && this.turretCount > 0) {
+            this.game.spawnHit(other.getCenterX(), other.getCenterY());
+            return;
+        }
+        this.health[part]--;
+        if (this.health[part] > 0) {
+            this.game.spawnHit(other.getCenterX(), other.getCenterY());
+            return;
+        }
+        this.game.spawnExplosion(getPartCenterX(part), getPartCenterY(part));
+        if (part == PART_CORE) {
+            this.game.getEntityMediator().disposeEntity(this);
+            this.game.notifyBossKilled();
+        } else {
+            this.turretCount--;
+            updateBounds();
+        }
+    }
+
+    /**
+     * Alive turrets fire in turn
+     *
+     * @return AlienShotEntity in the case of successful shot, null in other case
+     */
+    public AlienShotEntity tryToFireAndReturnShot() {
+        if (this.turretCount == 0 || this.game.getGameTime() - this.lastFire < FIRING_INTERVAL) {
+            return null;
+        }
+        this.lastFire = this.game.getGameTime();
+        while (this.health[this.nextTurret] <= 0) {
+            this.nextTurret = this.nextTurret % (PART_COUNT - 1) + 1;
+        }
+        int turret = this.nextTurret;
+        this.nextTurret = this.nextTurret % (PART_COUNT - 1) + 1;
+        return this.game.getEntityMediator().obtainAlienShot(
+                (int) getPartCenterX(turret) - SHOT_X_CORRECTIVE, getY() + PART_Y[turret] + SHOT_Y_CORRECTIVE);
+    }
+
+    /**
+     * Draw alive parts
+     *
+     * @param g The graphics context on which to draw
+     */
+    @Override
+    public void draw(Graphics g) {
+        for (int part = 0; part < PART_COUNT; part++) {
+            if (this.health[part] > 0) {
+                this.partSprites[part].draw(g, getX() + PART_X[part], getY() + PART_Y[part]);
+            }
+        }
+    }
+
+    @Override
+    public double getCenterX() {
+        return this.x + (this.boundsLeft + this.boundsRight) / 2.0;
+    }
+
+    @Override
+    public double getCenterY() {
+        return this.y + (this.boundsTop + this.boundsBottom) / 2.0;
+    }
+
+    public double getPartCenterX(int part) {
+        return this.x + PART_X[part] + this.partSprites[part].getWidth() / 2.0;
+    }
+
+    public double getPartCenterY(int part) {
+        return this.y + PART_Y[part] + this.partSprites[part].getHeight() / 2.0;
+    }
+
+    /**
+     * @return hits the part could still take, 0 if it is destroyed
+     */
+    public int getPartHealth(int part) {
+        return this.health[part];
+    }
+
+    /**
+     * @return hits the intact part could take
+     */
+    public static int getMaxPartHealth(int part) {
+        return part == PART_CORE ? CORE_HEALTH : TURRET_HEALTH;
+    }
+
+    /**
+     * Set part health, e.g. when saved game is restored
+     */
+    public void setPartHealth(int part, int health) {
+        this.health[part] = health;
+        this.turretCount = 0;
+        for (int i = 0; i < PART_COUNT; i++) {
+            if (i != PART_CORE && this.health[i] > 0) {
+                this.turretCount++;
+            }
+        }
+        updateBounds();
+    }
+
+    /**
+     * @return bounds of alive parts
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(getX() + this.boundsLeft, getY() + this.boundsTop,
+                this.boundsRight - this.boundsLeft, this.boundsBottom - this.boundsTop);
+    }
+
+    /**
+     * Shrink the root bounding volume to alive parts
+     */
+    private void updateBounds() {
+        this.boundsLeft = Integer.MAX_VALUE;
+        this.boundsTop = Integer.MAX_VALUE;
+        this.boundsRight = Integer.MIN_VALUE;
+        this.boundsBottom = Integer.MIN_VALUE;
+        for (int part = 0; part < PART_COUNT; part++) {
+            if (this.health[part] > 0) {
+                this.boundsLeft = Math.min(this.boundsLeft, PART_X[part]);
+                this.boundsTop = Math.min(this.boundsTop, PART_Y[part]);
+                this.boundsRight = Math.max(this.boundsRight, PART_X[part] + this.partSprites[part].getWidth());
+                this.boundsBottom = Math.max(this.boundsBottom, PART_Y[part] + this.partSprites[part].getHeight());
+            }
+        }
+        if (this.boundsLeft > this.boundsRight) {
+            // nothing is left, nothing could be hit
+            this.boundsLeft = 0;
+            this.boundsTop = 0;
+            this.boundsRight = 0;
+            this.boundsBottom = 0;
+        }
+    }
+
+    private static boolean overlaps(int left, int top, int right, int bottom,
+                                    int otherLeft, int otherTop, int otherRight, int otherBottom) {
+        return left < otherRight && otherLeft < right && top < otherBottom && otherTop < bottom;
+    }
+}
@@ -0,0 +1,298 @@
+package com.goodgamestudios.exercise.oche.entities;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+
+/**
+ * Destructible shield between the ship and the aliens. Every pixel of the bunker is one bit of packed
+ * long[] bitmap, row after row. Shot is tested against the bitmap with word-level AND of its column mask
+ * and eroded by clearing precomputed crater mask, so the cost of both depends on the shot size only.
+ * Bunker is drawn from cached image, rows changed since the last draw are uploaded to it before drawing,
+ * so frame cost does not depend on accumulated damage either.
+ */
+public class Bunker {
+    public static final int WIDTH = 64;
+    public static final int HEIGHT = 32;
+    //Row returned when shot misses the bunker
+    public static final int NO_HIT = -1;
+    private static final int WORD_BITS = Long.SIZE;
+    private static final int WORDS_PER_ROW = (WIDTH + WORD_BITS - 1) / WORD_BITS;
+    //Height of the cut top corners
+    private static final int CORNER_SIZE = 10;
+    //Arch in the bottom center
+    private static final int ARCH_WIDTH = 24;
+    private static final int ARCH_HEIGHT = 12;
+    private static final int CRATER_RADIUS = 5;
+    private static final int COLOR = 0xFF20C020;
+
+    //Crater rows, bit k clears column (center - CRATER_RADIUS + k)
+    private static final long[] CRATER = createCrater();
+    //Intact bunker
+    private static final long[] SHAPE = createShape();
+
+    //The x location of the left top corner
+    private final int x;
+    //The y location of the left top corner
+    private final int y;
+    //Pixels left, WORDS_PER_ROW words per row, bits beyond WIDTH are always clear
+    private final long[] bits;
+    //Rows changed since the last upload to the image, empty if from >= to
+    private int dirtyFrom;
+    private int dirtyTo;
+    //Cached image, created on the first draw so headless games never have it
+    private BufferedImage image;
+    //Pixels of one row being uploaded
+    private int[] rowPixels;
+
+    /**
+     * @param x The x location of the left top corner
+     * @param y The y location of the left top corner
+     */
+    public Bunker(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.bits = new long[SHAPE.length];
+        reset();
+    }
+
+    /**
+     * Repair the bunker to its intact shape
+     */
+    public void reset() {
+        System.arraycopy(SHAPE, 0, this.bits, 0, SHAPE.length);
+        markDirty(0, HEIGHT);
+    }
+
+    /**
+     * Test a shot against remaining pixels and erode the bunker where the shot hits it first
+     *
+     * @param shotX      The x location of the shot
+     * @param shotY      The y location of the shot
+     * @param shotWidth  Width of the shot
+     * @param shotHeight Height of the shot
+     * @param downward   True if the shot flies down, so its first contact is the top hit row
+     * @return true if the shot hit the bunker
+     */
+    public boolean erode(int shotX, int shotY, int shotWidth, int shotHeight, boolean downward) {
+        int row = findHitRow(shotX, shotY, shotWidth, shotHeight, downward);
+        if (row == NO_HIT) {
+            return false;
+        }
+        erode(shotX, shotWidth, row);
+        return true;
+    }
+
+    /**
+     * Test a shot against remaining pixels without eroding the bunker
+     *
+     * @param shotX      The x location of the shot
+     * @param shotY      The y location of the shot
+     * @param shotWidth  Width of the shot
+     * @param shotHeight Height of the shot
+     * @param downward   True if the shot flies down, so its first contact is the top hit row
+     * @return row of the first contact relative to the bunker top, NO_HIT if the shot misses the bunker
+     */
+    public int findHitRow(int shotX, int shotY, int shotWidth, int shotHeight, boolean downward) {
+        int fromColumn = Math.max(shotX - this.x, 0);
+        int toColumn = Math.min(shotX + shotWidth - this.x, WIDTH) - 1;
+        int fromRow = Math.max(shotY - this.y, 0);
+        int toRow = Math.min(shotY + shotHeight - this.y, HEIGHT) - 1;
+        if (fromColumn > toColumn || fromRow > toRow) {
+            return NO_HIT;
+        }
+        int fromWord = fromColumn / WORD_BITS;
+        int toWord = toColumn / WORD_BITS;
+        long firstMask = -1L << (fromColumn % WORD_BITS);
+        long lastMask = -1L >>> (WORD_BITS - 1 - toColumn % WORD_BITS);
+        int step = downward ? 1 : -1;
+        int row = downward ? fromRow : toRow;
+        for (int i = fromRow; i <= toRow; i++, row += step) {
+            int rowStart = row * WORDS_PER_ROW;
+            for (int word = fromWord; word <= toWord; word++) {
+                long mask = -1L;
+                if (word == fromWord) {
+                    mask &= firstMask;
+                }
+                if (word == toWord) {
+                    mask &= lastMask;
+                }
+                if ((this.bits[rowStart + word] & mask) != 0) {
+                    return row;
+                }
+            }
+        }
+        return NO_HIT;
+    }
+
+    /**
+     * Erode crater in the row the shot hit, centered under the shot
+     *
+     * @param shotX     The x location of the shot
+     * @param shotWidth Width of the shot
+     * @param row       Row of the contact found by findHitRow
+     */
+    private void erode(int shotX, int shotWidth, int row) {
+        int fromColumn = Math.max(shotX - this.x, 0);
+        int toColumn = Math.min(shotX + shotWidth - this.x, WIDTH) - 1;
+        clearCrater(fromColumn + (toColumn - fromColumn) / 2, row);
+    }
+
+    /**
+     * Clear crater mask centered at the pixel
+     */
+    private void clearCrater(int centerColumn, int centerRow) {
+        int fromRow = Math.max(centerRow - CRATER_RADIUS, 0);
+        int toRow = Math.min(centerRow + CRATER_RADIUS, HEIGHT - 1);
+        int column = centerColumn - CRATER_RADIUS;
+        for (int row = fromRow; row <= toRow; row++) {
+            long mask = CRATER[row - centerRow + CRATER_RADIUS];
+            int start = column;
+            if (start < 0) {
+                mask >>>= -start;
+                start = 0;
+            }
+            int rowStart = row * WORDS_PER_ROW;
+            int word = start / WORD_BITS;
+            int offset = start % WORD_BITS;
+            this.bits[rowStart + word] &= ~(mask << offset);
+            if (offset != 0 && word + 1 < WORDS_PER_ROW) {
+                this.bits[rowStart + word + 1] &= ~(mask >>> (WORD_BITS - offset));
+            }
+        }
+        markDirty(fromRow, toRow + 1);
+    }
+
+    /**
+     * Draw the bunker, changed rows are uploaded to the cached image first
+     *
+     * @param g The graphics context on which to draw
+     */
+    public void draw(Graphics g) {
+        if (this.image == null) {
+            this.image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+            this.rowPixels = new int[WIDTH];
+            markDirty(0, HEIGHT);
+        }
+        if (this.dirtyFrom < this.dirtyTo) {
+            WritableRaster raster = this.image.getRaster();
+            for (int row = this.dirtyFrom; row < this.dirtyTo; row++) {
+                for (int column = 0; column < WIDTH; column++) {
+                    this.rowPixels[column] = isSet(column, row) ? COLOR : 0;
+                }
+                // raster keeps the image managed, so only changed rows go to the accelerated copy
+                raster.setDataElements(0, row, WIDTH, 1, this.rowPixels);
+            }
+            this.dirtyFrom = HEIGHT;
+            this.dirtyTo = 0;
+        }
+        g.drawImage(this.image, this.x, this.y, null);
+    }
+
+    /**
+     * @return true if the pixel of the bunker is left
+     */
+    public boolean isSet(int column, int row) {
+        return (this.bits[row * WORDS_PER_ROW + column / WORD_BITS] & (1L << (column % WORD_BITS))) != 0;
+    }
+
+    /**
+     * @return number of pixels left
+     */
+    public int getPixelCount() {
+        int count = 0;
+        for (long word : this.bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getWordCount() {
+        return this.bits.length;
+    }
+
+    /**
+     * @param index word index, row * words per row + column / 64
+     */
+    public long getWord(int index) {
+        return this.bits[index];
+    }
+
+    /**
+     * Set bitmap word, e.g. when saved game is restored. Bits which are not in intact bunker are ignored
+     */
+    public void setWord(int index, long word) {
+        this.bits[index] = word & SHAPE[index];
+        markDirty(index / WORDS_PER_ROW, index / WORDS_PER_ROW + 1);
+    }
+
+    /**
+     * @return first changed row which is not uploaded to the image yet, HEIGHT if there are none
+     */
+    public int getDirtyFrom() {
+        return this.dirtyFrom < this.dirtyTo ? this.dirtyFrom : HEIGHT;
+    }
+
+    /**
+     * @return row after the last changed row which is not uploaded to the image yet, 0 if there are none
+     */
+    public int getDirtyTo() {
+        return this.dirtyFrom < this.dirtyTo ? this.dirtyTo : 0;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    private void markDirty(int fromRow, int toRow) {
+        if (this.dirtyFrom >= this.dirtyTo) {
+            this.dirtyFrom = fromRow;
+            this.dirtyTo = toRow;
+        } else {
+            this.dirtyFrom = Math.min(this.dirtyFrom, fromRow);
+            this.dirtyTo = Math.max(this.dirtyTo, toRow);
+        }
+    }
+
+    /**
+     * Classic bunker: block with cut top corners and an arch in the bottom center
+     */
+    private static long[] createShape() {
+        long[] shape = new long[HEIGHT * WORDS_PER_ROW];
+        int archFrom = (WIDTH - ARCH_WIDTH) / 2;
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int column = 0; column < WIDTH; column++) {
+                boolean corner = row < CORNER_SIZE
+                        && (column < CORNER_SIZE - row || column >= WIDTH - CORNER_SIZE + row);
+                boolean arch = row >= HEIGHT - ARCH_HEIGHT
+                        && column >= archFrom && column < archFrom + ARCH_WIDTH;
+                if (!corner && !arch) {
+                    shape[row * WORDS_PER_ROW + column / WORD_BITS] |= 1L << (column % WORD_BITS);
+                }
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Round crater with ragged edge, the same for every hit
+     */
+    private static long[] createCrater() {
+        long[] crater = new long[CRATER_RADIUS * 2 + 1];
+        for (int dy = -CRATER_RADIUS; dy <= CRATER_RADIUS; dy++) {
+            for (int dx = -CRATER_RADIUS; dx <= CRATER_RADIUS; dx++) {
+                int distance = dx * dx + dy * dy;
+                // every other pixel of the rim survives, so the crater edge looks chipped
+                boolean rim = distance > (CRATER_RADIUS - 1) * (CRATER_RADIUS - 1);
+                if (distance <= CRATER_RADIUS * CRATER_RADIUS && !(rim && ((dx + dy) & 1) != 0)) {
+                    crater[dy + CRATER_RADIUS] |= 1L << (dx + CRATER_RADIUS);
+                }
+            }
+        }
+        return crater;
+    }
+}
@@ -12,13 +12,28 @@ import java.awt.*;
  */
 public abstract class Entity {
 
+    /**
+     * Time of impact of entities which do not collide
+     */
+    public static final double NO_IMPACT = -1;
+    /**
+     * Time of impact of entities which are found overlapping at their locations after the tick
+     */
+    public static final double END_OF_TICK = 1;
+
     private static final int MILLISECONDS_CORRECTIVE = 1000;
     // true if entity is paused
     protected boolean isPaused;
+    // true if entity is removed from the game and waits for clean up
+    private boolean disposed;
     // The current x location of this entity
     protected double x;
     // The current y location of this entity
     protected double y;
+    // The x location at the start of the tick, swept collisions start from it
+    private double previousX;
+    // The y location at the start of the tick
+    private double previousY;
     // The sprite that represents this entity
     protected Sprite sprite;
     // The current speed of this entity horizontally (pixels/sec)
@@ -41,10 +56,20 @@ public abstract class Entity {
         this.sprite = SpriteStore.get().getSprite(ref);
         this.x = x;
         this.y = y;
+        this.previousX = x;
+        this.previousY = y;
         this.me = new Rectangle();
         this.him = new Rectangle();
     }
 
+    /**
+     * Remember the location before the entity moves in this tick
+     */
+    public void markPreviousLocation() {
+        this.previousX = this.x;
+        this.previousY = this.y;
+    }
+
     /**
      * Request that this entity move itself based on a certain ammount
      * of time passing.
@@ -68,10 +93,106 @@ public abstract class Entity {
      * @return True if the entities collide with each other
      */
     public boolean collidesWith(Entity other) {
+        return timeOfImpact(other) != NO_IMPACT;
+    }
+
+    /**
+     * Find when during the last tick this entity touched another.
+     * Slow entities are tested at their locations after the tick. If any of the two is fast, their boxes
+     * are swept along the paths of the tick, so a long tick could not carry a shot over its target.
+     * Compound entity (made of several parts) overrides this method and tests its own bounding volumes
+     * for any other entity, plain entity hands the test over to compound one, so a miss costs one bounds test
+     * whatever side of the pair the compound entity is.
+     *
+     * @param other The other entity to check collision against
+     * @return Fraction of the tick, from 0 to 1, when the entities touched first, NO_IMPACT if they did not
+     */
+    public double timeOfImpact(Entity other) {
+        if (other.isCompound()) {
+            return other.timeOfImpact(this);
+        }
+        if (isFast() || other.isFast()) {
+            return sweep(this.previousX, this.previousY, this.x, this.y, sprite.getWidth(), sprite.getHeight(),
+                    other.previousX, other.previousY, other.x, other.y,
+                    other.sprite.getWidth(), other.sprite.getHeight());
+        }
         me.setBounds((int) x, (int) y, sprite.getWidth(), sprite.getHeight());
         him.setBounds((int) other.x, (int) other.y, other.sprite.getWidth(), other.sprite.getHeight());
 
-        return me.intersects(him);
+        return me.intersects(him) ? END_OF_TICK : NO_IMPACT;
+    }
+
+    /**
+     * Entity is fast if it moved farther than half of its size in the last tick. Two entities which are not
+     * fast could not pass through each other, as together they move less than their sizes.
+     *
+     * @return true if collisions of the entity should be swept
+     */
+    public boolean isFast() {
+        return Math.abs(this.x - this.previousX) * 2 > sprite.getWidth()
+                || Math.abs(this.y - this.previousY) * 2 > sprite.getHeight();
+    }
+
+    /**
+     * Swept test of two boxes moving along straight lines during the tick. The first box is moved by the
+     * motion relative to the second one, the times it enters and leaves the second box are found for
+     * every axis, boxes touch if the latest entering comes before the earliest leaving.
+     *
+     * @return Fraction of the tick when boxes start to overlap, NO_IMPACT if they do not
+     */
+    protected static double sweep(double fromX, double fromY, double toX, double toY, int width, int height,
+                                  double otherFromX, double otherFromY, double otherToX, double otherToY,
+                                  int otherWidth, int otherHeight) {
+        double startX = fromX - otherFromX;
+        double startY = fromY - otherFromY;
+        double moveX = (toX - fromX) - (otherToX - otherFromX);
+        double moveY = (toY - fromY) - (otherToY - otherFromY);
+        double enter = 0;
+        double leave = END_OF_TICK;
+        // boxes overlap while -width < relative x < otherWidth, the same for y
+        if (moveX == 0) {
+            if (startX <= -width || startX >= otherWidth) {
+                return NO_IMPACT;
+            }
+        } else {
+            double first = (-width - startX) / moveX;
+            double second = (otherWidth - startX) / moveX;
+            enter = Math.max(enter, Math.min(first, second));
+            leave = Math.min(leave, Math.max(first, second));
+        }
+        if (moveY == 0) {
+            if (startY <= -height || startY >= otherHeight) {
+                return NO_IMPACT;
+            }
+        } else {
+            double first = (-height - startY) / moveY;
+            double second = (otherHeight - startY) / moveY;
+            enter = Math.max(enter, Math.min(first, second));
+            leave = Math.min(leave, Math.max(first, second));
+        }
+        return enter < leave ? enter : NO_IMPACT;
+    }
+
+    /**
+     * @return true if entity is made of parts and tests collisions by itself
+     */
+    public boolean isCompound() {
+        return false;
+    }
+
+    /**
+     * @return true if entity is disposed when it gets farther off the screen than the despawn margin, see Viewport
+     */
+    public boolean isDespawnedOffScreen() {
+        return false;
+    }
+
+    /**
+     * @return true if any drawn pixel of the entity could be within the area
+     */
+    public boolean isWithin(int left, int top, int right, int bottom) {
+        return this.x < right && this.x + this.sprite.getWidth() > left
+                && this.y < bottom && this.y + this.sprite.getHeight() > top;
     }
 
     /**
@@ -97,6 +218,31 @@ public abstract class Entity {
         return isPaused;
     }
 
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    public void setDisposed(boolean disposed) {
+        this.disposed = disposed;
+    }
+
+    /**
+     * Bring pooled entity back to the game at new location
+     *
+     * @param x The new x location of this entity
+     * @param y The new y location of this entity
+     */
+    protected void respawn(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.previousX = x;
+        this.previousY = y;
+        this.dx = 0;
+        this.dy = 0;
+        this.isPaused = false;
+        this.disposed = false;
+    }
+
     public double getHorizontalMovement() {
         return dx;
     }
@@ -114,6 +260,45 @@ public abstract class Entity {
         sprite.draw(g, (int) x, (int) y);
     }
 
+    /**
+     * Place entity to exact location, e.g. when saved game is restored
+     *
+     * @param x The new x location of this entity
+     * @param y The new y location of this entity
+     */
+    public void setLocation(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.previousX = x;
+        this.previousY = y;
+    }
+
+    public double getExactX() {
+        return x;
+    }
+
+    public double getExactY() {
+        return y;
+    }
+
+    /**
+     * @return x of the sprite center, e.g. where explosion of the entity starts
+     */
+    public double getCenterX() {
+        return this.x + this.sprite.getWidth() / 2.0;
+    }
+
+    public double getCenterY() {
+        return this.y + this.sprite.getHeight() / 2.0;
+    }
+
+    /**
+     * @return bounds of the visible pixels relative to the entity location
+     */
+    public Rectangle getOpaqueBounds() {
+        return this.sprite.getOpaqueBounds();
+    }
+
     public int getX() {
         return (int) x;
     }
@@ -122,6 +307,28 @@ public abstract class Entity {
         return (int) y;
     }
 
+    /**
+     * @param time Fraction of the last tick
+     * @return x location the entity had at that time of the tick
+     */
+    public int getXAt(double time) {
+        if (time >= END_OF_TICK) {
+            return (int) this.x;
+        }
+        return (int) (this.previousX + (this.x - this.previousX) * time);
+    }
+
+    /**
+     * @param time Fraction of the last tick
+     * @return y location the entity had at that time of the tick
+     */
+    public int getYAt(double time) {
+        if (time >= END_OF_TICK) {
+            return (int) this.y;
+        }
+        return (int) (this.previousY + (this.y - this.previousY) * time);
+    }
+
     /**
      * Notification that this entity collided with another.
      *
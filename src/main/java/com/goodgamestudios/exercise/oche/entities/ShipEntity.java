@@ -20,6 +20,7 @@ public class ShipEntity extends Entity {
     private static final int SHOT_X_CORRECTIVE = 10;
     private static final int SHOT_Y_CORRECTIVE = 30;
     private static final int LIFE_COUNT = 5;
+    private static final int LIFE_BOUNDARY = 0;
 
     //Time elapsed from last fire
     private long lastFire = 0;
@@ -102,15 +103,16 @@ public class ShipEntity extends Entity {
      */
     public void tryToFire() {
         // check that we have waiting long enough to fire
-        if (System.currentTimeMillis() - lastFire < FIRING_INTERVAL) {
+        if (this.game.getGameTime() - lastFire < FIRING_INTERVAL) {
             return;
         }
 
         // if we waited long enough, create the shot entity, and record the time.
-        lastFire = System.currentTimeMillis();
-        ShotEntity shot = new ShotEntity(
-                this.game, this.getX() + SHOT_X_CORRECTIVE, this.getY() - SHOT_Y_CORRECTIVE);
-        EntityLogicMediator.getInstance().addShot(shot);
+        lastFire = this.game.getGameTime();
+        EntityLogicMediator entityLogicMediator = EntityLogicMediator.getInstance();
+        ShotEntity shot = entityLogicMediator.obtainShot(
+                this.getX() + SHOT_X_CORRECTIVE, this.getY() - SHOT_Y_CORRECTIVE);
+        entityLogicMediator.addShot(shot);
     }
 
     /**
@@ -122,8 +124,20 @@ public class ShipEntity extends Entity {
         // if its an alien, notify the game that the player is dead
         if (other instanceof AlienEntity) {
             this.lifeCount = 0;
-            EntityLogicMediator.getInstance().clearAllGameEntities();
             game.notifyDeath();
+            game.spawnExplosion(getCenterX(), getCenterY());
+        }
+    }
+
+    /**
+     * Ship is hit by alien shot, check if we have enough life attempts, otherwise kill it with fire!
+     */
+    public void hit() {
+        if (this.lifeCount > LIFE_BOUNDARY) {
+            this.lifeCount--;
+        } else {
+            game.notifyDeath();
+            game.spawnExplosion(getCenterX(), getCenterY());
         }
     }
 
@@ -134,4 +148,8 @@ public class ShipEntity extends Entity {
     public void decreaseLifeCount() {
         this.lifeCount--;
     }
+
+    public void setLifeCount(int lifeCount) {
+        this.lifeCount = lifeCount;
+    }
 }
\ No newline at end of file
@@ -10,7 +10,6 @@ public class ShotEntity extends Entity {
     private static String SPRITE_PATH = "sprites/shot.gif";
 
     private static final double MOVE_SPEED = -300;
-    private static final double SHOT_BOUNDARY = -100;
 
     //Current game entity exists in
     private Game game;
@@ -33,19 +32,23 @@ public class ShotEntity extends Entity {
     }
 
     /**
-     * Request that this shot moved based on time elapsed
+     * Reuse this shot from the pool
      *
-     * @param delta The time that has elapsed since last move
+     * @param x The new x location of the shot
+     * @param y The new y location of the shot
      */
-    public void move(long delta) {
-        // proceed with normal move
-        super.move(delta);
+    public void reset(int x, int y) {
+        respawn(x, y);
+        dy = MOVE_SPEED;
+        this.used = false;
+    }
 
-        // if we shot off the screen, remove ourselfs
-        if (y < SHOT_BOUNDARY) {
-            //this.game.entremoveEntity(this);
-            this.game.getEntityMediator().disposeEntity(this);
-        }
+    /**
+     * Shot which missed everything leaves the screen and is disposed there
+     */
+    @Override
+    public boolean isDespawnedOffScreen() {
+        return true;
     }
 
     /**
@@ -55,18 +58,19 @@ public class ShotEntity extends Entity {
      * @parma other The other entity with which we've collided
      */
     public void collidedWith(Entity other) {
-        // prevents double kills, if we've already hit something, don't collide
-        if (used) {
+        // prevents double kills, if we've already hit something (e.g. the boss), don't collide
+        if (used || isDisposed()) {
             return;
         }
 
-        // if we've hit an alien, kill it!
-        if (other instanceof AlienEntity) {
+        // if we've hit an alien, kill it! Alien could already be killed by other shot in this loop
+        if (other instanceof AlienEntity && !other.isDisposed()) {
             // remove the affected entities
             this.game.getEntityMediator().disposeEntity(this);
             this.game.getEntityMediator().disposeEntity(other);
             // notify the game that the alien has been killed
             game.notifyAlienKilled();
+            game.spawnExplosion(other.getCenterX(), other.getCenterY());
             used = true;
         }
     }
@@ -0,0 +1,96 @@
+package com.goodgamestudios.exercise.oche.env;
+
+/**
+ * Batch of independent environments stepped together in one call.
+ * Observations, rewards and done flags of all environments are kept in preallocated arrays,
+ * observation of environment i starts at i * GameEnvironment.OBSERVATION_SIZE.
+ * Finished episode is reset at once, its done flag is set and observation is the first one of the new episode.
+ */
+public class BatchEnvironment {
+    //Environments of the batch
+    private final GameEnvironment[] environments;
+    //Observations of all environments
+    private final float[] observations;
+    //Rewards of the last step
+    private final float[] rewards;
+    //True for environments whose episode was over by the last step
+    private final boolean[] dones;
+    //Number of finished episodes
+    private long episodeCount;
+
+    /**
+     * @param size number of environments
+     * @param seed seed of the first environment, environment i is seeded with seed + i
+     */
+    public BatchEnvironment(int size, long seed) {
+        if (size <= 0) {
+            throw new IllegalStateException("Could not be initialised without environments");
+        }
+        this.environments = new GameEnvironment[size];
+        for (int i = 0; i < size; i++) {
+            this.environments[i] = new GameEnvironment(seed + i);
+        }
+        this.observations = new float[size * GameEnvironment.OBSERVATION_SIZE];
+        this.rewards = new float[size];
+        this.dones = new boolean[size];
+    }
+
+    /**
+     * Start new episodes in all environments
+     *
+     * @return observations of all environments
+     */
+    public float[] reset() {
+        for (int i = 0; i < this.environments.length; i++) {
+            this.environments[i].reset(this.observations, i * GameEnvironment.OBSERVATION_SIZE);
+            this.rewards[i] = 0;
+            this.dones[i] = false;
+        }
+        return this.observations;
+    }
+
+    /**
+     * Step all environments, results are in observations, rewards and dones arrays
+     *
+     * @param actions action for every environment
+     */
+    public void step(int[] actions) {
+        if (actions.length != this.environments.length) {
+            throw new IllegalStateException("Expected " + this.environments.length + " actions");
+        }
+        for (int i = 0; i < this.environments.length; i++) {
+            GameEnvironment environment = this.environments[i];
+            int offset = i * GameEnvironment.OBSERVATION_SIZE;
+            this.rewards[i] = environment.step(actions[i], this.observations, offset);
+            this.dones[i] = environment.isDone();
+            if (this.dones[i]) {
+                this.episodeCount++;
+                environment.reset(this.observations, offset);
+            }
+        }
+    }
+
+    public int size() {
+        return this.environments.length;
+    }
+
+    public float[] getObservations() {
+        return this.observations;
+    }
+
+    public float[] getRewards() {
+        return this.rewards;
+    }
+
+    public boolean[] getDones() {
+        return this.dones;
+    }
+
+    public long getEpisodeCount() {
+        return this.episodeCount;
+    }
+
+    public GameEnvironment getEnvironment(int index) {
+        return this.environments[index];
+    }
+}
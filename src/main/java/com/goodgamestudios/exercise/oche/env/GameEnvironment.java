@@ -0,0 +1,178 @@
+package com.goodgamestudios.exercise.oche.env;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.Components;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.StateLogicMediator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Game as step/reset environment for automated agents, nothing is rendered.
+ * Action is bitmask of KeyInputLogicMediator.CONTROL_* values (pause is ignored), one step is one game tick,
+ * reward is the score gained by the step. Episode is done when the game is over.
+ * <p/>
+ * Observation is flat float array, coordinates are divided by screen size:
+ * - ship x, y (0 if ship is destroyed)
+ * - alien grid occupancy, 1 for every screen cell with an alien, row by row
+ * - nearest alien shots, for every shot: 1 if present, x and y relative to the ship
+ * Observation is written into buffer given by caller, so stepping does not allocate.
+ */
+public class GameEnvironment {
+    private static final long TICK_DELTA = 10;
+    private static final float SCREEN_WIDTH = 800;
+    private static final float SCREEN_HEIGHT = 600;
+    private static final int CELL_SIZE = 50;
+    public static final int GRID_COLUMNS = 16;
+    public static final int GRID_ROWS = 12;
+    public static final int NEAREST_SHOT_COUNT = 4;
+    private static final int SHIP_OFFSET = 0;
+    private static final int GRID_OFFSET = 2;
+    private static final int SHOTS_OFFSET = GRID_OFFSET + GRID_COLUMNS * GRID_ROWS;
+    private static final int SHOT_VALUE_COUNT = 3;
+    public static final int OBSERVATION_SIZE = SHOTS_OFFSET + NEAREST_SHOT_COUNT * SHOT_VALUE_COUNT;
+    private static final int ALLOWED_ACTIONS = KeyInputLogicMediator.CONTROL_UP | KeyInputLogicMediator.CONTROL_DOWN
+            | KeyInputLogicMediator.CONTROL_LEFT | KeyInputLogicMediator.CONTROL_RIGHT
+            | KeyInputLogicMediator.CONTROL_FIRE;
+
+    //Game the environment is played in
+    private final Game game;
+    //Controls of the game
+    private final KeyInputLogicMediator controls;
+    //Score of the game
+    private final StateLogicMediator state;
+    //Entity logic of the game, its world is observed
+    private final EcsLogicMediator entityLogic;
+    //Squared distances and dense indices of nearest shots, sorted from the nearest
+    private final double[] nearestDistances;
+    private final int[] nearestShots;
+    //Score before the step
+    private int lastScore;
+    //Number of steps made in current episode
+    private long episodeSteps;
+
+    /**
+     * @param seed seed of game chances, environments with the same seed and actions play the same episodes
+     */
+    public GameEnvironment(long seed) {
+        this.game = Game.createSession(new Random(seed));
+        this.game.initGame();
+        this.controls = this.game.getKeyInputLogicMediator();
+        this.state = this.game.getStateLogicMediator();
+        this.entityLogic = (EcsLogicMediator) this.game.getEntityLogic();
+        this.nearestDistances = new double[NEAREST_SHOT_COUNT];
+        this.nearestShots = new int[NEAREST_SHOT_COUNT];
+    }
+
+    /**
+     * Start new episode
+     *
+     * @param observation buffer to write the first observation to
+     * @param offset      position of observation in the buffer
+     */
+    public void reset(float[] observation, int offset) {
+        this.controls.restart();
+        this.lastScore = this.state.getScore();
+        this.episodeSteps = 0;
+        observe(observation, offset);
+    }
+
+    /**
+     * Press controls and advance the game by one tick
+     *
+     * @param action      bitmask of KeyInputLogicMediator.CONTROL_* values
+     * @param observation buffer to write the next observation to
+     * @param offset      position of observation in the buffer
+     * @return reward, the score gained by the step
+     */
+    public float step(int action, float[] observation, int offset) {
+        if (isDone()) {
+            throw new IllegalStateException("Episode is over, please call reset() before step");
+        }
+        this.controls.setControls(action & ALLOWED_ACTIONS);
+        this.game.tick(TICK_DELTA);
+        this.episodeSteps++;
+        int score = this.state.getScore();
+        float reward = score - this.lastScore;
+        this.lastScore = score;
+        observe(observation, offset);
+        return reward;
+    }
+
+    /**
+     * @return true if game is over and reset() should be called
+     */
+    public boolean isDone() {
+        return this.controls.isWaitingForKeyPress();
+    }
+
+    public int getScore() {
+        return this.state.getScore();
+    }
+
+    public long getEpisodeSteps() {
+        return this.episodeSteps;
+    }
+
+    /**
+     * Write current observation to the buffer
+     */
+    private void observe(float[] observation, int offset) {
+        Arrays.fill(observation, offset, offset + OBSERVATION_SIZE, 0);
+        World world = this.entityLogic.getWorld();
+        int ship = this.entityLogic.getShipIndex();
+        double shipX = ship == World.NO_ENTITY ? 0 : world.getX(ship);
+        double shipY = ship == World.NO_ENTITY ? 0 : world.getY(ship);
+        observation[offset + SHIP_OFFSET] = (float) (shipX / SCREEN_WIDTH);
+        observation[offset + SHIP_OFFSET + 1] = (float) (shipY / SCREEN_HEIGHT);
+
+        int shotCount = 0;
+        for (int i = 0; i < world.size(); i++) {
+            if (world.isDestroyed(i)) {
+                continue;
+            }
+            byte kind = world.getKind(i);
+            if (kind == Components.KIND_ALIEN) {
+                int column = (int) world.getX(i) / CELL_SIZE;
+                int row = (int) world.getY(i) / CELL_SIZE;
+                if (column >= 0 && column < GRID_COLUMNS && row >= 0 && row < GRID_ROWS) {
+                    observation[offset + GRID_OFFSET + row * GRID_COLUMNS + column] = 1;
+                }
+            } else if (kind == Components.KIND_ALIEN_SHOT) {
+                double dx = world.getX(i) - shipX;
+                double dy = world.getY(i) - shipY;
+                shotCount = offerShot(i, dx * dx + dy * dy, shotCount);
+            }
+        }
+        for (int k = 0; k < shotCount; k++) {
+            int shot = this.nearestShots[k];
+            int position = offset + SHOTS_OFFSET + k * SHOT_VALUE_COUNT;
+            observation[position] = 1;
+            observation[position + 1] = (float) ((world.getX(shot) - shipX) / SCREEN_WIDTH);
+            observation[position + 2] = (float) ((world.getY(shot) - shipY) / SCREEN_HEIGHT);
+        }
+    }
+
+    /**
+     * Insert shot into sorted nearest shots if it is near enough
+     *
+     * @return number of nearest shots after insert
+     */
+    private int offerShot(int shot, double distance, int count) {
+        if (count == NEAREST_SHOT_COUNT && distance >= this.nearestDistances[count - 1]) {
+            return count;
+        }
+        int position = count == NEAREST_SHOT_COUNT ? count - 1 : count;
+        while (position > 0 && this.nearestDistances[position - 1] > distance) {
+            this.nearestDistances[position] = this.nearestDistances[position - 1];
+            this.nearestShots[position] = this.nearestShots[position - 1];
+            position--;
+        }
+        this.nearestDistances[position] = distance;
+        this.nearestShots[position] = shot;
+        return Math.min(count + 1, NEAREST_SHOT_COUNT);
+    }
+}
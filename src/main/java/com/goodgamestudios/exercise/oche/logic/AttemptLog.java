@@ -0,0 +1,176 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Append-only binary log of every game attempt ever played.
+ * The file starts with a fixed header (magic, version, record count) followed by
+ * fixed-width records (score, life count, epoch millis). Records are written through
+ * a MappedByteBuffer, the mapped window grows by doubling, so the append cost stays
+ * flat no matter how many attempts are already stored. The first window is large enough for
+ * years of play, so it is rarely replaced, a replaced window is released by garbage collector. Appended records are forced to disk
+ * by flush() when the game has time to spare and on close, not on every append.
+ */
+public class AttemptLog implements Closeable {
+    private static final String ERR_WRONG_FORMAT = "Not an attempt log file: ";
+    private static final String ERR_WRONG_VERSION = "Unsupported attempt log version: ";
+    private static final String ERR_TOO_LARGE = "Attempt log is full";
+
+    private static final int MAGIC = 0x41444c47;
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    static final int HEADER_SIZE = 16;
+
+    private static final int SCORE_OFFSET = 0;
+    private static final int LIFE_COUNT_OFFSET = 4;
+    private static final int DATE_OFFSET = 8;
+    static final int RECORD_SIZE = 16;
+
+    //1Mb window, a log is remapped only after this many attempts
+    private static final long INITIAL_CAPACITY = 65536;
+    //MappedByteBuffer is int indexed, so one mapping can not go beyond 2Gb
+    private static final long MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    /**
+     * Callback for sequential scan over the log, gets raw record values so scan does not allocate
+     */
+    public interface RecordVisitor {
+        void visit(int score, int lifeCount, long epochMillis);
+    }
+
+    //File the log is stored in
+    private final RandomAccessFile file;
+    //Channel used to map file content
+    private final FileChannel channel;
+    //Currently mapped window of the file (header + capacity records)
+    private MappedByteBuffer buffer;
+    //Number of records the current window can hold
+    private long capacity;
+    //Number of records written
+    private long count;
+    //True if there are records which are not forced to disk yet
+    private boolean dirty;
+
+    /**
+     * Open existing attempt log or create new one
+     *
+     * @param logFile file to store the log in
+     * @throws IOException in the case file could not be opened or has wrong format
+     */
+    public AttemptLog(File logFile) throws IOException {
+        this.file = new RandomAccessFile(logFile, "rw");
+        this.channel = this.file.getChannel();
+
+        try {
+            if (this.channel.size() < HEADER_SIZE) {
+                map(INITIAL_CAPACITY);
+                this.buffer.putInt(MAGIC_OFFSET, MAGIC);
+                this.buffer.putInt(VERSION_OFFSET, VERSION);
+                this.buffer.putLong(COUNT_OFFSET, 0);
+                this.count = 0;
+            } else {
+                //validate header before mapping, so foreign file is not extended
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                this.channel.read(header, 0);
+                if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                    throw new IOException(ERR_WRONG_FORMAT + logFile);
+                }
+                if (header.getInt(VERSION_OFFSET) != VERSION) {
+                    throw new IOException(ERR_WRONG_VERSION + header.getInt(VERSION_OFFSET));
+                }
+                long storedCapacity = (this.channel.size() - HEADER_SIZE) / RECORD_SIZE;
+                map(Math.max(INITIAL_CAPACITY, storedCapacity));
+                //count could not exceed records which are physically in the file
+                this.count = Math.min(header.getLong(COUNT_OFFSET), storedCapacity);
+            }
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append new record to the end of the log
+     *
+     * @param score       Score reached
+     * @param lifeCount   Life number left
+     * @param epochMillis Date of attempt
+     * @throws IOException in the case log could not be extended
+     */
+    public void append(int score, int lifeCount, long epochMillis) throws IOException {
+        if (this.count == this.capacity) {
+            if (this.capacity == MAX_CAPACITY) {
+                throw new IOException(ERR_TOO_LARGE);
+            }
+            map(Math.min(this.capacity * 2, MAX_CAPACITY));
+        }
+
+        int position = recordPosition(this.count);
+        this.buffer.putInt(position + SCORE_OFFSET, score);
+        this.buffer.putInt(position + LIFE_COUNT_OFFSET, lifeCount);
+        this.buffer.putLong(position + DATE_OFFSET, epochMillis);
+        //record is visible for readers only after count is updated
+        this.count++;
+        this.buffer.putLong(COUNT_OFFSET, this.count);
+        this.dirty = true;
+    }
+
+    /**
+     * Force appended records to disk, nothing is done if there are none since the last flush
+     */
+    public void flush() {
+        if (this.dirty) {
+            this.buffer.force();
+            this.dirty = false;
+        }
+    }
+
+    /**
+     * Single sequential scan over all records in order they were written
+     *
+     * @param visitor callback for every record
+     */
+    public void forEach(RecordVisitor visitor) {
+        for (long i = 0; i < this.count; i++) {
+            int position = recordPosition(i);
+            visitor.visit(
+                    this.buffer.getInt(position + SCORE_OFFSET),
+                    this.buffer.getInt(position + LIFE_COUNT_OFFSET),
+                    this.buffer.getLong(position + DATE_OFFSET));
+        }
+    }
+
+    public long size() {
+        return this.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        this.file.close();
+    }
+
+    /**
+     * Map file window big enough for required number of records, file grows if needed
+     *
+     * @param requiredCapacity number of records to map
+     */
+    private void map(long requiredCapacity) throws IOException {
+        // both windows map the same pages of the file, so dropping the old one loses no records
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + requiredCapacity * RECORD_SIZE);
+        this.capacity = requiredCapacity;
+    }
+
+    private static int recordPosition(long index) {
+        return (int) (HEADER_SIZE + index * RECORD_SIZE);
+    }
+}
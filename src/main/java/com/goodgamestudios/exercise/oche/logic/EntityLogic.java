@@ -0,0 +1,81 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import com.goodgamestudios.exercise.oche.Game;
+
+import java.awt.*;
+
+/**
+ * Entity logic the game loop works with. It is implemented by classic entity core (EntityLogicMediator)
+ * and by entity-component-system core (EcsLogicMediator).
+ */
+public interface EntityLogic {
+    //Alien fire cap which lets every alien fire
+    int NO_ALIEN_FIRE_CAP = Integer.MAX_VALUE;
+
+    /**
+     * Create the ship and the formation of aliens
+     *
+     * @param game Current game entities exist in
+     */
+    void initEntities(Game game);
+
+    void clearAllGameEntities();
+
+    /**
+     * Request all aliens which are able to shot to try it, chances to fire are scaled by the time passed,
+     * so aliens fire as often whatever the rate of requests. The ship fires on input
+     *
+     * @param delta The amount of time that has passed since the last request in milliseconds
+     */
+    void processAlienShot(long delta);
+
+    /**
+     * Limit alien shots fired by one processAlienShot(), e.g. when the game sheds load. The ship is not limited
+     *
+     * @param cap max number of alien shots, NO_ALIEN_FIRE_CAP to let every alien fire
+     */
+    void setAlienFireCap(int cap);
+
+    /**
+     * @param delta The amount of time that has passed in milliseconds
+     */
+    void moveAllEntities(long delta);
+
+    void drawAllEntities(Graphics2D window);
+
+    void calculateCollisionsAndRemoveCollidedEntities();
+
+    /**
+     * Apply logic requested by entities during the move (formation turn)
+     */
+    void doLogic();
+
+    /**
+     * Apply pressed controls to the ship
+     *
+     * @param keyInputLogicMediator controls
+     */
+    void processInput(KeyInputLogicMediator keyInputLogicMediator);
+
+    void makePause();
+
+    void releasePause();
+
+    /**
+     * Handle killed alien: aliens get faster, game is won when there are no aliens left
+     */
+    void notifyAlienKilled();
+
+    /**
+     * Handle hit of the player ship
+     */
+    void notifyPlayerHit();
+
+    int getEntityCount();
+
+    int getPlayerLifeCount();
+
+    long getCollisionPairsTested();
+
+    long getCollisionHits();
+}
@@ -3,18 +3,26 @@ package com.goodgamestudios.exercise.oche.logic;
 import com.goodgamestudios.exercise.oche.Game;
 import com.goodgamestudios.exercise.oche.entities.AlienEntity;
 import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.BossEntity;
+import com.goodgamestudios.exercise.oche.entities.Bunker;
 import com.goodgamestudios.exercise.oche.entities.Entity;
 import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import com.goodgamestudios.exercise.oche.metrics.CollisionPassEvent;
+import com.goodgamestudios.exercise.oche.metrics.EntityMetrics;
 
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * "Mediator" for entity logic
- * Holds all the entities for the game and processes all the logic needed for it
+ * Holds all the entities for the game and processes all the logic needed for it.
+ * Per tick work does not allocate: entities are kept in array list and walked by index,
+ * disposed entities are flagged and compacted out in one pass, shots are reused from pools.
  */
-public class EntityLogicMediator {
+public class EntityLogicMediator implements EntityLogic {
 
     private static final double MOVEMENT_SPEEDUP_COEFFICIENT = 1.02;
     private static final int SHIP_START_X_POSITION = 370;
@@ -26,6 +34,20 @@ public class EntityLogicMediator {
     private static final int ALIEN_ROW_CORRECTIVE = 30;
     private static final int ALIEN_ROW_DISTANCE = 50;
     private static final int ALIEN_COL_DISTANCE = 100;
+    private static final int INITIAL_ENTITY_CAPACITY = 256;
+    private static final int INITIAL_POOL_CAPACITY = 64;
+    private static final int INITIAL_HIT_CAPACITY = 64;
+    private static final int SHOT_POOL_PREFILL = 16;
+    private static final int ALIEN_SHOT_POOL_PREFILL = 48;
+    private static final int BUNKER_COUNT = 4;
+    //Boss comes when this number of aliens is left
+    private static final int BOSS_ALIEN_COUNT = 30;
+    private static final int BOSS_START_X_POSITION = 10;
+    private static final int BOSS_START_Y_POSITION = 24;
+    private static final int BUNKER_Y_POSITION = 450;
+    private static final int BUNKER_AREA_WIDTH = 800;
+    //Never committed, tells whether a recording has collision pass events enabled
+    private static final CollisionPassEvent COLLISION_PASS_PROBE = new CollisionPassEvent();
 
     private static volatile EntityLogicMediator INSTANCE = null;
 
@@ -41,8 +63,20 @@ public class EntityLogicMediator {
     }
 
     private EntityLogicMediator() {
-        this.allEntities = new LinkedList<Entity>();
-        this.disposedShotsAndEnemies = new LinkedList<Entity>();
+        this.allEntities = new ArrayList<Entity>(INITIAL_ENTITY_CAPACITY);
+        this.shotPool = new ArrayList<ShotEntity>(INITIAL_POOL_CAPACITY);
+        this.alienShotPool = new ArrayList<AlienShotEntity>(INITIAL_POOL_CAPACITY);
+        this.metrics = EntityMetrics.getInstance();
+        this.hitFirst = new int[INITIAL_HIT_CAPACITY];
+        this.hitSecond = new int[INITIAL_HIT_CAPACITY];
+        this.hitTimes = new double[INITIAL_HIT_CAPACITY];
+        this.alienFireCap = NO_ALIEN_FIRE_CAP;
+        this.bunkers = new Bunker[BUNKER_COUNT];
+        for (int i = 0; i < BUNKER_COUNT; i++) {
+            // evenly spaced between the ship and the alien block
+            int centerX = BUNKER_AREA_WIDTH * (i + 1) / (BUNKER_COUNT + 1);
+            this.bunkers[i] = new Bunker(centerX - Bunker.WIDTH / 2, BUNKER_Y_POSITION);
+        }
     }
 
     //Current game entity exists in
@@ -50,18 +84,57 @@ public class EntityLogicMediator {
     //The list of all the entities that exist in our game
     private List<Entity> allEntities;
 
-    //The list of entities that need to be removed from the game this loop
-    private List<Entity> disposedShotsAndEnemies;
+    //Number of entities marked as disposed which need to be removed from the game this loop
+    private int disposedCount;
+    //Player shots which left the game and could be reused
+    private List<ShotEntity> shotPool;
+    //Alien shots which left the game and could be reused
+    private List<AlienShotEntity> alienShotPool;
     //The entity representing the player
     private ShipEntity ship;
     //Count of alien entities
     private int alienCount;
+    //True if boss has already come in this game
+    private boolean bossSpawned;
+    //Boss created in advance, so it joins the game without allocations
+    private BossEntity boss;
+    //How much aliens were sped up since the start of the game
+    private double alienSpeedMultiplier;
+    //Max number of alien shots fired by one processAlienShot()
+    private int alienFireCap;
+    //Entity index alien fire is asked from, moves on when the cap is reached so every alien gets its turn
+    private int alienFireStart;
+    //Number of entity pairs tested during the last collision pass
+    private long collisionPairsTested;
+    //Number of collided entity pairs found during the last collision pass
+    private long collisionHits;
+    //Collided pairs of the current pass as entity indices with time of impact, resolved in time order.
+    //Shot stopped by a bunker has -1 - bunker index as the second index
+    private int[] hitFirst;
+    private int[] hitSecond;
+    private double[] hitTimes;
+    private int hitCount;
+    //Entity counters for exporters
+    private final EntityMetrics metrics;
+    //Live entities by type, kept up to date as entities are added and removed, so metrics need no scan
+    private int shipCount;
+    private int shotCount;
+    private int alienShotCount;
+    //Destructible shields above the ship, they are not entities and are repaired for every new game
+    private final Bunker[] bunkers;
+    //Opaque box of a shot swept along its path of the tick, reused so bunker tests do not allocate
+    private final Rectangle shotPath = new Rectangle();
 
     /**
-     * Clear all entities list
+     * Clear all entities list, shots go back to their pools
      */
     public void clearAllGameEntities() {
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            releaseShot(this.allEntities.get(i));
+        }
         this.allEntities.clear();
+        this.disposedCount = 0;
+        resetEntityCounts();
     }
 
     /**
@@ -72,13 +145,32 @@ public class EntityLogicMediator {
         if(game == null) {
             throw new IllegalStateException("Could not be initialised with null game");
         }
+        if (this.game != game) {
+            // pooled and remaining entities belong to the previous game, they must not come back to pools
+            this.allEntities.clear();
+            this.disposedCount = 0;
+            resetEntityCounts();
+            this.shotPool.clear();
+            this.alienShotPool.clear();
+            this.boss = null;
+        }
         this.game = game;
+        fillShotPools();
+        if (this.boss == null) {
+            this.boss = new BossEntity(this.game, BOSS_START_X_POSITION, BOSS_START_Y_POSITION);
+        }
+        for (Bunker bunker : this.bunkers) {
+            bunker.reset();
+        }
         // create the player ship and place it roughly in the center of the screen
         this.ship = new ShipEntity(this.game, SHIP_START_X_POSITION, SHIP_START_Y_POSITION);
         this.allEntities.add(this.ship);
+        countEntity(this.ship, 1);
 
         // create a block of aliens (5 rows, by 12 aliens, spaced evenly)
+        this.bossSpawned = false;
         this.alienCount = 0;
+        this.alienSpeedMultiplier = 1;
         for (int row = 0; row < ALIEN_ROW_COUNT; row++) {
             for (int col = 0; col < ALIENS_PER_ROW_COUNT; col++) {
                 Entity alien = new AlienEntity(this.game,
@@ -90,6 +182,45 @@ public class EntityLogicMediator {
         }
     }
 
+    /**
+     * Replace all entities with previously saved ones, e.g. when saved game is resumed
+     *
+     * @param game                 Current game entities exist in
+     * @param entities             Entities to restore, should contain the player ship
+     * @param alienSpeedMultiplier How much aliens were sped up in saved game
+     */
+    public void restoreEntities(Game game, List<Entity> entities, double alienSpeedMultiplier) {
+        if (game == null) {
+            throw new IllegalStateException("Could not be initialised with null game");
+        }
+        ShipEntity restoredShip = null;
+        int restoredAlienCount = 0;
+        for (Entity entity : entities) {
+            if (entity instanceof ShipEntity) {
+                restoredShip = (ShipEntity) entity;
+            } else if (entity instanceof AlienEntity) {
+                restoredAlienCount++;
+            }
+        }
+        if (restoredShip == null) {
+            throw new IllegalStateException("Could not restore game without player ship");
+        }
+
+        this.game = game;
+        this.allEntities.clear();
+        this.disposedCount = 0;
+        this.allEntities.addAll(entities);
+        resetEntityCounts();
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            countEntity(this.allEntities.get(i), 1);
+        }
+        this.ship = restoredShip;
+        this.alienCount = restoredAlienCount;
+        // boss which was killed before the save does not come back
+        this.bossSpawned = restoredAlienCount <= BOSS_ALIEN_COUNT;
+        this.alienSpeedMultiplier = alienSpeedMultiplier;
+    }
+
     /**
      * Notification that an alien has been killed
      */
@@ -99,11 +230,17 @@ public class EntityLogicMediator {
 
         if (alienCount == 0) {
             this.game.notifyWin();
+        } else if (this.alienCount <= BOSS_ALIEN_COUNT && !this.bossSpawned) {
+            this.bossSpawned = true;
+            this.boss.reset(BOSS_START_X_POSITION, BOSS_START_Y_POSITION);
+            this.allEntities.add(this.boss);
         }
 
         // if there are still some aliens left then they all need to get faster, so
         // speed up all the existing aliens
-        for (Entity entity : this.allEntities) {
+        this.alienSpeedMultiplier *= MOVEMENT_SPEEDUP_COEFFICIENT;
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
             if (entity instanceof AlienEntity) {
                 // speed up by 2%
                 entity.setHorizontalMovement(entity.getHorizontalMovement() * MOVEMENT_SPEEDUP_COEFFICIENT);
@@ -112,68 +249,125 @@ public class EntityLogicMediator {
     }
 
     /**
-     * Check all entities with collision with each other and remove all collided
+     * Check all entities with collision with each other and remove all collided.
+     * Hits are collected first and resolved in order of their time of impact, so a fast shot kills
+     * the first entity on its path whatever their order in the list. Bunker contacts of shots are timed
+     * the same way and resolved in the same order, so a bunker stops only shots which reach it first.
      */
     public void calculateCollisionsAndRemoveCollidedEntities() {
+        // event is created only if a recording wants it, so the pass does not allocate
+        CollisionPassEvent event = null;
+        if (COLLISION_PASS_PROBE.isEnabled()) {
+            event = new CollisionPassEvent();
+            event.begin();
+            event.entityCount = this.allEntities.size();
+        }
+        this.collisionPairsTested = 0;
+        this.collisionHits = 0;
+        this.hitCount = 0;
         for (int i = 0; i < this.allEntities.size(); i++) {
             for (int j = i + 1; j < this.allEntities.size(); j++) {
                 Entity me = this.allEntities.get(i);
                 Entity him = this.allEntities.get(j);
 
-                if (me.collidesWith(him)) {
-                    me.collidedWith(him);
-                    him.collidedWith(me);
+                this.collisionPairsTested++;
+                double time = me.timeOfImpact(him);
+                if (time != Entity.NO_IMPACT) {
+                    this.collisionHits++;
+                    addHit(i, j, time);
                 }
             }
         }
 
+        addBunkerHits();
+        resolveHits();
+        // shots leave the screen only after their hits of this tick, so a long tick could not carry them away
+        disposeDespawnedEntities();
+
         // remove any entity that has been marked for clear up
-        this.allEntities.removeAll(this.disposedShotsAndEnemies);
-        this.disposedShotsAndEnemies.clear();
+        removeDisposedEntities();
+        recordMetrics();
+
+        if (event != null && event.shouldCommit()) {
+            event.pairsTested = this.collisionPairsTested;
+            event.hits = this.collisionHits;
+            event.commit();
+        }
     }
 
     /**
-     * Request all entities to move
+     * Request all entities to move, locations before the move are kept for swept collisions
      * @param delta The amount of time that has passed in milliseconds
      */
     public void moveAllEntities(long delta) {
-        for (Entity entity : this.allEntities) {
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
+            entity.markPreviousLocation();
             entity.move(delta);
         }
     }
 
     /**
-     * Request all alien entities to shot
+     * Request all alien entities to shot, aliens are not asked once the cap is reached.
+     * The next request starts after the last alien which fired, so the capped fire goes round the aliens
+     *
+     * @param delta The amount of time that has passed since the last request in milliseconds
      */
-    public void processAlienShot() {
-        List<AlienShotEntity> shotList = new LinkedList();
-        for (Entity entity : this.allEntities) {
+    public void processAlienShot(long delta) {
+        double shotChance = AlienEntity.getShotChance(delta);
+        // new shots are appended to the end, so only entities which existed before are asked
+        int entityCount = this.allEntities.size();
+        if (this.alienFireStart >= entityCount) {
+            this.alienFireStart = 0;
+        }
+        int fired = 0;
+        for (int k = 0; k < entityCount && fired < this.alienFireCap; k++) {
+            int i = (this.alienFireStart + k) % entityCount;
+            Entity entity = this.allEntities.get(i);
+            AlienShotEntity alienShot = null;
             if (entity instanceof AlienEntity) {
-                AlienShotEntity alienShot = ((AlienEntity) entity).tryToFireAndReturnShot();
-                if (alienShot != null) {
-                    shotList.add(alienShot);
+                alienShot = ((AlienEntity) entity).tryToFireAndReturnShot(shotChance);
+            } else if (entity instanceof BossEntity) {
+                alienShot = ((BossEntity) entity).tryToFireAndReturnShot();
+            }
+            if (alienShot != null) {
+                this.allEntities.add(alienShot);
+                countEntity(alienShot, 1);
+                fired++;
+                if (fired == this.alienFireCap) {
+                    this.alienFireStart = i + 1;
                 }
             }
         }
-        this.allEntities.addAll(shotList);
+    }
+
+    @Override
+    public void setAlienFireCap(int cap) {
+        this.alienFireCap = cap;
     }
 
     /**
      * Request all entities to make some logic in case if entity has so
      */
     public void doLogic() {
-        for (Entity entity : this.allEntities) {
-            entity.doLogic();
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            this.allEntities.get(i).doLogic();
         }
     }
 
     /**
-     * Request to draw all the entities
+     * Request to draw all the entities, entities off the screen are skipped
      * @param window Window our game is displayed in
      */
     public void drawAllEntities(Graphics2D window) {
-        for (Entity entity : this.allEntities) {
-            entity.draw(window);
+        for (Bunker bunker : this.bunkers) {
+            bunker.draw(window);
+        }
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
+            if (Viewport.isVisible(entity)) {
+                entity.draw(window);
+            }
         }
     }
 
@@ -183,6 +377,7 @@ public class EntityLogicMediator {
      */
     public void addShot(Entity shot) {
         this.allEntities.add(shot);
+        countEntity(shot, 1);
     }
 
     /**
@@ -205,16 +400,307 @@ public class EntityLogicMediator {
     }
 
     /**
-     * Add entity to disposable list for future utilization
+     * Get player shot from the pool or create new one if pool is empty
+     *
+     * @param x The initial x location of the shot
+     * @param y The initial y location of the shot
+     * @return shot ready to be added to the game
+     */
+    public ShotEntity obtainShot(int x, int y) {
+        if (this.shotPool.isEmpty()) {
+            return new ShotEntity(this.game, x, y);
+        }
+        ShotEntity shot = this.shotPool.remove(this.shotPool.size() - 1);
+        shot.reset(x, y);
+        return shot;
+    }
+
+    /**
+     * Get alien shot from the pool or create new one if pool is empty
+     *
+     * @param x The initial x location of the shot
+     * @param y The initial y location of the shot
+     * @return shot ready to be added to the game
+     */
+    public AlienShotEntity obtainAlienShot(int x, int y) {
+        if (this.alienShotPool.isEmpty()) {
+            return new AlienShotEntity(this.game, x, y);
+        }
+        AlienShotEntity shot = this.alienShotPool.remove(this.alienShotPool.size() - 1);
+        shot.reset(x, y);
+        return shot;
+    }
+
+    /**
+     * Mark entity as disposed for future utilization, repeated disposal is ignored
      * @param entity Entity to dispose
      */
     public void disposeEntity(Entity entity) {
-        this.disposedShotsAndEnemies.add(entity);
+        if (!entity.isDisposed()) {
+            entity.setDisposed(true);
+            this.disposedCount++;
+        }
+    }
+
+    /**
+     * Put shot back to its pool, other entities are not pooled
+     */
+    private void releaseShot(Entity entity) {
+        if (entity instanceof ShotEntity) {
+            this.shotPool.add((ShotEntity) entity);
+        } else if (entity instanceof AlienShotEntity) {
+            this.alienShotPool.add((AlienShotEntity) entity);
+        }
+    }
+
+    /**
+     * Create shots in advance, so pools do not grow during play
+     */
+    private void fillShotPools() {
+        while (this.shotPool.size() < SHOT_POOL_PREFILL) {
+            this.shotPool.add(new ShotEntity(this.game, 0, 0));
+        }
+        while (this.alienShotPool.size() < ALIEN_SHOT_POOL_PREFILL) {
+            this.alienShotPool.add(new AlienShotEntity(this.game, 0, 0));
+        }
+    }
+
+    /**
+     * Remove all disposed entities keeping the order of the rest, shots go back to their pools
+     */
+    private void removeDisposedEntities() {
+        if (this.disposedCount == 0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
+            if (!entity.isDisposed()) {
+                this.allEntities.set(kept++, entity);
+            } else {
+                countEntity(entity, -1);
+                releaseShot(entity);
+            }
+        }
+        // trim the tail from the end, so nothing is shifted
+        for (int i = this.allEntities.size() - 1; i >= kept; i--) {
+            this.allEntities.remove(i);
+        }
+        this.disposedCount = 0;
+    }
+
+    /**
+     * Dispose entities which got farther off the screen than the despawn margin
+     */
+    private void disposeDespawnedEntities() {
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
+            if (Viewport.isDespawned(entity)) {
+                disposeEntity(entity);
+            }
+        }
+    }
+
+    /**
+     * Remember collided pair, buffers grow only if there are more hits than ever before
+     */
+    private void addHit(int first, int second, double time) {
+        if (this.hitCount == this.hitTimes.length) {
+            this.hitFirst = Arrays.copyOf(this.hitFirst, this.hitCount * 2);
+            this.hitSecond = Arrays.copyOf(this.hitSecond, this.hitCount * 2);
+            this.hitTimes = Arrays.copyOf(this.hitTimes, this.hitCount * 2);
+        }
+        this.hitFirst[this.hitCount] = first;
+        this.hitSecond[this.hitCount] = second;
+        this.hitTimes[this.hitCount] = time;
+        this.hitCount++;
+    }
+
+    /**
+     * Notify collided pairs in order of time of impact. Insertion sort is stable and there are few hits
+     * per pass, pairs of slow entities all hit at the end of the tick and keep the order of the list.
+     * Entities ignore hits by entities which were disposed by an earlier hit.
+     */
+    private void resolveHits() {
+        for (int i = 1; i < this.hitCount; i++) {
+            int first = this.hitFirst[i];
+            int second = this.hitSecond[i];
+            double time = this.hitTimes[i];
+            int j = i - 1;
+            while (j >= 0 && this.hitTimes[j] > time) {
+                this.hitFirst[j + 1] = this.hitFirst[j];
+                this.hitSecond[j + 1] = this.hitSecond[j];
+                this.hitTimes[j + 1] = this.hitTimes[j];
+                j--;
+            }
+            this.hitFirst[j + 1] = first;
+            this.hitSecond[j + 1] = second;
+            this.hitTimes[j + 1] = time;
+        }
+        for (int i = 0; i < this.hitCount; i++) {
+            Entity me = this.allEntities.get(this.hitFirst[i]);
+            if (this.hitSecond[i] < 0) {
+                stopShotByBunker(me, this.bunkers[-1 - this.hitSecond[i]]);
+                continue;
+            }
+            Entity him = this.allEntities.get(this.hitSecond[i]);
+            if (me.isCompound() || him.isCompound()) {
+                // compound entity keeps the part hit by the last test only, so the pair is tested again
+                me.timeOfImpact(him);
+            }
+            me.collidedWith(him);
+            him.collidedWith(me);
+        }
+    }
+
+    /**
+     * Find contacts of flying shots with remaining pixels of bunkers and time them like entity hits:
+     * a fast shot touches the bunker when its leading edge reaches the hit row, a slow one at the end of the tick
+     */
+    private void addBunkerHits() {
+        for (int i = 0; i < this.allEntities.size(); i++) {
+            Entity entity = this.allEntities.get(i);
+            if (!isShot(entity) || entity.isDisposed()) {
+                continue;
+            }
+            boolean downward = entity instanceof AlienShotEntity;
+            Rectangle path = sweepShotPath(entity);
+            for (int b = 0; b < this.bunkers.length; b++) {
+                int row = this.bunkers[b].findHitRow(path.x, path.y, path.width, path.height, downward);
+                if (row == Bunker.NO_HIT) {
+                    continue;
+                }
+                double time = Entity.END_OF_TICK;
+                int moveY = entity.getY() - entity.getYAt(0);
+                if (entity.isFast() && moveY != 0) {
+                    // leading edge of the opaque box: bottom row of a falling shot, top row of a rising one
+                    Rectangle bounds = entity.getOpaqueBounds();
+                    int edge = entity.getYAt(0) + bounds.y + (downward ? bounds.height - 1 : 0);
+                    double toRow = this.bunkers[b].getY() + row - edge;
+                    time = Math.min(Math.max(toRow / moveY, 0), Entity.END_OF_TICK);
+                }
+                addHit(i, -1 - b, time);
+            }
+        }
+    }
+
+    /**
+     * Stop the shot by the bunker and erode the bunker. The bunker is tested again, as shots which reached it
+     * earlier in the tick could have opened a way through it
+     */
+    private void stopShotByBunker(Entity shot, Bunker bunker) {
+        if (shot.isDisposed()) {
+            return;
+        }
+        Rectangle path = sweepShotPath(shot);
+        if (bunker.erode(path.x, path.y, path.width, path.height, shot instanceof AlienShotEntity)) {
+            disposeEntity(shot);
+        }
+    }
+
+    /**
+     * Bunker is eroded by visible pixels of the shot, not by its transparent margins, swept along the whole
+     * path of the tick, so the shot could not jump over the bunker
+     *
+     * @return box of the path, valid until the next call
+     */
+    private Rectangle sweepShotPath(Entity shot) {
+        Rectangle bounds = shot.getOpaqueBounds();
+        int left = Math.min(shot.getXAt(0), shot.getX());
+        int top = Math.min(shot.getYAt(0), shot.getY());
+        this.shotPath.setBounds(left + bounds.x, top + bounds.y,
+                Math.abs(shot.getX() - shot.getXAt(0)) + bounds.width,
+                Math.abs(shot.getY() - shot.getYAt(0)) + bounds.height);
+        return this.shotPath;
+    }
+
+    private static boolean isShot(Entity entity) {
+        return entity instanceof ShotEntity || entity instanceof AlienShotEntity;
+    }
+
+    /**
+     * Publish entity counts by type and pool sizes, counts are kept up to date, so nothing is scanned
+     */
+    private void recordMetrics() {
+        this.metrics.recordTick(this.shipCount, this.alienCount, this.shotCount, this.alienShotCount,
+                this.shotPool.size(), this.alienShotPool.size());
+    }
+
+    /**
+     * Update counter of the entity type when entity is added to or removed from the game
+     *
+     * @param change 1 for added entity, -1 for removed one
+     */
+    private void countEntity(Entity entity, int change) {
+        if (entity instanceof ShotEntity) {
+            this.shotCount += change;
+        } else if (entity instanceof AlienShotEntity) {
+            this.alienShotCount += change;
+        } else if (entity instanceof ShipEntity) {
+            this.shipCount += change;
+        }
+    }
+
+    private void resetEntityCounts() {
+        this.shipCount = 0;
+        this.shotCount = 0;
+        this.alienShotCount = 0;
+    }
+
+    /**
+     * Resolve the movement of the ship. First assume the ship
+     * isn't moving. If either cursor key is pressed then
+     * update the movement appropraitely. If we're pressing fire, attempt to fire.
+     */
+    public void processInput(KeyInputLogicMediator keyInputLogicMediator) {
+        this.ship.processKeyBasedMovement();
+        if (keyInputLogicMediator.isFirePressed()) {
+            this.ship.tryToFire();
+        }
+    }
+
+    public void notifyPlayerHit() {
+        this.ship.hit();
+    }
+
+    public int getEntityCount() {
+        return this.allEntities.size();
+    }
+
+    public int getPlayerLifeCount() {
+        return this.ship.lifeLeft();
     }
 
     public ShipEntity getShip() {
         return this.ship;
     }
+
+    /**
+     * @return All entities of the game, should not be modified
+     */
+    public List<Entity> getAllEntities() {
+        return this.allEntities;
+    }
+
+    public Bunker[] getBunkers() {
+        return this.bunkers;
+    }
+
+    public double getAlienSpeedMultiplier() {
+        return this.alienSpeedMultiplier;
+    }
+
+    public long getCollisionPairsTested() {
+        return this.collisionPairsTested;
+    }
+
+    public long getCollisionHits() {
+        return this.collisionHits;
+    }
+
+    public int getPooledShotCount() {
+        return this.shotPool.size() + this.alienShotPool.size();
+    }
 }
 
 
@@ -0,0 +1,30 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+/**
+ * Game events raised by entities during simulation phases of the tick
+ */
+public enum GameEvent {
+    //Alien was shot, every killed alien counts
+    ALIEN_KILLED(true),
+    //Player ship was hit by alien shot, every hit counts
+    PLAYER_HIT(true),
+    //Player has died, handled once per tick
+    PLAYER_DIED(false),
+    //Boss core was destroyed, every killed boss counts
+    BOSS_KILLED(true),
+    //All aliens are killed, handled once per tick
+    WIN(false),
+    //Game is paused, handled once per tick
+    PAUSE(false);
+
+    //true if every posted event is handled, otherwise repeated events of the tick are dropped
+    private final boolean counted;
+
+    GameEvent(boolean counted) {
+        this.counted = counted;
+    }
+
+    public boolean isCounted() {
+        return counted;
+    }
+}
@@ -0,0 +1,67 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+/**
+ * Events of the current tick. Entities post events while entity list is iterated (collisions, logic),
+ * game handles all of them in one batch when simulation phases are over, so entity list is never
+ * changed during iteration and expensive reactions (e.g. highscore write) happen at most once per tick.
+ * Queue keeps only counter per event type, so posting does not allocate.
+ */
+public class GameEventQueue {
+    //Number of posted events per type
+    private final int[] counts;
+    //Total number of events kept
+    private int size;
+
+    public GameEventQueue() {
+        this.counts = new int[GameEvent.values().length];
+    }
+
+    /**
+     * Post event, events which are not counted are kept once
+     *
+     * @param event event to post
+     */
+    public void post(GameEvent event) {
+        int index = event.ordinal();
+        if (!event.isCounted() && this.counts[index] > 0) {
+            return;
+        }
+        this.counts[index]++;
+        this.size++;
+    }
+
+    /**
+     * @return number of posted events of given type
+     */
+    public int getCount(GameEvent event) {
+        return this.counts[event.ordinal()];
+    }
+
+    public boolean contains(GameEvent event) {
+        return this.counts[event.ordinal()] > 0;
+    }
+
+    /**
+     * Take all events of given type out of the queue
+     *
+     * @return number of taken events
+     */
+    public int take(GameEvent event) {
+        int index = event.ordinal();
+        int count = this.counts[index];
+        this.counts[index] = 0;
+        this.size -= count;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = 0;
+        }
+        this.size = 0;
+    }
+}
@@ -19,6 +19,14 @@ import java.awt.event.KeyEvent;
 public class KeyInputLogicMediator extends KeyAdapter {
     private static final int ESC_CODE = 27;
 
+    //Control bits, used to drive the game without keyboard (bots, remote players)
+    public static final int CONTROL_UP = 1;
+    public static final int CONTROL_DOWN = 1 << 1;
+    public static final int CONTROL_LEFT = 1 << 2;
+    public static final int CONTROL_RIGHT = 1 << 3;
+    public static final int CONTROL_FIRE = 1 << 4;
+    public static final int CONTROL_PAUSE = 1 << 5;
+
     private static volatile KeyInputLogicMediator INSTANCE = null;
 
     public static KeyInputLogicMediator getInstance() {
@@ -32,6 +40,16 @@ public class KeyInputLogicMediator extends KeyAdapter {
         return INSTANCE;
     }
 
+    /**
+     * Create controls of headless session, they are not connected to the keyboard and are independent
+     * of the controls of the main game
+     *
+     * @return new controls, init(Game game) should be called before use
+     */
+    public static KeyInputLogicMediator createForSession() {
+        return new KeyInputLogicMediator();
+    }
+
     private KeyInputLogicMediator() {
         this.pressCount = 1;
         this.waitingForKeyPress = true;
@@ -103,6 +121,9 @@ public class KeyInputLogicMediator extends KeyAdapter {
         if (e.getKeyCode() == KeyEvent.VK_P) {
             pausePressed = true;
         }
+        if (e.getKeyCode() == KeyEvent.VK_R) {
+            this.game.requestClip();
+        }
     }
 
     /**
@@ -149,9 +170,7 @@ public class KeyInputLogicMediator extends KeyAdapter {
         if (waitingForKeyPress) {
             //release pause is another case
             if (pausePressed) {
-                pausePressed = false;
-                waitingForKeyPress = false;
-                EntityLogicMediator.getInstance().releasePause();
+                resume();
                 return;
             }
 
@@ -159,9 +178,7 @@ public class KeyInputLogicMediator extends KeyAdapter {
                 // since we've now recieved our key typed
                 // event we can mark it as such and start
                 // our new game
-                waitingForKeyPress = false;
-                setStartState();
-                pressCount = 0;
+                restart();
             } else {
                 pressCount++;
             }
@@ -169,10 +186,60 @@ public class KeyInputLogicMediator extends KeyAdapter {
 
         // if we hit escape, then quit the game
         if (e.getKeyChar() == ESC_CODE) {
-            System.exit(0);
+            this.game.stop();
+        }
+    }
+
+    /**
+     * Continue paused game
+     */
+    public void resume() {
+        pausePressed = false;
+        waitingForKeyPress = false;
+        this.game.getEntityLogic().releasePause();
+    }
+
+    /**
+     * Start new game, the same as "any key" typed after game is over
+     */
+    public void restart() {
+        waitingForKeyPress = false;
+        setStartState();
+        pressCount = 0;
+    }
+
+    /**
+     * Press and release controls at once, the same as keys would be pressed or released.
+     * Pause is only pressed, it is released by resume()
+     *
+     * @param controls bitmask of CONTROL_* values which are pressed
+     */
+    public void setControls(int controls) {
+        if (this.waitingForKeyPress) {
+            return;
+        }
+        upPressed = (controls & CONTROL_UP) != 0;
+        downPressed = (controls & CONTROL_DOWN) != 0;
+        leftPressed = (controls & CONTROL_LEFT) != 0;
+        rightPressed = (controls & CONTROL_RIGHT) != 0;
+        firePressed = (controls & CONTROL_FIRE) != 0;
+        if ((controls & CONTROL_PAUSE) != 0) {
+            pausePressed = true;
         }
     }
 
+    /**
+     * @return bitmask of CONTROL_* values which are currently pressed
+     */
+    public int getControls() {
+        return (upPressed ? CONTROL_UP : 0)
+                | (downPressed ? CONTROL_DOWN : 0)
+                | (leftPressed ? CONTROL_LEFT : 0)
+                | (rightPressed ? CONTROL_RIGHT : 0)
+                | (firePressed ? CONTROL_FIRE : 0)
+                | (pausePressed ? CONTROL_PAUSE : 0);
+    }
+
     /**
      * If we want to start new game, we should reset state for all controls
      */
@@ -181,10 +248,10 @@ public class KeyInputLogicMediator extends KeyAdapter {
             throw new IllegalStateException("Object is not initialised, please call init(Game game) method before use!");
         }
 
-        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
-        entityMediator.clearAllGameEntities();
-        entityMediator.initEntities(this.game);
-        StateLogicMediator.getInstance().resetScore();
+        EntityLogic entityLogic = this.game.getEntityLogic();
+        entityLogic.clearAllGameEntities();
+        entityLogic.initEntities(this.game);
+        this.game.getStateLogicMediator().resetScore();
         // blank out any keyboard settings we might currently have
         upPressed = false;
         downPressed = false;
@@ -234,8 +301,16 @@ public class KeyInputLogicMediator extends KeyAdapter {
         return firePressed;
     }
 
+    public void setFirePressed(boolean firePressed) {
+        this.firePressed = firePressed;
+    }
+
     public boolean isPausePressed() {
         return pausePressed;
     }
 
+    public void setPausePressed(boolean pausePressed) {
+        this.pausePressed = pausePressed;
+    }
+
 }
@@ -0,0 +1,283 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Indexed leaderboard over all attempts ever played.
+ * Rank and percentile queries are answered by a Fenwick tree over score buckets (one bucket per score value),
+ * so both queries and updates are O(log n) of the score range and do not depend on the number of attempts.
+ * The range is bounded by MAX_BUCKET_COUNT, higher scores share the last bucket, so one corrupted
+ * or forged score could not make the tree huge.
+ * Attempts are also partitioned per day, every partition keeps its own best attempts, so
+ * "top of today / this week" only touches a handful of small partitions.
+ */
+public class Leaderboard {
+    private static final int INITIAL_BUCKET_COUNT = 128;
+    //Score buckets the tree grows to at most, scores from MAX_BUCKET_COUNT - 1 up are ranked as equal
+    static final int MAX_BUCKET_COUNT = 1 << 16;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int DAYS_IN_WEEK = 7;
+
+    /**
+     * Single leaderboard record
+     */
+    public static class Entry implements Comparable<Entry> {
+        private final int score;
+        private final int lifeCount;
+        private final long epochMillis;
+
+        public Entry(int score, int lifeCount, long epochMillis) {
+            this.score = score;
+            this.lifeCount = lifeCount;
+            this.epochMillis = epochMillis;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getLifeCount() {
+            return lifeCount;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        /**
+         * The same order as for highscore table: best score first, then more lifes, then earlier attempt
+         */
+        @Override
+        public int compareTo(Entry that) {
+            return compare(this.score, this.lifeCount, this.epochMillis, that.score, that.lifeCount, that.epochMillis);
+        }
+    }
+
+    /**
+     * Best attempts of one day, kept sorted, the worst one is dropped when partition is full
+     */
+    private static class DayPartition {
+        private final Entry[] best;
+        private int size;
+        private long attemptCount;
+
+        private DayPartition(int capacity) {
+            this.best = new Entry[capacity];
+        }
+
+        private void record(int score, int lifeCount, long epochMillis) {
+            this.attemptCount++;
+            if (this.size == this.best.length) {
+                Entry worst = this.best[this.size - 1];
+                if (compare(score, lifeCount, epochMillis, worst.score, worst.lifeCount, worst.epochMillis) >= 0) {
+                    return;
+                }
+                this.size--;
+            }
+            //insertion into small sorted array
+            int i = this.size;
+            while (i > 0 && compare(score, lifeCount, epochMillis,
+                    this.best[i - 1].score, this.best[i - 1].lifeCount, this.best[i - 1].epochMillis) < 0) {
+                this.best[i] = this.best[i - 1];
+                i--;
+            }
+            this.best[i] = new Entry(score, lifeCount, epochMillis);
+            this.size++;
+        }
+    }
+
+    //Number of best attempts kept for time window queries
+    private final int topCount;
+    //Time zone days are calculated in
+    private final TimeZone timeZone;
+    //Fenwick tree, 1-based, node i holds count of bucket range (i - lowbit(i), i]
+    private long[] tree;
+    //Plain count of attempts per score bucket, used to rebuild the tree when score range grows
+    private long[] buckets;
+    //Number of attempts in the leaderboard
+    private long total;
+    //Day partitions keyed by day number since epoch
+    private Map<Long, DayPartition> days;
+
+    /**
+     * @param topCount Number of best attempts kept for time window queries
+     */
+    public Leaderboard(int topCount) {
+        this(topCount, TimeZone.getDefault());
+    }
+
+    public Leaderboard(int topCount, TimeZone timeZone) {
+        this.topCount = topCount;
+        this.timeZone = timeZone;
+        this.buckets = new long[INITIAL_BUCKET_COUNT];
+        this.tree = new long[INITIAL_BUCKET_COUNT + 1];
+        this.days = new HashMap<Long, DayPartition>();
+    }
+
+    /**
+     * Add attempt to the leaderboard
+     *
+     * @param score       Score reached
+     * @param lifeCount   Life number left
+     * @param epochMillis Date of attempt
+     */
+    public void record(int score, int lifeCount, long epochMillis) {
+        int bucket = Math.min(Math.max(score, 0), MAX_BUCKET_COUNT - 1);
+        if (bucket >= this.buckets.length) {
+            grow(bucket);
+        }
+        this.buckets[bucket]++;
+        for (int i = bucket + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i]++;
+        }
+        this.total++;
+
+        Long day = dayOf(epochMillis);
+        DayPartition partition = this.days.get(day);
+        if (partition == null) {
+            partition = new DayPartition(this.topCount);
+            this.days.put(day, partition);
+        }
+        partition.record(score, lifeCount, epochMillis);
+    }
+
+    /**
+     * Rank the score would have in the leaderboard, 1 is the best one
+     *
+     * @param score score to rank
+     * @return 1 + number of attempts with strictly better score
+     */
+    public long getRank(int score) {
+        return this.total - countAtMost(score) + 1;
+    }
+
+    /**
+     * Percentile of the score in the leaderboard
+     *
+     * @param score score to check
+     * @return percent of attempts with the same or worse score, 100 for empty leaderboard
+     */
+    public double getPercentile(int score) {
+        if (this.total == 0) {
+            return 100;
+        }
+        return countAtMost(score) * 100.0 / this.total;
+    }
+
+    /**
+     * @param now current time
+     * @return best attempts of the day "now" belongs to, best first
+     */
+    public List<Entry> getTopOfToday(long now) {
+        return getTopOfDays(now, 1);
+    }
+
+    /**
+     * @param now current time
+     * @return best attempts of the last seven days including today, best first
+     */
+    public List<Entry> getTopOfThisWeek(long now) {
+        return getTopOfDays(now, DAYS_IN_WEEK);
+    }
+
+    /**
+     * Merge best attempts of day partitions
+     *
+     * @param now       current time
+     * @param dayCount  number of days back from today, today included
+     * @return best attempts of the window, best first
+     */
+    public List<Entry> getTopOfDays(long now, int dayCount) {
+        List<Entry> result = new ArrayList<Entry>();
+        long today = dayOf(now);
+        for (long day = today - dayCount + 1; day <= today; day++) {
+            DayPartition partition = this.days.get(day);
+            if (partition != null) {
+                for (int i = 0; i < partition.size; i++) {
+                    result.add(partition.best[i]);
+                }
+            }
+        }
+        Collections.sort(result);
+        if (result.size() > this.topCount) {
+            return new ArrayList<Entry>(result.subList(0, this.topCount));
+        }
+        return result;
+    }
+
+    /**
+     * @param now current time
+     * @return number of attempts played the day "now" belongs to
+     */
+    public long getAttemptCountOfToday(long now) {
+        DayPartition partition = this.days.get(dayOf(now));
+        return partition == null ? 0 : partition.attemptCount;
+    }
+
+    public long size() {
+        return this.total;
+    }
+
+    /**
+     * @return number of attempts with score less or equal to given one
+     */
+    private long countAtMost(int score) {
+        if (score < 0) {
+            return 0;
+        }
+        long sum = 0;
+        // score + 1 is not taken for scores beyond the range, so Integer.MAX_VALUE does not overflow
+        int last = score < this.buckets.length ? score + 1 : this.buckets.length;
+        for (int i = last; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Extend score range to hold given bucket and rebuild the tree in linear time
+     *
+     * @param bucket bucket to hold, less than MAX_BUCKET_COUNT
+     */
+    private void grow(int bucket) {
+        int size = this.buckets.length;
+        while (size <= bucket) {
+            size = Math.min(size * 2, MAX_BUCKET_COUNT);
+        }
+        long[] newBuckets = new long[size];
+        System.arraycopy(this.buckets, 0, newBuckets, 0, this.buckets.length);
+        long[] newTree = new long[size + 1];
+        for (int i = 1; i <= size; i++) {
+            newTree[i] += newBuckets[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                newTree[parent] += newTree[i];
+            }
+        }
+        this.buckets = newBuckets;
+        this.tree = newTree;
+    }
+
+    private long dayOf(long epochMillis) {
+        long local = epochMillis + this.timeZone.getOffset(epochMillis);
+        long day = local / DAY_MILLIS;
+        //floor for dates before epoch
+        return (local % DAY_MILLIS < 0) ? day - 1 : day;
+    }
+
+    private static int compare(int score, int lifeCount, long epochMillis,
+                               int thatScore, int thatLifeCount, long thatEpochMillis) {
+        if (score != thatScore) {
+            return score > thatScore ? -1 : 1;
+        }
+        if (lifeCount != thatLifeCount) {
+            return lifeCount > thatLifeCount ? -1 : 1;
+        }
+        return epochMillis < thatEpochMillis ? -1 : (epochMillis == thatEpochMillis ? 0 : 1);
+    }
+}
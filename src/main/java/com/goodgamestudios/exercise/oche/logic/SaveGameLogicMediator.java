@@ -0,0 +1,357 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.BossEntity;
+import com.goodgamestudios.exercise.oche.entities.Bunker;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * "Mediator" for save game logic
+ * Saves in-progress game (all entities, ship lifes, score, pause state, alien speed) to compact binary file
+ * and restores it back. Format:
+ * magic (int), version (short), flags (byte), score (int), lifes (int), alien speed multiplier (double),
+ * entity count (int) and then for every entity type (byte), x, y, dx, dy (float),
+ * bunker count (int) and then for every bunker its bitmap words (long), health of every boss part (byte)
+ * for every boss entity in entity order. Version 1 files have no bunkers, they are resumed with intact ones,
+ * files before version 3 have no boss.
+ * The whole state of usual game is ~2Kb, it is written with one channel write from reusable buffer,
+ * so autosave fits in one frame.
+ */
+public class SaveGameLogicMediator {
+    private static final Logger LOGGER = Logger.getLogger(SaveGameLogicMediator.class.getName());
+
+    private static final String CAN_NOT_SAVE = "Error to save game! {0}";
+    private static final String CAN_NOT_LOAD = "Error to load saved game! {0}";
+    private static final String ERR_WRONG_FORMAT = "Not a saved game file";
+    private static final String ERR_WRONG_VERSION = "Unsupported saved game version: ";
+    private static final String ERR_UNKNOWN_ENTITY = "Unknown entity type: ";
+    private static final String ERR_WRONG_ENTITY_COUNT = "Wrong entity count: ";
+    private static final String ERR_WRONG_BUNKER_COUNT = "Wrong bunker count: ";
+    private static final String ERR_WRONG_PART_HEALTH = "Wrong boss part health: ";
+
+    private static final String SAVE_FILE_NAME = "game.sav";
+    private static final String SAVE_TMP_FILE_NAME = "game.sav.tmp";
+
+    private static final int MAGIC = 0x41445356;
+    private static final short VERSION = 3;
+    private static final short VERSION_WITHOUT_BOSS = 2;
+    private static final short VERSION_WITHOUT_BUNKERS = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 4 + 4 + 8 + 4;
+    private static final int ENTITY_SIZE = 1 + 4 * 4;
+    private static final int BUNKER_COUNT_SIZE = 4;
+    private static final int BUNKER_WORD_SIZE = 8;
+    private static final int INITIAL_ENTITY_CAPACITY = 256;
+
+    private static final byte FLAG_PAUSED = 1;
+
+    private static final byte TYPE_SHIP = 0;
+    private static final byte TYPE_ALIEN = 1;
+    private static final byte TYPE_SHOT = 2;
+    private static final byte TYPE_ALIEN_SHOT = 3;
+    private static final byte TYPE_BOSS = 4;
+
+    private static volatile SaveGameLogicMediator INSTANCE = null;
+
+    public static SaveGameLogicMediator getInstance() {
+        if (INSTANCE == null) {
+            synchronized (SaveGameLogicMediator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SaveGameLogicMediator();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private SaveGameLogicMediator() {
+        this.buffer = ByteBuffer.allocateDirect(HEADER_SIZE + INITIAL_ENTITY_CAPACITY * ENTITY_SIZE);
+    }
+
+    //Current game entity exists in
+    private Game game;
+    //Saved game file
+    private Path saveFile;
+    //Temporary file save is written to before it replaces saved game file
+    private Path tmpFile;
+    //Reusable buffer for serialized state
+    private ByteBuffer buffer;
+
+    public void init(Game game, File dataDirectory) {
+        if (game == null) {
+            throw new IllegalStateException("Could not be initialised with null game");
+        }
+        this.game = game;
+        this.saveFile = new File(dataDirectory, SAVE_FILE_NAME).toPath();
+        this.tmpFile = new File(dataDirectory, SAVE_TMP_FILE_NAME).toPath();
+    }
+
+    /**
+     * @return true if there is a saved game to resume
+     */
+    public boolean hasSavedGame() {
+        checkInitialised();
+        return Files.exists(this.saveFile);
+    }
+
+    /**
+     * Save current game state, the previous save is replaced only when the new one is completely written
+     *
+     * @return true if game was saved
+     */
+    public boolean save() {
+        checkInitialised();
+        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
+        List<Entity> entities = entityMediator.getAllEntities();
+        Bunker[] bunkers = entityMediator.getBunkers();
+        ensureCapacity(entities.size(), bunkers);
+
+        this.buffer.clear();
+        this.buffer.putInt(MAGIC);
+        this.buffer.putShort(VERSION);
+        this.buffer.put(isPaused() ? FLAG_PAUSED : 0);
+        this.buffer.putInt(StateLogicMediator.getInstance().getScore());
+        this.buffer.putInt(entityMediator.getShip().lifeLeft());
+        this.buffer.putDouble(entityMediator.getAlienSpeedMultiplier());
+        this.buffer.putInt(entities.size());
+        for (Entity entity : entities) {
+            this.buffer.put(typeOf(entity));
+            this.buffer.putFloat((float) entity.getExactX());
+            this.buffer.putFloat((float) entity.getExactY());
+            this.buffer.putFloat((float) entity.getHorizontalMovement());
+            this.buffer.putFloat((float) entity.getVerticalMovement());
+        }
+        this.buffer.putInt(bunkers.length);
+        for (Bunker bunker : bunkers) {
+            for (int i = 0; i < bunker.getWordCount(); i++) {
+                this.buffer.putLong(bunker.getWord(i));
+            }
+        }
+        for (Entity entity : entities) {
+            if (entity instanceof BossEntity) {
+                for (int part = 0; part < BossEntity.PART_COUNT; part++) {
+                    this.buffer.put((byte) ((BossEntity) entity).getPartHealth(part));
+                }
+            }
+        }
+        this.buffer.flip();
+
+        try {
+            FileChannel channel = FileChannel.open(this.tmpFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                while (this.buffer.hasRemaining()) {
+                    channel.write(this.buffer);
+                }
+            } finally {
+                channel.close();
+            }
+            Files.move(this.tmpFile, this.saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CAN_NOT_SAVE, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Restore game from saved file, restored game is always put on pause so player could get ready
+     *
+     * @return true if game was restored
+     */
+    public boolean load() {
+        checkInitialised();
+        try {
+            FileChannel channel = FileChannel.open(this.saveFile, StandardOpenOption.READ);
+            ByteBuffer data;
+            try {
+                data = ByteBuffer.allocate((int) channel.size());
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // read whole file
+                }
+            } finally {
+                channel.close();
+            }
+            data.flip();
+            restore(data);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CAN_NOT_LOAD, e.getMessage());
+        } catch (RuntimeException e) {
+            // truncated or corrupted file
+            LOGGER.log(Level.SEVERE, CAN_NOT_LOAD, e.toString());
+        }
+        return false;
+    }
+
+    /**
+     * Remove saved game, e.g. when game is over and there is nothing to resume
+     */
+    public void delete() {
+        checkInitialised();
+        try {
+            Files.deleteIfExists(this.saveFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CAN_NOT_SAVE, e.getMessage());
+        }
+    }
+
+    private void restore(ByteBuffer data) throws IOException {
+        if (data.getInt() != MAGIC) {
+            throw new IOException(ERR_WRONG_FORMAT);
+        }
+        short version = data.getShort();
+        if (version != VERSION && version != VERSION_WITHOUT_BOSS && version != VERSION_WITHOUT_BUNKERS) {
+            throw new IOException(ERR_WRONG_VERSION + version);
+        }
+        // restored game is put on pause anyway, so paused flag is not needed here
+        data.get();
+        int score = data.getInt();
+        int lifes = data.getInt();
+        double alienSpeedMultiplier = data.getDouble();
+        int count = data.getInt();
+        // corrupted count must not allocate more entities than the file could hold
+        if (count < 0 || count > data.remaining() / ENTITY_SIZE) {
+            throw new IOException(ERR_WRONG_ENTITY_COUNT + count);
+        }
+
+        List<Entity> entities = new ArrayList<Entity>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = data.get();
+            Entity entity = createEntity(type);
+            entity.setLocation(data.getFloat(), data.getFloat());
+            entity.setHorizontalMovement(data.getFloat());
+            entity.setVerticalMovement(data.getFloat());
+            entities.add(entity);
+        }
+
+        // the whole file is read and validated before anything is applied, so corrupted save leaves game as it is
+        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
+        Bunker[] bunkers = entityMediator.getBunkers();
+        long[][] bunkerWords = null;
+        if (version != VERSION_WITHOUT_BUNKERS) {
+            int bunkerCount = data.getInt();
+            int wordCount = bunkers[0].getWordCount();
+            if (bunkerCount < 0 || bunkerCount > data.remaining() / (wordCount * BUNKER_WORD_SIZE)) {
+                throw new IOException(ERR_WRONG_BUNKER_COUNT + bunkerCount);
+            }
+            // bunkers which do not exist any more are skipped
+            bunkerWords = new long[Math.min(bunkerCount, bunkers.length)][wordCount];
+            for (int i = 0; i < bunkerCount; i++) {
+                for (int j = 0; j < wordCount; j++) {
+                    long word = data.getLong();
+                    if (i < bunkerWords.length) {
+                        bunkerWords[i][j] = word;
+                    }
+                }
+            }
+        }
+        int bossCount = 0;
+        for (Entity entity : entities) {
+            if (entity instanceof BossEntity) {
+                bossCount++;
+            }
+        }
+        int[] partHealths = new int[bossCount * BossEntity.PART_COUNT];
+        for (int i = 0; i < partHealths.length; i++) {
+            int health = data.get();
+            if (health < 0 || health > BossEntity.getMaxPartHealth(i % BossEntity.PART_COUNT)) {
+                throw new IOException(ERR_WRONG_PART_HEALTH + health);
+            }
+            partHealths[i] = health;
+        }
+
+        entityMediator.restoreEntities(this.game, entities, alienSpeedMultiplier);
+        for (Bunker bunker : bunkers) {
+            bunker.reset();
+        }
+        if (bunkerWords != null) {
+            for (int i = 0; i < bunkerWords.length; i++) {
+                for (int j = 0; j < bunkerWords[i].length; j++) {
+                    bunkers[i].setWord(j, bunkerWords[i][j]);
+                }
+            }
+        }
+        int healthIndex = 0;
+        for (Entity entity : entities) {
+            if (entity instanceof BossEntity) {
+                for (int part = 0; part < BossEntity.PART_COUNT; part++) {
+                    ((BossEntity) entity).setPartHealth(part, partHealths[healthIndex++]);
+                }
+            }
+        }
+        entityMediator.getShip().setLifeCount(lifes);
+        StateLogicMediator.getInstance().setScore(score);
+        KeyInputLogicMediator.getInstance().setPausePressed(true);
+        entityMediator.makePause();
+    }
+
+    private Entity createEntity(byte type) throws IOException {
+        switch (type) {
+            case TYPE_SHIP:
+                return new ShipEntity(this.game, 0, 0);
+            case TYPE_ALIEN:
+                return new AlienEntity(this.game, 0, 0);
+            case TYPE_SHOT:
+                return new ShotEntity(this.game, 0, 0);
+            case TYPE_ALIEN_SHOT:
+                return new AlienShotEntity(this.game, 0, 0);
+            case TYPE_BOSS:
+                return new BossEntity(this.game, 0, 0);
+            default:
+                throw new IOException(ERR_UNKNOWN_ENTITY + type);
+        }
+    }
+
+    private static byte typeOf(Entity entity) {
+        if (entity instanceof ShipEntity) {
+            return TYPE_SHIP;
+        } else if (entity instanceof AlienEntity) {
+            return TYPE_ALIEN;
+        } else if (entity instanceof ShotEntity) {
+            return TYPE_SHOT;
+        } else if (entity instanceof AlienShotEntity) {
+            return TYPE_ALIEN_SHOT;
+        } else if (entity instanceof BossEntity) {
+            return TYPE_BOSS;
+        }
+        throw new IllegalStateException(ERR_UNKNOWN_ENTITY + entity.getClass().getName());
+    }
+
+    private boolean isPaused() {
+        Entity ship = EntityLogicMediator.getInstance().getShip();
+        return ship.isPaused();
+    }
+
+    private void ensureCapacity(int entityCount, Bunker[] bunkers) {
+        int required = HEADER_SIZE + entityCount * (ENTITY_SIZE + BossEntity.PART_COUNT) + BUNKER_COUNT_SIZE;
+        for (Bunker bunker : bunkers) {
+            required += bunker.getWordCount() * BUNKER_WORD_SIZE;
+        }
+        if (this.buffer.capacity() < required) {
+            this.buffer = ByteBuffer.allocateDirect(required * 2);
+        }
+    }
+
+    private void checkInitialised() {
+        if (this.game == null) {
+            throw new IllegalStateException("Object is not initialised, please call init(Game game) method before use!");
+        }
+    }
+}
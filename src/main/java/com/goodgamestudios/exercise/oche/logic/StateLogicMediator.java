@@ -1,5 +1,7 @@
 package com.goodgamestudios.exercise.oche.logic;
 
+import com.goodgamestudios.exercise.oche.metrics.HighScoreWriteEvent;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
 import org.apache.commons.io.FileUtils;
 
 import java.awt.*;
@@ -8,10 +10,12 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +29,14 @@ public class StateLogicMediator {
 
     private static final String CAN_NOT_FETCH_HIGH_SCORES = "Error to fetch high score table from file! {}";
     private static final String CAN_NOT_WRITE_TO_HIGH_SCORES = "Error to write to highscore file! {}";
+    private static final String CAN_NOT_OPEN_ATTEMPT_LOG = "Error to open attempt log, attempts will not be saved! {}";
+
+    //System property with directory for persistent game data, by default data is kept next to classes
+    public static final String DATA_DIRECTORY_PROPERTY = "airdefender.data.dir";
+
+    private static final String ATTEMPTS_FILE_NAME = "attempts";
+    private static final String ATTEMPT_LOG_NAME = "attempts.log";
+    private static final int TOP_ATTEMPTS_COUNT = 10;
 
     private static final int PRINT_SCREEN_WIDTH = 800;
     private static final int PRINT_SCREEN_HEIGHT = 335;
@@ -45,27 +57,80 @@ public class StateLogicMediator {
         return INSTANCE;
     }
 
+    /**
+     * Create state of headless session, its attempts are kept in memory only and never mix with player's highscores
+     *
+     * @return new state without data directory
+     */
+    public static StateLogicMediator createForSession() {
+        return new StateLogicMediator(null);
+    }
+
     private StateLogicMediator() {
-        URL url = this.getClass().getClassLoader().getResource("attempts/attempts");
-        attemptsFile = new File(url.getPath());
-        this.bestTenAttempts = getPreviousAttempts();
+        this(getAttemptsFile());
+    }
+
+    private StateLogicMediator(File attemptsFile) {
+        this.attemptsFile = attemptsFile;
+        this.highScoreWriteHistogram = new LatencyHistogram();
+        this.topAttempts = new PriorityQueue<GameAttempt>(TOP_ATTEMPTS_COUNT, Collections.<GameAttempt>reverseOrder());
+        this.bestTenAttempts = new ArrayList<GameAttempt>(TOP_ATTEMPTS_COUNT);
+        this.bestTenAttemptStrings = new ArrayList<String>(TOP_ATTEMPTS_COUNT);
+        this.leaderboard = new Leaderboard(TOP_ATTEMPTS_COUNT);
+        if (attemptsFile != null) {
+            this.attemptLog = openAttemptLog(new File(attemptsFile.getParentFile(), ATTEMPT_LOG_NAME));
+        }
+        rebuildTopAttempts();
+    }
+
+    /**
+     * @return legacy highscore file in data directory if it is set, otherwise the one from resources
+     */
+    private static File getAttemptsFile() {
+        String dataDirectory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if (dataDirectory != null) {
+            File directory = new File(dataDirectory);
+            directory.mkdirs();
+            return new File(directory, ATTEMPTS_FILE_NAME);
+        }
+        URL url = StateLogicMediator.class.getClassLoader().getResource("attempts/attempts");
+        return new File(url.getPath());
     }
 
     //Current game score
     private int score;
-    //Best 10 game attempts
+    //Best 10 game attempts, sorted from the best one
     private List<GameAttempt> bestTenAttempts;
+    //Best 10 game attempts formatted for print, rebuilt only when the table changes
+    private List<String> bestTenAttemptStrings;
+    //Bounded min-heap of best attempts, the worst of the best attempts is on top
+    private PriorityQueue<GameAttempt> topAttempts;
+    //Rank, percentile and time window queries over all attempts
+    private Leaderboard leaderboard;
+    //Log with all attempts ever played, null if log could not be opened
+    private AttemptLog attemptLog;
     //Last game attempt performed by the player
     private GameAttempt lastAttempt;
-    //File object with "highscore table"
+    //File object with legacy "highscore table", is imported to attempt log once
     private File attemptsFile;
+    //Durations of attempt log writes
+    private LatencyHistogram highScoreWriteHistogram;
 
     /**
      * Save new game attempt and merge it with highscore table to get most recent highscores
      */
     public void makeNewAttempt() {
+        makeNewAttempt(EntityLogicMediator.getInstance().getShip().lifeLeft());
+    }
+
+    /**
+     * Save new game attempt and merge it with highscore table to get most recent highscores
+     *
+     * @param lifeCount Life number left
+     */
+    public void makeNewAttempt(int lifeCount) {
         GameAttempt gameAttempt = new GameAttempt();
-        gameAttempt.setLifeCount(EntityLogicMediator.getInstance().getShip().lifeLeft());
+        gameAttempt.setLifeCount(lifeCount);
         gameAttempt.setScore(this.score);
         this.lastAttempt = gameAttempt;
         mergeGameAttemptsToGetTopTen();
@@ -80,7 +145,8 @@ public class StateLogicMediator {
                     (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth("TOP TEN")) / PRINT_WIDTH_CORRECTIVE,
                     PRINT_SCREEN_HEIGHT);
         int corrective = PRINT_START_CORRECTIVE;
-        for (String s : getAllAttemptsAsStrings()) {
+        for (int i = 0; i < this.bestTenAttemptStrings.size(); i++) {
+            String s = this.bestTenAttemptStrings.get(i);
             g.drawString(s,
                         (PRINT_SCREEN_WIDTH - g.getFontMetrics().stringWidth(s)) / PRINT_WIDTH_CORRECTIVE,
                         corrective);
@@ -89,37 +155,146 @@ public class StateLogicMediator {
     }
 
     /**
-     * Merge last game attempt with highscore table and get best 10 attempts
+     * Append last game attempt to attempt log and merge it with highscore table to get best 10 attempts
      */
     private void mergeGameAttemptsToGetTopTen() {
-        this.bestTenAttempts.add(this.lastAttempt);
-        Collections.sort(this.bestTenAttempts);
-        if(this.bestTenAttempts.size() > 10) {
-            this.bestTenAttempts = this.bestTenAttempts.subList(0, 10);
+        if (this.attemptLog != null) {
+            HighScoreWriteEvent event = new HighScoreWriteEvent();
+            event.begin();
+            long writeStart = System.nanoTime();
+            try {
+                this.attemptLog.append(
+                        this.lastAttempt.getScore(), this.lastAttempt.getLifeCount(), this.lastAttempt.getDate().getTime());
+                event.succeeded = true;
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, CAN_NOT_WRITE_TO_HIGH_SCORES, e.getMessage());
+            }
+            this.highScoreWriteHistogram.record(System.nanoTime() - writeStart);
+            if (event.shouldCommit()) {
+                event.score = this.lastAttempt.getScore();
+                event.lifeCount = this.lastAttempt.getLifeCount();
+                event.storedAttempts = this.attemptLog.size();
+                event.commit();
+            }
         }
-        List<String> attempts = new LinkedList();
-        for (GameAttempt attempt : this.bestTenAttempts) {
-            attempts.add(attempt.toCSVLikeString());
+        offerTopAttempt(this.lastAttempt);
+        refreshBestTenAttempts();
+        this.leaderboard.record(
+                this.lastAttempt.getScore(), this.lastAttempt.getLifeCount(), this.lastAttempt.getDate().getTime());
+    }
+
+    /**
+     * Force attempts appended since the last flush to disk, e.g. when the game loop has time to spare
+     */
+    public void flushAttemptLog() {
+        if (this.attemptLog != null) {
+            this.attemptLog.flush();
         }
+    }
 
+    /**
+     * Open attempt log, on the first start all attempts from legacy highscore file are imported in it
+     *
+     * @param logFile file to store attempt log in
+     * @return opened attempt log or null in the case of error
+     */
+    private AttemptLog openAttemptLog(File logFile) {
         try {
-            FileUtils.write(attemptsFile, "");
-            FileUtils.writeLines(attemptsFile, attempts);
+            AttemptLog log = new AttemptLog(logFile);
+            if (log.size() == 0) {
+                for (GameAttempt attempt : getPreviousAttempts()) {
+                    log.append(attempt.getScore(), attempt.getLifeCount(), attempt.getDate().getTime());
+                }
+            }
+            return log;
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, CAN_NOT_WRITE_TO_HIGH_SCORES, e.getMessage());
+            LOGGER.log(Level.SEVERE, CAN_NOT_OPEN_ATTEMPT_LOG, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuild top attempts index and leaderboard by single sequential scan over attempt log
+     */
+    private void rebuildTopAttempts() {
+        this.topAttempts.clear();
+        if (this.attemptLog != null) {
+            this.attemptLog.forEach(new AttemptLog.RecordVisitor() {
+                @Override
+                public void visit(int score, int lifeCount, long epochMillis) {
+                    leaderboard.record(score, lifeCount, epochMillis);
+                    //most of attempts are not good enough, so check them before creating an object
+                    if (topAttempts.size() == TOP_ATTEMPTS_COUNT
+                            && !isBetterThan(score, lifeCount, epochMillis, topAttempts.peek())) {
+                        return;
+                    }
+                    GameAttempt attempt = new GameAttempt();
+                    attempt.setScore(score);
+                    attempt.setLifeCount(lifeCount);
+                    attempt.setDate(new Date(epochMillis));
+                    offerTopAttempt(attempt);
+                }
+            });
+        }
+        refreshBestTenAttempts();
+    }
+
+    /**
+     * Put attempt into top attempts heap, the worst one is dropped if heap is full
+     *
+     * @param attempt attempt to offer
+     */
+    private void offerTopAttempt(GameAttempt attempt) {
+        if (this.topAttempts.size() < TOP_ATTEMPTS_COUNT) {
+            this.topAttempts.add(attempt);
+        } else if (attempt.compareTo(this.topAttempts.peek()) < 0) {
+            this.topAttempts.poll();
+            this.topAttempts.add(attempt);
         }
     }
 
     /**
-     * Get list of all attempts from file
+     * Copy top attempts heap to sorted best 10 attempts list and format it for print
+     */
+    private void refreshBestTenAttempts() {
+        this.bestTenAttempts.clear();
+        this.bestTenAttempts.addAll(this.topAttempts);
+        Collections.sort(this.bestTenAttempts);
+        this.bestTenAttemptStrings.clear();
+        this.bestTenAttemptStrings.addAll(getAllAttemptsAsStrings());
+    }
+
+    /**
+     * The same order as GameAttempt.compareTo but for raw record values
+     *
+     * @return true if raw attempt should be placed higher than given one
+     */
+    private static boolean isBetterThan(int score, int lifeCount, long epochMillis, GameAttempt that) {
+        if (score != that.getScore()) {
+            return score > that.getScore();
+        }
+        if (lifeCount != that.getLifeCount()) {
+            return lifeCount > that.getLifeCount();
+        }
+        return epochMillis < that.getDate().getTime();
+    }
+
+    /**
+     * Get list of all attempts from legacy highscore file
      * @return List of all previous attempts
      */
     private List<GameAttempt> getPreviousAttempts() {
         List<GameAttempt> result = new LinkedList();
         try {
+            if (!attemptsFile.exists()) {
+                return result;
+            }
             List<String> strings = FileUtils.readLines(attemptsFile);
             if(!strings.isEmpty()) {
                 for (String string : strings) {
+                    if (string.trim().isEmpty()) {
+                        continue;
+                    }
                     result.add(valueOfCSVLikeString(string));
                 }
             }
@@ -135,7 +310,7 @@ public class StateLogicMediator {
      * @param str string representation of attempt from file
      * @return object deserialized from saved string
      */
-    private GameAttempt valueOfCSVLikeString(String str) {
+    GameAttempt valueOfCSVLikeString(String str) {
         String[] val = str.split(";");
         GameAttempt gameAttempt = new GameAttempt();
         //As we've serialized this string by self we know for sure the order of serialization.
@@ -160,6 +335,48 @@ public class StateLogicMediator {
         return result;
     }
 
+    /**
+     * @param score score to rank
+     * @return rank the score has among all attempts ever played, 1 is the best one
+     */
+    public long getRank(int score) {
+        return this.leaderboard.getRank(score);
+    }
+
+    /**
+     * @param score score to check
+     * @return percent of all attempts ever played with the same or worse score
+     */
+    public double getPercentile(int score) {
+        return this.leaderboard.getPercentile(score);
+    }
+
+    /**
+     * @return best 10 attempts played today, best first
+     */
+    public List<GameAttempt> getTopTenToday() {
+        return toGameAttempts(this.leaderboard.getTopOfToday(System.currentTimeMillis()));
+    }
+
+    /**
+     * @return best 10 attempts played within last seven days, best first
+     */
+    public List<GameAttempt> getTopTenThisWeek() {
+        return toGameAttempts(this.leaderboard.getTopOfThisWeek(System.currentTimeMillis()));
+    }
+
+    private List<GameAttempt> toGameAttempts(List<Leaderboard.Entry> entries) {
+        List<GameAttempt> result = new ArrayList<GameAttempt>(entries.size());
+        for (Leaderboard.Entry entry : entries) {
+            GameAttempt attempt = new GameAttempt();
+            attempt.setScore(entry.getScore());
+            attempt.setLifeCount(entry.getLifeCount());
+            attempt.setDate(new Date(entry.getEpochMillis()));
+            result.add(attempt);
+        }
+        return result;
+    }
+
     /**
      * Reset current score to start value
      */
@@ -174,10 +391,42 @@ public class StateLogicMediator {
         this.score++;
     }
 
+    /**
+     * Add points to current score, e.g. for killed boss
+     */
+    public void addScore(int points) {
+        this.score += points;
+    }
+
     public int getScore() {
         return score;
     }
 
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /**
+     * @return Durations of attempt log writes in nanoseconds
+     */
+    public LatencyHistogram getHighScoreWriteHistogram() {
+        return this.highScoreWriteHistogram;
+    }
+
+    /**
+     * @return Number of attempts stored in attempt log, 0 if log could not be opened
+     */
+    public long getStoredAttemptCount() {
+        return this.attemptLog == null ? 0 : this.attemptLog.size();
+    }
+
+    /**
+     * @return Directory persistent game data (attempts, saved game) is stored in, null for session state
+     */
+    public File getDataDirectory() {
+        return this.attemptsFile == null ? null : this.attemptsFile.getParentFile();
+    }
+
     /**
      * Class representing GameAttempt
      */
@@ -0,0 +1,367 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import com.goodgamestudios.exercise.oche.metrics.FramePhase;
+import com.goodgamestudios.exercise.oche.metrics.FrameProfiler;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Multi-rate scheduler of game loop systems. Every system is registered with its own frequency and phase offset
+ * in game time, on demand (runs in the tick it was requested in) or at idle (runs when the tick has time to spare).
+ * Systems run in order of registration. Systems slower than LOW_RATE are spread across ticks: at most one of them
+ * runs per tick, the one waiting longest, the others are deferred to the next ticks, so no single tick carries
+ * all of them. Every run is timed against the budget of its system, overruns are counted and published as
+ * platform MBean. Scheduling does not allocate.
+ */
+public class TickScheduler implements TickSchedulerMXBean {
+    private static final Logger LOGGER = Logger.getLogger(TickScheduler.class.getName());
+
+    private static final String CAN_NOT_REGISTER = "Error to register tick scheduler MBean! {0}";
+    public static final String OBJECT_NAME = "com.goodgamestudios.exercise.oche:type=TickScheduler";
+
+    //Frequency of systems which run every tick
+    public static final double EVERY_TICK = 0;
+    //Systems with lower frequency are low-rate, at most one of them runs per tick
+    public static final double LOW_RATE = 30;
+
+    private static final double MILLIS_IN_SECOND = 1000.0;
+    private static final double NANOS_IN_MICRO = 1000.0;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NO_SYSTEM = -1;
+
+    private static final int KIND_RATE = 0;
+    private static final int KIND_ON_DEMAND = 1;
+    private static final int KIND_IDLE = 2;
+
+    /**
+     * Registered system with its schedule and statistics
+     */
+    private static final class Entry {
+        private final String name;
+        private final int kind;
+        //Milliseconds between runs, 0 for systems which run every tick or on demand
+        private final double period;
+        private final boolean lowRate;
+        private final long budgetNanos;
+        //Phase the run is recorded as by frame profiler, null if it is not profiled
+        private final FramePhase phase;
+        private final TickSystem system;
+        //Game time of the next run
+        private double nextRun;
+        //Game time of the last run
+        private long lastRun;
+        //True if on demand system was requested and was not run yet
+        private boolean requested;
+        //Statistics, written by game thread only
+        private volatile long runs;
+        private volatile long overruns;
+        private volatile long deferred;
+        private volatile long totalNanos;
+        private volatile long maxNanos;
+
+        private Entry(String name, int kind, double period, long phaseOffset, long budgetNanos,
+                      FramePhase phase, TickSystem system) {
+            this.name = name;
+            this.kind = kind;
+            this.period = period;
+            this.lowRate = kind == KIND_IDLE || (kind == KIND_RATE && period > MILLIS_IN_SECOND / LOW_RATE);
+            this.budgetNanos = budgetNanos;
+            this.phase = phase;
+            this.system = system;
+            this.nextRun = phaseOffset;
+        }
+    }
+
+    //Time one tick could take, idle systems run only if it is not used up
+    private final long tickBudgetNanos;
+    //Frame profiler runs are recorded to, null if they are not profiled
+    private FrameProfiler profiler;
+    //Systems in order of registration
+    private Entry[] entries;
+    private int entryCount;
+    //Game time in milliseconds, advanced by every tick
+    private long time;
+    //System.nanoTime() the current tick was started at
+    private long tickStart;
+    //True if low-rate system was run in the current tick
+    private boolean lowRateRun;
+    private volatile long tickCount;
+
+    /**
+     * @param tickBudgetNanos Time one tick could take, idle systems run only if it is not used up
+     */
+    public TickScheduler(long tickBudgetNanos) {
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.entries = new Entry[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Register system which runs at its own frequency
+     *
+     * @param name        Name of the system in statistics
+     * @param frequency   Runs per second of game time, EVERY_TICK to run it every tick
+     * @param phaseOffset Game time in milliseconds of the first run, it shifts the system against others of
+     *                    the same frequency
+     * @param budgetNanos Time one run is expected to take
+     * @param phase       Phase the run is recorded as by frame profiler, null if it is not profiled
+     * @param system      The system
+     * @return id of the system
+     */
+    public int addSystem(String name, double frequency, long phaseOffset, long budgetNanos,
+                         FramePhase phase, TickSystem system) {
+        double period = frequency == EVERY_TICK ? 0 : MILLIS_IN_SECOND / frequency;
+        return add(new Entry(name, KIND_RATE, period, phaseOffset, budgetNanos, phase, system));
+    }
+
+    /**
+     * Register system which runs only in ticks it is requested in, see request()
+     *
+     * @return id of the system
+     */
+    public int addOnDemandSystem(String name, long budgetNanos, FramePhase phase, TickSystem system) {
+        return add(new Entry(name, KIND_ON_DEMAND, 0, 0, budgetNanos, phase, system));
+    }
+
+    /**
+     * Register system which runs once a period, in the first tick it is due in that has time to spare after
+     * the others. It is low-rate, and it runs in any case when it is late by a whole period.
+     * Idle systems are run by runIdle()
+     *
+     * @param period Game time in milliseconds between runs
+     * @return id of the system
+     */
+    public int addIdleSystem(String name, long period, long budgetNanos, FramePhase phase, TickSystem system) {
+        return add(new Entry(name, KIND_IDLE, period, period, budgetNanos, phase, system));
+    }
+
+    private int add(Entry entry) {
+        if (this.entryCount == this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, this.entryCount * 2);
+        }
+        this.entries[this.entryCount] = entry;
+        return this.entryCount++;
+    }
+
+    /**
+     * Ask on demand system to run, it runs in this tick if its turn has not passed yet, otherwise in the next one
+     *
+     * @param system id of the system
+     */
+    public void request(int system) {
+        this.entries[system].requested = true;
+    }
+
+    /**
+     * Run systems which are due in this tick, idle ones excluded
+     *
+     * @param delta The amount of time that has passed in milliseconds
+     */
+    public void runTick(long delta) {
+        this.time += delta;
+        this.tickCount++;
+        this.tickStart = System.nanoTime();
+        this.lowRateRun = false;
+        int lowRateSystem = chooseLowRateSystem();
+        long start = this.tickStart;
+        for (int i = 0; i < this.entryCount; i++) {
+            Entry entry = this.entries[i];
+            if (entry.kind == KIND_RATE) {
+                if (this.time < entry.nextRun) {
+                    continue;
+                }
+                if (entry.lowRate && i != lowRateSystem) {
+                    entry.deferred++;
+                    continue;
+                }
+                start = run(entry, start);
+            } else if (entry.kind == KIND_ON_DEMAND && entry.requested) {
+                entry.requested = false;
+                start = run(entry, start);
+            }
+        }
+    }
+
+    /**
+     * Run idle systems which are due, if the tick has time to spare and no other low-rate system was run in it
+     */
+    public void runIdle() {
+        long start = System.nanoTime();
+        for (int i = 0; i < this.entryCount; i++) {
+            Entry entry = this.entries[i];
+            if (entry.kind != KIND_IDLE || this.time < entry.nextRun) {
+                continue;
+            }
+            boolean late = this.time - entry.nextRun >= entry.period;
+            long spare = this.tickBudgetNanos - (start - this.tickStart);
+            if (!late && (this.lowRateRun || spare < entry.budgetNanos)) {
+                entry.deferred++;
+                continue;
+            }
+            start = run(entry, start);
+        }
+    }
+
+    /**
+     * @return index of due low-rate system waiting longest, NO_SYSTEM if there is none
+     */
+    private int chooseLowRateSystem() {
+        int result = NO_SYSTEM;
+        for (int i = 0; i < this.entryCount; i++) {
+            Entry entry = this.entries[i];
+            if (entry.kind == KIND_RATE && entry.lowRate && this.time >= entry.nextRun
+                    && (result == NO_SYSTEM || entry.nextRun < this.entries[result].nextRun)) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Run the system, record its duration and plan its next run
+     *
+     * @param start System.nanoTime() the run is started at
+     * @return System.nanoTime() the run is finished at
+     */
+    private long run(Entry entry, long start) {
+        long delta = this.time - entry.lastRun;
+        entry.lastRun = this.time;
+        entry.system.update(delta);
+        long end = this.profiler != null && entry.phase != null
+                ? this.profiler.record(entry.phase, start) : System.nanoTime();
+        long duration = end - start;
+        entry.runs++;
+        entry.totalNanos += duration;
+        if (duration > entry.maxNanos) {
+            entry.maxNanos = duration;
+        }
+        if (duration > entry.budgetNanos) {
+            entry.overruns++;
+        }
+        if (entry.lowRate) {
+            this.lowRateRun = true;
+        }
+        if (entry.period > 0) {
+            // runs missed by a long tick are skipped, phase of the system is kept
+            entry.nextRun += entry.period * (Math.floor((this.time - entry.nextRun) / entry.period) + 1);
+        }
+        return end;
+    }
+
+    /**
+     * Register scheduler in platform MBean server, MBean of an earlier instance is replaced
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // a new game replaces the instance, so the MBean should show the current one
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, CAN_NOT_REGISTER, e.getMessage());
+        }
+    }
+
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return number of runs of the system which took longer than its budget
+     */
+    public long getOverrunCount(int system) {
+        return this.entries[system].overruns;
+    }
+
+    public long getRunCount(int system) {
+        return this.entries[system].runs;
+    }
+
+    public long getDeferredCount(int system) {
+        return this.entries[system].deferred;
+    }
+
+    @Override
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
+    @Override
+    public Map<String, Long> getRunCounts() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < this.entryCount; i++) {
+            result.put(this.entries[i].name, this.entries[i].runs);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getOverrunCounts() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < this.entryCount; i++) {
+            result.put(this.entries[i].name, this.entries[i].overruns);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getDeferredCounts() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < this.entryCount; i++) {
+            result.put(this.entries[i].name, this.entries[i].deferred);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getBudgetMicros() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (int i = 0; i < this.entryCount; i++) {
+            result.put(this.entries[i].name, this.entries[i].budgetNanos / NANOS_IN_MICRO);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (int i = 0; i < this.entryCount; i++) {
+            Entry entry = this.entries[i];
+            long runs = entry.runs;
+            result.put(entry.name, runs == 0 ? 0 : entry.totalNanos / NANOS_IN_MICRO / runs);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (int i = 0; i < this.entryCount; i++) {
+            result.put(this.entries[i].name, this.entries[i].maxNanos / NANOS_IN_MICRO);
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < this.entryCount; i++) {
+            Entry entry = this.entries[i];
+            entry.runs = 0;
+            entry.overruns = 0;
+            entry.deferred = 0;
+            entry.totalNanos = 0;
+            entry.maxNanos = 0;
+        }
+        this.tickCount = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import java.util.Map;
+
+/**
+ * Management interface of tick scheduler, visible in jconsole / VisualVM / any JMX client.
+ * All durations are in microseconds, maps are keyed by system name in order of registration.
+ */
+public interface TickSchedulerMXBean {
+
+    long getTickCount();
+
+    Map<String, Long> getRunCounts();
+
+    /**
+     * @return number of runs which took longer than the budget of the system
+     */
+    Map<String, Long> getOverrunCounts();
+
+    /**
+     * @return number of ticks the system was due in, but was moved to a later tick
+     */
+    Map<String, Long> getDeferredCounts();
+
+    Map<String, Double> getBudgetMicros();
+
+    Map<String, Double> getMeanMicros();
+
+    Map<String, Double> getMaxMicros();
+
+    /**
+     * Drop all collected statistics
+     */
+    void reset();
+}
@@ -0,0 +1,12 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+/**
+ * Work of one game loop system, run by tick scheduler at the rate the system is registered with
+ */
+public interface TickSystem {
+
+    /**
+     * @param delta Game time in milliseconds passed since the system was run last time
+     */
+    void update(long delta);
+}
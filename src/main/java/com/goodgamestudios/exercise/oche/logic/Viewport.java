@@ -0,0 +1,40 @@
+package com.goodgamestudios.exercise.oche.logic;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+
+/**
+ * Visible area of the game canvas. Entities outside of it are not drawn, entities which despawn off screen
+ * are disposed once they are farther off it than the margin, after the collision pass of the entity core.
+ */
+public final class Viewport {
+    public static final int WIDTH = Game.GAME_X_RESOLUTION;
+    public static final int HEIGHT = Game.GAME_Y_RESOLUTION;
+    //Distance off the screen entities still live at
+    public static final int DESPAWN_MARGIN = 100;
+
+    private Viewport() {
+    }
+
+    /**
+     * @return true if the entity could have pixels on the screen, so it has to be drawn
+     */
+    public static boolean isVisible(Entity entity) {
+        return entity.isWithin(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * @return true if the entity should be disposed as it is farther off the screen than the margin
+     */
+    public static boolean isDespawned(Entity entity) {
+        return entity.isDespawnedOffScreen()
+                && !entity.isWithin(-DESPAWN_MARGIN, -DESPAWN_MARGIN, WIDTH + DESPAWN_MARGIN, HEIGHT + DESPAWN_MARGIN);
+    }
+
+    /**
+     * @return true if the area of the given location and size could have pixels on the screen
+     */
+    public static boolean isVisible(double x, double y, int width, int height) {
+        return x < WIDTH && x + width > 0 && y < HEIGHT && y + height > 0;
+    }
+}
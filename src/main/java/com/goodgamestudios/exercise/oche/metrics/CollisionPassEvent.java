@@ -0,0 +1,29 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one collision pass over all entities
+ */
+@Name(CollisionPassEvent.NAME)
+@Label("Collision Pass")
+@Category({"Air Defender", "Engine"})
+@Description("Collision detection and resolution over all entities")
+@StackTrace(false)
+public class CollisionPassEvent extends Event {
+    public static final String NAME = "com.goodgamestudios.exercise.oche.CollisionPass";
+
+    @Label("Entity Count")
+    public int entityCount;
+
+    @Label("Pairs Tested")
+    public long pairsTested;
+
+    @Label("Hits")
+    public long hits;
+}
@@ -0,0 +1,77 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+/**
+ * Entity counters of the classic entity core, written by the game thread once per tick and read by exporters.
+ * Every counter has single writer, so plain volatile fields are enough and readers never block the game.
+ */
+public class EntityMetrics {
+
+    private static volatile EntityMetrics INSTANCE = null;
+
+    public static EntityMetrics getInstance() {
+        if (INSTANCE == null) {
+            synchronized (EntityMetrics.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new EntityMetrics();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private EntityMetrics() {
+    }
+
+    //Live entities by type after the last collision pass
+    private volatile int shipCount;
+    private volatile int alienCount;
+    private volatile int shotCount;
+    private volatile int alienShotCount;
+    //Shots waiting in pools for reuse
+    private volatile int shotsPooled;
+    private volatile int alienShotsPooled;
+
+    /**
+     * Record entity counts of the tick
+     *
+     * @param shipCount        Number of player ships in the game
+     * @param alienCount       Number of aliens in the game
+     * @param shotCount        Number of player shots in the game
+     * @param alienShotCount   Number of alien shots in the game
+     * @param shotsPooled      Number of player shots in the pool
+     * @param alienShotsPooled Number of alien shots in the pool
+     */
+    public void recordTick(int shipCount, int alienCount, int shotCount, int alienShotCount,
+                           int shotsPooled, int alienShotsPooled) {
+        this.shipCount = shipCount;
+        this.alienCount = alienCount;
+        this.shotCount = shotCount;
+        this.alienShotCount = alienShotCount;
+        this.shotsPooled = shotsPooled;
+        this.alienShotsPooled = alienShotsPooled;
+    }
+
+    public int getShipCount() {
+        return shipCount;
+    }
+
+    public int getAlienCount() {
+        return alienCount;
+    }
+
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    public int getAlienShotCount() {
+        return alienShotCount;
+    }
+
+    public int getShotsPooled() {
+        return shotsPooled;
+    }
+
+    public int getAlienShotsPooled() {
+        return alienShotsPooled;
+    }
+}
@@ -0,0 +1,20 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+/**
+ * Phases of one game loop iteration, in the order they are executed. Systems which are not due
+ * in the iteration skip their phases
+ */
+public enum FramePhase {
+    ALIEN_SHOT,
+    MOVE,
+    COLLISION,
+    LOGIC,
+    INPUT,
+    EVENTS,
+    CLEAR,
+    DRAW,
+    HUD,
+    SHOW,
+    AUTOSAVE,
+    SLEEP
+}
@@ -0,0 +1,241 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Low overhead per-phase profiler of the game loop.
+ * Game loop marks the end of every phase with System.nanoTime(), durations go to lock-free histograms,
+ * so the profiler could be always on. Statistics are published as platform MBean.
+ */
+public class FrameProfiler implements FrameProfilerMXBean {
+    private static final Logger LOGGER = Logger.getLogger(FrameProfiler.class.getName());
+
+    private static final String CAN_NOT_REGISTER = "Error to register frame profiler MBean! {0}";
+    public static final String OBJECT_NAME = "com.goodgamestudios.exercise.oche:type=FrameProfiler";
+
+    private static final double NANOS_IN_MICRO = 1000.0;
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+
+    private static volatile FrameProfiler INSTANCE = null;
+
+    public static FrameProfiler getInstance() {
+        if (INSTANCE == null) {
+            synchronized (FrameProfiler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new FrameProfiler();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private FrameProfiler() {
+        this.phases = new EnumMap<FramePhase, LatencyHistogram>(FramePhase.class);
+        this.phaseHistograms = new LatencyHistogram[FramePhase.values().length];
+        for (FramePhase phase : FramePhase.values()) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            this.phases.put(phase, histogram);
+            this.phaseHistograms[phase.ordinal()] = histogram;
+        }
+        this.frames = new LatencyHistogram();
+        this.lastPhaseNanos = new long[FramePhase.values().length];
+        this.collisionPairsTotal = new AtomicLong();
+        this.collisionHitsTotal = new AtomicLong();
+    }
+
+    //Histograms per phase, ordered map for readers
+    private final Map<FramePhase, LatencyHistogram> phases;
+    //The same histograms indexed by phase ordinal for the writer
+    private final LatencyHistogram[] phaseHistograms;
+    //Histogram of whole frame duration
+    private final LatencyHistogram frames;
+    //Phase durations of the current frame, written and read by game thread only
+    private final long[] lastPhaseNanos;
+    //Counters of the last tick, written by game thread only
+    private volatile int entityCount;
+    private volatile long collisionPairsLastTick;
+    private volatile long collisionHitsLastTick;
+    //Counters since start
+    private final AtomicLong collisionPairsTotal;
+    private final AtomicLong collisionHitsTotal;
+
+    /**
+     * Register profiler in platform MBean server, repeated registration is ignored
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, CAN_NOT_REGISTER, e.getMessage());
+        }
+    }
+
+    /**
+     * Start new frame, phases which are not executed in this frame get 0 duration
+     *
+     * @return current System.nanoTime(), i.e. start of the frame and its first phase
+     */
+    public long beginFrame() {
+        Arrays.fill(this.lastPhaseNanos, 0);
+        return System.nanoTime();
+    }
+
+    /**
+     * Record end of phase
+     *
+     * @param phase      Phase which is finished
+     * @param phaseStart System.nanoTime() the phase was started at
+     * @return current System.nanoTime(), i.e. start of the next phase
+     */
+    public long record(FramePhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        this.lastPhaseNanos[phase.ordinal()] = now - phaseStart;
+        this.phaseHistograms[phase.ordinal()].record(now - phaseStart);
+        return now;
+    }
+
+    /**
+     * Record end of whole frame
+     *
+     * @param frameStart System.nanoTime() the frame was started at
+     */
+    public void recordFrame(long frameStart) {
+        this.frames.record(System.nanoTime() - frameStart);
+    }
+
+    /**
+     * Record per tick counters
+     *
+     * @param entityCount         Number of entities in the game
+     * @param collisionPairs      Number of entity pairs tested for collision
+     * @param collisionHits       Number of collided pairs
+     */
+    public void recordTick(int entityCount, long collisionPairs, long collisionHits) {
+        this.entityCount = entityCount;
+        this.collisionPairsLastTick = collisionPairs;
+        this.collisionHitsLastTick = collisionHits;
+        this.collisionPairsTotal.addAndGet(collisionPairs);
+        this.collisionHitsTotal.addAndGet(collisionHits);
+    }
+
+    /**
+     * @return duration of the phase in the current frame, should be called from game thread
+     */
+    public long getLastPhaseNanos(FramePhase phase) {
+        return this.lastPhaseNanos[phase.ordinal()];
+    }
+
+    public LatencyHistogram getPhaseHistogram(FramePhase phase) {
+        return this.phaseHistograms[phase.ordinal()];
+    }
+
+    public LatencyHistogram getFrameHistogram() {
+        return this.frames;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return this.frames.getCount();
+    }
+
+    @Override
+    public double getFrameMeanMicros() {
+        return this.frames.getMean() / NANOS_IN_MICRO;
+    }
+
+    @Override
+    public double getFrameP99Micros() {
+        return this.frames.getValueAtQuantile(P99) / NANOS_IN_MICRO;
+    }
+
+    @Override
+    public double getFrameMaxMicros() {
+        return this.frames.getMax() / NANOS_IN_MICRO;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMicros() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (Map.Entry<FramePhase, LatencyHistogram> entry : this.phases.entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue().getMean() / NANOS_IN_MICRO);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP50Micros() {
+        return getPhaseQuantileMicros(P50);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Micros() {
+        return getPhaseQuantileMicros(P99);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMicros() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (Map.Entry<FramePhase, LatencyHistogram> entry : this.phases.entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue().getMax() / NANOS_IN_MICRO);
+        }
+        return result;
+    }
+
+    @Override
+    public int getEntityCount() {
+        return this.entityCount;
+    }
+
+    @Override
+    public long getCollisionPairsTestedLastTick() {
+        return this.collisionPairsLastTick;
+    }
+
+    @Override
+    public long getCollisionHitsLastTick() {
+        return this.collisionHitsLastTick;
+    }
+
+    @Override
+    public long getCollisionPairsTestedTotal() {
+        return this.collisionPairsTotal.get();
+    }
+
+    @Override
+    public long getCollisionHitsTotal() {
+        return this.collisionHitsTotal.get();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : this.phaseHistograms) {
+            histogram.reset();
+        }
+        this.frames.reset();
+        this.collisionPairsTotal.set(0);
+        this.collisionHitsTotal.set(0);
+    }
+
+    private Map<String, Double> getPhaseQuantileMicros(double quantile) {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (Map.Entry<FramePhase, LatencyHistogram> entry : this.phases.entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue().getValueAtQuantile(quantile) / NANOS_IN_MICRO);
+        }
+        return result;
+    }
+}
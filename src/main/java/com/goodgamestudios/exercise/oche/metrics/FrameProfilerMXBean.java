@@ -0,0 +1,41 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of frame profiler, visible in jconsole / VisualVM / any JMX client.
+ * All durations are in microseconds, maps are keyed by FramePhase name.
+ */
+public interface FrameProfilerMXBean {
+
+    long getFrameCount();
+
+    double getFrameMeanMicros();
+
+    double getFrameP99Micros();
+
+    double getFrameMaxMicros();
+
+    Map<String, Double> getPhaseMeanMicros();
+
+    Map<String, Double> getPhaseP50Micros();
+
+    Map<String, Double> getPhaseP99Micros();
+
+    Map<String, Double> getPhaseMaxMicros();
+
+    int getEntityCount();
+
+    long getCollisionPairsTestedLastTick();
+
+    long getCollisionHitsLastTick();
+
+    long getCollisionPairsTestedTotal();
+
+    long getCollisionHitsTotal();
+
+    /**
+     * Drop all collected statistics
+     */
+    void reset();
+}
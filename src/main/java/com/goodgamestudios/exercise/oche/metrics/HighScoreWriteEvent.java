@@ -0,0 +1,30 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for writing game attempt to persistent highscore storage
+ */
+@Name(HighScoreWriteEvent.NAME)
+@Label("High Score Write")
+@Category({"Air Defender", "Persistence"})
+@Description("Game attempt is appended to attempt log")
+public class HighScoreWriteEvent extends Event {
+    public static final String NAME = "com.goodgamestudios.exercise.oche.HighScoreWrite";
+
+    @Label("Score")
+    public int score;
+
+    @Label("Life Count")
+    public int lifeCount;
+
+    @Label("Stored Attempts")
+    public long storedAttempts;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,137 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of nanosecond durations.
+ * Buckets are log-linear: every power of two is split into 8 sub-buckets, so recorded value
+ * is known with ~12% precision over the whole long range with less than 500 counters.
+ * Recording is a couple of atomic increments, readers never block the writer.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    //values below are too small to be split, every one has own bucket
+    private static final int EXACT_VALUE_COUNT = SUB_BUCKET_COUNT * 2;
+    private static final int BUCKET_COUNT = EXACT_VALUE_COUNT + (Long.SIZE - SUB_BUCKET_BITS - 2) * SUB_BUCKET_COUNT;
+
+    //Number of recorded values per bucket
+    private final AtomicLongArray buckets;
+    //Number of recorded values
+    private final AtomicLong count;
+    //Sum of recorded values
+    private final AtomicLong sum;
+    //Max recorded value
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Record new value
+     *
+     * @param nanos duration, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(value);
+        long currentMax = this.max.get();
+        while (value > currentMax && !this.max.compareAndSet(currentMax, value)) {
+            currentMax = this.max.get();
+        }
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getSum() {
+        return this.sum.get();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public double getMean() {
+        long n = this.count.get();
+        return n == 0 ? 0 : (double) this.sum.get() / n;
+    }
+
+    /**
+     * @param quantile value between 0 and 1
+     * @return upper bound of the bucket the quantile falls into, 0 if nothing recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += this.buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(quantile, 0), 1) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBoundOf(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * Number of values recorded into bucket, used by exporters
+     *
+     * @param bucket bucket index from 0 to getBucketCount() - 1
+     */
+    public long getBucketValueCount(int bucket) {
+        return this.buckets.get(bucket);
+    }
+
+    /**
+     * @param bucket bucket index from 0 to getBucketCount() - 1
+     * @return the biggest value which is recorded into the bucket
+     */
+    public static long upperBoundOf(int bucket) {
+        if (bucket < EXACT_VALUE_COUNT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT_VALUE_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+        int subBucket = (bucket - EXACT_VALUE_COUNT) % SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public static int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < EXACT_VALUE_COUNT) {
+            return (int) value;
+        }
+        // position of the highest bit and 3 bits right after it
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return EXACT_VALUE_COUNT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+}
@@ -0,0 +1,241 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Local HTTP endpoint serving engine metrics in Prometheus text format on /metrics.
+ * It is bound to loopback only. Scrape runs on its own thread and reads lock-free histograms and volatile
+ * counters the game thread writes, so it never takes a lock the game loop could wait on.
+ * Histograms are exported with fixed buckets from 10 us to 1 s; log-linear buckets of LatencyHistogram
+ * are summed into the Prometheus bucket their upper bound falls into, so bounds are ~12% precise.
+ */
+public class MetricsHttpServer {
+    //System property with port of the endpoint, endpoint is off if it is not set
+    public static final String PORT_PROPERTY = "airdefender.metrics.port";
+    public static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int OK = 200;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final double NANOS_IN_SECOND = 1e9;
+    private static final double MILLIS_IN_SECOND = 1e3;
+    //Upper bounds of exported histogram buckets in nanoseconds
+    private static final long[] BUCKET_BOUNDS = {
+            10000L, 25000L, 50000L, 100000L, 250000L, 500000L,
+            1000000L, 2500000L, 5000000L, 10000000L, 25000000L, 50000000L,
+            100000000L, 250000000L, 500000000L, 1000000000L
+    };
+
+    //Address to listen on
+    private final InetSocketAddress address;
+    private final FrameProfiler frameProfiler;
+    private final EntityMetrics entityMetrics;
+    //Durations of attempt log writes
+    private final LatencyHistogram highScoreWrites;
+    //Quality decisions of the game loop, null if the game has no governor
+    private volatile QualityGovernor qualityGovernor;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param port            loopback port to listen on, 0 picks free port
+     * @param frameProfiler   frame and phase timings of the game loop
+     * @param entityMetrics   entity counters of the game
+     * @param highScoreWrites durations of attempt log writes
+     */
+    public MetricsHttpServer(int port, FrameProfiler frameProfiler, EntityMetrics entityMetrics,
+                             LatencyHistogram highScoreWrites) {
+        this.address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        this.frameProfiler = frameProfiler;
+        this.entityMetrics = entityMetrics;
+        this.highScoreWrites = highScoreWrites;
+    }
+
+    public void setQualityGovernor(QualityGovernor qualityGovernor) {
+        this.qualityGovernor = qualityGovernor;
+    }
+
+    /**
+     * Bind the endpoint and start serving scrapes from own daemon thread
+     */
+    public void start() throws IOException {
+        this.server = HttpServer.create(this.address, 0);
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+        this.server.start();
+    }
+
+    /**
+     * Stop serving, scrape in progress is not waited for
+     */
+    public void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * @return port endpoint listens on
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(OK, body.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Render all metrics in Prometheus text exposition format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+
+        header(out, "airdefender_frame_seconds", "histogram", "Duration of whole game loop iteration");
+        histogram(out, "airdefender_frame_seconds", "", this.frameProfiler.getFrameHistogram());
+        header(out, "airdefender_phase_seconds", "histogram", "Duration of game loop phases");
+        for (FramePhase phase : FramePhase.values()) {
+            histogram(out, "airdefender_phase_seconds", "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"",
+                    this.frameProfiler.getPhaseHistogram(phase));
+        }
+
+        header(out, "airdefender_entities", "gauge", "Entities in the game by type");
+        sample(out, "airdefender_entities", "type=\"all\"", this.frameProfiler.getEntityCount());
+        sample(out, "airdefender_entities", "type=\"ship\"", this.entityMetrics.getShipCount());
+        sample(out, "airdefender_entities", "type=\"alien\"", this.entityMetrics.getAlienCount());
+        sample(out, "airdefender_entities", "type=\"shot\"", this.entityMetrics.getShotCount());
+        sample(out, "airdefender_entities", "type=\"alien_shot\"", this.entityMetrics.getAlienShotCount());
+        header(out, "airdefender_shots_pooled", "gauge", "Shots waiting in pools for reuse");
+        sample(out, "airdefender_shots_pooled", "type=\"shot\"", this.entityMetrics.getShotsPooled());
+        sample(out, "airdefender_shots_pooled", "type=\"alien_shot\"", this.entityMetrics.getAlienShotsPooled());
+        header(out, "airdefender_shots_live", "gauge", "Shots flying in the game");
+        sample(out, "airdefender_shots_live", "type=\"shot\"", this.entityMetrics.getShotCount());
+        sample(out, "airdefender_shots_live", "type=\"alien_shot\"", this.entityMetrics.getAlienShotCount());
+
+        header(out, "airdefender_collision_pairs", "gauge", "Entity pairs tested for collision in the last tick");
+        sample(out, "airdefender_collision_pairs", "", this.frameProfiler.getCollisionPairsTestedLastTick());
+        header(out, "airdefender_collision_pairs_total", "counter", "Entity pairs tested for collision");
+        sample(out, "airdefender_collision_pairs_total", "", this.frameProfiler.getCollisionPairsTestedTotal());
+        header(out, "airdefender_collision_hits_total", "counter", "Collided entity pairs");
+        sample(out, "airdefender_collision_hits_total", "", this.frameProfiler.getCollisionHitsTotal());
+
+        header(out, "airdefender_highscore_write_seconds", "histogram", "Duration of attempt log writes");
+        histogram(out, "airdefender_highscore_write_seconds", "", this.highScoreWrites);
+
+        QualityGovernor governor = this.qualityGovernor;
+        if (governor != null) {
+            header(out, "airdefender_quality_level", "gauge", "Quality degradation level, 0 is full quality");
+            sample(out, "airdefender_quality_level", "", governor.getQualityLevel().ordinal());
+            header(out, "airdefender_quality_changes_total", "counter", "Quality level changes by direction");
+            sample(out, "airdefender_quality_changes_total", "direction=\"degrade\"", governor.getDegradeCount());
+            sample(out, "airdefender_quality_changes_total", "direction=\"recover\"", governor.getRecoverCount());
+            header(out, "airdefender_quality_frame_p95_seconds", "gauge",
+                    "Frame time percentile quality was decided by");
+            sample(out, "airdefender_quality_frame_p95_seconds", "",
+                    governor.getFramePercentileMillis() / MILLIS_IN_SECOND);
+        }
+
+        header(out, "jvm_gc_collections_total", "counter", "Garbage collections by collector");
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(out, "jvm_gc_collections_total", gcLabel(collector), Math.max(collector.getCollectionCount(), 0));
+        }
+        header(out, "jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collections by collector");
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(out, "jvm_gc_collection_seconds_total", gcLabel(collector),
+                    Math.max(collector.getCollectionTime(), 0) / MILLIS_IN_SECOND);
+        }
+        return out.toString();
+    }
+
+    private static String gcLabel(GarbageCollectorMXBean collector) {
+        return "gc=\"" + collector.getName().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        name(out, name, labels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        name(out, name, labels).append(' ').append(value).append('\n');
+    }
+
+    private static StringBuilder name(StringBuilder out, String name, String labels) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        return out;
+    }
+
+    /**
+     * Write cumulative buckets, sum and count. Buckets are read one by one while the game keeps recording,
+     * so count is taken from the buckets to stay equal to the +Inf bucket.
+     */
+    private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String bucketName = name + "_bucket";
+        String separator = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        int bound = 0;
+        for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+            while (bound < BUCKET_BOUNDS.length && LatencyHistogram.upperBoundOf(i) > BUCKET_BOUNDS[bound]) {
+                name(out, bucketName, separator + "le=\"" + BUCKET_BOUNDS[bound] / NANOS_IN_SECOND + "\"")
+                        .append(' ').append(cumulative).append('\n');
+                bound++;
+            }
+            cumulative += histogram.getBucketValueCount(i);
+        }
+        while (bound < BUCKET_BOUNDS.length) {
+            name(out, bucketName, separator + "le=\"" + BUCKET_BOUNDS[bound] / NANOS_IN_SECOND + "\"")
+                    .append(' ').append(cumulative).append('\n');
+            bound++;
+        }
+        name(out, bucketName, separator + "le=\"+Inf\"").append(' ').append(cumulative).append('\n');
+        sample(out, name + "_sum", labels, histogram.getSum() / NANOS_IN_SECOND);
+        sample(out, name + "_count", labels, cumulative);
+    }
+}
@@ -0,0 +1,35 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for change of quality level by quality governor
+ */
+@Name(QualityChangeEvent.NAME)
+@Label("Quality Change")
+@Category({"Air Defender", "Engine"})
+@Description("Quality is degraded or recovered because of frame time percentile")
+@StackTrace(false)
+public class QualityChangeEvent extends Event {
+    public static final String NAME = "com.goodgamestudios.exercise.oche.QualityChange";
+
+    @Label("From Level")
+    public String fromLevel;
+
+    @Label("To Level")
+    public String toLevel;
+
+    @Label("Frame Time Percentile")
+    @Timespan(Timespan.NANOSECONDS)
+    public long framePercentile;
+
+    @Label("Frame Budget")
+    @Timespan(Timespan.NANOSECONDS)
+    public long frameBudget;
+}
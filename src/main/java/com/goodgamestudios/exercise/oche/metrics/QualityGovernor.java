@@ -0,0 +1,171 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sheds load of the game loop under frame time pressure. Frame times are collected in windows of WINDOW frames,
+ * at the end of every window its percentile is compared with the frame budget. Quality goes one level down
+ * when the percentile is over the budget, and one level up only after RECOVERY_WINDOWS windows in a row stay
+ * well below it, so quality does not flap at the edge of the budget. Every change is logged, reported as
+ * flight recorder event and published as platform MBean. Recording a frame does not allocate.
+ */
+public class QualityGovernor implements QualityGovernorMXBean {
+    private static final Logger LOGGER = Logger.getLogger(QualityGovernor.class.getName());
+
+    private static final String CAN_NOT_REGISTER = "Error to register quality governor MBean! {0}";
+    private static final String DECISION = "Quality {0} from {1} to {2}, frame time p95 {3} ms, budget {4} ms";
+    public static final String OBJECT_NAME = "com.goodgamestudios.exercise.oche:type=QualityGovernor";
+
+    //Number of frames percentile is taken over
+    public static final int WINDOW = 120;
+    //Number of calm windows in a row quality is recovered after
+    public static final int RECOVERY_WINDOWS = 3;
+    private static final double PERCENTILE = 0.95;
+    //Window is calm if its percentile is below this share of the budget
+    private static final double RECOVERY_SHARE = 0.75;
+    private static final double NANOS_IN_MILLI = 1000000.0;
+    private static final QualityLevel[] LEVELS = QualityLevel.values();
+
+    private final long frameBudgetNanos;
+    //Frame times of the current window
+    private final long[] frames;
+    //Frame times of the window sorted for percentile
+    private final long[] sortedFrames;
+    private int frameCount;
+    //Calm windows in a row
+    private int calmWindows;
+    //State published to readers, written by game thread only
+    private volatile QualityLevel level;
+    private volatile long framePercentileNanos;
+    private volatile long degradeCount;
+    private volatile long recoverCount;
+    private volatile String lastDecision;
+
+    /**
+     * @param frameBudgetNanos Time the work of one frame should take, the sleep of the loop excluded
+     */
+    public QualityGovernor(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+        this.frames = new long[WINDOW];
+        this.sortedFrames = new long[WINDOW];
+        this.level = QualityLevel.FULL;
+        this.lastDecision = "";
+    }
+
+    /**
+     * Register governor in platform MBean server, MBean of an earlier instance is replaced
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // a new game replaces the instance, so the MBean should show the current one
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, CAN_NOT_REGISTER, e.getMessage());
+        }
+    }
+
+    /**
+     * Record duration of the frame, level is reconsidered when the window is full
+     *
+     * @param frameNanos Duration of the work of the frame, the sleep of the loop excluded
+     * @return true if the level was changed
+     */
+    public boolean recordFrame(long frameNanos) {
+        this.frames[this.frameCount++] = frameNanos;
+        if (this.frameCount < WINDOW) {
+            return false;
+        }
+        this.frameCount = 0;
+        System.arraycopy(this.frames, 0, this.sortedFrames, 0, WINDOW);
+        Arrays.sort(this.sortedFrames);
+        long percentile = this.sortedFrames[(int) Math.ceil(PERCENTILE * WINDOW) - 1];
+        this.framePercentileNanos = percentile;
+
+        int current = this.level.ordinal();
+        if (percentile > this.frameBudgetNanos) {
+            this.calmWindows = 0;
+            if (current == LEVELS.length - 1) {
+                return false;
+            }
+            this.degradeCount++;
+            changeLevel(LEVELS[current + 1], "degraded", percentile);
+            return true;
+        }
+        if (percentile >= this.frameBudgetNanos * RECOVERY_SHARE || current == 0) {
+            this.calmWindows = 0;
+            return false;
+        }
+        this.calmWindows++;
+        if (this.calmWindows < RECOVERY_WINDOWS) {
+            return false;
+        }
+        this.calmWindows = 0;
+        this.recoverCount++;
+        changeLevel(LEVELS[current - 1], "recovered", percentile);
+        return true;
+    }
+
+    private void changeLevel(QualityLevel newLevel, String direction, long percentile) {
+        QualityLevel oldLevel = this.level;
+        this.level = newLevel;
+        Object[] parameters = {direction, oldLevel, newLevel,
+                percentile / NANOS_IN_MILLI, this.frameBudgetNanos / NANOS_IN_MILLI};
+        this.lastDecision = MessageFormat.format(DECISION, parameters);
+        LOGGER.log(Level.WARNING, DECISION, parameters);
+
+        QualityChangeEvent event = new QualityChangeEvent();
+        if (event.shouldCommit()) {
+            event.fromLevel = oldLevel.name();
+            event.toLevel = newLevel.name();
+            event.framePercentile = percentile;
+            event.frameBudget = this.frameBudgetNanos;
+            event.commit();
+        }
+    }
+
+    public QualityLevel getQualityLevel() {
+        return this.level;
+    }
+
+    @Override
+    public String getLevel() {
+        return this.level.name();
+    }
+
+    @Override
+    public double getFrameBudgetMillis() {
+        return this.frameBudgetNanos / NANOS_IN_MILLI;
+    }
+
+    @Override
+    public double getFramePercentileMillis() {
+        return this.framePercentileNanos / NANOS_IN_MILLI;
+    }
+
+    @Override
+    public long getDegradeCount() {
+        return this.degradeCount;
+    }
+
+    @Override
+    public long getRecoverCount() {
+        return this.recoverCount;
+    }
+
+    @Override
+    public String getLastDecision() {
+        return this.lastDecision;
+    }
+}
@@ -0,0 +1,29 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+/**
+ * Management interface of quality governor, visible in jconsole / VisualVM / any JMX client.
+ * All durations are in milliseconds.
+ */
+public interface QualityGovernorMXBean {
+
+    /**
+     * @return name of the current QualityLevel
+     */
+    String getLevel();
+
+    double getFrameBudgetMillis();
+
+    /**
+     * @return frame time percentile of the last evaluated window
+     */
+    double getFramePercentileMillis();
+
+    long getDegradeCount();
+
+    long getRecoverCount();
+
+    /**
+     * @return the last level change with its reason, empty if quality was never changed
+     */
+    String getLastDecision();
+}
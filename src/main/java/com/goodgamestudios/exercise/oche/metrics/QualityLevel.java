@@ -0,0 +1,24 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+/**
+ * Degradation levels of the game under frame time pressure, from full quality down.
+ * Every level keeps the cuts of the levels above it
+ */
+public enum QualityLevel {
+    FULL,
+    //Particles of explosions and hits are dropped
+    NO_EFFECTS,
+    //Every other frame is drawn, simulation still runs every loop
+    HALF_RENDER_RATE,
+    //Attempt list is not drawn while the game waits for a key
+    NO_TOP_TEN,
+    //Few alien shots are fired per alien fire run
+    CAPPED_ALIEN_FIRE;
+
+    /**
+     * @return true if this level keeps the cuts of the given one
+     */
+    public boolean isAtLeast(QualityLevel level) {
+        return ordinal() >= level.ordinal();
+    }
+}
@@ -0,0 +1,32 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for loading sprite image into sprite store
+ */
+@Name(SpriteLoadEvent.NAME)
+@Label("Sprite Load")
+@Category({"Air Defender", "Resources"})
+@Description("Sprite image is read and converted to accelerated image")
+public class SpriteLoadEvent extends Event {
+    public static final String NAME = "com.goodgamestudios.exercise.oche.SpriteLoad";
+
+    @Label("Reference")
+    public String ref;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Image Size")
+    @DataAmount(DataAmount.BYTES)
+    public long imageBytes;
+}
@@ -0,0 +1,101 @@
+package com.goodgamestudios.exercise.oche.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one game loop iteration with durations of its phases
+ */
+@Name(TickEvent.NAME)
+@Label("Game Tick")
+@Category({"Air Defender", "Engine"})
+@Description("One iteration of the game loop")
+@StackTrace(false)
+public class TickEvent extends Event {
+    public static final String NAME = "com.goodgamestudios.exercise.oche.Tick";
+
+    @Label("Clear")
+    @Timespan(Timespan.NANOSECONDS)
+    long clear;
+
+    @Label("Alien Shot")
+    @Timespan(Timespan.NANOSECONDS)
+    long alienShot;
+
+    @Label("Move")
+    @Timespan(Timespan.NANOSECONDS)
+    long move;
+
+    @Label("Draw")
+    @Timespan(Timespan.NANOSECONDS)
+    long draw;
+
+    @Label("Collision")
+    @Timespan(Timespan.NANOSECONDS)
+    long collision;
+
+    @Label("Logic")
+    @Timespan(Timespan.NANOSECONDS)
+    long logic;
+
+    @Label("HUD")
+    @Timespan(Timespan.NANOSECONDS)
+    long hud;
+
+    @Label("Show")
+    @Timespan(Timespan.NANOSECONDS)
+    long show;
+
+    @Label("Input")
+    @Timespan(Timespan.NANOSECONDS)
+    long input;
+
+    @Label("Events")
+    @Timespan(Timespan.NANOSECONDS)
+    long events;
+
+    @Label("Autosave")
+    @Timespan(Timespan.NANOSECONDS)
+    long autosave;
+
+    @Label("Sleep")
+    @Timespan(Timespan.NANOSECONDS)
+    long sleep;
+
+    @Label("Entity Count")
+    int entityCount;
+
+    @Label("Collision Pairs Tested")
+    long collisionPairs;
+
+    @Label("Collision Hits")
+    long collisionHits;
+
+    /**
+     * Take phase durations and counters of the last frame from profiler
+     *
+     * @param profiler profiler game loop recorded the frame to
+     */
+    public void fill(FrameProfiler profiler) {
+        this.clear = profiler.getLastPhaseNanos(FramePhase.CLEAR);
+        this.alienShot = profiler.getLastPhaseNanos(FramePhase.ALIEN_SHOT);
+        this.move = profiler.getLastPhaseNanos(FramePhase.MOVE);
+        this.draw = profiler.getLastPhaseNanos(FramePhase.DRAW);
+        this.collision = profiler.getLastPhaseNanos(FramePhase.COLLISION);
+        this.logic = profiler.getLastPhaseNanos(FramePhase.LOGIC);
+        this.hud = profiler.getLastPhaseNanos(FramePhase.HUD);
+        this.show = profiler.getLastPhaseNanos(FramePhase.SHOW);
+        this.input = profiler.getLastPhaseNanos(FramePhase.INPUT);
+        this.events = profiler.getLastPhaseNanos(FramePhase.EVENTS);
+        this.autosave = profiler.getLastPhaseNanos(FramePhase.AUTOSAVE);
+        this.sleep = profiler.getLastPhaseNanos(FramePhase.SLEEP);
+        this.entityCount = profiler.getEntityCount();
+        this.collisionPairs = profiler.getCollisionPairsTestedLastTick();
+        this.collisionHits = profiler.getCollisionHitsLastTick();
+    }
+}
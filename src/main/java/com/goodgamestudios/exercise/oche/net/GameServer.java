@@ -0,0 +1,356 @@
+package com.goodgamestudios.exercise.oche.net;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotEncoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Authoritative game server. Every connected player gets own session game simulated on the server,
+ * remote input bitmasks take the place of the keyboard and the player receives a state snapshot every tick,
+ * encoded as delta to the previous snapshot sent to this player.
+ * Single thread serves all connections with non-blocking sockets: it waits on selector until the next tick
+ * is due, reads inputs and flushes pending snapshots in between.
+ * Snapshot which could not be written at once is kept and newer snapshots are dropped until it is sent,
+ * so slow client gets fewer snapshots but never delays other clients.
+ * <p/>
+ * Usage: GameServer [port]
+ */
+public class GameServer implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(GameServer.class.getName());
+    private static final String CLIENT_KAPUT = "Client connection error, client is disconnected {}";
+    private static final String SERVER_KAPUT = "Server error {}";
+
+    public static final int DEFAULT_PORT = 7777;
+    private static final long TICK_DELTA = 10;
+    private static final long NANOS_IN_MILLI = 1000000;
+    private static final long TICK_NANOS = TICK_DELTA * NANOS_IN_MILLI;
+    //Server which is late for more ticks does not try to catch up, it continues from now
+    private static final int MAX_LATE_TICKS = 10;
+    private static final int READ_BUFFER_SIZE = Protocol.INPUT_SIZE * 16;
+    private static final int WRITE_BUFFER_SIZE = 4096;
+    private static final int ALLOWED_CONTROLS = KeyInputLogicMediator.CONTROL_UP | KeyInputLogicMediator.CONTROL_DOWN
+            | KeyInputLogicMediator.CONTROL_LEFT | KeyInputLogicMediator.CONTROL_RIGHT
+            | KeyInputLogicMediator.CONTROL_FIRE;
+    private static final long REPORT_PERIOD_MILLIS = 5000;
+
+    /**
+     * Connected player and its game
+     */
+    private static class Client {
+        private final SocketChannel channel;
+        private final Game game;
+        private final KeyInputLogicMediator controls;
+        private final ByteBuffer readBuffer;
+        //Encoder of sent snapshots, dropped snapshot is not encoded, so deltas always follow what client got
+        private final SnapshotEncoder encoder;
+        //Snapshot being sent, in read mode
+        private ByteBuffer writeBuffer;
+        //Controls of the last input
+        private int lastControls;
+        //Echo of the last input
+        private long lastEcho;
+
+        Client(SocketChannel channel, long seed) {
+            this.channel = channel;
+            this.game = Game.createSession(new Random(seed));
+            this.game.initGame();
+            this.controls = this.game.getKeyInputLogicMediator();
+            this.controls.restart();
+            this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.encoder = new SnapshotEncoder();
+            this.writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            this.writeBuffer.flip();
+        }
+    }
+
+    //Address to listen on
+    private final InetSocketAddress address;
+    //Connected clients
+    private final List<Client> clients;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running;
+    //Number of clients ever connected, seeds their games
+    private long connectionCount;
+
+    //Number of connected clients, readable from any thread
+    private volatile int clientCount;
+    //Number of ticks made
+    private volatile long tickCount;
+    //Time of all game ticks and snapshot writes of one server tick
+    private final LatencyHistogram tickHistogram;
+    private volatile long snapshotsSent;
+    private volatile long snapshotsDropped;
+    //Number of times server was too late and skipped ticks
+    private volatile long lateTicks;
+
+    /**
+     * @param address address to listen on, port 0 picks free port
+     */
+    public GameServer(InetSocketAddress address) {
+        this.address = address;
+        this.clients = new ArrayList<Client>();
+        this.tickHistogram = new LatencyHistogram();
+    }
+
+    /**
+     * Open server socket, after this clients could connect
+     */
+    public void bind() throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(this.address);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.running = true;
+    }
+
+    /**
+     * Serve clients until stop() is called, bind() should be called before
+     */
+    @Override
+    public void run() {
+        if (this.selector == null) {
+            throw new IllegalStateException("Server is not bound, please call bind() method before use!");
+        }
+        long nextTick = System.nanoTime();
+        try {
+            while (this.running) {
+                long waitMillis = (nextTick - System.nanoTime()) / NANOS_IN_MILLI;
+                if (waitMillis > 0) {
+                    this.selector.select(waitMillis);
+                } else {
+                    this.selector.selectNow();
+                }
+                processSelectedKeys();
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    this.tickHistogram.record(System.nanoTime() - now);
+                    nextTick += TICK_NANOS;
+                    if (now - nextTick > MAX_LATE_TICKS * TICK_NANOS) {
+                        this.lateTicks++;
+                        nextTick = now + TICK_NANOS;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, SERVER_KAPUT, e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Request the server to stop, connections are closed by the server thread
+     */
+    public void stop() {
+        this.running = false;
+        if (this.selector != null) {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * @return port server listens on
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) this.serverChannel.getLocalAddress()).getPort();
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return Durations of server ticks in nanoseconds, simulation of all games plus snapshot writes
+     */
+    public LatencyHistogram getTickHistogram() {
+        return tickHistogram;
+    }
+
+    public long getSnapshotsSent() {
+        return snapshotsSent;
+    }
+
+    public long getSnapshotsDropped() {
+        return snapshotsDropped;
+    }
+
+    private void processSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Client client = (Client) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    read(client);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush(client, key);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, CLIENT_KAPUT, e.getMessage());
+                disconnect(client);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Client client = new Client(channel, this.connectionCount++);
+        channel.register(this.selector, SelectionKey.OP_READ, client);
+        this.clients.add(client);
+        this.clientCount = this.clients.size();
+    }
+
+    /**
+     * Read all complete inputs, only the last one matters
+     */
+    private void read(Client client) throws IOException {
+        if (client.channel.read(client.readBuffer) < 0) {
+            disconnect(client);
+            return;
+        }
+        client.readBuffer.flip();
+        while (client.readBuffer.remaining() >= Protocol.INPUT_SIZE) {
+            client.lastControls = client.readBuffer.getInt() & ALLOWED_CONTROLS;
+            client.lastEcho = client.readBuffer.getLong();
+        }
+        client.readBuffer.compact();
+    }
+
+    private void flush(Client client, SelectionKey key) throws IOException {
+        client.channel.write(client.writeBuffer);
+        if (!client.writeBuffer.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Advance every game by one tick and send snapshots
+     */
+    private void tick() {
+        int tick = (int) ++this.tickCount;
+        for (int i = this.clients.size() - 1; i >= 0; i--) {
+            Client client = this.clients.get(i);
+            if (client.controls.isWaitingForKeyPress()) {
+                // any control starts new game, like any key does
+                if (client.lastControls != 0) {
+                    client.controls.restart();
+                }
+            } else {
+                client.controls.setControls(client.lastControls);
+            }
+            client.game.tick(TICK_DELTA);
+            try {
+                sendSnapshot(client, tick);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, CLIENT_KAPUT, e.getMessage());
+                disconnect(client);
+            }
+        }
+    }
+
+    private void sendSnapshot(Client client, int tick) throws IOException {
+        if (client.writeBuffer.hasRemaining()) {
+            this.snapshotsDropped++;
+            return;
+        }
+        ByteBuffer buffer = client.writeBuffer;
+        int size = Protocol.getMaxSnapshotFrameSize(client.encoder, client.game);
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+            client.writeBuffer = buffer;
+        }
+        buffer.clear();
+        Protocol.writeSnapshot(buffer, tick, client.lastEcho, client.game, client.encoder);
+        buffer.flip();
+        client.channel.write(buffer);
+        this.snapshotsSent++;
+        if (buffer.hasRemaining()) {
+            client.channel.keyFor(this.selector).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void disconnect(Client client) {
+        this.clients.remove(client);
+        this.clientCount = this.clients.size();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, CLIENT_KAPUT, e.getMessage());
+        }
+    }
+
+    private void close() {
+        for (int i = this.clients.size() - 1; i >= 0; i--) {
+            disconnect(this.clients.get(i));
+        }
+        try {
+            this.serverChannel.close();
+            this.selector.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, SERVER_KAPUT, e.getMessage());
+        }
+    }
+
+    /**
+     * @return one line server state
+     */
+    public String report() {
+        return String.format(Locale.ROOT,
+                "clients: %d ticks: %d late ticks: %d tick us p50: %.1f p99: %.1f max: %.1f snapshots sent: %d dropped: %d",
+                this.clientCount, this.tickCount, this.lateTicks,
+                this.tickHistogram.getValueAtQuantile(0.5) / 1000.0, this.tickHistogram.getValueAtQuantile(0.99) / 1000.0,
+                this.tickHistogram.getMax() / 1000.0, this.snapshotsSent, this.snapshotsDropped);
+    }
+
+    public static void main(String args[]) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        System.setProperty("java.awt.headless", "true");
+        GameServer server = new GameServer(new InetSocketAddress(port));
+        server.bind();
+        Thread thread = new Thread(server, "game-server");
+        thread.start();
+        System.out.println("Game server listens on port " + server.getPort());
+        while (thread.isAlive()) {
+            thread.join(REPORT_PERIOD_MILLIS);
+            System.out.println(server.report());
+        }
+    }
+}
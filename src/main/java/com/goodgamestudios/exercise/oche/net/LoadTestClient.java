@@ -0,0 +1,242 @@
+package com.goodgamestudios.exercise.oche.net;
+
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotDecoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Load test of game server: many simulated players connected over loopback by one thread.
+ * Every player sends input every tick period with its send time as echo. Snapshot latency is the time from
+ * sending an input to receiving the first snapshot with its echo, so it covers waiting for the server tick,
+ * the tick itself and both transfers. Server tick rate is measured from tick numbers of received snapshots.
+ * Game states are decoded like a real client does, so broken delta stream fails the test.
+ * <p/>
+ * Usage: LoadTestClient [host] [port] [players] [seconds]
+ */
+public class LoadTestClient {
+    private static final long INPUT_PERIOD_NANOS = 10 * 1000000L;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_PLAYER_COUNT = 200;
+    private static final long DEFAULT_SECONDS = 30;
+    private static final long NANOS_IN_MILLI = 1000000;
+    private static final int[] MOVES = {0, KeyInputLogicMediator.CONTROL_LEFT, KeyInputLogicMediator.CONTROL_RIGHT};
+    private static final int MOVE_HOLD_INPUTS = 30;
+
+    /**
+     * Load test results
+     */
+    public static class Report {
+        private int playerCount;
+        private long elapsedMillis;
+        private long snapshots;
+        private long snapshotBytes;
+        private double serverTicksPerSecond;
+        private LatencyHistogram latencyHistogram;
+
+        public int getPlayerCount() {
+            return playerCount;
+        }
+
+        public long getSnapshots() {
+            return snapshots;
+        }
+
+        public long getSnapshotBytes() {
+            return snapshotBytes;
+        }
+
+        /**
+         * @return Server ticks per second seen by an average player
+         */
+        public double getServerTicksPerSecond() {
+            return serverTicksPerSecond;
+        }
+
+        /**
+         * @return Input to snapshot latency in nanoseconds
+         */
+        public LatencyHistogram getLatencyHistogram() {
+            return latencyHistogram;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "players: %d snapshots/s: %.0f Kb/s: %.0f server ticks/s: %.1f%n"
+                            + "snapshot latency ms p50: %.2f p99: %.2f max: %.2f",
+                    playerCount, snapshots * 1000.0 / Math.max(elapsedMillis, 1),
+                    snapshotBytes * 1000.0 / 1024 / Math.max(elapsedMillis, 1), serverTicksPerSecond,
+                    latencyHistogram.getValueAtQuantile(0.5) / (double) NANOS_IN_MILLI,
+                    latencyHistogram.getValueAtQuantile(0.99) / (double) NANOS_IN_MILLI,
+                    latencyHistogram.getMax() / (double) NANOS_IN_MILLI);
+        }
+    }
+
+    /**
+     * Simulated player connection
+     */
+    private static class Player {
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocate(Protocol.INPUT_SIZE);
+        private final SnapshotDecoder decoder = new SnapshotDecoder();
+        //Echo of the last snapshot, latency is measured only when it changes
+        private long lastEcho;
+        private int firstTick = -1;
+        private int lastTick;
+        private int inputCount;
+        private int move;
+
+        Player(SocketChannel channel) {
+            this.channel = channel;
+            this.writeBuffer.flip();
+        }
+    }
+
+    //Address of the server
+    private final InetSocketAddress address;
+    //Number of simulated players
+    private final int playerCount;
+
+    public LoadTestClient(InetSocketAddress address, int playerCount) {
+        this.address = address;
+        this.playerCount = playerCount;
+    }
+
+    /**
+     * Connect all players and play for given time
+     *
+     * @param durationMillis how long to play
+     * @return results of the run
+     */
+    public Report run(long durationMillis) throws IOException {
+        Random random = new Random(42);
+        Selector selector = Selector.open();
+        Player[] players = new Player[this.playerCount];
+        for (int i = 0; i < players.length; i++) {
+            SocketChannel channel = SocketChannel.open(this.address);
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            players[i] = new Player(channel);
+            channel.register(selector, SelectionKey.OP_READ, players[i]);
+        }
+
+        Report report = new Report();
+        report.playerCount = this.playerCount;
+        report.latencyHistogram = new LatencyHistogram();
+        long start = System.nanoTime();
+        long deadline = start + durationMillis * NANOS_IN_MILLI;
+        long nextInput = start;
+        try {
+            while (System.nanoTime() - deadline < 0) {
+                long waitMillis = (nextInput - System.nanoTime()) / NANOS_IN_MILLI;
+                if (waitMillis > 0) {
+                    selector.select(waitMillis);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        read((Player) key.attachment(), report);
+                    }
+                }
+                if (System.nanoTime() - nextInput >= 0) {
+                    for (Player player : players) {
+                        sendInput(player, random);
+                    }
+                    nextInput += INPUT_PERIOD_NANOS;
+                }
+            }
+        } finally {
+            for (Player player : players) {
+                player.channel.close();
+            }
+            selector.close();
+        }
+
+        report.elapsedMillis = (System.nanoTime() - start) / NANOS_IN_MILLI;
+        long ticks = 0;
+        for (Player player : players) {
+            if (player.firstTick >= 0) {
+                ticks += player.lastTick - player.firstTick;
+            }
+        }
+        report.serverTicksPerSecond = ticks * 1000.0 / this.playerCount / Math.max(report.elapsedMillis, 1);
+        return report;
+    }
+
+    private static void sendInput(Player player, Random random) throws IOException {
+        if (player.writeBuffer.hasRemaining()) {
+            // previous input is not sent yet
+            player.channel.write(player.writeBuffer);
+            return;
+        }
+        if (player.inputCount++ % MOVE_HOLD_INPUTS == 0) {
+            player.move = MOVES[random.nextInt(MOVES.length)];
+        }
+        player.writeBuffer.clear();
+        player.writeBuffer.putInt(player.move | KeyInputLogicMediator.CONTROL_FIRE);
+        player.writeBuffer.putLong(System.nanoTime());
+        player.writeBuffer.flip();
+        player.channel.write(player.writeBuffer);
+    }
+
+    /**
+     * Read and decode all complete snapshot frames
+     */
+    private static void read(Player player, Report report) throws IOException {
+        ByteBuffer buffer = player.readBuffer;
+        if (player.channel.read(buffer) < 0) {
+            throw new IOException("Server closed connection");
+        }
+        long now = System.nanoTime();
+        buffer.flip();
+        while (buffer.remaining() >= Protocol.FRAME_LENGTH_SIZE
+                && buffer.remaining() >= Protocol.FRAME_LENGTH_SIZE + buffer.getInt(buffer.position())) {
+            int length = buffer.getInt();
+            int frameEnd = buffer.position() + length;
+            int tick = buffer.getInt();
+            long echo = buffer.getLong();
+            player.decoder.decode(buffer);
+            if (buffer.position() != frameEnd || player.decoder.getTick() != tick) {
+                throw new IOException("Corrupted snapshot of tick " + tick);
+            }
+
+            if (player.firstTick < 0) {
+                player.firstTick = tick;
+            }
+            player.lastTick = tick;
+            if (echo != 0 && echo != player.lastEcho) {
+                player.lastEcho = echo;
+                report.latencyHistogram.record(now - echo);
+            }
+            report.snapshots++;
+            report.snapshotBytes += Protocol.FRAME_LENGTH_SIZE + length;
+        }
+        buffer.compact();
+    }
+
+    public static void main(String args[]) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int playerCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLAYER_COUNT;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SECONDS;
+
+        Report report = new LoadTestClient(new InetSocketAddress(host, port), playerCount).run(seconds * 1000);
+        System.out.println("Load test finished");
+        System.out.println(report);
+    }
+}
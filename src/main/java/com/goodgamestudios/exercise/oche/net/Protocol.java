@@ -0,0 +1,53 @@
+package com.goodgamestudios.exercise.oche.net;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotEncoder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of game server, all values are big endian.
+ * <p/>
+ * Client sends input messages of fixed size: int controls (KeyInputLogicMediator.CONTROL_* bitmask),
+ * long echo (any value client wants back, e.g. its send time).
+ * <p/>
+ * Server sends snapshot frames: int frame length (without this int), int server tick,
+ * long echo of the last input applied, then game state encoded by SnapshotEncoder of the connection.
+ * The first state is a keyframe, next ones are deltas to the previously sent state, so client decodes
+ * every frame in order with one SnapshotDecoder.
+ */
+public final class Protocol {
+    public static final int INPUT_SIZE = Integer.BYTES + Long.BYTES;
+    public static final int FRAME_LENGTH_SIZE = Integer.BYTES;
+    public static final int SNAPSHOT_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private Protocol() {
+    }
+
+    /**
+     * @return number of bytes snapshot frame of the game could take at most
+     */
+    public static int getMaxSnapshotFrameSize(SnapshotEncoder encoder, Game game) {
+        int entityCount = ((EcsLogicMediator) game.getEntityLogic()).getWorld().size();
+        return FRAME_LENGTH_SIZE + SNAPSHOT_HEADER_SIZE + encoder.getMaxFrameSize(entityCount);
+    }
+
+    /**
+     * Write snapshot frame of the session game
+     *
+     * @param buffer  buffer with at least getMaxSnapshotFrameSize() bytes remaining
+     * @param tick    server tick
+     * @param echo    echo of the last input applied
+     * @param game    session game on entity-component-system core
+     * @param encoder encoder of the connection
+     */
+    public static void writeSnapshot(ByteBuffer buffer, int tick, long echo, Game game, SnapshotEncoder encoder) {
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + FRAME_LENGTH_SIZE);
+        buffer.putInt(tick);
+        buffer.putLong(echo);
+        int stateSize = encoder.encode(buffer, tick, game);
+        buffer.putInt(lengthPosition, SNAPSHOT_HEADER_SIZE + stateSize);
+    }
+}
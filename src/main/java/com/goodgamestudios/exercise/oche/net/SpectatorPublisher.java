@@ -0,0 +1,405 @@
+package com.goodgamestudios.exercise.oche.net;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+import com.goodgamestudios.exercise.oche.session.ReplayPlayer;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotEncoder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Broadcasts live game to spectators. State of every tick is encoded once into a ring of frame slots
+ * in one direct buffer, every subscriber has own views of the slots, so its queued frames are sent
+ * by one gathering write straight from the shared buffer without copying.
+ * Publisher never blocks: subscriber which is more than MAX_PENDING_FRAMES behind loses its queued frames
+ * and continues from the next keyframe, keyframe is encoded only in ticks somebody needs it.
+ * <p/>
+ * Stream is a sequence of frames: int frame length (without this int), then state encoded by SnapshotEncoder.
+ * The first frame of a subscriber and the first frame after it was dropped are keyframes.
+ * <p/>
+ * Usage: SpectatorPublisher [port]
+ */
+public class SpectatorPublisher {
+    private static final Logger LOGGER = Logger.getLogger(SpectatorPublisher.class.getName());
+    private static final String SUBSCRIBER_KAPUT = "Subscriber connection error, subscriber is disconnected {}";
+    private static final String PUBLISHER_KAPUT = "Publisher error {}";
+
+    public static final int DEFAULT_PORT = 7778;
+    private static final int SLOT_COUNT = 16;
+    //Subscriber which has more frames queued is dropped to the next keyframe, slots of queued frames are never reused
+    private static final int MAX_PENDING_FRAMES = SLOT_COUNT / 2;
+    private static final int INITIAL_SLOT_SIZE = 4096;
+    //Small kernel buffer lets slow subscriber be detected before it gets seconds of stale frames
+    private static final int SEND_BUFFER_SIZE = 16 * 1024;
+    private static final long TICK_DELTA = 10;
+    private static final long REPORT_PERIOD_MILLIS = 5000;
+    private static final int REPLAY_LENGTH = 6000;
+
+    /**
+     * Connected spectator
+     */
+    private static class Subscriber {
+        private final SocketChannel channel;
+        //Views of delta and key frames of every slot
+        private final ByteBuffer[] deltaViews = new ByteBuffer[SLOT_COUNT];
+        private final ByteBuffer[] keyViews = new ByteBuffer[SLOT_COUNT];
+        //Queued frames, the first one could be partially sent
+        private final ByteBuffer[] pending = new ByteBuffer[SLOT_COUNT];
+        private final int[] pendingStart = new int[SLOT_COUNT];
+        private int pendingHead;
+        private int pendingCount;
+        //Buffers of one gathering write
+        private final ByteBuffer[] gather = new ByteBuffer[SLOT_COUNT + 1];
+        //Rest of partially sent frame whose slot is given up when frames are dropped, sent before anything else
+        private ByteBuffer tail;
+        private boolean needsKeyframe = true;
+
+        Subscriber(SocketChannel channel, ByteBuffer ring) {
+            this.channel = channel;
+            createViews(ring);
+        }
+
+        void createViews(ByteBuffer ring) {
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                this.deltaViews[slot] = ring.duplicate();
+                this.keyViews[slot] = ring.duplicate();
+            }
+        }
+    }
+
+    //Address to listen on
+    private final InetSocketAddress address;
+    //Published game
+    private final Game game;
+    private final List<Subscriber> subscribers;
+    private final SnapshotEncoder deltaEncoder;
+    private final SnapshotEncoder keyEncoder;
+    private final ThreadMXBean threadBean;
+    private ServerSocketChannel serverChannel;
+
+    //Frame slots, slot s takes bytes s * slotSize .. (s + 1) * slotSize - 1, delta frame is followed by keyframe
+    private ByteBuffer ring;
+    private int slotSize;
+    private int frameCount;
+
+    private volatile int subscriberCount;
+    private volatile long framesPublished;
+    private volatile long keyframesEncoded;
+    private volatile long bytesSent;
+    //Number of times subscriber was too slow and its queued frames were dropped
+    private volatile long slowDrops;
+    //Thread CPU time of all publish calls, 0 if not supported by the JVM
+    private volatile long publishCpuNanos;
+    //Wall time of publish calls in nanoseconds
+    private final LatencyHistogram publishHistogram;
+
+    /**
+     * @param address address to listen on, port 0 picks free port
+     * @param game    session game on entity-component-system core
+     */
+    public SpectatorPublisher(InetSocketAddress address, Game game) {
+        if (game == null) {
+            throw new IllegalStateException("Could not be initialised without game");
+        }
+        this.address = address;
+        this.game = game;
+        this.subscribers = new ArrayList<Subscriber>();
+        this.deltaEncoder = new SnapshotEncoder();
+        this.keyEncoder = new SnapshotEncoder();
+        this.publishHistogram = new LatencyHistogram();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean.isCurrentThreadCpuTimeSupported() ? bean : null;
+        this.slotSize = INITIAL_SLOT_SIZE;
+        this.ring = ByteBuffer.allocateDirect(SLOT_COUNT * this.slotSize);
+    }
+
+    /**
+     * Open server socket, after this spectators could connect, they are accepted by the next publish()
+     */
+    public void bind() throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(this.address);
+    }
+
+    /**
+     * @return port publisher listens on
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) this.serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Send state of the game to all spectators, called by the game loop after every tick
+     *
+     * @param tick tick number of the state
+     */
+    public void publish(int tick) throws IOException {
+        if (this.serverChannel == null) {
+            throw new IllegalStateException("Publisher is not bound, please call bind() method before use!");
+        }
+        long startCpu = this.threadBean != null ? this.threadBean.getCurrentThreadCpuTime() : 0;
+        long start = System.nanoTime();
+        acceptSubscribers();
+        if (!this.subscribers.isEmpty()) {
+            publishFrame(tick);
+        }
+        this.publishHistogram.record(System.nanoTime() - start);
+        if (this.threadBean != null) {
+            this.publishCpuNanos += this.threadBean.getCurrentThreadCpuTime() - startCpu;
+        }
+    }
+
+    /**
+     * Disconnect all spectators and stop listening
+     */
+    public void close() {
+        for (int i = this.subscribers.size() - 1; i >= 0; i--) {
+            disconnect(this.subscribers.get(i));
+        }
+        try {
+            if (this.serverChannel != null) {
+                this.serverChannel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, PUBLISHER_KAPUT, e.getMessage());
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    public long getFramesPublished() {
+        return framesPublished;
+    }
+
+    public long getKeyframesEncoded() {
+        return keyframesEncoded;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getSlowDrops() {
+        return slowDrops;
+    }
+
+    /**
+     * @return CPU time of the publishing thread spent in publish calls, 0 if CPU time is not supported
+     */
+    public long getPublishCpuNanos() {
+        return publishCpuNanos;
+    }
+
+    /**
+     * @return Wall time of publish calls in nanoseconds
+     */
+    public LatencyHistogram getPublishHistogram() {
+        return publishHistogram;
+    }
+
+    private void acceptSubscribers() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        while (channel != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().setSendBufferSize(SEND_BUFFER_SIZE);
+            this.subscribers.add(new Subscriber(channel, this.ring));
+            channel = this.serverChannel.accept();
+        }
+        this.subscriberCount = this.subscribers.size();
+    }
+
+    /**
+     * Encode the state once into the next slot and queue it to every subscriber
+     */
+    private void publishFrame(int tick) {
+        int entityCount = ((EcsLogicMediator) this.game.getEntityLogic()).getWorld().size();
+        int maxFrameSize = 2 * Protocol.FRAME_LENGTH_SIZE + this.deltaEncoder.getMaxFrameSize(entityCount)
+                + this.keyEncoder.getMaxFrameSize(entityCount);
+        if (maxFrameSize > this.slotSize) {
+            growRing(Math.max(maxFrameSize, this.slotSize * 2));
+        }
+        int slot = this.frameCount++ % SLOT_COUNT;
+        int deltaStart = slot * this.slotSize;
+        int deltaEnd = writeFrame(this.deltaEncoder, deltaStart, tick);
+        int keyEnd = deltaEnd;
+        for (int i = 0; i < this.subscribers.size() && keyEnd == deltaEnd; i++) {
+            if (this.subscribers.get(i).needsKeyframe) {
+                this.keyEncoder.reset();
+                keyEnd = writeFrame(this.keyEncoder, deltaEnd, tick);
+                this.keyframesEncoded++;
+            }
+        }
+
+        for (int i = this.subscribers.size() - 1; i >= 0; i--) {
+            Subscriber subscriber = this.subscribers.get(i);
+            if (subscriber.needsKeyframe) {
+                enqueue(subscriber, subscriber.keyViews[slot], deltaEnd, keyEnd);
+                subscriber.needsKeyframe = false;
+            } else {
+                enqueue(subscriber, subscriber.deltaViews[slot], deltaStart, deltaEnd);
+            }
+            try {
+                send(subscriber);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, SUBSCRIBER_KAPUT, e.getMessage());
+                disconnect(subscriber);
+                continue;
+            }
+            if (subscriber.pendingCount > MAX_PENDING_FRAMES) {
+                dropPending(subscriber);
+            }
+        }
+        this.framesPublished++;
+    }
+
+    /**
+     * @return end of the frame written at start
+     */
+    private int writeFrame(SnapshotEncoder encoder, int start, int tick) {
+        ByteBuffer ring = this.ring;
+        ring.limit(ring.capacity());
+        ring.position(start + Protocol.FRAME_LENGTH_SIZE);
+        int size = encoder.encode(ring, tick, this.game);
+        ring.putInt(start, size);
+        return start + Protocol.FRAME_LENGTH_SIZE + size;
+    }
+
+    private static void enqueue(Subscriber subscriber, ByteBuffer view, int start, int end) {
+        view.limit(end);
+        view.position(start);
+        int index = (subscriber.pendingHead + subscriber.pendingCount++) % SLOT_COUNT;
+        subscriber.pending[index] = view;
+        subscriber.pendingStart[index] = start;
+    }
+
+    /**
+     * Send as much of queued frames as socket takes, by one gathering write
+     */
+    private void send(Subscriber subscriber) throws IOException {
+        int count = 0;
+        if (subscriber.tail != null && subscriber.tail.hasRemaining()) {
+            subscriber.gather[count++] = subscriber.tail;
+        }
+        for (int k = 0; k < subscriber.pendingCount; k++) {
+            subscriber.gather[count++] = subscriber.pending[(subscriber.pendingHead + k) % SLOT_COUNT];
+        }
+        this.bytesSent += subscriber.channel.write(subscriber.gather, 0, count);
+        while (subscriber.pendingCount > 0 && !subscriber.pending[subscriber.pendingHead].hasRemaining()) {
+            subscriber.pendingHead = (subscriber.pendingHead + 1) % SLOT_COUNT;
+            subscriber.pendingCount--;
+        }
+    }
+
+    /**
+     * Drop queued frames, subscriber continues from the next keyframe. Partially sent frame has to be finished,
+     * its rest is copied, as its slot could be reused
+     */
+    private void dropPending(Subscriber subscriber) {
+        if (subscriber.pendingCount > 0) {
+            ByteBuffer head = subscriber.pending[subscriber.pendingHead];
+            if (head.position() > subscriber.pendingStart[subscriber.pendingHead]) {
+                if (subscriber.tail == null || subscriber.tail.capacity() < head.remaining()) {
+                    subscriber.tail = ByteBuffer.allocateDirect(Math.max(head.remaining(), this.slotSize));
+                }
+                subscriber.tail.clear();
+                subscriber.tail.put(head);
+                subscriber.tail.flip();
+            }
+        }
+        subscriber.pendingHead = 0;
+        subscriber.pendingCount = 0;
+        subscriber.needsKeyframe = true;
+        this.slowDrops++;
+    }
+
+    /**
+     * Allocate larger slots, queued frames of all subscribers are dropped as their slots are gone
+     */
+    private void growRing(int newSlotSize) {
+        for (int i = 0; i < this.subscribers.size(); i++) {
+            Subscriber subscriber = this.subscribers.get(i);
+            if (subscriber.pendingCount > 0) {
+                dropPending(subscriber);
+            }
+        }
+        this.slotSize = newSlotSize;
+        this.ring = ByteBuffer.allocateDirect(SLOT_COUNT * this.slotSize);
+        for (int i = 0; i < this.subscribers.size(); i++) {
+            this.subscribers.get(i).createViews(this.ring);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        this.subscribers.remove(subscriber);
+        this.subscriberCount = this.subscribers.size();
+        try {
+            subscriber.channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, SUBSCRIBER_KAPUT, e.getMessage());
+        }
+    }
+
+    /**
+     * @return one line publisher state
+     */
+    public String report() {
+        long frames = Math.max(this.framesPublished, 1);
+        return String.format(Locale.ROOT,
+                "subscribers: %d frames: %d keyframes: %d slow drops: %d Kb sent: %d "
+                        + "publish us p50: %.1f p99: %.1f cpu us/tick: %.1f",
+                this.subscriberCount, this.framesPublished, this.keyframesEncoded, this.slowDrops,
+                this.bytesSent / 1024, this.publishHistogram.getValueAtQuantile(0.5) / 1000.0,
+                this.publishHistogram.getValueAtQuantile(0.99) / 1000.0, this.publishCpuNanos / 1000.0 / frames);
+    }
+
+    /**
+     * Publish game played by random replay in real time
+     */
+    public static void main(String args[]) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        System.setProperty("java.awt.headless", "true");
+        Game game = Game.createSession(new Random());
+        game.initGame();
+        KeyInputLogicMediator controls = game.getKeyInputLogicMediator();
+        controls.restart();
+        ReplayPlayer player = new ReplayPlayer(ReplayPlayer.recordRandomPlay(new Random(), REPLAY_LENGTH));
+
+        SpectatorPublisher publisher = new SpectatorPublisher(new InetSocketAddress(port), game);
+        publisher.bind();
+        System.out.println("Spectator publisher listens on port " + publisher.getPort());
+        long nextReport = System.currentTimeMillis() + REPORT_PERIOD_MILLIS;
+        int tick = 0;
+        while (true) {
+            if (controls.isWaitingForKeyPress()) {
+                controls.restart();
+            } else {
+                controls.setControls(player.act(game, tick));
+            }
+            game.tick(TICK_DELTA);
+            publisher.publish(++tick);
+            Thread.sleep(TICK_DELTA);
+            if (System.currentTimeMillis() >= nextReport) {
+                nextReport += REPORT_PERIOD_MILLIS;
+                System.out.println(publisher.report());
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.goodgamestudios.exercise.oche.particles;
+
+import java.awt.*;
+
+/**
+ * Explosion and hit effects. Particles are not entities: they live in primitive arrays of fixed capacity
+ * used as a ring buffer, so spawning never allocates and the newest particle replaces the oldest one
+ * when the ring is full. They only move and fade, nothing collides with them, so they cost
+ * one tight loop per tick and one batch of rectangles per frame, grouped by color.
+ */
+public class ParticleSystem {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    //Particle palettes, index is kept per particle
+    public static final byte PALETTE_EXPLOSION = 0;
+    public static final byte PALETTE_HIT = 1;
+    private static final Color[][] PALETTES = {
+            {Color.yellow, Color.orange, Color.red},
+            {Color.white, Color.cyan, Color.lightGray}
+    };
+    private static final int SHADES_PER_PALETTE = 3;
+    private static final int COLOR_COUNT = PALETTES.length * SHADES_PER_PALETTE;
+
+    private static final int EXPLOSION_PARTICLES = 24;
+    private static final int HIT_PARTICLES = 10;
+    private static final double EXPLOSION_SPEED = 150;
+    private static final double HIT_SPEED = 90;
+    private static final long EXPLOSION_LIFETIME = 600;
+    private static final long HIT_LIFETIME = 300;
+    //Pull down in pixels/sec per second
+    private static final double GRAVITY = 200;
+    private static final int PARTICLE_SIZE = 2;
+    private static final double MILLISECONDS_CORRECTIVE = 1000;
+
+    //Ring of particles, slot is free or expired when its remaining life is not positive
+    private final double[] x;
+    private final double[] y;
+    private final double[] dx;
+    private final double[] dy;
+    private final long[] remaining;
+    private final long[] lifetime;
+    private final byte[] palette;
+    //Slot the next particle is written to
+    private int head;
+    //Number of slots ever used, the loops do not go beyond it
+    private int used;
+    //Number of particles alive after the last update
+    private int aliveCount;
+    //State of xorshift generator of particle directions, particles never touch game chances
+    private int seed;
+
+    public ParticleSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max number of particles alive at once
+     */
+    public ParticleSystem(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalStateException("Could not be initialised without capacity");
+        }
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.dx = new double[capacity];
+        this.dy = new double[capacity];
+        this.remaining = new long[capacity];
+        this.lifetime = new long[capacity];
+        this.palette = new byte[capacity];
+        this.seed = 0x2545F491;
+    }
+
+    /**
+     * Burst of particles flying in all directions, e.g. when alien or ship is destroyed
+     */
+    public void spawnExplosion(double x, double y) {
+        spawnBurst(x, y, EXPLOSION_PARTICLES, EXPLOSION_SPEED, EXPLOSION_LIFETIME, PALETTE_EXPLOSION);
+    }
+
+    /**
+     * Small burst of sparks, e.g. when the ship is hit
+     */
+    public void spawnHit(double x, double y) {
+        spawnBurst(x, y, HIT_PARTICLES, HIT_SPEED, HIT_LIFETIME, PALETTE_HIT);
+    }
+
+    /**
+     * @param count    number of particles
+     * @param speed    max speed in pixels/sec
+     * @param lifetime life of every particle in milliseconds
+     * @param palette  one of PALETTE_* values
+     */
+    public void spawnBurst(double x, double y, int count, double speed, long lifetime, byte palette) {
+        int capacity = this.x.length;
+        for (int k = 0; k < count; k++) {
+            int i = this.head;
+            this.x[i] = x;
+            this.y[i] = y;
+            // square spread is good enough for a few frames of sparks
+            this.dx[i] = (nextUnit() * 2 - 1) * speed;
+            this.dy[i] = (nextUnit() * 2 - 1) * speed;
+            // every particle lives from half to full lifetime, so burst fades out gradually
+            long life = lifetime / 2 + (long) (nextUnit() * (lifetime / 2));
+            this.remaining[i] = life;
+            this.lifetime[i] = life;
+            this.palette[i] = palette;
+            this.head = i + 1 == capacity ? 0 : i + 1;
+            if (this.used < capacity) {
+                this.used++;
+            }
+        }
+    }
+
+    /**
+     * Move particles and let them age
+     *
+     * @param delta The amount of time that has passed in milliseconds
+     */
+    public void update(long delta) {
+        double seconds = delta / MILLISECONDS_CORRECTIVE;
+        double fall = GRAVITY * seconds;
+        int alive = 0;
+        for (int i = 0; i < this.used; i++) {
+            if (this.remaining[i] <= 0) {
+                continue;
+            }
+            this.x[i] += this.dx[i] * seconds;
+            this.y[i] += this.dy[i] * seconds;
+            this.dy[i] += fall;
+            this.remaining[i] -= delta;
+            if (this.remaining[i] > 0) {
+                alive++;
+            }
+        }
+        this.aliveCount = alive;
+    }
+
+    /**
+     * Draw all particles, particles of the same color are drawn together, so color changes once per shade.
+     * Particle gets darker shade of its palette as it ages
+     *
+     * @param window Window our game is displayed in
+     */
+    public void draw(Graphics2D window) {
+        if (this.aliveCount == 0) {
+            return;
+        }
+        for (int color = 0; color < COLOR_COUNT; color++) {
+            byte colorPalette = (byte) (color / SHADES_PER_PALETTE);
+            int shade = color % SHADES_PER_PALETTE;
+            window.setColor(PALETTES[colorPalette][shade]);
+            for (int i = 0; i < this.used; i++) {
+                if (this.remaining[i] > 0 && this.palette[i] == colorPalette && shadeOf(i) == shade) {
+                    window.fillRect((int) this.x[i], (int) this.y[i], PARTICLE_SIZE, PARTICLE_SIZE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all particles
+     */
+    public void clear() {
+        for (int i = 0; i < this.used; i++) {
+            this.remaining[i] = 0;
+        }
+        this.aliveCount = 0;
+    }
+
+    /**
+     * @return number of particles alive after the last update, spawned particles are counted from the next update
+     */
+    public int getAliveCount() {
+        return this.aliveCount;
+    }
+
+    public int getCapacity() {
+        return this.x.length;
+    }
+
+    private int shadeOf(int i) {
+        long age = this.lifetime[i] - this.remaining[i];
+        return (int) Math.min(age * SHADES_PER_PALETTE / this.lifetime[i], SHADES_PER_PALETTE - 1);
+    }
+
+    /**
+     * @return pseudo random value from 0 inclusive to 1 exclusive
+     */
+    private double nextUnit() {
+        int s = this.seed;
+        s ^= s << 13;
+        s ^= s >>> 17;
+        s ^= s << 5;
+        this.seed = s;
+        return (s >>> 8) / (double) (1 << 24);
+    }
+}
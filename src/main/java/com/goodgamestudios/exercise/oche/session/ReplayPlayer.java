@@ -0,0 +1,50 @@
+package com.goodgamestudios.exercise.oche.session;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+
+import java.util.Random;
+
+/**
+ * Replays recorded controls, one value per tick, recording is repeated when it is over
+ */
+public class ReplayPlayer implements SessionPlayer {
+    private static final int MIN_HOLD_TICKS = 10;
+    private static final int MAX_HOLD_TICKS = 60;
+    private static final int[] MOVES = {0, KeyInputLogicMediator.CONTROL_LEFT, KeyInputLogicMediator.CONTROL_RIGHT};
+
+    //Controls per tick
+    private final int[] controls;
+
+    public ReplayPlayer(int[] controls) {
+        if (controls == null || controls.length == 0) {
+            throw new IllegalStateException("Could not be initialised without controls");
+        }
+        this.controls = controls;
+    }
+
+    /**
+     * Record random play: fire is always pressed, ship stays or moves left or right for a while
+     *
+     * @param random source of moves
+     * @param length number of recorded ticks
+     * @return recorded controls
+     */
+    public static int[] recordRandomPlay(Random random, int length) {
+        int[] controls = new int[length];
+        int tick = 0;
+        while (tick < length) {
+            int move = MOVES[random.nextInt(MOVES.length)] | KeyInputLogicMediator.CONTROL_FIRE;
+            int hold = MIN_HOLD_TICKS + random.nextInt(MAX_HOLD_TICKS - MIN_HOLD_TICKS);
+            for (int i = 0; i < hold && tick < length; i++) {
+                controls[tick++] = move;
+            }
+        }
+        return controls;
+    }
+
+    @Override
+    public int act(Game game, long tick) {
+        return this.controls[(int) (tick % this.controls.length)];
+    }
+}
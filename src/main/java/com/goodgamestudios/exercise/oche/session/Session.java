@@ -0,0 +1,122 @@
+package com.goodgamestudios.exercise.oche.session;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+
+import java.util.Random;
+
+/**
+ * One independent headless game played by session player.
+ * Session is advanced by one thread at a time, statistics could be read from any thread.
+ * Game time follows the wall clock: every advance plays as many fixed ticks as needed to catch up
+ * with the time passed since the session start, lag is how much game time is behind.
+ */
+public class Session {
+    private static final long TICK_DELTA = 10;
+
+    //Session number in the host
+    private final int id;
+    //Game of the session
+    private final Game game;
+    //Controls of the game
+    private final KeyInputLogicMediator controls;
+    //Who plays the game
+    private final SessionPlayer player;
+    //Wall clock time the session was started at, in milliseconds
+    private long startMillis = -1;
+    //Number of ticks played while game was in progress
+    private long playedTicks;
+
+    //Number of ticks made
+    private volatile long ticks;
+    //How much game time is behind the wall clock, in milliseconds
+    private volatile long lagMillis;
+    //Number of games played to the end
+    private volatile int gamesFinished;
+    //Best score of finished games
+    private volatile int bestScore;
+
+    /**
+     * @param id     session number
+     * @param player who plays the game
+     * @param seed   seed of game chances, sessions with the same seed and player play the same games
+     */
+    public Session(int id, SessionPlayer player, long seed) {
+        if (player == null) {
+            throw new IllegalStateException("Could not be initialised with null player");
+        }
+        this.id = id;
+        this.player = player;
+        this.game = Game.createSession(new Random(seed));
+        this.game.initGame();
+        this.controls = this.game.getKeyInputLogicMediator();
+        this.controls.restart();
+    }
+
+    /**
+     * Play ticks until game time catches up with the wall clock
+     *
+     * @param nowMillis current wall clock time
+     * @param maxTicks  max number of ticks to play, the rest of the lag is left for the next advance
+     * @return number of ticks played
+     */
+    public int advance(long nowMillis, int maxTicks) {
+        if (this.startMillis < 0) {
+            this.startMillis = nowMillis - this.game.getGameTime();
+        }
+        long targetGameTime = nowMillis - this.startMillis;
+        int played = 0;
+        while (played < maxTicks && this.game.getGameTime() + TICK_DELTA <= targetGameTime) {
+            tick();
+            played++;
+        }
+        this.ticks += played;
+        this.lagMillis = Math.max(targetGameTime - this.game.getGameTime(), 0);
+        return played;
+    }
+
+    /**
+     * Let the player act and advance the game by one tick, game over starts new game
+     */
+    private void tick() {
+        if (this.controls.isWaitingForKeyPress()) {
+            if (this.controls.isPausePressed()) {
+                this.controls.resume();
+            } else {
+                int score = this.game.getStateLogicMediator().getScore();
+                if (score > this.bestScore) {
+                    this.bestScore = score;
+                }
+                this.gamesFinished++;
+                this.controls.restart();
+            }
+        } else {
+            this.controls.setControls(this.player.act(this.game, this.playedTicks++));
+        }
+        this.game.tick(TICK_DELTA);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public int getGamesFinished() {
+        return gamesFinished;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+}
@@ -0,0 +1,274 @@
+package com.goodgamestudios.exercise.oche.session;
+
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many independent headless sessions at once, e.g. for tournament evaluation of bots or replays.
+ * Sessions do not sleep between ticks: one shared scheduler wakes up every tick period and hands
+ * shards of sessions to a small worker pool, every shard advances its sessions to the current time.
+ * Shard which is still running from the previous period is skipped, its sessions catch up on the next run,
+ * so overloaded host shows growing session lag instead of piling up work.
+ * <p/>
+ * Usage: SessionHost [sessions] [seconds] [workers]
+ */
+public class SessionHost {
+    private static final long TICK_PERIOD_MILLIS = 10;
+    //Ticks one session could play in one run to catch up, the rest of the lag waits for next runs
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final int SHARDS_PER_WORKER = 8;
+    private static final int REPLAY_LENGTH = 6000;
+    //Replay player has no state, so recorded plays are shared by sessions
+    private static final int REPLAY_COUNT = 64;
+    private static final int DEFAULT_SESSION_COUNT = 1000;
+    private static final long DEFAULT_SECONDS = 60;
+    private static final long REPORT_PERIOD_MILLIS = 5000;
+    private static final long NANOS_IN_MILLI = 1000000;
+
+    /**
+     * Host state at some moment
+     */
+    public static class Report {
+        private int sessionCount;
+        private long ticks;
+        private double ticksPerSecond;
+        private LatencyHistogram lagHistogram;
+        private long skippedShardRuns;
+        private long gamesFinished;
+
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * @return Ticks of all sessions per second since the previous report
+         */
+        public double getTicksPerSecond() {
+            return ticksPerSecond;
+        }
+
+        /**
+         * @return Lag of all sessions in nanoseconds
+         */
+        public LatencyHistogram getLagHistogram() {
+            return lagHistogram;
+        }
+
+        public long getSkippedShardRuns() {
+            return skippedShardRuns;
+        }
+
+        public long getGamesFinished() {
+            return gamesFinished;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "sessions: %d ticks: %d ticks/s: %.0f games finished: %d skipped shard runs: %d%n"
+                            + "session lag ms p50: %d p99: %d max: %d",
+                    sessionCount, ticks, ticksPerSecond, gamesFinished, skippedShardRuns,
+                    lagHistogram.getValueAtQuantile(0.5) / NANOS_IN_MILLI,
+                    lagHistogram.getValueAtQuantile(0.99) / NANOS_IN_MILLI,
+                    lagHistogram.getMax() / NANOS_IN_MILLI);
+        }
+    }
+
+    /**
+     * Sessions advanced together by one worker
+     */
+    private static class Shard implements Runnable {
+        private final List<Session> sessions = new ArrayList<Session>();
+        //True while the shard is advanced, only one worker advances it at a time
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < this.sessions.size(); i++) {
+                    this.sessions.get(i).advance(now, MAX_CATCH_UP_TICKS);
+                }
+            } finally {
+                this.running.set(false);
+            }
+        }
+    }
+
+    //Number of worker threads
+    private final int workerCount;
+    //All sessions of the host
+    private final List<Session> sessions;
+    private final Shard[] shards;
+    //Number of shard runs skipped because previous run was not over
+    private final AtomicLong skippedShardRuns;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+    //Time and tick count of the previous report
+    private long lastReportMillis;
+    private long lastReportTicks;
+
+    /**
+     * @param workerCount number of threads sessions are advanced by
+     */
+    public SessionHost(int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalStateException("Could not be initialised without workers");
+        }
+        this.workerCount = workerCount;
+        this.sessions = new ArrayList<Session>();
+        this.shards = new Shard[workerCount * SHARDS_PER_WORKER];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.skippedShardRuns = new AtomicLong();
+    }
+
+    /**
+     * Add new session, sessions could be added only before the host is started
+     *
+     * @param player who plays the session
+     * @param seed   seed of game chances
+     * @return new session
+     */
+    public Session addSession(SessionPlayer player, long seed) {
+        if (this.scheduler != null) {
+            throw new IllegalStateException("Could not add session to started host");
+        }
+        Session session = new Session(this.sessions.size(), player, seed);
+        this.shards[session.getId() % this.shards.length].sessions.add(session);
+        this.sessions.add(session);
+        return session;
+    }
+
+    /**
+     * Start advancing sessions
+     */
+    public void start() {
+        if (this.scheduler != null) {
+            throw new IllegalStateException("Host is already started");
+        }
+        this.workers = Executors.newFixedThreadPool(this.workerCount, new HostThreadFactory("session-worker-"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new HostThreadFactory("session-scheduler-"));
+        this.lastReportMillis = System.currentTimeMillis();
+        this.lastReportTicks = 0;
+        this.scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                dispatchShards();
+            }
+        }, 0, TICK_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop advancing sessions and wait for running shards
+     */
+    public void stop() throws InterruptedException {
+        if (this.scheduler == null) {
+            return;
+        }
+        this.scheduler.shutdown();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        this.workers.shutdown();
+        this.workers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return state of all sessions, ticks per second are counted since the previous report
+     */
+    public Report report() {
+        Report report = new Report();
+        report.sessionCount = this.sessions.size();
+        report.lagHistogram = new LatencyHistogram();
+        for (int i = 0; i < this.sessions.size(); i++) {
+            Session session = this.sessions.get(i);
+            report.ticks += session.getTicks();
+            report.gamesFinished += session.getGamesFinished();
+            report.lagHistogram.record(session.getLagMillis() * NANOS_IN_MILLI);
+        }
+        long now = System.currentTimeMillis();
+        report.ticksPerSecond = (report.ticks - this.lastReportTicks) * 1000.0 / Math.max(now - this.lastReportMillis, 1);
+        report.skippedShardRuns = this.skippedShardRuns.get();
+        this.lastReportMillis = now;
+        this.lastReportTicks = report.ticks;
+        return report;
+    }
+
+    public List<Session> getSessions() {
+        return this.sessions;
+    }
+
+    private void dispatchShards() {
+        for (Shard shard : this.shards) {
+            if (shard.sessions.isEmpty()) {
+                continue;
+            }
+            if (shard.running.compareAndSet(false, true)) {
+                this.workers.execute(shard);
+            } else {
+                this.skippedShardRuns.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Daemon threads with host specific names
+     */
+    private static class HostThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        HostThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, this.prefix + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public static void main(String args[]) throws InterruptedException {
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSION_COUNT;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SECONDS;
+        int workerCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        System.setProperty("java.awt.headless", "true");
+
+        ReplayPlayer[] players = new ReplayPlayer[REPLAY_COUNT];
+        for (int i = 0; i < REPLAY_COUNT; i++) {
+            players[i] = new ReplayPlayer(ReplayPlayer.recordRandomPlay(new Random(i), REPLAY_LENGTH));
+        }
+        SessionHost host = new SessionHost(workerCount);
+        for (int i = 0; i < sessionCount; i++) {
+            host.addSession(players[i % REPLAY_COUNT], i);
+        }
+        host.start();
+        long deadline = System.currentTimeMillis() + seconds * 1000;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(REPORT_PERIOD_MILLIS);
+            System.out.println(host.report());
+        }
+        host.stop();
+        System.out.println("Session host stopped");
+        System.out.println(host.report());
+        System.exit(0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.goodgamestudios.exercise.oche.session;
+
+import com.goodgamestudios.exercise.oche.Game;
+
+/**
+ * Player of headless session, e.g. AI agent or replay of recorded controls
+ */
+public interface SessionPlayer {
+    /**
+     * Choose controls for the next tick, called only while the game is played
+     *
+     * @param game game of the session, should only be read
+     * @param tick number of ticks played in the session
+     * @return bitmask of KeyInputLogicMediator.CONTROL_* values which are pressed
+     */
+    int act(Game game, long tick);
+}
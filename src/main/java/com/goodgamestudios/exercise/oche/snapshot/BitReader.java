@@ -0,0 +1,70 @@
+package com.goodgamestudios.exercise.oche.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads values written by BitWriter. Bytes are taken from the buffer only when needed,
+ * so after finish() the buffer is positioned right after the padded data.
+ */
+public final class BitReader {
+    private static final int MAX_BITS = 56;
+    //Longest exponential-Golomb code of 32 bit value
+    private static final int MAX_LEADING_ZEROS = 32;
+
+    private ByteBuffer buffer;
+    //Bits read from the buffer and not consumed yet, in the lowest bitCount bits
+    private long bits;
+    private int bitCount;
+
+    /**
+     * Start reading at the current buffer position
+     */
+    public void start(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.bits = 0;
+        this.bitCount = 0;
+    }
+
+    /**
+     * @param count number of bits, up to 56
+     * @return value of count bits
+     */
+    public long read(int count) {
+        if (count > MAX_BITS) {
+            throw new IllegalArgumentException("Could not read more than " + MAX_BITS + " bits at once");
+        }
+        while (this.bitCount < count) {
+            this.bits = (this.bits << Byte.SIZE) | (this.buffer.get() & 0xFF);
+            this.bitCount += Byte.SIZE;
+        }
+        this.bitCount -= count;
+        return (this.bits >>> this.bitCount) & ((1L << count) - 1);
+    }
+
+    public boolean readBit() {
+        return read(1) != 0;
+    }
+
+    public int readUnsigned() {
+        int zeros = 0;
+        while (!readBit()) {
+            if (++zeros > MAX_LEADING_ZEROS) {
+                throw new IllegalStateException("Corrupted exponential-Golomb code");
+            }
+        }
+        long code = (1L << zeros) | read(zeros);
+        return (int) (code - 1);
+    }
+
+    public int readSigned() {
+        int value = readUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Skip padding of the last byte
+     */
+    public void finish() {
+        this.bitCount = 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.goodgamestudios.exercise.oche.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes values of any bit length into byte buffer, most significant bit first.
+ * Writer is reusable and does not allocate, it is started on a buffer and finished with byte padding.
+ */
+public final class BitWriter {
+    private static final int MAX_BITS = 56;
+
+    private ByteBuffer buffer;
+    //Bits not written to the buffer yet, in the lowest bitCount bits
+    private long bits;
+    private int bitCount;
+    //Buffer position writing was started at
+    private int start;
+
+    /**
+     * Start writing at the current buffer position
+     */
+    public void start(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.bits = 0;
+        this.bitCount = 0;
+        this.start = buffer.position();
+    }
+
+    /**
+     * @param value value, only its lowest count bits are written
+     * @param count number of bits, up to 56
+     */
+    public void write(long value, int count) {
+        if (count > MAX_BITS) {
+            throw new IllegalArgumentException("Could not write more than " + MAX_BITS + " bits at once");
+        }
+        this.bits = (this.bits << count) | (value & ((1L << count) - 1));
+        this.bitCount += count;
+        while (this.bitCount >= Byte.SIZE) {
+            this.bitCount -= Byte.SIZE;
+            this.buffer.put((byte) (this.bits >>> this.bitCount));
+        }
+    }
+
+    public void writeBit(boolean value) {
+        write(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Exponential-Golomb code: 0 takes 1 bit, 1..2 take 3 bits, 3..6 take 5 bits and so on
+     *
+     * @param value value treated as unsigned
+     */
+    public void writeUnsigned(int value) {
+        long code = (value & 0xFFFFFFFFL) + 1;
+        int length = Long.SIZE - Long.numberOfLeadingZeros(code);
+        write(0, length - 1);
+        write(code, length);
+    }
+
+    /**
+     * Zigzag mapping to unsigned, so values close to zero of both signs are short
+     */
+    public void writeSigned(int value) {
+        writeUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Pad the last byte with zeros
+     *
+     * @return number of bytes written since start
+     */
+    public int finish() {
+        if (this.bitCount > 0) {
+            write(0, Byte.SIZE - this.bitCount);
+        }
+        return this.buffer.position() - this.start;
+    }
+}
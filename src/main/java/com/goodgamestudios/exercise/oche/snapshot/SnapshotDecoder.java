@@ -0,0 +1,167 @@
+package com.goodgamestudios.exercise.oche.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Restores game states from frames of SnapshotEncoder. Delta frame is applied to the state of the previous frame,
+ * so frames should be decoded in the order they were encoded, starting from a keyframe.
+ * State is kept by entity id, ids of present entities are below getIdBound().
+ */
+public class SnapshotDecoder {
+    private final BitReader reader;
+    //Decoder has a state delta frames could be applied to
+    private boolean hasBaseline;
+    private boolean keyframe;
+
+    private boolean[] present;
+    private byte[] kind;
+    private short[] x;
+    private short[] y;
+    private int idBound;
+    private int entityCount;
+    private int tick;
+    private int score;
+    private int lifeCount;
+    private int flags;
+
+    public SnapshotDecoder() {
+        this.reader = new BitReader();
+        this.present = new boolean[SnapshotEncoder.INITIAL_CAPACITY];
+        this.kind = new byte[SnapshotEncoder.INITIAL_CAPACITY];
+        this.x = new short[SnapshotEncoder.INITIAL_CAPACITY];
+        this.y = new short[SnapshotEncoder.INITIAL_CAPACITY];
+    }
+
+    /**
+     * Forget the state, the next frame should be a keyframe
+     */
+    public void reset() {
+        Arrays.fill(this.present, 0, this.idBound, false);
+        this.idBound = 0;
+        this.entityCount = 0;
+        this.hasBaseline = false;
+    }
+
+    /**
+     * Apply one frame, buffer is positioned after the frame
+     */
+    public void decode(ByteBuffer buffer) {
+        BitReader reader = this.reader;
+        reader.start(buffer);
+        this.keyframe = reader.readBit();
+        if (this.keyframe) {
+            reset();
+            this.tick = (int) reader.read(SnapshotEncoder.TICK_BITS);
+            this.score = reader.readSigned();
+        } else {
+            if (!this.hasBaseline) {
+                throw new IllegalStateException("Delta frame could not be decoded without previous keyframe");
+            }
+            this.tick += reader.readUnsigned();
+            this.score += reader.readSigned();
+        }
+        this.lifeCount = reader.readUnsigned();
+        this.flags = reader.readUnsigned();
+
+        int id = -1;
+        int dx = 0;
+        int dy = 0;
+        int operation = (int) reader.read(SnapshotEncoder.OP_BITS);
+        while (operation != SnapshotEncoder.OP_END) {
+            id += reader.readUnsigned() + 1;
+            if (id >= this.present.length) {
+                grow(id + 1);
+            }
+            if (operation == SnapshotEncoder.OP_SPAWN) {
+                if (!this.present[id]) {
+                    this.present[id] = true;
+                    this.entityCount++;
+                }
+                this.kind[id] = (byte) reader.readUnsigned();
+                this.x[id] = (short) reader.read(SnapshotEncoder.COORDINATE_BITS);
+                this.y[id] = (short) reader.read(SnapshotEncoder.COORDINATE_BITS);
+                this.idBound = Math.max(this.idBound, id + 1);
+            } else {
+                if (!this.present[id]) {
+                    throw new IllegalStateException("Corrupted frame, entity " + id + " is not present");
+                }
+                if (operation == SnapshotEncoder.OP_MOVE) {
+                    if (!reader.readBit()) {
+                        dx = reader.readSigned();
+                        dy = reader.readSigned();
+                    }
+                    this.x[id] = (short) (this.x[id] + dx);
+                    this.y[id] = (short) (this.y[id] + dy);
+                } else {
+                    this.present[id] = false;
+                    this.entityCount--;
+                }
+            }
+            operation = (int) reader.read(SnapshotEncoder.OP_BITS);
+        }
+        reader.finish();
+        this.hasBaseline = true;
+    }
+
+    /**
+     * @return true if the last frame was a keyframe
+     */
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLifeCount() {
+        return lifeCount;
+    }
+
+    /**
+     * @return SnapshotEncoder.FLAG_* bits
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * @return bound all present ids are below
+     */
+    public int getIdBound() {
+        return idBound;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < this.idBound && this.present[id];
+    }
+
+    public byte getKind(int id) {
+        return this.kind[id];
+    }
+
+    public int getX(int id) {
+        return this.x[id];
+    }
+
+    public int getY(int id) {
+        return this.y[id];
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, this.present.length * 2);
+        this.present = Arrays.copyOf(this.present, capacity);
+        this.kind = Arrays.copyOf(this.kind, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+    }
+}
@@ -0,0 +1,253 @@
+package com.goodgamestudios.exercise.oche.snapshot;
+
+import com.goodgamestudios.exercise.oche.Game;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.World;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes game state of every tick as bit-packed difference to the previously encoded state,
+ * so unchanged entities cost nothing and formation moving by the same step costs a few bits per alien.
+ * The same stream serves network clients, spectators and replays, SnapshotDecoder restores states from it.
+ * Encoder keeps state by entity id in reusable arrays, after they have grown to the largest id it does not allocate.
+ * <p/>
+ * Frame format: keyframe bit, tick (32 bits in keyframe, otherwise unsigned step from the previous tick),
+ * signed score change, unsigned life count, unsigned flags, then changes in ascending id order and end mark.
+ * Change is 2 bit operation and unsigned id gap to the previous change, followed by
+ * spawn: unsigned kind, 16 bit x, 16 bit y; move: bit "same step as the previous move" or signed dx, signed dy;
+ * despawn: nothing. Spawn of present id replaces the entity, e.g. when id is reused by another kind.
+ * Unsigned values are exponential-Golomb codes, signed values are zigzag mapped to them.
+ * Positions are quantized to whole pixels.
+ */
+public class SnapshotEncoder {
+    //Game is over or not started
+    public static final int FLAG_WAITING = 1;
+
+    static final int OP_BITS = 2;
+    static final int OP_END = 0;
+    static final int OP_MOVE = 1;
+    static final int OP_SPAWN = 2;
+    static final int OP_DESPAWN = 3;
+    static final int TICK_BITS = 32;
+    static final int COORDINATE_BITS = 16;
+    static final int INITIAL_CAPACITY = 128;
+
+    //Limits of frame size, change of entity with id below 2^20 takes less than 16 bytes
+    private static final int MAX_HEADER_BYTES = 32;
+    private static final int MAX_CHANGE_BYTES = 16;
+
+    private final BitWriter writer;
+    //Next frame is encoded without previous state
+    private boolean keyframe;
+
+    //State being collected, by entity id
+    private boolean[] present;
+    private byte[] kind;
+    private short[] x;
+    private short[] y;
+    //All ids of the state are below the bound
+    private int idBound;
+    private int count;
+    private int tick;
+    private int score;
+    private int lifeCount;
+    private int flags;
+
+    //Previously encoded state
+    private boolean[] previousPresent;
+    private byte[] previousKind;
+    private short[] previousX;
+    private short[] previousY;
+    private int previousIdBound;
+    private int previousCount;
+    private int previousTick;
+    private int previousScore;
+
+    public SnapshotEncoder() {
+        this.writer = new BitWriter();
+        this.present = new boolean[INITIAL_CAPACITY];
+        this.kind = new byte[INITIAL_CAPACITY];
+        this.x = new short[INITIAL_CAPACITY];
+        this.y = new short[INITIAL_CAPACITY];
+        this.previousPresent = new boolean[INITIAL_CAPACITY];
+        this.previousKind = new byte[INITIAL_CAPACITY];
+        this.previousX = new short[INITIAL_CAPACITY];
+        this.previousY = new short[INITIAL_CAPACITY];
+        this.keyframe = true;
+    }
+
+    /**
+     * Encode the next frame as keyframe, e.g. for a new spectator or a replay seek point
+     */
+    public void reset() {
+        this.keyframe = true;
+    }
+
+    /**
+     * @param entityCount number of entities of the next frame
+     * @return number of bytes the next frame could take at most
+     */
+    public int getMaxFrameSize(int entityCount) {
+        return MAX_HEADER_BYTES + (this.previousCount + entityCount) * MAX_CHANGE_BYTES;
+    }
+
+    /**
+     * Encode state of session game
+     *
+     * @param buffer buffer with at least getMaxFrameSize() bytes remaining
+     * @param tick   tick number of the state
+     * @param game   game on entity-component-system core
+     * @return number of bytes written
+     */
+    public int encode(ByteBuffer buffer, int tick, Game game) {
+        World world = ((EcsLogicMediator) game.getEntityLogic()).getWorld();
+        begin(tick, game.getStateLogicMediator().getScore(), game.getEntityLogic().getPlayerLifeCount(),
+                game.getKeyInputLogicMediator().isWaitingForKeyPress() ? FLAG_WAITING : 0);
+        for (int i = 0; i < world.size(); i++) {
+            if (!world.isDestroyed(i)) {
+                addEntity(world.idAt(i), world.getKind(i), (int) world.getX(i), (int) world.getY(i));
+            }
+        }
+        return finish(buffer);
+    }
+
+    /**
+     * Start collecting state of the next frame, entities are added with addEntity() and frame is written by finish()
+     */
+    public void begin(int tick, int score, int lifeCount, int flags) {
+        this.tick = tick;
+        this.score = score;
+        this.lifeCount = lifeCount;
+        this.flags = flags;
+    }
+
+    /**
+     * @param id   entity id, ids of one frame are unique
+     * @param kind entity kind
+     * @param x    position, quantized to pixels
+     * @param y    position, quantized to pixels
+     */
+    public void addEntity(int id, byte kind, int x, int y) {
+        if (id >= this.present.length) {
+            grow(id + 1);
+        }
+        if (!this.present[id]) {
+            this.present[id] = true;
+            this.count++;
+        }
+        this.kind[id] = kind;
+        this.x[id] = (short) x;
+        this.y[id] = (short) y;
+        this.idBound = Math.max(this.idBound, id + 1);
+    }
+
+    /**
+     * Write collected state as difference to the previous frame, collected state becomes the previous one
+     *
+     * @param buffer buffer with at least getMaxFrameSize() bytes remaining
+     * @return number of bytes written
+     */
+    public int finish(ByteBuffer buffer) {
+        if (this.keyframe) {
+            Arrays.fill(this.previousPresent, 0, this.previousIdBound, false);
+            this.previousIdBound = 0;
+            this.previousCount = 0;
+            this.previousScore = 0;
+        }
+        BitWriter writer = this.writer;
+        writer.start(buffer);
+        writer.writeBit(this.keyframe);
+        if (this.keyframe) {
+            writer.write(this.tick, TICK_BITS);
+        } else {
+            writer.writeUnsigned(this.tick - this.previousTick);
+        }
+        writer.writeSigned(this.score - this.previousScore);
+        writer.writeUnsigned(this.lifeCount);
+        writer.writeUnsigned(this.flags);
+
+        int bound = Math.max(this.idBound, this.previousIdBound);
+        int lastId = -1;
+        int lastDx = 0;
+        int lastDy = 0;
+        for (int id = 0; id < bound; id++) {
+            if (this.present[id]) {
+                if (!this.previousPresent[id] || this.kind[id] != this.previousKind[id]) {
+                    writeChange(OP_SPAWN, id, lastId);
+                    writer.writeUnsigned(this.kind[id] & 0xFF);
+                    writer.write(this.x[id], COORDINATE_BITS);
+                    writer.write(this.y[id], COORDINATE_BITS);
+                    lastId = id;
+                } else if (this.x[id] != this.previousX[id] || this.y[id] != this.previousY[id]) {
+                    writeChange(OP_MOVE, id, lastId);
+                    int dx = this.x[id] - this.previousX[id];
+                    int dy = this.y[id] - this.previousY[id];
+                    boolean sameStep = dx == lastDx && dy == lastDy;
+                    writer.writeBit(sameStep);
+                    if (!sameStep) {
+                        writer.writeSigned(dx);
+                        writer.writeSigned(dy);
+                        lastDx = dx;
+                        lastDy = dy;
+                    }
+                    lastId = id;
+                }
+            } else if (this.previousPresent[id]) {
+                writeChange(OP_DESPAWN, id, lastId);
+                lastId = id;
+            }
+        }
+        writer.write(OP_END, OP_BITS);
+        int bytes = writer.finish();
+
+        swapStates();
+        this.keyframe = false;
+        return bytes;
+    }
+
+    private void writeChange(int operation, int id, int lastId) {
+        this.writer.write(operation, OP_BITS);
+        this.writer.writeUnsigned(id - lastId - 1);
+    }
+
+    /**
+     * Collected state becomes the previous one, arrays of the previous state are cleared for the next frame
+     */
+    private void swapStates() {
+        boolean[] oldPresent = this.previousPresent;
+        byte[] oldKind = this.previousKind;
+        short[] oldX = this.previousX;
+        short[] oldY = this.previousY;
+        Arrays.fill(oldPresent, 0, this.previousIdBound, false);
+
+        this.previousPresent = this.present;
+        this.previousKind = this.kind;
+        this.previousX = this.x;
+        this.previousY = this.y;
+        this.previousIdBound = this.idBound;
+        this.previousCount = this.count;
+        this.previousTick = this.tick;
+        this.previousScore = this.score;
+
+        this.present = oldPresent;
+        this.kind = oldKind;
+        this.x = oldX;
+        this.y = oldY;
+        this.idBound = 0;
+        this.count = 0;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, this.present.length * 2);
+        this.present = Arrays.copyOf(this.present, capacity);
+        this.kind = Arrays.copyOf(this.kind, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.previousPresent = Arrays.copyOf(this.previousPresent, capacity);
+        this.previousKind = Arrays.copyOf(this.previousKind, capacity);
+        this.previousX = Arrays.copyOf(this.previousX, capacity);
+        this.previousY = Arrays.copyOf(this.previousY, capacity);
+    }
+}
@@ -13,6 +13,10 @@ import java.awt.image.BufferedImage;
 public class Sprite {
     //The image to be drawn for this sprite
     private BufferedImage image;
+    //Opaque pixels for pixel exact collisions
+    private final SpriteMask mask;
+    //Bounds of the opaque pixels relative to the sprite corner
+    private final Rectangle opaqueBounds;
 
     /**
      * Create a new sprite based on an image
@@ -21,6 +25,40 @@ public class Sprite {
      */
     public Sprite(BufferedImage image) {
         this.image = image;
+        this.mask = new SpriteMask(image);
+        this.opaqueBounds = findOpaqueBounds(this.mask);
+    }
+
+    public SpriteMask getMask() {
+        return mask;
+    }
+
+    /**
+     * @return bounds of the opaque pixels relative to the sprite corner, the whole sprite if it has none
+     */
+    public Rectangle getOpaqueBounds() {
+        return opaqueBounds;
+    }
+
+    private static Rectangle findOpaqueBounds(SpriteMask mask) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < mask.getHeight(); y++) {
+            for (int x = 0; x < mask.getWidth(); x++) {
+                if (mask.isOpaque(x, y)) {
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX < 0) {
+            return new Rectangle(0, 0, mask.getWidth(), mask.getHeight());
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
     }
 
     /**
@@ -0,0 +1,93 @@
+package com.goodgamestudios.exercise.oche.sprites;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Opaque pixels of a sprite packed as bits, row after row, for pixel exact collisions.
+ * Two masks are tested for overlap with word-level AND of their rows, so the test costs one operation
+ * per 64 columns of overlapping rows.
+ */
+public class SpriteMask {
+    private static final int WORD_BITS = Long.SIZE;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    //Bit (column % 64) of word (row * wordsPerRow + column / 64) is set for opaque pixel
+    private final long[] bits;
+
+    public SpriteMask(BufferedImage image) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.wordsPerRow = (this.width + WORD_BITS - 1) / WORD_BITS;
+        this.bits = new long[this.height * this.wordsPerRow];
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                if ((image.getRGB(x, y) >>> 24) != 0) {
+                    this.bits[y * this.wordsPerRow + x / WORD_BITS] |= 1L << (x % WORD_BITS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if opaque pixels of two masks overlap
+     *
+     * @param other mask placed at (dx, dy) relative to the top left corner of this mask
+     * @param dx    x of the other mask relative to this one
+     * @param dy    y of the other mask relative to this one
+     * @return true if any opaque pixel of the other mask covers opaque pixel of this one
+     */
+    public boolean intersects(SpriteMask other, int dx, int dy) {
+        int fromRow = Math.max(dy, 0);
+        int toRow = Math.min(dy + other.height, this.height);
+        for (int row = fromRow; row < toRow; row++) {
+            int otherRowStart = (row - dy) * other.wordsPerRow;
+            for (int word = 0; word < other.wordsPerRow; word++) {
+                long otherBits = other.bits[otherRowStart + word];
+                if (otherBits != 0 && (bitsAt(row, dx + word * WORD_BITS) & otherBits) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the pixel is opaque, pixels outside of the mask are transparent
+     */
+    public boolean isOpaque(int x, int y) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return false;
+        }
+        return (this.bits[y * this.wordsPerRow + x / WORD_BITS] & (1L << (x % WORD_BITS))) != 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return 64 bits of the row starting at the column, columns outside of the mask are clear
+     */
+    private long bitsAt(int row, int column) {
+        if (column <= -WORD_BITS || column >= this.width) {
+            return 0;
+        }
+        int rowStart = row * this.wordsPerRow;
+        if (column < 0) {
+            return this.bits[rowStart] << -column;
+        }
+        int word = column / WORD_BITS;
+        int offset = column % WORD_BITS;
+        long result = this.bits[rowStart + word] >>> offset;
+        if (offset != 0 && word + 1 < this.wordsPerRow) {
+            result |= this.bits[rowStart + word + 1] << (WORD_BITS - offset);
+        }
+        return result;
+    }
+}
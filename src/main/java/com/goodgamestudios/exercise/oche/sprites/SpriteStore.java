@@ -1,12 +1,14 @@
 package com.goodgamestudios.exercise.oche.sprites;
 
+import com.goodgamestudios.exercise.oche.metrics.SpriteLoadEvent;
+
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,9 +43,10 @@ public class SpriteStore {
     }
 
     /**
-     * The cached sprite map, from reference to sprite instance
+     * The cached sprite map, from reference to sprite instance.
+     * Headless sessions create entities from several threads, concurrently loaded sprite is simply loaded twice
      */
-    private Map<String, Sprite> sprites = new HashMap();
+    private Map<String, Sprite> sprites = new ConcurrentHashMap<String, Sprite>();
 
     /**
      * Retrieve a sprite from the store
@@ -54,12 +57,15 @@ public class SpriteStore {
     public Sprite getSprite(String ref) {
         // if we've already got the sprite in the cache
         // then just return the existing version
-        if (sprites.get(ref) != null) {
-            return sprites.get(ref);
+        Sprite cached = sprites.get(ref);
+        if (cached != null) {
+            return cached;
         }
 
         // otherwise, go away and grab the sprite from the resource
         // loader
+        SpriteLoadEvent event = new SpriteLoadEvent();
+        event.begin();
         BufferedImage sourceImage = null;
 
         try {
@@ -79,10 +85,16 @@ public class SpriteStore {
             LOGGER.log(Level.SEVERE, ERR_REF_LOAD + ref);
         }
 
-        // create an accelerated image of the right size to store our sprite in
-        GraphicsConfiguration gc =
-                GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
-        BufferedImage image = gc.createCompatibleImage(sourceImage.getWidth(), sourceImage.getHeight(), Transparency.BITMASK);
+        // create an accelerated image of the right size to store our sprite in,
+        // there is no screen device without display (e.g. in tests), so plain image is used there
+        BufferedImage image;
+        if (GraphicsEnvironment.isHeadless()) {
+            image = new BufferedImage(sourceImage.getWidth(), sourceImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        } else {
+            GraphicsConfiguration gc =
+                    GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            image = gc.createCompatibleImage(sourceImage.getWidth(), sourceImage.getHeight(), Transparency.BITMASK);
+        }
 
         // draw our source image into the accelerated image
         image.getGraphics().drawImage(sourceImage, IMG_START_X, IMG_START_Y, null);
@@ -91,6 +103,14 @@ public class SpriteStore {
         Sprite sprite = new Sprite(image);
         sprites.put(ref, sprite);
 
+        if (event.shouldCommit()) {
+            event.ref = ref;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.imageBytes = (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+            event.commit();
+        }
+
         return sprite;
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.AttemptLog;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This is unit test for AttemptLog
+ */
+public class AttemptLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendedRecordsShouldSurviveReopenTest() throws IOException {
+        File file = folder.newFile();
+        AttemptLog log = new AttemptLog(file);
+        log.append(42, 3, 1000L);
+        log.append(7, 0, 2000L);
+        log.close();
+
+        AttemptLog reopened = new AttemptLog(file);
+        final long[] sums = new long[3];
+        reopened.forEach(new AttemptLog.RecordVisitor() {
+            @Override
+            public void visit(int score, int lifeCount, long epochMillis) {
+                sums[0] += score;
+                sums[1] += lifeCount;
+                sums[2] += epochMillis;
+            }
+        });
+        reopened.close();
+
+        assertEquals("Both records should be read back", 2, reopened.size());
+        assertEquals(49, sums[0]);
+        assertEquals(3, sums[1]);
+        assertEquals(3000L, sums[2]);
+    }
+
+    @Test
+    public void logShouldGrowBeyondInitialMappingTest() throws IOException {
+        File file = folder.newFile();
+        AttemptLog log = new AttemptLog(file);
+        for (int i = 0; i < 200000; i++) {
+            log.append(i, i % 5, i);
+        }
+        log.close();
+
+        AttemptLog reopened = new AttemptLog(file);
+        final int[] expected = new int[1];
+        reopened.forEach(new AttemptLog.RecordVisitor() {
+            @Override
+            public void visit(int score, int lifeCount, long epochMillis) {
+                assertEquals("Records should be read in append order", expected[0]++, score);
+            }
+        });
+        reopened.close();
+
+        assertEquals(200000, reopened.size());
+    }
+
+    @Test
+    public void flushedRecordsShouldBeSeenByNewReaderTest() throws IOException {
+        File file = folder.newFile();
+        AttemptLog log = new AttemptLog(file);
+        for (int i = 0; i < 1500; i++) {
+            log.append(i, 1, i);
+        }
+        log.flush();
+
+        AttemptLog reader = new AttemptLog(file);
+        assertEquals(1500, reader.size());
+        reader.close();
+        log.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignFileShouldBeRejectedTest() throws IOException {
+        File file = folder.newFile();
+        FileUtils.write(file, "10;3;1444400000000\n20;1;1444400000000\n");
+        new AttemptLog(file);
+    }
+}
@@ -0,0 +1,63 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.env.BatchEnvironment;
+import com.goodgamestudios.exercise.oche.env.GameEnvironment;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for GameEnvironment and BatchEnvironment
+ */
+public class BatchEnvironmentTest {
+    private static final int BATCH_SIZE = 4;
+    private static final int STEP_COUNT = 20000;
+
+    @Test
+    public void resetShouldObserveShipAndAliensTest() {
+        float[] observation = new float[GameEnvironment.OBSERVATION_SIZE];
+        GameEnvironment environment = new GameEnvironment(42);
+        environment.reset(observation, 0);
+
+        assertEquals(370 / 800f, observation[0], 1e-6);
+        assertEquals(550 / 600f, observation[1], 1e-6);
+        float aliens = 0;
+        for (int i = 2; i < 2 + GameEnvironment.GRID_COLUMNS * GameEnvironment.GRID_ROWS; i++) {
+            aliens += observation[i];
+        }
+        assertTrue("Alien formation should be observed", aliens > 0);
+        assertEquals(0, observation[GameEnvironment.OBSERVATION_SIZE - 3], 0);
+    }
+
+    @Test
+    public void batchesWithTheSameSeedShouldPlayTheSameEpisodesTest() {
+        BatchEnvironment first = new BatchEnvironment(BATCH_SIZE, 42);
+        BatchEnvironment second = new BatchEnvironment(BATCH_SIZE, 42);
+        assertArrayEquals(first.reset(), second.reset(), 0);
+
+        Random random = new Random(7);
+        int[] actions = new int[BATCH_SIZE];
+        float totalReward = 0;
+        for (int step = 0; step < STEP_COUNT; step++) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                actions[i] = KeyInputLogicMediator.CONTROL_FIRE
+                        | (random.nextBoolean() ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT);
+            }
+            first.step(actions);
+            second.step(actions);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                totalReward += first.getRewards()[i];
+            }
+        }
+
+        assertArrayEquals(first.getObservations(), second.getObservations(), 0);
+        assertEquals(first.getEpisodeCount(), second.getEpisodeCount());
+        assertTrue("Episodes should be finished", first.getEpisodeCount() > 0);
+        assertTrue("Aliens should be shot", totalReward > 0);
+    }
+}
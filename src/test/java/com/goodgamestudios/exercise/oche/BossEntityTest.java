@@ -0,0 +1,131 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.BossEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This is unit test for BossEntity, collisions should go down bounding volume hierarchy to pixels
+ * and parts should be destroyed separately
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BossEntityTest {
+    private static final int BOSS_X = 200;
+    private static final int BOSS_Y = 100;
+    //Corner of the shot sprite to the left of its opaque pixels
+    private static final int SHOT_X_CORRECTIVE = 6;
+
+    @Mock
+    private Game game;
+
+    @Mock
+    private EntityLogicMediator entityMediator;
+
+    private BossEntity boss;
+
+    @Before
+    public void setUp() {
+        when(game.getEntityMediator()).thenReturn(entityMediator);
+        boss = new BossEntity(game, BOSS_X, BOSS_Y);
+    }
+
+    @Test
+    public void shotShouldMissBossTest() {
+        // far away, only the bounds of the boss are tested
+        assertFalse(boss.collidesWith(new ShotEntity(game, BOSS_X - 100, BOSS_Y)));
+        // inside the boss bounds, but under the left turret and beside the bottom one
+        assertFalse(boss.collidesWith(new ShotEntity(game, BOSS_X + 4, BOSS_Y + 36)));
+        // inside the core bounds, but at its transparent corner
+        assertFalse(boss.collidesWith(new ShotEntity(game, BOSS_X + 26, BOSS_Y - 20)));
+    }
+
+    @Test
+    public void plainEntityShouldHandCollisionToBossTest() {
+        ShotEntity hit = new ShotEntity(game, BOSS_X + 12 - SHOT_X_CORRECTIVE, BOSS_Y + 17);
+        ShotEntity miss = new ShotEntity(game, BOSS_X + 26, BOSS_Y - 20);
+        assertTrue(hit.collidesWith(boss));
+        assertTrue(boss.collidesWith(hit));
+        assertFalse(miss.collidesWith(boss));
+    }
+
+    @Test
+    public void turretShouldBeDestroyedSeparatelyTest() {
+        int leftTurret = 1;
+        for (int i = 0; i < 3; i++) {
+            ShotEntity shot = new ShotEntity(game, BOSS_X + 12 - SHOT_X_CORRECTIVE, BOSS_Y + 17);
+            assertTrue(boss.collidesWith(shot));
+            boss.collidedWith(shot);
+        }
+        verify(entityMediator, times(3)).disposeEntity(any(ShotEntity.class));
+        assertEquals(0, boss.getPartHealth(leftTurret));
+        assertTrue(boss.getPartHealth(2) > 0);
+        verify(game, times(1)).spawnExplosion(anyDouble(), anyDouble());
+        // the left turret is gone, so the bounds start at the core
+        assertEquals(BOSS_X + 28, boss.getBounds().x);
+        assertFalse(boss.collidesWith(new ShotEntity(game, BOSS_X + 12 - SHOT_X_CORRECTIVE, BOSS_Y + 17)));
+    }
+
+    @Test
+    public void partWithoutHealthShouldNotBeHitTest() {
+        // the bottom left turret stays within the bounds of the other parts
+        int bottomTurret = 3;
+        assertTrue(boss.collidesWith(new ShotEntity(game, BOSS_X + 44 - SHOT_X_CORRECTIVE, BOSS_Y + 38)));
+        boss.setPartHealth(bottomTurret, -1);
+        assertFalse(boss.collidesWith(new ShotEntity(game, BOSS_X + 44 - SHOT_X_CORRECTIVE, BOSS_Y + 38)));
+        assertEquals(BossEntity.getMaxPartHealth(BossEntity.PART_CORE), boss.getPartHealth(BossEntity.PART_CORE));
+    }
+
+    @Test
+    public void longTickShotShouldHitTurretItFlewThroughTest() {
+        int leftTurret = 1;
+        ShotEntity shot = new ShotEntity(game, BOSS_X + 12 - SHOT_X_CORRECTIVE, BOSS_Y + 120);
+        shot.markPreviousLocation();
+        // 150 px up, the shot ends above the boss
+        shot.move(500);
+        double time = boss.timeOfImpact(shot);
+        assertTrue(time > 0 && time < 1);
+        boss.collidedWith(shot);
+        assertEquals(2, boss.getPartHealth(leftTurret));
+    }
+
+    @Test
+    public void coreShouldBeArmoredWhileTurretsAreLeftTest() {
+        int coreHealth = boss.getPartHealth(BossEntity.PART_CORE);
+        for (int i = 0; i < 5; i++) {
+            hitCore();
+        }
+        assertEquals(coreHealth, boss.getPartHealth(BossEntity.PART_CORE));
+
+        for (int part = 1; part < BossEntity.PART_COUNT; part++) {
+            boss.setPartHealth(part, 0);
+        }
+        for (int i = 0; i < coreHealth - 1; i++) {
+            hitCore();
+        }
+        verify(game, never()).notifyBossKilled();
+        hitCore();
+        verify(game, times(1)).notifyBossKilled();
+        verify(entityMediator).disposeEntity(boss);
+    }
+
+    private void hitCore() {
+        ShotEntity shot = new ShotEntity(game, BOSS_X + 68 - SHOT_X_CORRECTIVE, BOSS_Y + 10);
+        assertTrue(boss.collidesWith(shot));
+        boss.collidedWith(shot);
+    }
+}
@@ -0,0 +1,109 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.Bunker;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for Bunker, shots should erode it pixel by pixel and only changed rows should be redrawn
+ */
+public class BunkerTest {
+    //Visible pixels of the shot sprite
+    private static final int SHOT_WIDTH = 7;
+    private static final int SHOT_HEIGHT = 19;
+    private static final int X = 100;
+    private static final int Y = 200;
+    //Column range of the shot aimed at the bunker center
+    private static final int SHOT_X = X + Bunker.WIDTH / 2 - SHOT_WIDTH / 2;
+
+    @Test
+    public void shotShouldMissBunkerTest() {
+        Bunker bunker = new Bunker(X, Y);
+        int pixels = bunker.getPixelCount();
+        assertFalse(bunker.erode(X - SHOT_WIDTH, Y, SHOT_WIDTH, SHOT_HEIGHT, true));
+        assertFalse(bunker.erode(SHOT_X, Y + Bunker.HEIGHT, SHOT_WIDTH, SHOT_HEIGHT, false));
+        // top corners are cut
+        assertFalse(bunker.erode(X, Y - SHOT_HEIGHT + 2, 2, SHOT_HEIGHT, true));
+        assertEquals(pixels, bunker.getPixelCount());
+    }
+
+    @Test
+    public void shotShouldErodeWhereItHitsFirstTest() {
+        Bunker bunker = new Bunker(X, Y);
+        int pixels = bunker.getPixelCount();
+        int center = Bunker.WIDTH / 2;
+
+        // alien shot comes from above and hits the top row
+        assertTrue(bunker.erode(SHOT_X, Y - SHOT_HEIGHT + 1, SHOT_WIDTH, SHOT_HEIGHT, true));
+        assertFalse(bunker.isSet(center, 0));
+        assertTrue(bunker.isSet(center, 10));
+        int eroded = pixels - bunker.getPixelCount();
+        assertTrue(eroded > 0);
+
+        // player shot comes from below through the arch and hits the row above it
+        bunker.reset();
+        assertTrue(flyUp(bunker));
+        assertTrue(bunker.isSet(center, 12));
+        assertFalse(bunker.isSet(center, 19));
+        assertTrue(bunker.isSet(center, 0));
+    }
+
+    @Test
+    public void shotsShouldDigThroughBunkerTest() {
+        Bunker bunker = new Bunker(X, Y);
+        int hits = 0;
+        for (int shot = 0; shot < 10; shot++) {
+            if (flyUp(bunker)) {
+                hits++;
+            }
+        }
+        assertTrue("Bunker should stop a few shots, stopped " + hits, hits > 1 && hits < 10);
+        for (int row = 0; row < Bunker.HEIGHT; row++) {
+            assertFalse(bunker.isSet(Bunker.WIDTH / 2, row));
+        }
+    }
+
+    /**
+     * Fly the shot up through the bunker by 3 pixels per tick like at 300 px/s and 10 ms ticks
+     *
+     * @return true if bunker stopped the shot
+     */
+    private static boolean flyUp(Bunker bunker) {
+        for (int y = Y + Bunker.HEIGHT; y > Y - SHOT_HEIGHT; y -= 3) {
+            if (bunker.erode(SHOT_X, y, SHOT_WIDTH, SHOT_HEIGHT, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void onlyChangedRowsShouldBeUploadedTest() {
+        Bunker bunker = new Bunker(0, 0);
+        BufferedImage frame = new BufferedImage(Bunker.WIDTH, Bunker.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        bunker.draw(g);
+        assertEquals(Bunker.HEIGHT, bunker.getDirtyFrom());
+        assertEquals(0, bunker.getDirtyTo());
+        int center = Bunker.WIDTH / 2;
+        assertTrue((frame.getRGB(center, 0) & 0xFFFFFF) != 0);
+
+        assertTrue(bunker.erode(center - SHOT_WIDTH / 2, -SHOT_HEIGHT + 1, SHOT_WIDTH, SHOT_HEIGHT, true));
+        assertEquals(0, bunker.getDirtyFrom());
+        assertTrue(bunker.getDirtyTo() < Bunker.HEIGHT / 2);
+
+        g.setColor(Color.black);
+        g.fillRect(0, 0, Bunker.WIDTH, Bunker.HEIGHT);
+        bunker.draw(g);
+        g.dispose();
+        assertEquals(0, frame.getRGB(center, 0) & 0xFFFFFF);
+        assertTrue((frame.getRGB(center, Bunker.HEIGHT / 2) & 0xFFFFFF) != 0);
+        assertEquals(Bunker.HEIGHT, bunker.getDirtyFrom());
+    }
+}
@@ -0,0 +1,101 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.clip.ClipRecorder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for ClipRecorder
+ */
+public class ClipRecorderTest {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final long TICK_DELTA = 10;
+    private static final long CLIP_MILLIS = 1000;
+    private static final long CAPTURE_PERIOD = 50;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savedClipShouldContainLastFramesTest() throws Exception {
+        ClipRecorder recorder = new ClipRecorder(folder.newFolder(), WIDTH, HEIGHT, CLIP_MILLIS, CAPTURE_PERIOD, 4);
+        // three seconds of a square moving right, only the last second is kept
+        int captured = 0;
+        for (long time = 0; time < 3000; time += TICK_DELTA) {
+            Graphics2D graphics = recorder.beginCapture(time);
+            if (graphics != null) {
+                graphics.setColor(Color.white);
+                graphics.fillRect((int) (time / 4), 280, 40, 40);
+                recorder.endCapture();
+                captured++;
+            }
+        }
+        assertTrue("Captures should follow the period", captured <= 3000 / CAPTURE_PERIOD);
+
+        assertTrue(recorder.save("test"));
+        recorder.close();
+        assertEquals(1, recorder.getClipsWritten());
+
+        File[] clips = recorder.getDirectory().listFiles();
+        assertNotNull(clips);
+        assertEquals(1, clips.length);
+        assertTrue(clips[0].getName().endsWith("-test"));
+        File[] frames = clips[0].listFiles();
+        assertNotNull(frames);
+        Arrays.sort(frames);
+        assertEquals(CLIP_MILLIS / CAPTURE_PERIOD, frames.length);
+
+        BufferedImage first = ImageIO.read(frames[0]);
+        BufferedImage last = ImageIO.read(frames[frames.length - 1]);
+        assertEquals(WIDTH / 4, first.getWidth());
+        assertEquals(HEIGHT / 4, first.getHeight());
+        assertTrue("Frames should be in chronological order", squareX(first) < squareX(last));
+    }
+
+    @Test
+    public void saveShouldNotWaitForEncoderTest() throws IOException {
+        ClipRecorder recorder = new ClipRecorder(folder.newFolder(), WIDTH, HEIGHT);
+        assertFalse("Empty clip should not be saved", recorder.save("empty"));
+        for (long time = 0; time < ClipRecorder.DEFAULT_CLIP_MILLIS; time += TICK_DELTA) {
+            if (recorder.beginCapture(time) != null) {
+                recorder.endCapture();
+            }
+        }
+        assertTrue(recorder.save("first"));
+        // recording goes on into the spare ring while the first clip is written
+        Graphics2D graphics = recorder.beginCapture(ClipRecorder.DEFAULT_CLIP_MILLIS);
+        assertNotNull(graphics);
+        recorder.endCapture();
+        assertNull(recorder.beginCapture(ClipRecorder.DEFAULT_CLIP_MILLIS + TICK_DELTA));
+        if (!recorder.isIdle()) {
+            assertFalse("Save should be dropped while encoder is busy", recorder.save("second"));
+            assertEquals(2, recorder.getSavesDropped());
+        }
+        recorder.close();
+        assertEquals(1, recorder.getClipsWritten());
+    }
+
+    private static int squareX(BufferedImage image) {
+        for (int x = 0; x < image.getWidth(); x++) {
+            if (image.getRGB(x, 300 / 4) != Color.black.getRGB()) {
+                return x;
+            }
+        }
+        return -1;
+    }
+}
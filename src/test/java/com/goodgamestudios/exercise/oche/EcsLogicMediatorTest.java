@@ -0,0 +1,160 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.ecs.Archetypes;
+import com.goodgamestudios.exercise.oche.ecs.Components;
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.FiringSystem;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.StateLogicMediator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This is unit test for EcsLogicMediator and systems of entity-component-system core
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EcsLogicMediatorTest {
+
+    @Mock
+    private Game game;
+
+    private EcsLogicMediator ecsLogicMediator = new EcsLogicMediator(new Random(42));
+
+    @Test
+    public void initMediatorTest() {
+        ecsLogicMediator.initEntities(game);
+        World world = ecsLogicMediator.getWorld();
+
+        assertEquals(61, world.size());
+        assertEquals(Components.KIND_SHIP, world.getKind(ecsLogicMediator.getShipIndex()));
+        assertEquals(5, ecsLogicMediator.getPlayerLifeCount());
+    }
+
+    @Test
+    public void shotShouldKillAlienTest() {
+        ecsLogicMediator.initEntities(game);
+        World world = ecsLogicMediator.getWorld();
+        int alien = 1;
+        int alienId = world.idAt(alien);
+        int lastId = world.idAt(world.size() - 1);
+        int shipId = world.idAt(ecsLogicMediator.getShipIndex());
+        Archetypes.createShot(world, Components.KIND_SHOT, (int) world.getX(alien), (int) world.getY(alien));
+
+        ecsLogicMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        verify(game, times(1)).notifyAlienKilled();
+        assertEquals(60, world.size());
+        assertEquals(World.NO_ENTITY, world.indexOf(alienId));
+        assertEquals(Components.KIND_ALIEN, world.getKind(world.indexOf(lastId)));
+        assertEquals(shipId, world.idAt(ecsLogicMediator.getShipIndex()));
+    }
+
+    @Test
+    public void cappedAlienFireShouldGoRoundAliensTest() {
+        World world = new World();
+        for (int i = 0; i < 3; i++) {
+            Archetypes.createAlien(world, 100 + 100 * i, 100);
+        }
+        // every alien is ready to fire in every update
+        FiringSystem firingSystem = new FiringSystem(new Random() {
+            @Override
+            public double nextDouble() {
+                return 0;
+            }
+        });
+        firingSystem.setAlienShotCap(1);
+
+        double[] shotX = new double[4];
+        for (int update = 0; update < shotX.length; update++) {
+            int size = world.size();
+            firingSystem.update(world, (update + 1) * 100000L, 50);
+            assertEquals(size + 1, world.size());
+            shotX[update] = world.getX(size);
+        }
+        assertEquals(100, shotX[1] - shotX[0], 0);
+        assertEquals(100, shotX[2] - shotX[1], 0);
+        assertEquals(shotX[0], shotX[3], 0);
+    }
+
+    @Test
+    public void alienFireChanceShouldFollowTimePassedTest() {
+        World world = new World();
+        Archetypes.createAlien(world, 100, 100);
+        // over the chance per 10 ms of 0.001, but below the chance per 50 ms
+        FiringSystem firingSystem = new FiringSystem(new Random() {
+            @Override
+            public double nextDouble() {
+                return 0.003;
+            }
+        });
+
+        firingSystem.update(world, 100000L, 10);
+        assertEquals(1, world.size());
+        firingSystem.update(world, 200000L, 50);
+        assertEquals(2, world.size());
+    }
+
+    @Test
+    public void shipShouldFireOnInputTest() {
+        when(game.getGameTime()).thenReturn(1000L);
+        ecsLogicMediator.initEntities(game);
+        World world = ecsLogicMediator.getWorld();
+        KeyInputLogicMediator keyInput = KeyInputLogicMediator.createForSession();
+        keyInput.setFirePressed(true);
+
+        ecsLogicMediator.processInput(keyInput);
+        assertEquals(62, world.size());
+        assertEquals(Components.KIND_SHOT, world.getKind(61));
+
+        // alien fire does not fire the ship, no time passed, so aliens do not fire either
+        when(game.getGameTime()).thenReturn(2000L);
+        ecsLogicMediator.processAlienShot(0);
+        assertEquals(62, world.size());
+        ecsLogicMediator.processInput(keyInput);
+        assertEquals(63, world.size());
+    }
+
+    @Test
+    public void killAllAliensShouldNotifyWinTest() {
+        ecsLogicMediator.initEntities(game);
+        for (int i = 0; i < 60; i++) {
+            ecsLogicMediator.notifyAlienKilled();
+        }
+        verify(game, times(1)).notifyWin();
+    }
+
+    @Test
+    public void headlessGameShouldBePlayedOnEcsCoreTest() {
+        System.setProperty(Game.ECS_CORE_PROPERTY, "true");
+        try {
+            Game headless = Game.createHeadless();
+            headless.initGame();
+            assertTrue(headless.getEntityLogic() instanceof EcsLogicMediator);
+            KeyInputLogicMediator keyInput = KeyInputLogicMediator.getInstance();
+            keyInput.restart();
+
+            int bestScore = 0;
+            for (int i = 0; i < 20000 && !keyInput.isWaitingForKeyPress(); i++) {
+                keyInput.setControls(KeyInputLogicMediator.CONTROL_FIRE
+                        | ((i / 200) % 2 == 0 ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT));
+                headless.tick(10);
+                bestScore = Math.max(bestScore, StateLogicMediator.getInstance().getScore());
+            }
+            assertTrue("Aliens should be shot", bestScore > 0);
+            assertTrue("Game should be over", keyInput.isWaitingForKeyPress());
+        } finally {
+            System.clearProperty(Game.ECS_CORE_PROPERTY);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.goodgamestudios.exercise.oche;
 
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
 import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.EntityMetrics;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
@@ -8,7 +11,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -24,6 +29,9 @@ public class EntityLogicMediatorTest {
     @Mock
     private Game game;
 
+    @Mock
+    private Game nextGame;
+
     @Test
     public void initMediatorTest() {
         entityLogicMediator.initEntities(game);
@@ -40,6 +48,51 @@ public class EntityLogicMediatorTest {
         verify(game, times(1)).notifyWin();
     }
 
+    @Test
+    public void entitiesOfPreviousGameShouldNotComeBackToPoolsTest() {
+        entityLogicMediator.initEntities(game);
+        ShotEntity previousShot = entityLogicMediator.obtainShot(100, 100);
+        entityLogicMediator.addShot(previousShot);
+
+        // the next game starts while the shot of the previous one is still flying
+        entityLogicMediator.initEntities(nextGame);
+        entityLogicMediator.clearAllGameEntities();
+        for (int i = 0; i < 1000; i++) {
+            assertNotSame(previousShot, entityLogicMediator.obtainShot(0, 0));
+        }
+    }
+
+    @Test
+    public void entityCountsShouldFollowAddedAndRemovedEntitiesTest() {
+        EntityMetrics metrics = EntityMetrics.getInstance();
+        entityLogicMediator.initEntities(game);
+        // shots below the aliens and away from bunkers, so they hit nothing
+        ShotEntity shot = entityLogicMediator.obtainShot(20, 400);
+        entityLogicMediator.addShot(shot);
+        entityLogicMediator.addShot(entityLogicMediator.obtainShot(60, 400));
+        entityLogicMediator.calculateCollisionsAndRemoveCollidedEntities();
+        assertEquals(1, metrics.getShipCount());
+        assertEquals(60, metrics.getAlienCount());
+        assertEquals(2, metrics.getShotCount());
+
+        entityLogicMediator.disposeEntity(shot);
+        entityLogicMediator.calculateCollisionsAndRemoveCollidedEntities();
+        assertEquals(1, metrics.getShotCount());
+        assertEquals(0, metrics.getAlienShotCount());
+
+        entityLogicMediator.clearAllGameEntities();
+        entityLogicMediator.calculateCollisionsAndRemoveCollidedEntities();
+        assertEquals(0, metrics.getShipCount());
+        assertEquals(0, metrics.getShotCount());
+    }
+
+    @Test
+    public void alienShotChanceShouldFollowTimePassedTest() {
+        assertEquals(0.001, AlienEntity.getShotChance(10), 1e-12);
+        assertEquals(1 - Math.pow(0.999, 5), AlienEntity.getShotChance(50), 1e-12);
+        assertEquals(0, AlienEntity.getShotChance(0), 0);
+    }
+
     @Test(expected = IllegalStateException.class)
     public void tryToInitialiseWithNullGameTest(){
         entityLogicMediator.initEntities(null);
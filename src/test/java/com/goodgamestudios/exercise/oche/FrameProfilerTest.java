@@ -0,0 +1,66 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.metrics.FramePhase;
+import com.goodgamestudios.exercise.oche.metrics.FrameProfiler;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for FrameProfiler, phases of a frame should be recorded into their own histograms
+ */
+public class FrameProfilerTest {
+    private static final long PHASE_NANOS = 2000000L;
+
+    private FrameProfiler profiler = FrameProfiler.getInstance();
+
+    @Before
+    public void setUp() {
+        this.profiler.reset();
+    }
+
+    @Test
+    public void phasesShouldBeRecordedPerFrameTest() throws InterruptedException {
+        long frameStart = this.profiler.beginFrame();
+        Thread.sleep(PHASE_NANOS / 1000000L);
+        long moveEnd = this.profiler.record(FramePhase.MOVE, frameStart);
+        long collisionEnd = this.profiler.record(FramePhase.COLLISION, moveEnd);
+        this.profiler.recordFrame(frameStart);
+
+        assertEquals(moveEnd - frameStart, this.profiler.getLastPhaseNanos(FramePhase.MOVE));
+        assertTrue(this.profiler.getLastPhaseNanos(FramePhase.MOVE) >= PHASE_NANOS);
+        assertEquals(collisionEnd - moveEnd, this.profiler.getLastPhaseNanos(FramePhase.COLLISION));
+        assertEquals(1, this.profiler.getPhaseHistogram(FramePhase.MOVE).getCount());
+        assertEquals(0, this.profiler.getPhaseHistogram(FramePhase.DRAW).getCount());
+        assertEquals(1, this.profiler.getFrameCount());
+        assertTrue(this.profiler.getFrameMaxMicros() >= PHASE_NANOS / 1000.0);
+        assertTrue(this.profiler.getPhaseMaxMicros().get(FramePhase.MOVE.name()) >= PHASE_NANOS / 1000.0);
+
+        // phases which are not executed in the next frame get 0
+        this.profiler.beginFrame();
+        assertEquals(0, this.profiler.getLastPhaseNanos(FramePhase.MOVE));
+        assertEquals(1, this.profiler.getPhaseHistogram(FramePhase.MOVE).getCount());
+
+        this.profiler.reset();
+        assertEquals(0, this.profiler.getFrameCount());
+        assertEquals(0, this.profiler.getPhaseHistogram(FramePhase.MOVE).getCount());
+    }
+
+    @Test
+    public void tickCountersShouldBeSummedTest() {
+        this.profiler.recordTick(10, 45, 2);
+        this.profiler.recordTick(12, 66, 1);
+
+        assertEquals(12, this.profiler.getEntityCount());
+        assertEquals(66, this.profiler.getCollisionPairsTestedLastTick());
+        assertEquals(1, this.profiler.getCollisionHitsLastTick());
+        assertEquals(111, this.profiler.getCollisionPairsTestedTotal());
+        assertEquals(3, this.profiler.getCollisionHitsTotal());
+
+        this.profiler.reset();
+        assertEquals(0, this.profiler.getCollisionPairsTestedTotal());
+        assertEquals(0, this.profiler.getCollisionHitsTotal());
+    }
+}
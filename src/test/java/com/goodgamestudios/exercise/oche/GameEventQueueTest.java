@@ -0,0 +1,58 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.logic.GameEvent;
+import com.goodgamestudios.exercise.oche.logic.GameEventQueue;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for GameEventQueue and deferred handling of game events
+ */
+public class GameEventQueueTest {
+
+    @Test
+    public void onlyCountedEventsShouldRepeatTest() {
+        GameEventQueue queue = new GameEventQueue();
+        queue.post(GameEvent.ALIEN_KILLED);
+        queue.post(GameEvent.ALIEN_KILLED);
+        queue.post(GameEvent.PLAYER_DIED);
+        queue.post(GameEvent.PLAYER_DIED);
+
+        assertEquals(2, queue.getCount(GameEvent.ALIEN_KILLED));
+        assertEquals(1, queue.getCount(GameEvent.PLAYER_DIED));
+        assertEquals(2, queue.take(GameEvent.ALIEN_KILLED));
+        assertFalse(queue.isEmpty());
+        queue.clear();
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void deathShouldBeHandledAfterCollisionPassTest() {
+        Game game = Game.createHeadless();
+        game.initGame();
+        KeyInputLogicMediator keyInput = KeyInputLogicMediator.getInstance();
+        keyInput.restart();
+
+        List<Entity> entities = game.getEntityMediator().getAllEntities();
+        ShipEntity ship = game.getEntityMediator().getShip();
+        for (Entity entity : entities) {
+            if (entity instanceof AlienEntity) {
+                entity.setLocation(ship.getExactX(), ship.getExactY());
+            }
+        }
+        game.tick(0);
+
+        assertTrue("Game should be over", keyInput.isWaitingForKeyPress());
+        assertEquals(0, ship.lifeLeft());
+        assertTrue(entities.isEmpty());
+    }
+}
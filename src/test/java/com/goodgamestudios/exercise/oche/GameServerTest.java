@@ -0,0 +1,42 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.net.GameServer;
+import com.goodgamestudios.exercise.oche.net.LoadTestClient;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for GameServer, loopback players should receive snapshots of their games
+ */
+public class GameServerTest {
+    private static final int PLAYER_COUNT = 20;
+    private static final long RUN_MILLIS = 1500;
+
+    @Test
+    public void playersShouldReceiveSnapshotsTest() throws Exception {
+        GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.bind();
+        Thread thread = new Thread(server, "game-server");
+        thread.start();
+        try {
+            LoadTestClient client = new LoadTestClient(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), PLAYER_COUNT);
+            LoadTestClient.Report report = client.run(RUN_MILLIS);
+
+            assertEquals(PLAYER_COUNT, report.getPlayerCount());
+            assertTrue("Snapshots should be received", report.getSnapshots() > PLAYER_COUNT);
+            assertTrue("Inputs should be echoed", report.getLatencyHistogram().getCount() > 0);
+            assertTrue("Server should tick", report.getServerTicksPerSecond() > 0);
+        } finally {
+            server.stop();
+            thread.join();
+        }
+        assertEquals(0, server.getClientCount());
+        assertTrue(server.getSnapshotsSent() > 0);
+    }
+}
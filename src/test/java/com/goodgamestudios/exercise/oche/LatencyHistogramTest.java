@@ -0,0 +1,85 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for LatencyHistogram, buckets should cover the whole long range without gaps
+ * and percentiles should be taken from bucket bounds
+ */
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void bucketsShouldFollowEachOtherWithoutGapsTest() {
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, LatencyHistogram.upperBoundOf(i));
+        }
+        for (int i = 1; i < LatencyHistogram.getBucketCount(); i++) {
+            assertTrue(LatencyHistogram.upperBoundOf(i) > LatencyHistogram.upperBoundOf(i - 1));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.getBucketCount() - 1));
+
+        // both bounds of every bucket are recorded into it
+        for (int i = 1; i < LatencyHistogram.getBucketCount(); i++) {
+            this.histogram.record(LatencyHistogram.upperBoundOf(i - 1) + 1);
+            this.histogram.record(LatencyHistogram.upperBoundOf(i));
+        }
+        for (int i = 1; i < LatencyHistogram.getBucketCount(); i++) {
+            assertEquals(2, this.histogram.getBucketValueCount(i));
+        }
+    }
+
+    @Test
+    public void bucketShouldKeepValueWithinPrecisionTest() {
+        // 1000 is in 960..1023
+        this.histogram.record(1000);
+        for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+            if (this.histogram.getBucketValueCount(i) > 0) {
+                assertEquals(1023, LatencyHistogram.upperBoundOf(i));
+                assertEquals(960, LatencyHistogram.upperBoundOf(i - 1) + 1);
+            }
+        }
+    }
+
+    @Test
+    public void quantileShouldBeUpperBoundOfItsBucketTest() {
+        assertEquals(0, this.histogram.getValueAtQuantile(0.5));
+
+        for (int i = 0; i < 90; i++) {
+            this.histogram.record(10);
+        }
+        // 1030 and 1100 are in 1024..1151
+        for (int i = 0; i < 5; i++) {
+            this.histogram.record(1030);
+            this.histogram.record(1100);
+        }
+        this.histogram.record(5000);
+
+        assertEquals(10, this.histogram.getValueAtQuantile(0));
+        assertEquals(10, this.histogram.getValueAtQuantile(0.5));
+        assertEquals(1151, this.histogram.getValueAtQuantile(0.95));
+        // bucket of 5000 goes up to 5119, but nothing over max is reported
+        assertEquals(5000, this.histogram.getValueAtQuantile(1));
+        assertEquals(5000, this.histogram.getValueAtQuantile(2));
+        assertEquals(101, this.histogram.getCount());
+        assertEquals(5000, this.histogram.getMax());
+        assertEquals((900 + 5 * 1030 + 5 * 1100 + 5000) / 101.0, this.histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void negativeValueShouldBeRecordedAsZeroTest() {
+        this.histogram.record(-5);
+        assertEquals(1, this.histogram.getBucketValueCount(0));
+        assertEquals(0, this.histogram.getSum());
+
+        this.histogram.reset();
+        assertEquals(0, this.histogram.getCount());
+        assertEquals(0, this.histogram.getBucketValueCount(0));
+        assertEquals(0, this.histogram.getValueAtQuantile(1));
+    }
+}
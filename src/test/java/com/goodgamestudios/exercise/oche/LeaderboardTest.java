@@ -0,0 +1,79 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.Leaderboard;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This is unit test for Leaderboard
+ */
+public class LeaderboardTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long NOW = 1000 * DAY + DAY / 2;
+
+    private Leaderboard leaderboard = new Leaderboard(10, TimeZone.getTimeZone("UTC"));
+
+    @Test
+    public void rankShouldCountBetterScoresTest() {
+        leaderboard.record(10, 0, NOW);
+        leaderboard.record(20, 0, NOW);
+        leaderboard.record(20, 1, NOW);
+        leaderboard.record(30, 0, NOW);
+
+        assertEquals(1, leaderboard.getRank(40));
+        assertEquals(1, leaderboard.getRank(30));
+        assertEquals(2, leaderboard.getRank(20));
+        assertEquals(4, leaderboard.getRank(10));
+        assertEquals(5, leaderboard.getRank(0));
+        assertEquals(75.0, leaderboard.getPercentile(20), 0.001);
+    }
+
+    @Test
+    public void scoreRangeShouldGrowTest() {
+        leaderboard.record(5, 0, NOW);
+        leaderboard.record(100000, 0, NOW);
+        leaderboard.record(500, 0, NOW);
+
+        assertEquals(1, leaderboard.getRank(100000));
+        assertEquals(2, leaderboard.getRank(500));
+        assertEquals(3, leaderboard.size());
+    }
+
+    @Test
+    public void extremeScoresShouldNotBreakRangeTest() {
+        leaderboard.record(Integer.MAX_VALUE, 0, NOW);
+        leaderboard.record(Integer.MIN_VALUE, 0, NOW);
+        leaderboard.record(50, 0, NOW);
+
+        assertEquals(1, leaderboard.getRank(Integer.MAX_VALUE));
+        assertEquals(2, leaderboard.getRank(50));
+        assertEquals(3, leaderboard.getRank(0));
+        assertEquals(100.0, leaderboard.getPercentile(Integer.MAX_VALUE), 0.001);
+        // the exact score is kept for time window tops
+        assertEquals(Integer.MAX_VALUE, leaderboard.getTopOfToday(NOW).get(0).getScore());
+    }
+
+    @Test
+    public void timeWindowsShouldOnlyContainTheirDaysTest() {
+        for (int i = 0; i < 15; i++) {
+            leaderboard.record(i, 0, NOW);
+        }
+        leaderboard.record(100, 0, NOW - 3 * DAY);
+        leaderboard.record(200, 0, NOW - 8 * DAY);
+
+        List<Leaderboard.Entry> today = leaderboard.getTopOfToday(NOW);
+        assertEquals(10, today.size());
+        assertEquals(14, today.get(0).getScore());
+        assertEquals(5, today.get(9).getScore());
+
+        List<Leaderboard.Entry> week = leaderboard.getTopOfThisWeek(NOW);
+        assertEquals(10, week.size());
+        assertEquals(100, week.get(0).getScore());
+        assertEquals(14, week.get(1).getScore());
+        assertEquals(15, leaderboard.getAttemptCountOfToday(NOW));
+    }
+}
@@ -0,0 +1,156 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.metrics.EntityMetrics;
+import com.goodgamestudios.exercise.oche.metrics.FrameProfiler;
+import com.goodgamestudios.exercise.oche.metrics.LatencyHistogram;
+import com.goodgamestudios.exercise.oche.metrics.MetricsHttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for MetricsHttpServer, scrape of played headless game should be valid Prometheus text
+ */
+public class MetricsHttpServerTest {
+    private static final long TICK_DELTA = 10;
+    private static final int TICKS = 500;
+
+    private MetricsHttpServer server;
+    private LatencyHistogram highScoreWrites;
+
+    @Before
+    public void setUp() throws IOException {
+        this.highScoreWrites = new LatencyHistogram();
+        this.server = new MetricsHttpServer(0, FrameProfiler.getInstance(), EntityMetrics.getInstance(),
+                this.highScoreWrites);
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop();
+    }
+
+    @Test
+    public void scrapeShouldExportGameMetricsTest() throws IOException {
+        Game game = Game.createHeadless();
+        game.initGame();
+        KeyInputLogicMediator keyInput = KeyInputLogicMediator.getInstance();
+        keyInput.setStartState();
+        keyInput.setWaitingForKeyPress(false);
+        keyInput.setFirePressed(true);
+        FrameProfiler profiler = FrameProfiler.getInstance();
+        // headless tick is not profiled, the test records what the game loop does
+        for (int i = 0; i < TICKS && !keyInput.isWaitingForKeyPress(); i++) {
+            long frameStart = profiler.beginFrame();
+            game.tick(TICK_DELTA);
+            profiler.recordTick(game.getEntityLogic().getEntityCount(),
+                    game.getEntityLogic().getCollisionPairsTested(), game.getEntityLogic().getCollisionHits());
+            profiler.recordFrame(frameStart);
+        }
+        this.highScoreWrites.record(3000000);
+        this.highScoreWrites.record(7000000000L);
+
+        Map<String, Double> samples = parse(get("/metrics"));
+
+        assertEquals(1, samples.get("airdefender_entities{type=\"ship\"}"), 0);
+        assertTrue(samples.get("airdefender_entities{type=\"alien\"}") > 0);
+        assertEquals(samples.get("airdefender_entities{type=\"shot\"}"),
+                samples.get("airdefender_shots_live{type=\"shot\"}"));
+        assertTrue(samples.get("airdefender_shots_pooled{type=\"alien_shot\"}") > 0);
+        assertTrue(samples.get("airdefender_collision_pairs_total") > 0);
+        assertTrue(samples.get("airdefender_frame_seconds_count") >= TICKS / 2);
+        assertTrue(samples.containsKey("airdefender_phase_seconds_count{phase=\"collision\"}"));
+
+        // 3 ms write is in 5 ms bucket, 7 s one only in +Inf
+        assertEquals(0, samples.get("airdefender_highscore_write_seconds_bucket{le=\"0.0025\"}"), 0);
+        assertEquals(1, samples.get("airdefender_highscore_write_seconds_bucket{le=\"0.005\"}"), 0);
+        assertEquals(1, samples.get("airdefender_highscore_write_seconds_bucket{le=\"1.0\"}"), 0);
+        assertEquals(2, samples.get("airdefender_highscore_write_seconds_bucket{le=\"+Inf\"}"), 0);
+        assertEquals(2, samples.get("airdefender_highscore_write_seconds_count"), 0);
+        assertEquals(7.003, samples.get("airdefender_highscore_write_seconds_sum"), 1e-9);
+
+        boolean gcFound = false;
+        for (String name : samples.keySet()) {
+            gcFound |= name.startsWith("jvm_gc_collections_total{gc=");
+        }
+        assertTrue(gcFound);
+    }
+
+    @Test
+    public void histogramBucketsShouldBeCumulativeTest() throws IOException {
+        FrameProfiler profiler = FrameProfiler.getInstance();
+        for (int i = 0; i < 100; i++) {
+            profiler.recordFrame(System.nanoTime() - i * 100000L);
+        }
+        String text = get("/metrics");
+        double previous = 0;
+        for (String line : text.split("\n")) {
+            if (line.startsWith("airdefender_frame_seconds_bucket")) {
+                double value = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                assertTrue(line, value >= previous);
+                previous = value;
+            }
+        }
+        assertEquals(parse(text).get("airdefender_frame_seconds_count"), previous, 0);
+    }
+
+    @Test
+    public void onlyGetShouldBeServedTest() throws IOException {
+        HttpURLConnection connection = open("/metrics");
+        connection.setRequestMethod("POST");
+        assertEquals(405, connection.getResponseCode());
+        connection.disconnect();
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), this.server.getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = open(path);
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+        InputStream in = connection.getInputStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        connection.disconnect();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Samples by name with labels, comment lines are checked to be HELP or TYPE
+     */
+    private static Map<String, Double> parse(String text) {
+        Map<String, Double> samples = new HashMap<String, Double>();
+        for (String line : text.split("\n")) {
+            if (line.startsWith("#")) {
+                assertTrue(line, line.startsWith("# HELP ") || line.startsWith("# TYPE "));
+                continue;
+            }
+            int space = line.lastIndexOf(' ');
+            samples.put(line.substring(0, space), Double.parseDouble(line.substring(space + 1)));
+        }
+        return samples;
+    }
+}
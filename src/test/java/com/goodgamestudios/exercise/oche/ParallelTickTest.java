@@ -0,0 +1,114 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.ecs.Archetypes;
+import com.goodgamestudios.exercise.oche.ecs.CollisionSystem;
+import com.goodgamestudios.exercise.oche.ecs.Components;
+import com.goodgamestudios.exercise.oche.ecs.MovementSystem;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for parallel movement and collision of entity-component-system core,
+ * parallel tick should give exactly the same world as serial one
+ */
+public class ParallelTickTest {
+    private static final int ENTITY_COUNT = 4000;
+    private static final int TICK_COUNT = 50;
+
+    @Test
+    public void parallelTickShouldMatchSerialTickTest() {
+        World serialWorld = createWorld();
+        World parallelWorld = createWorld();
+        MovementSystem serialMovement = new MovementSystem();
+        CollisionSystem serialCollision = new CollisionSystem();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        MovementSystem parallelMovement = new MovementSystem(pool, 0);
+        CollisionSystem parallelCollision = new CollisionSystem(pool, 0);
+        RecordingListener serialListener = new RecordingListener();
+        RecordingListener parallelListener = new RecordingListener();
+
+        long hits = 0;
+        for (int tick = 0; tick < TICK_COUNT; tick++) {
+            assertEquals(serialMovement.update(serialWorld, 10), parallelMovement.update(parallelWorld, 10));
+            serialCollision.update(serialWorld, serialListener);
+            parallelCollision.update(parallelWorld, parallelListener);
+            assertEquals(serialCollision.getHits(), parallelCollision.getHits());
+            assertEquals(serialCollision.getPairsTested(), parallelCollision.getPairsTested());
+            hits += serialCollision.getHits();
+            serialWorld.flush();
+            parallelWorld.flush();
+            assertSameWorld(serialWorld, parallelWorld);
+        }
+        pool.shutdown();
+
+        assertTrue("Entities should collide", hits > 0);
+        assertEquals(serialListener.damagedIds, parallelListener.damagedIds);
+    }
+
+    @Test
+    public void gridShouldFindTheSameHitsAsAllPairsTest() {
+        World world = new World();
+        int alien = Archetypes.createAlien(world, 100, 100);
+        int alienId = world.idAt(alien);
+        // shot at the cell edge and shot far away
+        Archetypes.createShot(world, Components.KIND_SHOT, 120, 110);
+        Archetypes.createShot(world, Components.KIND_SHOT, 700, 500);
+        // alien shot overlapping alien does not hurt it
+        Archetypes.createShot(world, Components.KIND_ALIEN_SHOT, 100, 100);
+        RecordingListener listener = new RecordingListener();
+
+        CollisionSystem collisionSystem = new CollisionSystem();
+        collisionSystem.update(world, listener);
+        world.flush();
+
+        assertEquals(1, collisionSystem.getHits());
+        assertEquals(World.NO_ENTITY, world.indexOf(alienId));
+        assertEquals(2, world.size());
+        assertEquals(1, listener.damagedIds.size());
+    }
+
+    private static World createWorld() {
+        Random random = new Random(42);
+        World world = new World();
+        Archetypes.createShip(world, 370, 550);
+        for (int i = 1; i < ENTITY_COUNT; i++) {
+            int x = random.nextInt(800);
+            int y = random.nextInt(600);
+            int kind = random.nextInt(3);
+            if (kind == 0) {
+                Archetypes.createAlien(world, x, y);
+            } else {
+                Archetypes.createShot(world, kind == 1 ? Components.KIND_SHOT : Components.KIND_ALIEN_SHOT, x, y);
+            }
+        }
+        return world;
+    }
+
+    private static void assertSameWorld(World expected, World actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.idAt(i), actual.idAt(i));
+            assertEquals(expected.getKind(i), actual.getKind(i));
+            assertEquals(expected.getX(i), actual.getX(i), 0);
+            assertEquals(expected.getY(i), actual.getY(i), 0);
+            assertEquals(expected.getHealth(i), actual.getHealth(i));
+        }
+    }
+
+    private static class RecordingListener implements CollisionSystem.DamageListener {
+        private final List<Integer> damagedIds = new ArrayList<Integer>();
+
+        @Override
+        public void entityDamaged(World world, int index, boolean lethal) {
+            this.damagedIds.add(lethal ? -world.idAt(index) - 1 : world.idAt(index));
+        }
+    }
+}
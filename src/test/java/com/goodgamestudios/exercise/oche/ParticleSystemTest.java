@@ -0,0 +1,95 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.particles.ParticleSystem;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for ParticleSystem
+ */
+public class ParticleSystemTest {
+    private static final long TICK_DELTA = 10;
+
+    @Test
+    public void particlesShouldFadeOutTest() {
+        ParticleSystem particles = new ParticleSystem();
+        particles.spawnExplosion(400, 300);
+        particles.spawnHit(100, 100);
+        particles.update(TICK_DELTA);
+        assertTrue(particles.getAliveCount() > 0);
+
+        for (int i = 0; i < 100; i++) {
+            particles.update(TICK_DELTA);
+        }
+        assertEquals(0, particles.getAliveCount());
+    }
+
+    @Test
+    public void fullRingShouldReplaceOldestParticlesTest() {
+        ParticleSystem particles = new ParticleSystem(64);
+        for (int i = 0; i < 20; i++) {
+            particles.spawnExplosion(i * 10, 300);
+        }
+        particles.update(TICK_DELTA);
+        assertEquals(64, particles.getAliveCount());
+    }
+
+    @Test
+    public void particlesShouldBeDrawnTest() {
+        ParticleSystem particles = new ParticleSystem();
+        particles.spawnExplosion(400, 300);
+        particles.update(TICK_DELTA);
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        particles.draw(graphics);
+        graphics.dispose();
+
+        int painted = 0;
+        for (int y = 250; y < 350; y++) {
+            for (int x = 350; x < 450; x++) {
+                if (image.getRGB(x, y) != Color.black.getRGB()) {
+                    painted++;
+                }
+            }
+        }
+        assertTrue("Explosion should be drawn around its center", painted > 0);
+    }
+
+    @Test
+    public void spawnAndUpdateShouldNotAllocateTest() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        ParticleSystem particles = new ParticleSystem();
+        for (int i = 0; i < 20000; i++) {
+            particles.spawnExplosion(i % 800, 300);
+            particles.update(TICK_DELTA);
+        }
+        // the counter call itself could allocate, its cost is subtracted from the measurement
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            long after = threadBean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, after - before);
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            particles.spawnExplosion(i % 800, 300);
+            particles.spawnHit(i % 800, 500);
+            particles.update(TICK_DELTA);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+        assertEquals("Particles should not allocate", 0, allocated);
+    }
+}
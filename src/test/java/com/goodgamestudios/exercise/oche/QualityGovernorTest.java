@@ -0,0 +1,84 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.metrics.QualityGovernor;
+import com.goodgamestudios.exercise.oche.metrics.QualityLevel;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for QualityGovernor, quality should go down step by step under frame time pressure
+ * and come back only after frames stay calm for a while
+ */
+public class QualityGovernorTest {
+    private static final long BUDGET = 16000000L;
+    private static final long SLOW_FRAME = 25000000L;
+    private static final long FAST_FRAME = 10000000L;
+    //Over the recovery share of the budget, but within the budget
+    private static final long BUSY_FRAME = 14000000L;
+
+    private QualityGovernor governor;
+
+    @Before
+    public void setUp() {
+        this.governor = new QualityGovernor(BUDGET);
+    }
+
+    @Test
+    public void slowFramesShouldDegradeQualityStepByStepTest() {
+        assertEquals(QualityLevel.FULL, this.governor.getQualityLevel());
+        assertTrue(playWindow(SLOW_FRAME));
+        assertEquals(QualityLevel.NO_EFFECTS, this.governor.getQualityLevel());
+        assertEquals(25.0, this.governor.getFramePercentileMillis(), 0.001);
+        assertTrue(this.governor.getLastDecision().contains("NO_EFFECTS"));
+
+        for (int i = 0; i < 10; i++) {
+            playWindow(SLOW_FRAME);
+        }
+        assertEquals(QualityLevel.CAPPED_ALIEN_FIRE, this.governor.getQualityLevel());
+        assertEquals(QualityLevel.values().length - 1, this.governor.getDegradeCount());
+        assertTrue(this.governor.getQualityLevel().isAtLeast(QualityLevel.HALF_RENDER_RATE));
+    }
+
+    @Test
+    public void fewSlowFramesShouldNotDegradeQualityTest() {
+        // 5 frames of 120 are slow, so p95 is still within the budget
+        for (int i = 0; i < QualityGovernor.WINDOW; i++) {
+            assertFalse(this.governor.recordFrame(i % 24 == 0 ? SLOW_FRAME : FAST_FRAME));
+        }
+        assertEquals(QualityLevel.FULL, this.governor.getQualityLevel());
+    }
+
+    @Test
+    public void qualityShouldRecoverWithHysteresisTest() {
+        playWindow(SLOW_FRAME);
+        playWindow(SLOW_FRAME);
+        assertEquals(QualityLevel.HALF_RENDER_RATE, this.governor.getQualityLevel());
+
+        // frames within the budget, but not well below it, keep quality where it is
+        for (int i = 0; i < 5; i++) {
+            assertFalse(playWindow(BUSY_FRAME));
+        }
+        assertFalse(playWindow(FAST_FRAME));
+        assertFalse(playWindow(FAST_FRAME));
+        // busy window breaks the calm series
+        assertFalse(playWindow(BUSY_FRAME));
+        for (int i = 1; i < QualityGovernor.RECOVERY_WINDOWS; i++) {
+            assertFalse(playWindow(FAST_FRAME));
+        }
+        assertTrue(playWindow(FAST_FRAME));
+        assertEquals(QualityLevel.NO_EFFECTS, this.governor.getQualityLevel());
+        assertEquals(1, this.governor.getRecoverCount());
+    }
+
+    private boolean playWindow(long frameNanos) {
+        boolean changed = false;
+        for (int i = 0; i < QualityGovernor.WINDOW; i++) {
+            changed |= this.governor.recordFrame(frameNanos);
+        }
+        return changed;
+    }
+}
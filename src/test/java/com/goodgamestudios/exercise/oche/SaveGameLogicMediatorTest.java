@@ -0,0 +1,142 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.BossEntity;
+import com.goodgamestudios.exercise.oche.entities.Bunker;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.SaveGameLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.StateLogicMediator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for SaveGameLogicMediator
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SaveGameLogicMediatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Game game;
+
+    @Test
+    public void savedGameShouldBeRestoredTest() throws Exception {
+        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
+        entityMediator.clearAllGameEntities();
+        entityMediator.initEntities(game);
+        BossEntity boss = new BossEntity(game, 50, 24);
+        boss.setPartHealth(1, 0);
+        entityMediator.getAllEntities().add(boss);
+        entityMediator.addShot(new ShotEntity(game, 123, 456));
+        entityMediator.notifyAlienKilled();
+        entityMediator.getShip().decreaseLifeCount();
+        StateLogicMediator.getInstance().setScore(17);
+        Bunker bunker = entityMediator.getBunkers()[1];
+        assertTrue(bunker.erode(bunker.getX() + 20, bunker.getY() - 10, 12, 23, true));
+        int bunkerPixels = bunker.getPixelCount();
+
+        SaveGameLogicMediator saveMediator = SaveGameLogicMediator.getInstance();
+        saveMediator.init(game, folder.getRoot());
+        assertTrue("Game should be saved", saveMediator.save());
+
+        int entityCount = entityMediator.getAllEntities().size();
+        double speedMultiplier = entityMediator.getAlienSpeedMultiplier();
+        entityMediator.clearAllGameEntities();
+        entityMediator.initEntities(game);
+        StateLogicMediator.getInstance().resetScore();
+
+        assertTrue("Game should be loaded", saveMediator.load());
+        List<Entity> restored = entityMediator.getAllEntities();
+        assertEquals(entityCount, restored.size());
+        assertEquals(speedMultiplier, entityMediator.getAlienSpeedMultiplier(), 0);
+        assertEquals(4, entityMediator.getShip().lifeLeft());
+        assertEquals(17, StateLogicMediator.getInstance().getScore());
+        assertEquals(bunkerPixels, entityMediator.getBunkers()[1].getPixelCount());
+        BossEntity restoredBoss = (BossEntity) restored.get(restored.size() - 2);
+        assertEquals(50, restoredBoss.getX());
+        assertEquals(0, restoredBoss.getPartHealth(1));
+        assertEquals(boss.getPartHealth(2), restoredBoss.getPartHealth(2));
+        Entity shot = restored.get(restored.size() - 1);
+        assertTrue(shot instanceof ShotEntity);
+        assertEquals(123, shot.getX());
+        assertEquals(456, shot.getY());
+        assertTrue("Restored game should be paused", shot.isPaused());
+
+        saveMediator.delete();
+        assertFalse(saveMediator.hasSavedGame());
+    }
+
+    @Test
+    public void corruptedEntityCountShouldNotBeLoadedTest() throws Exception {
+        ByteBuffer data = ByteBuffer.allocate(27);
+        data.putInt(0x41445356).putShort((short) 3).put((byte) 0).putInt(17).putInt(3).putDouble(1);
+        data.putInt(Integer.MAX_VALUE);
+        Files.write(new File(folder.getRoot(), "game.sav").toPath(), data.array());
+
+        SaveGameLogicMediator saveMediator = SaveGameLogicMediator.getInstance();
+        saveMediator.init(game, folder.getRoot());
+        assertTrue(saveMediator.hasSavedGame());
+        assertFalse("Corrupted game should not be loaded", saveMediator.load());
+    }
+
+    @Test
+    public void truncatedSaveShouldLeaveGameUntouchedTest() throws Exception {
+        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
+        entityMediator.clearAllGameEntities();
+        entityMediator.initEntities(game);
+        SaveGameLogicMediator saveMediator = SaveGameLogicMediator.getInstance();
+        saveMediator.init(game, folder.getRoot());
+        assertTrue("Game should be saved", saveMediator.save());
+        // the last bunker word is cut off, entities before it are complete
+        Path saveFile = new File(folder.getRoot(), "game.sav").toPath();
+        byte[] saved = Files.readAllBytes(saveFile);
+        Files.write(saveFile, Arrays.copyOf(saved, saved.length - 8));
+
+        ShotEntity shot = new ShotEntity(game, 123, 456);
+        entityMediator.addShot(shot);
+        int entityCount = entityMediator.getAllEntities().size();
+        assertFalse("Truncated game should not be loaded", saveMediator.load());
+        assertEquals(entityCount, entityMediator.getAllEntities().size());
+        assertTrue(entityMediator.getAllEntities().contains(shot));
+    }
+
+    @Test
+    public void wrongBossPartHealthShouldNotBeLoadedTest() throws Exception {
+        EntityLogicMediator entityMediator = EntityLogicMediator.getInstance();
+        entityMediator.clearAllGameEntities();
+        entityMediator.initEntities(game);
+        entityMediator.getAllEntities().add(new BossEntity(game, 50, 24));
+        SaveGameLogicMediator saveMediator = SaveGameLogicMediator.getInstance();
+        saveMediator.init(game, folder.getRoot());
+        assertTrue("Game should be saved", saveMediator.save());
+        // health of the last turret is the last byte of the save
+        Path saveFile = new File(folder.getRoot(), "game.sav").toPath();
+        byte[] saved = Files.readAllBytes(saveFile);
+        saved[saved.length - 1] = -1;
+        Files.write(saveFile, saved);
+
+        entityMediator.clearAllGameEntities();
+        entityMediator.initEntities(game);
+        int entityCount = entityMediator.getAllEntities().size();
+        assertFalse("Game with wrong boss should not be loaded", saveMediator.load());
+        assertEquals(entityCount, entityMediator.getAllEntities().size());
+    }
+}
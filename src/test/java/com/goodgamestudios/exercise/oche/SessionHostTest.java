@@ -0,0 +1,69 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.session.ReplayPlayer;
+import com.goodgamestudios.exercise.oche.session.Session;
+import com.goodgamestudios.exercise.oche.session.SessionHost;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for SessionHost and Session, sessions should be independent of each other
+ * and of the main game
+ */
+public class SessionHostTest {
+    private static final int SESSION_COUNT = 200;
+    private static final long RUN_MILLIS = 1500;
+
+    @Test
+    public void sessionsWithTheSameSeedShouldPlayTheSameGameTest() {
+        int[] controls = ReplayPlayer.recordRandomPlay(new Random(7), 3000);
+        Session first = new Session(0, new ReplayPlayer(controls), 42);
+        Session second = new Session(1, new ReplayPlayer(controls), 42);
+        assertNotSame(first.getGame().getKeyInputLogicMediator(), second.getGame().getKeyInputLogicMediator());
+        assertNotSame(KeyInputLogicMediator.getInstance(), first.getGame().getKeyInputLogicMediator());
+
+        // advance in different steps to the same game time
+        for (long now = 0; now <= 60000; now += 1000) {
+            first.advance(now, Integer.MAX_VALUE);
+        }
+        for (long now = 0; now <= 60000; now += 10) {
+            second.advance(now, Integer.MAX_VALUE);
+        }
+
+        assertEquals(6000, first.getTicks());
+        assertEquals(first.getTicks(), second.getTicks());
+        assertEquals(first.getGamesFinished(), second.getGamesFinished());
+        assertEquals(first.getBestScore(), second.getBestScore());
+        assertEquals(first.getGame().getStateLogicMediator().getScore(),
+                second.getGame().getStateLogicMediator().getScore());
+        assertEquals(first.getGame().getEntityLogic().getEntityCount(),
+                second.getGame().getEntityLogic().getEntityCount());
+        assertTrue("Aliens should be shot", first.getBestScore() > 0
+                || first.getGame().getStateLogicMediator().getScore() > 0);
+    }
+
+    @Test
+    public void hostShouldAdvanceAllSessionsTest() throws InterruptedException {
+        SessionHost host = new SessionHost(2);
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            host.addSession(new ReplayPlayer(ReplayPlayer.recordRandomPlay(new Random(i), 1000)), i);
+        }
+        host.start();
+        Thread.sleep(RUN_MILLIS);
+        host.stop();
+
+        SessionHost.Report report = host.report();
+        assertEquals(SESSION_COUNT, report.getSessionCount());
+        assertEquals(SESSION_COUNT, report.getLagHistogram().getCount());
+        assertTrue("Sessions should be ticked", report.getTicksPerSecond() > 0);
+        for (Session session : host.getSessions()) {
+            assertTrue("Every session should be ticked", session.getTicks() > 0);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotDecoder;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotEncoder;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for SnapshotEncoder and SnapshotDecoder, decoded states should match the played game
+ */
+public class SnapshotCodecTest {
+    private static final long TICK_DELTA = 10;
+    private static final int TICK_COUNT = 20000;
+    private static final int MEASURED_TICKS = 5000;
+    private static final int KEYFRAME_PERIOD = 1000;
+    //Size of entity in the full snapshot format: int id, byte kind, short x, short y
+    private static final int FULL_ENTITY_SIZE = 9;
+
+    @Test
+    public void decodedStatesShouldMatchGameTest() {
+        Game game = createGame();
+        Random random = new Random(7);
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long deltaBytes = 0;
+        long fullBytes = 0;
+        for (int tick = 1; tick <= TICK_COUNT; tick++) {
+            play(game, random);
+            if (tick % KEYFRAME_PERIOD == 0) {
+                encoder.reset();
+            }
+            buffer.clear();
+            int size = encoder.encode(buffer, tick, game);
+            assertEquals(size, buffer.position());
+            buffer.flip();
+            decoder.decode(buffer);
+            assertFalse("Frame should be read to the end", buffer.hasRemaining());
+            assertEquals(tick == 1 || tick % KEYFRAME_PERIOD == 0, decoder.isKeyframe());
+            assertState(game, tick, decoder);
+            if (!decoder.isKeyframe()) {
+                deltaBytes += size;
+                fullBytes += decoder.getEntityCount() * FULL_ENTITY_SIZE;
+            }
+        }
+        assertTrue("Delta frames should be much smaller than full ones, " + deltaBytes + " of " + fullBytes,
+                deltaBytes * 4 < fullBytes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void deltaFrameWithoutKeyframeShouldFailTest() {
+        Game game = createGame();
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        encoder.encode(buffer, 1, game);
+        buffer.clear();
+        game.tick(TICK_DELTA);
+        encoder.encode(buffer, 2, game);
+        buffer.flip();
+        new SnapshotDecoder().decode(buffer);
+    }
+
+    @Test
+    public void encodingShouldNotAllocateTest() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        Game game = createGame();
+        Random random = new Random(7);
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (int tick = 1; tick <= TICK_COUNT; tick++) {
+            play(game, random);
+            buffer.clear();
+            encoder.encode(buffer, tick, game);
+            buffer.flip();
+            decoder.decode(buffer);
+        }
+
+        // the counter call itself could allocate, its cost is subtracted from every measurement
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            long after = threadBean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, after - before);
+        }
+        long worstFrame = 0;
+        for (int tick = TICK_COUNT + 1; tick <= TICK_COUNT + MEASURED_TICKS; tick++) {
+            play(game, random);
+            buffer.clear();
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            encoder.encode(buffer, tick, game);
+            buffer.flip();
+            decoder.decode(buffer);
+            worstFrame = Math.max(worstFrame, threadBean.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+        assertEquals("Encoding and decoding should not allocate", 0, worstFrame);
+    }
+
+    private static Game createGame() {
+        Game game = Game.createSession(new Random(42));
+        game.initGame();
+        game.getKeyInputLogicMediator().restart();
+        return game;
+    }
+
+    private static void play(Game game, Random random) {
+        KeyInputLogicMediator controls = game.getKeyInputLogicMediator();
+        if (controls.isWaitingForKeyPress()) {
+            controls.restart();
+        } else {
+            controls.setControls(KeyInputLogicMediator.CONTROL_FIRE
+                    | (random.nextBoolean() ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT));
+        }
+        game.tick(TICK_DELTA);
+    }
+
+    private static void assertState(Game game, int tick, SnapshotDecoder decoder) {
+        World world = ((EcsLogicMediator) game.getEntityLogic()).getWorld();
+        assertEquals(tick, decoder.getTick());
+        assertEquals(game.getStateLogicMediator().getScore(), decoder.getScore());
+        assertEquals(game.getEntityLogic().getPlayerLifeCount(), decoder.getLifeCount());
+        int count = 0;
+        for (int i = 0; i < world.size(); i++) {
+            if (world.isDestroyed(i)) {
+                continue;
+            }
+            int id = world.idAt(i);
+            assertTrue("Entity " + id + " should be decoded", decoder.contains(id));
+            assertEquals(world.getKind(i), decoder.getKind(id));
+            assertEquals((int) world.getX(i), decoder.getX(id));
+            assertEquals((int) world.getY(i), decoder.getY(id));
+            count++;
+        }
+        assertEquals(count, decoder.getEntityCount());
+    }
+}
@@ -0,0 +1,24 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.bot.SoakRunner;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for SoakRunner and BotPlayer, a few games are played to the end
+ */
+public class SoakRunnerTest {
+    private static final int GAME_COUNT = 3;
+    private static final long TIME_LIMIT = 60 * 1000;
+
+    @Test
+    public void botShouldPlayGamesToTheEndTest() {
+        SoakRunner.Report report = new SoakRunner(GAME_COUNT, TIME_LIMIT, null).run();
+
+        assertEquals(GAME_COUNT, report.getGamesPlayed());
+        assertEquals(report.getTicks(), report.getFrameHistogram().getCount());
+        assertTrue("Every game should be saved to attempt log", report.getHighScoreWrites() >= GAME_COUNT);
+    }
+}
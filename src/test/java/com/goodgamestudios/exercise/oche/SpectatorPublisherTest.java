@@ -0,0 +1,185 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.ecs.EcsLogicMediator;
+import com.goodgamestudios.exercise.oche.ecs.World;
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import com.goodgamestudios.exercise.oche.net.SpectatorPublisher;
+import com.goodgamestudios.exercise.oche.snapshot.SnapshotDecoder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for SpectatorPublisher, loopback spectators should follow the game
+ * and stalled one should not hold the game loop
+ */
+public class SpectatorPublisherTest {
+    private static final int SPECTATOR_COUNT = 300;
+    private static final long TICK_DELTA = 10;
+    //Ticks published as fast as possible, spectators fall behind and are dropped to keyframes
+    private static final int BURST_TICKS = 2000;
+    //Ticks published in real time
+    private static final int PACED_TICKS = 50;
+    private static final long CATCH_UP_MILLIS = 10000;
+    private static final long NANOS_IN_MILLI = 1000000;
+    private static final int STALLED_RECEIVE_BUFFER_SIZE = 1024;
+    //Publisher accepts spectators when it publishes, so they join in batches between ticks
+    private static final int JOIN_BATCH = 16;
+
+    /**
+     * Spectator connection reading and decoding the stream
+     */
+    private static class Spectator {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final SnapshotDecoder decoder = new SnapshotDecoder();
+        private volatile int lastTick;
+
+        Spectator(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (this.channel.read(this.buffer) < 0) {
+                throw new IOException("Publisher closed connection");
+            }
+            this.buffer.flip();
+            while (this.buffer.remaining() >= Integer.BYTES
+                    && this.buffer.remaining() >= Integer.BYTES + this.buffer.getInt(this.buffer.position())) {
+                int length = this.buffer.getInt();
+                int frameEnd = this.buffer.position() + length;
+                this.decoder.decode(this.buffer);
+                assertEquals(frameEnd, this.buffer.position());
+                this.lastTick = this.decoder.getTick();
+            }
+            this.buffer.compact();
+        }
+    }
+
+    @Test
+    public void spectatorsShouldFollowGameTest() throws Exception {
+        Game game = Game.createSession(new Random(42));
+        game.initGame();
+        KeyInputLogicMediator controls = game.getKeyInputLogicMediator();
+        controls.restart();
+        SpectatorPublisher publisher = new SpectatorPublisher(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), game);
+        publisher.bind();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), publisher.getPort());
+
+        final Selector selector = Selector.open();
+        final Spectator[] spectators = new Spectator[SPECTATOR_COUNT];
+        for (int i = 0; i < SPECTATOR_COUNT; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            spectators[i] = new Spectator(channel);
+            channel.register(selector, SelectionKey.OP_READ, spectators[i]);
+            if (i % JOIN_BATCH == JOIN_BATCH - 1) {
+                publisher.publish(0);
+            }
+        }
+        // connected, but never reads
+        SocketChannel stalled = SocketChannel.open();
+        stalled.socket().setReceiveBufferSize(STALLED_RECEIVE_BUFFER_SIZE);
+        stalled.connect(address);
+
+        final Throwable[] readerError = new Throwable[1];
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        selector.select(TICK_DELTA);
+                        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                        while (keys.hasNext()) {
+                            SelectionKey key = keys.next();
+                            keys.remove();
+                            ((Spectator) key.attachment()).read();
+                        }
+                    }
+                } catch (Throwable e) {
+                    readerError[0] = e;
+                }
+            }
+        }, "spectators");
+        reader.start();
+
+        Random random = new Random(7);
+        int tick = 0;
+        long longestPublish = 0;
+        int subscriberCount;
+        try {
+            for (int i = 0; i < BURST_TICKS + PACED_TICKS; i++) {
+                if (controls.isWaitingForKeyPress()) {
+                    controls.restart();
+                } else {
+                    controls.setControls(KeyInputLogicMediator.CONTROL_FIRE
+                            | (random.nextBoolean() ? KeyInputLogicMediator.CONTROL_LEFT : KeyInputLogicMediator.CONTROL_RIGHT));
+                }
+                game.tick(TICK_DELTA);
+                long start = System.nanoTime();
+                publisher.publish(++tick);
+                longestPublish = Math.max(longestPublish, System.nanoTime() - start);
+                if (i >= BURST_TICKS) {
+                    Thread.sleep(TICK_DELTA);
+                }
+            }
+            // idle ticks let spectators which were dropped get keyframe of the final state
+            long deadline = System.currentTimeMillis() + CATCH_UP_MILLIS;
+            while (!allCaughtUp(spectators, tick) && System.currentTimeMillis() < deadline
+                    && readerError[0] == null) {
+                publisher.publish(tick);
+                Thread.sleep(TICK_DELTA);
+            }
+            subscriberCount = publisher.getSubscriberCount();
+        } finally {
+            reader.interrupt();
+            reader.join();
+            publisher.close();
+            selector.close();
+            stalled.close();
+        }
+
+        assertEquals(null, readerError[0]);
+        assertEquals(SPECTATOR_COUNT + 1, subscriberCount);
+        assertTrue("Stalled spectator should be dropped to keyframes", publisher.getSlowDrops() > 0);
+        World world = ((EcsLogicMediator) game.getEntityLogic()).getWorld();
+        for (Spectator spectator : spectators) {
+            assertEquals(tick, spectator.lastTick);
+            assertEquals(game.getStateLogicMediator().getScore(), spectator.decoder.getScore());
+            assertEquals(world.size(), spectator.decoder.getEntityCount());
+            for (int i = 0; i < world.size(); i++) {
+                int id = world.idAt(i);
+                assertTrue(spectator.decoder.contains(id));
+                assertEquals((int) world.getX(i), spectator.decoder.getX(id));
+                assertEquals((int) world.getY(i), spectator.decoder.getY(id));
+            }
+        }
+
+        long cpuPerTick = publisher.getPublishCpuNanos() / publisher.getFramesPublished();
+        assertTrue("Publisher CPU per tick " + cpuPerTick / 1000 + " us should fit into the tick",
+                cpuPerTick < TICK_DELTA * NANOS_IN_MILLI);
+        assertTrue("Publish should never block on spectators, longest took " + longestPublish / NANOS_IN_MILLI + " ms",
+                longestPublish < 1000 * NANOS_IN_MILLI);
+    }
+
+    private static boolean allCaughtUp(Spectator[] spectators, int tick) {
+        for (Spectator spectator : spectators) {
+            if (spectator.lastTick != tick) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
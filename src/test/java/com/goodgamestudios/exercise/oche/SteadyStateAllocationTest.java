@@ -0,0 +1,90 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.KeyInputLogicMediator;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Regression harness for allocations of the game tick.
+ * Headless game is played with the fire key held, after warm-up every tick is measured by
+ * thread allocation counter and must stay within the budget. Ticks where game is over and restarted
+ * are not measured, as new attempt is saved then. A single tick could see a one-off allocation of the runtime
+ * itself, like objects brought back by deoptimisation, so one such tick is tolerated, while allocation of the game
+ * repeats and shows up in many ticks.
+ */
+public class SteadyStateAllocationTest {
+    private static final long TICK_DELTA = 10;
+    private static final int WARM_UP_TICKS = 30000;
+    private static final int MEASURED_TICKS = 5000;
+    private static final long TICK_BYTES_BUDGET = 0;
+    //Number of measured ticks which could go over the budget, one-off allocation of the runtime only
+    private static final int ALLOCATING_TICKS_BUDGET = 1;
+
+    @Test
+    public void steadyStateTickShouldNotAllocateTest() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        Game game = Game.createHeadless();
+        game.initGame();
+        KeyInputLogicMediator keyInput = KeyInputLogicMediator.getInstance();
+        restart(keyInput);
+
+        for (int i = 0; i < WARM_UP_TICKS; i++) {
+            tick(game, keyInput);
+        }
+
+        // the counter call itself could allocate, its cost is subtracted from every measurement
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            long after = threadBean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, after - before);
+        }
+
+        int measured = 0;
+        long worstTick = 0;
+        int allocatingTicks = 0;
+        while (measured < MEASURED_TICKS) {
+            if (keyInput.isWaitingForKeyPress()) {
+                restart(keyInput);
+                continue;
+            }
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            game.tick(TICK_DELTA);
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+            if (keyInput.isWaitingForKeyPress()) {
+                // game is over in this tick, attempt is saved, so tick is not steady
+                continue;
+            }
+            if (allocated > TICK_BYTES_BUDGET) {
+                allocatingTicks++;
+                worstTick = Math.max(worstTick, allocated);
+            }
+            measured++;
+        }
+        assertTrue(allocatingTicks + " ticks allocated up to " + worstTick + " bytes, budget is "
+                + TICK_BYTES_BUDGET + " bytes", allocatingTicks <= ALLOCATING_TICKS_BUDGET);
+    }
+
+    private static void tick(Game game, KeyInputLogicMediator keyInput) {
+        if (keyInput.isWaitingForKeyPress()) {
+            restart(keyInput);
+        }
+        game.tick(TICK_DELTA);
+    }
+
+    private static void restart(KeyInputLogicMediator keyInput) {
+        keyInput.setStartState();
+        keyInput.setWaitingForKeyPress(false);
+        keyInput.setFirePressed(true);
+    }
+}
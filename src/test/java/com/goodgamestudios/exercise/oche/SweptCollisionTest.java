@@ -0,0 +1,161 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.Bunker;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This is unit test for swept collisions, long ticks should not carry shots over their targets
+ * and hits should be resolved in order of time of impact
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SweptCollisionTest {
+    private static final long NORMAL_TICK = 10;
+    private static final long LONG_TICK = 600;
+    private static final int ALIEN_X = 300;
+    private static final int NEAR_ALIEN_Y = 300;
+    private static final int FAR_ALIEN_Y = 200;
+    //Shot aimed at the center of aliens, it flies 180 px up in the long tick
+    private static final int SHOT_X = 315;
+    private static final int SHOT_Y = 380;
+
+    @Mock
+    private Game game;
+
+    private EntityLogicMediator entityMediator;
+
+    @Before
+    public void setUp() {
+        this.entityMediator = EntityLogicMediator.getInstance();
+        when(game.getEntityMediator()).thenReturn(this.entityMediator);
+    }
+
+    @Test
+    public void slowEntitiesShouldBeTestedAtTheirLocationsTest() {
+        AlienEntity alien = createAlien(NEAR_ALIEN_Y);
+        ShotEntity shot = new ShotEntity(game, SHOT_X, NEAR_ALIEN_Y + 40);
+        shot.markPreviousLocation();
+        shot.move(NORMAL_TICK);
+        assertFalse(shot.isFast());
+        assertEquals(Entity.NO_IMPACT, shot.timeOfImpact(alien), 0);
+
+        shot.setLocation(SHOT_X, NEAR_ALIEN_Y + 20);
+        assertEquals(Entity.END_OF_TICK, shot.timeOfImpact(alien), 0);
+        assertEquals(Entity.END_OF_TICK, alien.timeOfImpact(shot), 0);
+    }
+
+    @Test
+    public void longTickShouldNotCarryShotOverAlienTest() {
+        AlienEntity alien = createAlien(NEAR_ALIEN_Y);
+        ShotEntity shot = new ShotEntity(game, SHOT_X, SHOT_Y);
+        ShotEntity besideShot = new ShotEntity(game, SHOT_X + 60, SHOT_Y);
+        shot.markPreviousLocation();
+        shot.move(LONG_TICK);
+        besideShot.markPreviousLocation();
+        besideShot.move(LONG_TICK);
+
+        // the shot is above the alien after the tick
+        assertTrue(shot.getY() + 23 < NEAR_ALIEN_Y);
+        assertTrue(shot.isFast());
+        // shot top reaches alien bottom after (380 - 329) / 180 of the tick
+        assertEquals(51.0 / 180, shot.timeOfImpact(alien), 0.01);
+        assertEquals(51.0 / 180, alien.timeOfImpact(shot), 0.01);
+        assertTrue(alien.collidesWith(shot));
+        assertEquals(Entity.NO_IMPACT, besideShot.timeOfImpact(alien), 0);
+    }
+
+    @Test
+    public void fastShotShouldKillFirstAlienOnItsPathTest() {
+        AlienEntity farAlien = createAlien(FAR_ALIEN_Y);
+        AlienEntity nearAlien = createAlien(NEAR_ALIEN_Y);
+        ShotEntity shot = new ShotEntity(game, SHOT_X, SHOT_Y);
+        List<Entity> entities = new ArrayList<Entity>();
+        entities.add(new ShipEntity(game, 370, 550));
+        // the far alien is tested first, but the shot reaches the near one earlier
+        entities.add(farAlien);
+        entities.add(nearAlien);
+        entities.add(shot);
+        this.entityMediator.restoreEntities(game, entities, 1);
+
+        this.entityMediator.moveAllEntities(LONG_TICK);
+        this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        assertEquals(2, this.entityMediator.getCollisionHits());
+        assertTrue(nearAlien.isDisposed());
+        assertFalse(farAlien.isDisposed());
+        assertTrue(this.entityMediator.getAllEntities().contains(farAlien));
+        verify(game, times(1)).notifyAlienKilled();
+    }
+
+    @Test
+    public void bunkerShouldStopAlienShotBeforeShipTest() {
+        for (Bunker bunker : this.entityMediator.getBunkers()) {
+            bunker.reset();
+        }
+        // the shot is above the second bunker and flies 180 px down in the long tick, past the bunker onto the ship
+        AlienShotEntity alienShot = new AlienShotEntity(game, 315, 400);
+        ShipEntity ship = new ShipEntity(game, 300, 550);
+        List<Entity> entities = new ArrayList<Entity>();
+        entities.add(ship);
+        entities.add(alienShot);
+        this.entityMediator.restoreEntities(game, entities, 1);
+
+        this.entityMediator.moveAllEntities(LONG_TICK);
+        assertTrue(alienShot.timeOfImpact(ship) != Entity.NO_IMPACT);
+        this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        assertTrue(alienShot.isDisposed());
+        verify(game, never()).notifyPlayerHit();
+        assertFalse(this.entityMediator.getAllEntities().contains(alienShot));
+    }
+
+    @Test
+    public void shipAboveBunkerShouldStopAlienShotBeforeBunkerTest() {
+        for (Bunker bunker : this.entityMediator.getBunkers()) {
+            bunker.reset();
+        }
+        // the ship flies above the bunker line, the shot passes the ship first and would reach the bunker later
+        AlienShotEntity alienShot = new AlienShotEntity(game, 315, 300);
+        ShipEntity ship = new ShipEntity(game, 300, 400);
+        List<Entity> entities = new ArrayList<Entity>();
+        entities.add(ship);
+        entities.add(alienShot);
+        this.entityMediator.restoreEntities(game, entities, 1);
+        Bunker bunker = this.entityMediator.getBunkers()[1];
+        int pixelCount = bunker.getPixelCount();
+
+        this.entityMediator.moveAllEntities(LONG_TICK);
+        this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        assertTrue(alienShot.isDisposed());
+        verify(game, times(1)).notifyPlayerHit();
+        assertEquals(pixelCount, bunker.getPixelCount());
+    }
+
+    private AlienEntity createAlien(int y) {
+        AlienEntity alien = new AlienEntity(game, ALIEN_X, y);
+        // aliens keep still, so only the shot moves
+        alien.setPaused(true);
+        return alien;
+    }
+}
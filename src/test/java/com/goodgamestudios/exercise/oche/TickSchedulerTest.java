@@ -0,0 +1,174 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.logic.TickScheduler;
+import com.goodgamestudios.exercise.oche.logic.TickSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is unit test for TickScheduler, systems should run at their own rates, low-rate ones spread across ticks
+ */
+public class TickSchedulerTest {
+    private static final long TICK = 10;
+    private static final long BUDGET_NANOS = 1000000000L;
+
+    private TickScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        this.scheduler = new TickScheduler(BUDGET_NANOS);
+    }
+
+    @Test
+    public void systemsShouldRunAtTheirRatesTest() {
+        CountingSystem everyTick = new CountingSystem();
+        CountingSystem fire = new CountingSystem();
+        this.scheduler.addSystem("move", TickScheduler.EVERY_TICK, 0, BUDGET_NANOS, null, everyTick);
+        // first run is shifted to the fifth tick
+        this.scheduler.addSystem("fire", 20, 50, BUDGET_NANOS, null, fire);
+
+        for (int i = 0; i < 100; i++) {
+            this.scheduler.runTick(TICK);
+        }
+        assertEquals(100, everyTick.runs);
+        assertEquals(TICK, everyTick.lastDelta);
+        // 1 second of game time at 20 Hz
+        assertEquals(20, fire.runs);
+        assertEquals(50, fire.lastDelta);
+    }
+
+    @Test
+    public void lowRateSystemsShouldBeSpreadAcrossTicksTest() {
+        CountingSystem first = new CountingSystem();
+        CountingSystem second = new CountingSystem();
+        CountingSystem third = new CountingSystem();
+        int firstId = this.scheduler.addSystem("first", 10, 0, BUDGET_NANOS, null, first);
+        int secondId = this.scheduler.addSystem("second", 10, 0, BUDGET_NANOS, null, second);
+        this.scheduler.addSystem("third", 10, 0, BUDGET_NANOS, null, third);
+
+        int before = 0;
+        for (int i = 0; i < 95; i++) {
+            this.scheduler.runTick(TICK);
+            int now = first.runs + second.runs + third.runs;
+            assertTrue(now - before <= 1);
+            before = now;
+        }
+        // all are due in the same ticks, but each still runs at its rate
+        assertEquals(10, first.runs);
+        assertEquals(10, second.runs);
+        assertEquals(10, third.runs);
+        assertEquals(0, this.scheduler.getDeferredCount(firstId));
+        assertEquals(10, this.scheduler.getDeferredCount(secondId));
+    }
+
+    @Test
+    public void onDemandSystemShouldRunInTickItIsRequestedInTest() {
+        CountingSystem logic = new CountingSystem();
+        final int[] logicId = new int[1];
+        this.scheduler.addSystem("move", TickScheduler.EVERY_TICK, 0, BUDGET_NANOS, null, new TickSystem() {
+            @Override
+            public void update(long delta) {
+                if (scheduler.getTickCount() == 3) {
+                    scheduler.request(logicId[0]);
+                }
+            }
+        });
+        logicId[0] = this.scheduler.addOnDemandSystem("logic", BUDGET_NANOS, null, logic);
+
+        this.scheduler.runTick(TICK);
+        this.scheduler.runTick(TICK);
+        assertEquals(0, logic.runs);
+        this.scheduler.runTick(TICK);
+        assertEquals(1, logic.runs);
+        this.scheduler.runTick(TICK);
+        assertEquals(1, logic.runs);
+    }
+
+    @Test
+    public void idleSystemShouldWaitForSpareTimeTest() {
+        TickScheduler busy = new TickScheduler(0);
+        CountingSystem save = new CountingSystem();
+        int saveId = busy.addIdleSystem("autosave", 100, 1, null, save);
+
+        for (int i = 0; i < 19; i++) {
+            busy.runTick(TICK);
+            busy.runIdle();
+        }
+        assertEquals(0, save.runs);
+        assertTrue(busy.getDeferredCount(saveId) > 0);
+        // late by a whole period, it runs in any case
+        busy.runTick(TICK);
+        busy.runIdle();
+        assertEquals(1, save.runs);
+
+        CountingSystem idleSave = new CountingSystem();
+        this.scheduler.addIdleSystem("autosave", 100, 1, null, idleSave);
+        for (int i = 0; i < 10; i++) {
+            this.scheduler.runTick(TICK);
+            this.scheduler.runIdle();
+        }
+        assertEquals(1, idleSave.runs);
+    }
+
+    @Test
+    public void overrunsShouldBeCountedPerSystemTest() {
+        int slowId = this.scheduler.addSystem("slow", TickScheduler.EVERY_TICK, 0, 1, null, new TickSystem() {
+            @Override
+            public void update(long delta) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        int fastId = this.scheduler.addSystem("fast", TickScheduler.EVERY_TICK, 0, BUDGET_NANOS, null,
+                new CountingSystem());
+
+        for (int i = 0; i < 3; i++) {
+            this.scheduler.runTick(TICK);
+        }
+        assertEquals(3, this.scheduler.getOverrunCount(slowId));
+        assertEquals(0, this.scheduler.getOverrunCount(fastId));
+        assertEquals(Long.valueOf(3), this.scheduler.getOverrunCounts().get("slow"));
+        assertFalse(this.scheduler.getMaxMicros().get("slow") < 1000);
+
+        this.scheduler.reset();
+        assertEquals(0, this.scheduler.getRunCount(slowId));
+    }
+
+    @Test
+    public void newSchedulerShouldReplaceRegisteredMBeanTest() throws Exception {
+        TickScheduler previous = new TickScheduler(BUDGET_NANOS);
+        previous.register();
+        previous.runTick(TICK);
+        this.scheduler.register();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(TickScheduler.OBJECT_NAME);
+        assertEquals(0L, server.getAttribute(name, "TickCount"));
+        this.scheduler.runTick(TICK);
+        this.scheduler.runTick(TICK);
+        assertEquals(2L, server.getAttribute(name, "TickCount"));
+        server.unregisterMBean(name);
+    }
+
+    private static class CountingSystem implements TickSystem {
+        private int runs;
+        private long lastDelta;
+
+        @Override
+        public void update(long delta) {
+            this.runs++;
+            this.lastDelta = delta;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.goodgamestudios.exercise.oche;
+
+import com.goodgamestudios.exercise.oche.entities.AlienEntity;
+import com.goodgamestudios.exercise.oche.entities.AlienShotEntity;
+import com.goodgamestudios.exercise.oche.entities.BossEntity;
+import com.goodgamestudios.exercise.oche.entities.Entity;
+import com.goodgamestudios.exercise.oche.entities.ShipEntity;
+import com.goodgamestudios.exercise.oche.entities.ShotEntity;
+import com.goodgamestudios.exercise.oche.logic.EntityLogicMediator;
+import com.goodgamestudios.exercise.oche.logic.Viewport;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * This is unit test for Viewport, entities off the screen should not be drawn and shots should be disposed
+ * once they are farther off the screen than the margin, after their hits of the tick
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ViewportTest {
+    //Shot flies 30 px in this tick
+    private static final long TICK = 100;
+    private static final long LONG_TICK = 600;
+
+    @Mock
+    private Game game;
+
+    private EntityLogicMediator entityMediator;
+
+    @Before
+    public void setUp() {
+        this.entityMediator = EntityLogicMediator.getInstance();
+        when(game.getEntityMediator()).thenReturn(this.entityMediator);
+    }
+
+    @Test
+    public void shotsShouldBeDisposedBeyondMarginTest() {
+        // shot sprites are 23 px high
+        ShotEntity keptShot = new ShotEntity(game, 300, -90);
+        ShotEntity leavingShot = new ShotEntity(game, 400, -100);
+        AlienShotEntity keptAlienShot = new AlienShotEntity(game, 300, 660);
+        AlienShotEntity leavingAlienShot = new AlienShotEntity(game, 400, 680);
+        restore(keptShot, leavingShot, keptAlienShot, leavingAlienShot);
+
+        this.entityMediator.moveAllEntities(TICK);
+        this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        List<Entity> entities = this.entityMediator.getAllEntities();
+        assertTrue(entities.contains(keptShot));
+        assertFalse(entities.contains(leavingShot));
+        assertTrue(entities.contains(keptAlienShot));
+        assertFalse(entities.contains(leavingAlienShot));
+        // the ship leaves nothing behind, it never despawns
+        ShipEntity ship = new ShipEntity(game, -500, 300);
+        assertTrue(!ship.isDespawnedOffScreen() && !Viewport.isDespawned(ship));
+    }
+
+    @Test
+    public void shotLeavingScreenShouldHitAlienOnItsWayTest() {
+        AlienEntity alien = new AlienEntity(game, 300, 0);
+        alien.setPaused(true);
+        // 180 px up in the long tick, the shot ends beyond the margin
+        ShotEntity shot = new ShotEntity(game, 315, 50);
+        restore(alien, shot);
+
+        this.entityMediator.moveAllEntities(LONG_TICK);
+        assertTrue(Viewport.isDespawned(shot));
+        this.entityMediator.calculateCollisionsAndRemoveCollidedEntities();
+
+        verify(game, times(1)).notifyAlienKilled();
+        assertFalse(this.entityMediator.getAllEntities().contains(shot));
+    }
+
+    @Test
+    public void entitiesOffScreenShouldNotBeDrawnTest() {
+        ShotEntity visibleShot = new ShotEntity(game, 300, -20);
+        ShotEntity hiddenShot = new ShotEntity(game, 400, -40);
+        AlienShotEntity hiddenAlienShot = new AlienShotEntity(game, 500, 600);
+        // the boss core is off the screen, but its right turrets are on it
+        BossEntity boss = new BossEntity(game, -100, 100);
+        restore(visibleShot, hiddenShot, hiddenAlienShot, boss);
+
+        assertTrue(Viewport.isVisible(visibleShot));
+        assertFalse(Viewport.isVisible(hiddenShot));
+        assertFalse(Viewport.isVisible(hiddenAlienShot));
+        assertTrue(Viewport.isVisible(boss));
+        assertFalse(Viewport.isVisible(new BossEntity(game, -200, 100)));
+
+        BufferedImage screen = new BufferedImage(Viewport.WIDTH, Viewport.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = screen.createGraphics();
+        this.entityMediator.drawAllEntities(graphics);
+        graphics.dispose();
+        // the visible part of the shot is drawn
+        boolean shotDrawn = false;
+        for (int x = 300; x < 312; x++) {
+            shotDrawn |= (screen.getRGB(x, 0) >>> 24) != 0;
+        }
+        assertTrue(shotDrawn);
+    }
+
+    private void restore(Entity... entities) {
+        List<Entity> restored = new ArrayList<Entity>();
+        restored.add(new ShipEntity(game, 370, 550));
+        for (Entity entity : entities) {
+            restored.add(entity);
+        }
+        this.entityMediator.restoreEntities(game, restored, 1);
+    }
+}